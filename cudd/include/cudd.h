@@ -0,0 +1 @@
+../cudd/cudd.h
\ No newline at end of file
@@ -0,0 +1 @@
+../epd/epd.h
\ No newline at end of file
@@ -0,0 +1 @@
+../mtr/mtr.h
\ No newline at end of file
@@ -0,0 +1,30 @@
+// Walk with a random bit that is irrelevant to the properties, so that bisimulation
+// minimisation merges states with different values of the bit. The walk is long
+// enough (about 10k states) for the multi-threaded parts of the minimisation.
+
+dtmc
+
+const int N = 5000;
+const int M = 10;
+
+module walk
+
+	x : [0..N];
+
+	[step] x<N -> 0.7:(x'=x+1) + 0.3:(x'=max(x-2,0));
+	[step] x=N -> 0.1:(x'=0) + 0.9:true;
+
+endmodule
+
+module counter
+
+	c : [0..1];
+
+	[step] true -> 0.5:(c'=0) + 0.5:(c'=1);
+
+endmodule
+
+// Reward that is the same in all states, so preserved by bisimulation minimisation
+rewards "steps"
+	true : 1;
+endrewards
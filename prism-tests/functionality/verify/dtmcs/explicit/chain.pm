@@ -0,0 +1,21 @@
+// Chain of N two-state SCCs (40k states), each left with probability 0.5 per visit of its first state.
+// Deep enough to catch recursion in SCC computation (e.g. with -threads).
+
+dtmc
+
+const int N = 20000;
+
+module chain
+
+	i : [0..N];
+	b : [0..1];
+
+	[] i<N & b=0 -> 0.5:(b'=1) + 0.5:(i'=i+1);
+	[] i<N & b=1 -> (b'=0);
+	[] i=N -> true;
+
+endmodule
+
+rewards "steps"
+	true : 1;
+endrewards
@@ -0,0 +1,14 @@
+// Deadlock states (s=2, s=3) are fixed with self-loops during explicit model construction.
+// The two commands for s=1 are combined into a single distribution.
+
+dtmc
+
+module m
+
+	s : [0..3];
+
+	[] s=0 -> 0.5:(s'=1) + 0.5:(s'=2);
+	[] s=1 -> 0.5:(s'=0) + 0.5:(s'=1);
+	[] s=1 -> (s'=3);
+
+endmodule
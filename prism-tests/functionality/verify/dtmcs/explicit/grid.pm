@@ -0,0 +1,31 @@
+// Random walk on an NxN grid, absorbed at the top or right edge.
+// Large enough (about 40k states) to exercise the multi-threaded parts of
+// the explicit engine. Each row is an SCC and rows form a chain.
+
+dtmc
+
+const int N = 200;
+
+module grid
+
+	x : [0..N];
+	y : [0..N];
+
+	[] x<N & y<N -> 0.45:(x'=x+1) + 0.45:(y'=y+1) + 0.1:(x'=max(x-1,0));
+	[] x=N & y>0 -> (y'=0);
+	[] y=N & x>0 -> (x'=0);
+	[] x=N & y=0 -> true;
+	[] x=0 & y=N -> true;
+
+endmodule
+
+label "right" = x=N;
+label "top" = y=N;
+
+rewards "steps"
+	x<N & y<N : 1;
+endrewards
+
+rewards "dist"
+	x<N & y<N : x/N;
+endrewards
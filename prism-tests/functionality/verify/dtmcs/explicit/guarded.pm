@@ -0,0 +1,22 @@
+// Labels in which a function that can fail (mod with divisor y) is only
+// evaluated in the states selected by an if-then-else or by &, | or =>
+
+dtmc
+
+module m
+
+	x : [0..3];
+	y : [0..2];
+
+	[] x<3 -> (x'=x+1);
+	[] x=3 & y<2 -> (x'=0) & (y'=y+1);
+	[] x=3 & y=2 -> true;
+
+endmodule
+
+label "ite" = y=0 ? false : mod(x,y)=0;
+label "ite_int" = (y=0 ? x : mod(x,y)) = 1;
+label "and" = y>0 & mod(x,y)=0;
+label "or" = y=0 | mod(x,y)=1;
+label "implies" = y>0 => mod(x,y)=0;
+label "nested" = x>0 & (y=0 ? true : mod(x,y)=0);
@@ -0,0 +1,37 @@
+// Commands with guards of various forms (var=value conjuncts, booleans,
+// disjunctions, inequalities), to check that indexing commands by their guards
+// during explicit model construction finds exactly the enabled commands
+
+dtmc
+
+module phases
+
+	ph : [0..5];
+	c : [0..3];
+	f : bool;
+
+	[] ph=0 & c<3 -> 0.5:(c'=c+1) + 0.5:(ph'=1);
+	[] ph=0 & c=3 -> (ph'=2) & (c'=0);
+	[] c=1 & ph=1 & !f -> 0.3:(f'=true) + 0.7:(ph'=2);
+	[] ph=1 & f -> (ph'=3);
+	[] ph=1 & c!=1 -> 0.2:(ph'=0) + 0.8:(ph'=4);
+	[] (ph=2 | ph=3) & c<2 -> 0.6:(c'=c+1) + 0.4:(ph'=5);
+	[] (ph=2 | ph=3) & c>=2 -> (ph'=4);
+	[] ph>=4 & !f -> 0.1:(ph'=0) & (c'=0) + 0.9:(f'=true);
+	[] ph>=4 & f & ph=4 -> true;
+	[] 5=ph & f -> (ph'=4);
+	[] ph=1 & c=1 & f=false & false -> (ph'=5);
+
+endmodule
+
+module counter
+
+	n : [0..4];
+
+	[] n<4 & (ph=2 | f) -> (n'=n+1);
+	[] n=4 -> 0.5:(n'=0) + 0.5:true;
+	[] n<4 & ph!=2 & !f -> true;
+
+endmodule
+
+label "end" = ph=4 & f;
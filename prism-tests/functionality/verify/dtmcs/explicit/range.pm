@@ -0,0 +1,13 @@
+// Update that takes x outside its declared range. The value 3 still fits in the
+// bit field used for x when states are packed, but is rejected during construction.
+
+dtmc
+
+module m
+
+	x : [0..2];
+
+	[] x<2 -> 0.5:(x'=x+1) + 0.5:(x'=0);
+	[] x=2 -> (x'=x+1);
+
+endmodule
@@ -0,0 +1,23 @@
+// Two states between which the model moves back and forth, left with a small
+// probability d on each visit to s=0. Value iteration converges slowly here
+// and stops with results that are about 0.1% too small.
+
+dtmc
+
+const double d = 1e-3;
+
+module slow
+
+	s : [0..3];
+
+	[] s=0 -> 1-d:(s'=1) + d/2:(s'=2) + d/2:(s'=3);
+	[] s=1 -> (s'=0);
+	[] s>=2 -> true;
+
+endmodule
+
+label "goal" = s=2;
+
+rewards "steps"
+	s<2 : 1;
+endrewards
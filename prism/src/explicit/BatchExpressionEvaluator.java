@@ -0,0 +1,1002 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import parser.State;
+import parser.Values;
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionConstant;
+import parser.ast.ExpressionFunc;
+import parser.ast.ExpressionITE;
+import parser.ast.ExpressionLabel;
+import parser.ast.ExpressionLiteral;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ExpressionVar;
+import parser.type.Type;
+import parser.type.TypeBool;
+import parser.type.TypeDouble;
+import parser.type.TypeInt;
+import prism.PrismException;
+import prism.PrismLangException;
+
+/**
+ * Evaluation of a (non-probabilistic) expression over state variables for all states of a model at once.
+ * <br><br>
+ * Rather than evaluating the expression state by state, as in {@link Expression#evaluate(Values, State)},
+ * the expression is translated to a tree of operators, each of which works on a block of states at a time,
+ * reading variable values a column at a time (directly from the packed representation if the states are
+ * stored in a {@link PackedStateList}) and using primitive arrays throughout.
+ * The range of states is split across several threads if requested.
+ * <br><br>
+ * Expressions that can be evaluated in this way are those for which {@link #isStateExpression(Expression)}
+ * holds and whose type is Boolean, integer or double. The sets of states satisfying any labels they contain
+ * must first be provided with {@link #addLabel(String, BitSet)}. Operators for which the interpreter may report errors
+ * (e.g. integer division, logarithms) are evaluated state by state, with the same results as
+ * {@link Expression#evaluate(Values, State)}. Since the block operators evaluate all their operands for all states,
+ * so are if-then-else and the operators {@code &}, {@code |} and {@code =>} if any of their conditionally
+ * evaluated operands (the branches, or the right-hand operand) contains such an operator: the interpreter then
+ * only evaluates it in the states where it is needed, e.g. for {@code y=0 ? false : mod(x,y)=0}.
+ */
+public class BatchExpressionEvaluator
+{
+	/** Number of states processed at a time by each operator */
+	private static final int BLOCK_SIZE = 1024;
+
+	// Kinds of value computed by an operator
+	private static final int INT = 0;
+	private static final int DOUBLE = 1;
+	private static final int BOOL = 2;
+
+	/** States of the model */
+	private List<State> statesList;
+	/** Packed version of the states list, if available */
+	private PackedStateList packedStatesList;
+	/** Values of constants */
+	private Values constantValues;
+	/** Number of threads to use */
+	private int numThreads;
+	/** Sets of states satisfying labels, by label name */
+	private Map<String, BitSet> labels = new HashMap<>();
+
+	/**
+	 * Create an evaluator for the states in {@code statesList}.
+	 * @param statesList The list of states
+	 * @param constantValues Values for any constants appearing in expressions (may be null)
+	 * @param numThreads The number of threads to use
+	 */
+	public BatchExpressionEvaluator(List<State> statesList, Values constantValues, int numThreads)
+	{
+		this.statesList = statesList;
+		this.packedStatesList = statesList instanceof PackedStateList ? (PackedStateList) statesList : null;
+		this.constantValues = constantValues;
+		this.numThreads = Math.max(numThreads, 1);
+	}
+
+	/**
+	 * Provide the set of states satisfying label {@code name},
+	 * for the evaluation of expressions that refer to it.
+	 */
+	public void addLabel(String name, BitSet states)
+	{
+		labels.put(name, states);
+	}
+
+	/**
+	 * Check whether an expression can be evaluated by this class, i.e., whether it is built only
+	 * from literals, constants, variables, labels, unary/binary operators, if-then-else and functions,
+	 * and has Boolean, integer or double type.
+	 */
+	public static boolean isStateExpression(Expression expr)
+	{
+		return isStateExpression(expr, true);
+	}
+
+	/**
+	 * Recursive part of {@link #isStateExpression(Expression)}. Labels are only allowed if {@code allowLabels}
+	 * is true, i.e., not within sub-expressions that are evaluated state by state by the interpreter.
+	 */
+	private static boolean isStateExpression(Expression expr, boolean allowLabels)
+	{
+		Type type = expr.getType();
+		if (!(type instanceof TypeBool || type instanceof TypeInt || type instanceof TypeDouble)) {
+			return false;
+		}
+		if (expr instanceof ExpressionLiteral || expr instanceof ExpressionConstant) {
+			return true;
+		}
+		if (expr instanceof ExpressionVar) {
+			return ((ExpressionVar) expr).getIndex() >= 0;
+		}
+		if (expr instanceof ExpressionLabel) {
+			return allowLabels;
+		}
+		if (expr instanceof ExpressionUnaryOp) {
+			return isStateExpression(((ExpressionUnaryOp) expr).getOperand(), allowLabels);
+		}
+		if (expr instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp b = (ExpressionBinaryOp) expr;
+			// Interpreted as a whole if the right-hand operand is evaluated conditionally and may fail (see compile())
+			boolean allow = allowLabels && !(isShortCircuit(b.getOperator()) && mayFail(b.getOperand2()));
+			return isStateExpression(b.getOperand1(), allow) && isStateExpression(b.getOperand2(), allow);
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) expr;
+			// Interpreted as a whole if a branch may fail (see compile())
+			boolean allow = allowLabels && !mayFail(ite.getOperand2()) && !mayFail(ite.getOperand3());
+			return isStateExpression(ite.getOperand1(), allow) && isStateExpression(ite.getOperand2(), allow) && isStateExpression(ite.getOperand3(), allow);
+		}
+		if (expr instanceof ExpressionFunc) {
+			// Only min/max are not interpreted (see compile())
+			ExpressionFunc func = (ExpressionFunc) expr;
+			boolean allow = allowLabels && (func.getNameCode() == ExpressionFunc.MIN || func.getNameCode() == ExpressionFunc.MAX);
+			for (int i = 0; i < func.getNumOperands(); i++) {
+				if (!isStateExpression(func.getOperand(i), allow)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether a binary operator only evaluates its second operand for some values of the first
+	 * (as done by the interpreter), i.e., whether it is {@code &}, {@code |} or {@code =>}.
+	 */
+	private static boolean isShortCircuit(int op)
+	{
+		return op == ExpressionBinaryOp.AND || op == ExpressionBinaryOp.OR || op == ExpressionBinaryOp.IMPLIES;
+	}
+
+	/**
+	 * Check whether an expression contains an operator for which the interpreter may report errors,
+	 * i.e., a function other than min/max (these are always evaluated state by state, see compile()).
+	 */
+	private static boolean mayFail(Expression expr)
+	{
+		if (expr instanceof ExpressionUnaryOp) {
+			return mayFail(((ExpressionUnaryOp) expr).getOperand());
+		}
+		if (expr instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp b = (ExpressionBinaryOp) expr;
+			return mayFail(b.getOperand1()) || mayFail(b.getOperand2());
+		}
+		if (expr instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) expr;
+			return mayFail(ite.getOperand1()) || mayFail(ite.getOperand2()) || mayFail(ite.getOperand3());
+		}
+		if (expr instanceof ExpressionFunc) {
+			ExpressionFunc func = (ExpressionFunc) expr;
+			if (func.getNameCode() != ExpressionFunc.MIN && func.getNameCode() != ExpressionFunc.MAX) {
+				return true;
+			}
+			for (int i = 0; i < func.getNumOperands(); i++) {
+				if (mayFail(func.getOperand(i))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Evaluate a Boolean-valued expression in all states, returning the set of states in which it is true.
+	 */
+	public BitSet evaluateBoolean(Expression expr) throws PrismException
+	{
+		return evaluateBoolean(expr, null);
+	}
+
+	/**
+	 * Evaluate a Boolean-valued expression, returning the set of states in which it is true.
+	 * If {@code statesOfInterest} is non-null, blocks of states containing none of these states
+	 * are skipped; the result for states not of interest should then be ignored.
+	 */
+	public BitSet evaluateBoolean(Expression expr, BitSet statesOfInterest) throws PrismException
+	{
+		int numStates = statesList.size();
+		long words[] = new long[(numStates + 63) / 64];
+		// Chunks are multiples of 64 states so that each thread writes separate words
+		ParallelRange.forEachChunk(numThreads, numStates, getChunkSize(numStates), (lo, hi) -> {
+			Node node = compile(expr);
+			if (node.kind != BOOL) {
+				throw new PrismException("Cannot evaluate non-Boolean expression \"" + expr + "\" as a Boolean");
+			}
+			for (int from = lo; from < hi; from += BLOCK_SIZE) {
+				int n = Math.min(BLOCK_SIZE, hi - from);
+				if (!containsStateOfInterest(statesOfInterest, from, n)) {
+					continue;
+				}
+				boolean res[] = node.evalBool(from, n);
+				for (int k = 0; k < n; k++) {
+					if (res[k]) {
+						int i = from + k;
+						words[i >>> 6] |= 1L << i;
+					}
+				}
+			}
+		});
+		return BitSet.valueOf(words);
+	}
+
+	/**
+	 * Evaluate an integer-valued (or Boolean-valued, as 0/1) expression in all states.
+	 */
+	public int[] evaluateInt(Expression expr) throws PrismException
+	{
+		return evaluateInt(expr, null);
+	}
+
+	/**
+	 * Evaluate an integer-valued (or Boolean-valued, as 0/1) expression.
+	 * If {@code statesOfInterest} is non-null, blocks of states containing none of these states
+	 * are skipped; the result for states not of interest should then be ignored.
+	 */
+	public int[] evaluateInt(Expression expr, BitSet statesOfInterest) throws PrismException
+	{
+		int numStates = statesList.size();
+		int values[] = new int[numStates];
+		ParallelRange.forEachChunk(numThreads, numStates, getChunkSize(numStates), (lo, hi) -> {
+			Node node = compile(expr);
+			if (node.kind == DOUBLE) {
+				throw new PrismException("Cannot evaluate double-valued expression \"" + expr + "\" as an integer");
+			}
+			for (int from = lo; from < hi; from += BLOCK_SIZE) {
+				int n = Math.min(BLOCK_SIZE, hi - from);
+				if (containsStateOfInterest(statesOfInterest, from, n)) {
+					System.arraycopy(node.evalInt(from, n), 0, values, from, n);
+				}
+			}
+		});
+		return values;
+	}
+
+	/**
+	 * Evaluate a numerical (or Boolean-valued, as 0/1) expression in all states, as a double.
+	 */
+	public double[] evaluateDouble(Expression expr) throws PrismException
+	{
+		return evaluateDouble(expr, null);
+	}
+
+	/**
+	 * Evaluate a numerical (or Boolean-valued, as 0/1) expression, as a double.
+	 * If {@code statesOfInterest} is non-null, blocks of states containing none of these states
+	 * are skipped; the result for states not of interest should then be ignored.
+	 */
+	public double[] evaluateDouble(Expression expr, BitSet statesOfInterest) throws PrismException
+	{
+		int numStates = statesList.size();
+		double values[] = new double[numStates];
+		ParallelRange.forEachChunk(numThreads, numStates, getChunkSize(numStates), (lo, hi) -> {
+			Node node = compile(expr);
+			for (int from = lo; from < hi; from += BLOCK_SIZE) {
+				int n = Math.min(BLOCK_SIZE, hi - from);
+				if (containsStateOfInterest(statesOfInterest, from, n)) {
+					System.arraycopy(node.evalDouble(from, n), 0, values, from, n);
+				}
+			}
+		});
+		return values;
+	}
+
+	/**
+	 * Check whether the block of {@code n} states starting at {@code from} contains a state
+	 * of {@code statesOfInterest} (always true if {@code statesOfInterest} is null).
+	 */
+	private static boolean containsStateOfInterest(BitSet statesOfInterest, int from, int n)
+	{
+		if (statesOfInterest == null) {
+			return true;
+		}
+		int s = statesOfInterest.nextSetBit(from);
+		return s >= 0 && s < from + n;
+	}
+
+	/**
+	 * Get the number of states per chunk when splitting {@code numStates} states across threads:
+	 * one chunk per thread, rounded up to a multiple of 64 (and of no fewer than {@code BLOCK_SIZE} states).
+	 */
+	private int getChunkSize(int numStates)
+	{
+		int chunkSize = (numStates + numThreads - 1) / numThreads;
+		chunkSize = (chunkSize + 63) & ~63;
+		return Math.max(chunkSize, BLOCK_SIZE);
+	}
+
+	/**
+	 * Read the values of variable {@code var} in states {@code from}, ..., {@code from + n - 1}
+	 * as integers (0/1 for Booleans).
+	 */
+	private void readColumn(int var, int from, int n, int values[]) throws PrismLangException
+	{
+		if (packedStatesList != null) {
+			packedStatesList.getValues(var, from, n, values);
+			return;
+		}
+		for (int k = 0; k < n; k++) {
+			Object o = statesList.get(from + k).varValues[var];
+			if (o instanceof Integer) {
+				values[k] = ((Integer) o).intValue();
+			} else if (o instanceof Boolean) {
+				values[k] = ((Boolean) o).booleanValue() ? 1 : 0;
+			} else {
+				throw new PrismLangException("Cannot evaluate variable with value \"" + o + "\" as an integer");
+			}
+		}
+	}
+
+	// Translation to operator trees
+
+	/**
+	 * Translate an expression to a tree of block operators.
+	 * Each thread uses its own tree, since operators store their results internally.
+	 */
+	private Node compile(Expression e) throws PrismLangException
+	{
+		Type type = e.getType();
+		int kind = type instanceof TypeBool ? BOOL : type instanceof TypeInt ? INT : DOUBLE;
+		// Constant sub-expressions are evaluated once
+		if (e.isConstant()) {
+			switch (kind) {
+			case INT:
+				return new ConstNode(INT, e.evaluateInt(constantValues), 0.0, false);
+			case DOUBLE:
+				return new ConstNode(DOUBLE, 0, e.evaluateDouble(constantValues), false);
+			default:
+				return new ConstNode(BOOL, 0, 0.0, e.evaluateBoolean(constantValues));
+			}
+		}
+		if (e instanceof ExpressionVar && kind != DOUBLE) {
+			return new VarNode(kind, ((ExpressionVar) e).getIndex());
+		}
+		if (e instanceof ExpressionLabel) {
+			BitSet states = labels.get(((ExpressionLabel) e).getName());
+			if (states == null) {
+				throw new PrismLangException("Unknown label \"" + ((ExpressionLabel) e).getName() + "\"", e);
+			}
+			return new LabelNode(states);
+		}
+		if (e instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp u = (ExpressionUnaryOp) e;
+			switch (u.getOperator()) {
+			case ExpressionUnaryOp.PARENTH:
+				return compile(u.getOperand());
+			case ExpressionUnaryOp.NOT:
+				return new ArithNode(BOOL, ArithNode.NOT, compileBool(u.getOperand()));
+			case ExpressionUnaryOp.MINUS:
+				return new ArithNode(kind, ArithNode.NEG, kind == INT ? compileInt(u.getOperand()) : compile(u.getOperand()));
+			}
+		}
+		if (e instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp b = (ExpressionBinaryOp) e;
+			int op = b.getOperator();
+			boolean bothInt = b.getOperand1().getType() instanceof TypeInt && b.getOperand2().getType() instanceof TypeInt;
+			switch (op) {
+			case ExpressionBinaryOp.IMPLIES:
+			case ExpressionBinaryOp.IFF:
+			case ExpressionBinaryOp.OR:
+			case ExpressionBinaryOp.AND:
+				// The right-hand operand would be evaluated in all states, so leave it to the interpreter if this may fail
+				if (isShortCircuit(op) && mayFail(b.getOperand2())) {
+					return new InterpretedNode(BOOL, e);
+				}
+				return new LogicalNode(op, compileBool(b.getOperand1()), compileBool(b.getOperand2()));
+			case ExpressionBinaryOp.EQ:
+			case ExpressionBinaryOp.NE:
+			case ExpressionBinaryOp.GT:
+			case ExpressionBinaryOp.GE:
+			case ExpressionBinaryOp.LT:
+			case ExpressionBinaryOp.LE:
+				if (bothInt) {
+					return new RelOpNode(op, true, compileInt(b.getOperand1()), compileInt(b.getOperand2()));
+				} else {
+					return new RelOpNode(op, false, compile(b.getOperand1()), compile(b.getOperand2()));
+				}
+			case ExpressionBinaryOp.PLUS:
+			case ExpressionBinaryOp.MINUS:
+			case ExpressionBinaryOp.TIMES:
+			case ExpressionBinaryOp.DIVIDE:
+				if (bothInt && op != ExpressionBinaryOp.DIVIDE) {
+					return new ArithNode(INT, op, compileInt(b.getOperand1()), compileInt(b.getOperand2()));
+				} else {
+					return new ArithNode(DOUBLE, op, compile(b.getOperand1()), compile(b.getOperand2()));
+				}
+			}
+		}
+		if (e instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) e;
+			// Both branches would be evaluated in all states, so leave them to the interpreter if this may fail
+			if (mayFail(ite.getOperand2()) || mayFail(ite.getOperand3())) {
+				return new InterpretedNode(kind, e);
+			}
+			Node cond = compileBool(ite.getOperand1());
+			Node then = compile(ite.getOperand2());
+			Node other = compile(ite.getOperand3());
+			if (kind == BOOL && (then.kind != BOOL || other.kind != BOOL) || kind == INT && (then.kind == DOUBLE || other.kind == DOUBLE)) {
+				return new InterpretedNode(kind, e);
+			}
+			return new ITENode(kind, cond, then, other);
+		}
+		if (e instanceof ExpressionFunc) {
+			ExpressionFunc func = (ExpressionFunc) e;
+			switch (func.getNameCode()) {
+			case ExpressionFunc.MIN:
+			case ExpressionFunc.MAX:
+				Node operands[] = new Node[func.getNumOperands()];
+				for (int i = 0; i < operands.length; i++) {
+					operands[i] = kind == INT ? compileInt(func.getOperand(i)) : compile(func.getOperand(i));
+				}
+				return new ArithNode(kind, func.getNameCode() == ExpressionFunc.MIN ? ArithNode.MIN : ArithNode.MAX, operands);
+			}
+		}
+		// Otherwise, evaluate state by state
+		return new InterpretedNode(kind, e);
+	}
+
+	/**
+	 * Translate an expression whose value is needed as an integer.
+	 */
+	private Node compileInt(Expression e) throws PrismLangException
+	{
+		Node node = compile(e);
+		return node.kind == DOUBLE ? new InterpretedNode(INT, e) : node;
+	}
+
+	/**
+	 * Translate an expression whose value is needed as a Boolean.
+	 */
+	private Node compileBool(Expression e) throws PrismLangException
+	{
+		Node node = compile(e);
+		return node.kind != BOOL ? new InterpretedNode(BOOL, e) : node;
+	}
+
+	// Block operators
+
+	/**
+	 * Operator computing the value of a sub-expression for a block of consecutive states.
+	 * Results are written to an array owned by the operator (and overwritten by the next call);
+	 * only the first {@code n} elements are meaningful.
+	 */
+	private abstract class Node
+	{
+		/** Kind of value computed (INT, DOUBLE or BOOL) */
+		final int kind;
+		int intBuf[];
+		double doubleBuf[];
+		boolean boolBuf[];
+
+		Node(int kind)
+		{
+			this.kind = kind;
+		}
+
+		int[] intBuf()
+		{
+			return intBuf == null ? intBuf = new int[BLOCK_SIZE] : intBuf;
+		}
+
+		double[] doubleBuf()
+		{
+			return doubleBuf == null ? doubleBuf = new double[BLOCK_SIZE] : doubleBuf;
+		}
+
+		boolean[] boolBuf()
+		{
+			return boolBuf == null ? boolBuf = new boolean[BLOCK_SIZE] : boolBuf;
+		}
+
+		/** Evaluate as integers (for INT or BOOL operators) */
+		int[] evalInt(int from, int n) throws PrismLangException
+		{
+			boolean b[] = evalBool(from, n);
+			int res[] = intBuf();
+			for (int k = 0; k < n; k++) {
+				res[k] = b[k] ? 1 : 0;
+			}
+			return res;
+		}
+
+		/** Evaluate as doubles */
+		double[] evalDouble(int from, int n) throws PrismLangException
+		{
+			double res[] = doubleBuf();
+			if (kind == INT) {
+				int a[] = evalInt(from, n);
+				for (int k = 0; k < n; k++) {
+					res[k] = a[k];
+				}
+			} else {
+				boolean b[] = evalBool(from, n);
+				for (int k = 0; k < n; k++) {
+					res[k] = b[k] ? 1.0 : 0.0;
+				}
+			}
+			return res;
+		}
+
+		/** Evaluate as Booleans (for BOOL operators only) */
+		boolean[] evalBool(int from, int n) throws PrismLangException
+		{
+			throw new IllegalStateException("Operator is not Boolean-valued");
+		}
+	}
+
+	/**
+	 * Constant value.
+	 */
+	private class ConstNode extends Node
+	{
+		ConstNode(int kind, int i, double d, boolean b)
+		{
+			super(kind);
+			Arrays.fill(intBuf(), kind == BOOL ? (b ? 1 : 0) : i);
+			Arrays.fill(doubleBuf(), kind == DOUBLE ? d : kind == BOOL ? (b ? 1.0 : 0.0) : i);
+			Arrays.fill(boolBuf(), b);
+		}
+
+		@Override
+		int[] evalInt(int from, int n)
+		{
+			return intBuf;
+		}
+
+		@Override
+		double[] evalDouble(int from, int n)
+		{
+			return doubleBuf;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n)
+		{
+			return boolBuf;
+		}
+	}
+
+	/**
+	 * Value of an integer or Boolean variable.
+	 */
+	private class VarNode extends Node
+	{
+		final int var;
+
+		VarNode(int kind, int var)
+		{
+			super(kind);
+			this.var = var;
+		}
+
+		@Override
+		int[] evalInt(int from, int n) throws PrismLangException
+		{
+			int res[] = intBuf();
+			readColumn(var, from, n, res);
+			return res;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n) throws PrismLangException
+		{
+			int a[] = evalInt(from, n);
+			boolean res[] = boolBuf();
+			for (int k = 0; k < n; k++) {
+				res[k] = a[k] != 0;
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * Value of a label, i.e., membership of a set of states.
+	 */
+	private class LabelNode extends Node
+	{
+		final BitSet states;
+
+		LabelNode(BitSet states)
+		{
+			super(BOOL);
+			this.states = states;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n)
+		{
+			boolean res[] = boolBuf();
+			for (int k = 0; k < n; k++) {
+				res[k] = states.get(from + k);
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * Boolean connectives.
+	 */
+	private class LogicalNode extends Node
+	{
+		final int op;
+		final Node op1, op2;
+
+		LogicalNode(int op, Node op1, Node op2)
+		{
+			super(BOOL);
+			this.op = op;
+			this.op1 = op1;
+			this.op2 = op2;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n) throws PrismLangException
+		{
+			boolean a[] = op1.evalBool(from, n);
+			boolean b[] = op2.evalBool(from, n);
+			boolean res[] = boolBuf();
+			switch (op) {
+			case ExpressionBinaryOp.IMPLIES:
+				for (int k = 0; k < n; k++)
+					res[k] = !a[k] | b[k];
+				break;
+			case ExpressionBinaryOp.IFF:
+				for (int k = 0; k < n; k++)
+					res[k] = a[k] == b[k];
+				break;
+			case ExpressionBinaryOp.OR:
+				for (int k = 0; k < n; k++)
+					res[k] = a[k] | b[k];
+				break;
+			default:
+				for (int k = 0; k < n; k++)
+					res[k] = a[k] & b[k];
+				break;
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * Relational operators, over integers or doubles.
+	 */
+	private class RelOpNode extends Node
+	{
+		final int op;
+		final boolean ints;
+		final Node op1, op2;
+
+		RelOpNode(int op, boolean ints, Node op1, Node op2)
+		{
+			super(BOOL);
+			this.op = op;
+			this.ints = ints;
+			this.op1 = op1;
+			this.op2 = op2;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n) throws PrismLangException
+		{
+			boolean res[] = boolBuf();
+			if (ints) {
+				int a[] = op1.evalInt(from, n);
+				int b[] = op2.evalInt(from, n);
+				switch (op) {
+				case ExpressionBinaryOp.EQ:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] == b[k];
+					break;
+				case ExpressionBinaryOp.NE:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] != b[k];
+					break;
+				case ExpressionBinaryOp.GT:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] > b[k];
+					break;
+				case ExpressionBinaryOp.GE:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] >= b[k];
+					break;
+				case ExpressionBinaryOp.LT:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] < b[k];
+					break;
+				default:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] <= b[k];
+					break;
+				}
+			} else {
+				double a[] = op1.evalDouble(from, n);
+				double b[] = op2.evalDouble(from, n);
+				switch (op) {
+				case ExpressionBinaryOp.EQ:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] == b[k];
+					break;
+				case ExpressionBinaryOp.NE:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] != b[k];
+					break;
+				case ExpressionBinaryOp.GT:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] > b[k];
+					break;
+				case ExpressionBinaryOp.GE:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] >= b[k];
+					break;
+				case ExpressionBinaryOp.LT:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] < b[k];
+					break;
+				default:
+					for (int k = 0; k < n; k++)
+						res[k] = a[k] <= b[k];
+					break;
+				}
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * Arithmetic operators (and negation/min/max), over integers or doubles (according to kind),
+	 * plus Boolean negation.
+	 */
+	private class ArithNode extends Node
+	{
+		// Operators other than those of ExpressionBinaryOp
+		static final int NOT = -1;
+		static final int NEG = -2;
+		static final int MIN = -3;
+		static final int MAX = -4;
+
+		final int op;
+		final Node operands[];
+
+		ArithNode(int kind, int op, Node... operands)
+		{
+			super(kind);
+			this.op = op;
+			this.operands = operands;
+		}
+
+		@Override
+		int[] evalInt(int from, int n) throws PrismLangException
+		{
+			if (kind == BOOL) {
+				return super.evalInt(from, n);
+			}
+			int res[] = intBuf();
+			int a[] = operands[0].evalInt(from, n);
+			if (op == NEG) {
+				for (int k = 0; k < n; k++)
+					res[k] = -a[k];
+				return res;
+			}
+			System.arraycopy(a, 0, res, 0, n);
+			for (int j = 1; j < operands.length; j++) {
+				int b[] = operands[j].evalInt(from, n);
+				switch (op) {
+				case ExpressionBinaryOp.PLUS:
+					for (int k = 0; k < n; k++)
+						res[k] += b[k];
+					break;
+				case ExpressionBinaryOp.MINUS:
+					for (int k = 0; k < n; k++)
+						res[k] -= b[k];
+					break;
+				case ExpressionBinaryOp.TIMES:
+					for (int k = 0; k < n; k++)
+						res[k] *= b[k];
+					break;
+				case MIN:
+					for (int k = 0; k < n; k++)
+						res[k] = b[k] < res[k] ? b[k] : res[k];
+					break;
+				default:
+					for (int k = 0; k < n; k++)
+						res[k] = b[k] > res[k] ? b[k] : res[k];
+					break;
+				}
+			}
+			return res;
+		}
+
+		@Override
+		double[] evalDouble(int from, int n) throws PrismLangException
+		{
+			if (kind != DOUBLE) {
+				return super.evalDouble(from, n);
+			}
+			double res[] = doubleBuf();
+			double a[] = operands[0].evalDouble(from, n);
+			if (op == NEG) {
+				for (int k = 0; k < n; k++)
+					res[k] = -a[k];
+				return res;
+			}
+			System.arraycopy(a, 0, res, 0, n);
+			for (int j = 1; j < operands.length; j++) {
+				double b[] = operands[j].evalDouble(from, n);
+				switch (op) {
+				case ExpressionBinaryOp.PLUS:
+					for (int k = 0; k < n; k++)
+						res[k] += b[k];
+					break;
+				case ExpressionBinaryOp.MINUS:
+					for (int k = 0; k < n; k++)
+						res[k] -= b[k];
+					break;
+				case ExpressionBinaryOp.TIMES:
+					for (int k = 0; k < n; k++)
+						res[k] *= b[k];
+					break;
+				case ExpressionBinaryOp.DIVIDE:
+					for (int k = 0; k < n; k++)
+						res[k] /= b[k];
+					break;
+				case MIN:
+					for (int k = 0; k < n; k++)
+						res[k] = b[k] < res[k] ? b[k] : res[k];
+					break;
+				default:
+					for (int k = 0; k < n; k++)
+						res[k] = b[k] > res[k] ? b[k] : res[k];
+					break;
+				}
+			}
+			return res;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n) throws PrismLangException
+		{
+			// Only NOT is Boolean-valued
+			boolean a[] = operands[0].evalBool(from, n);
+			boolean res[] = boolBuf();
+			for (int k = 0; k < n; k++)
+				res[k] = !a[k];
+			return res;
+		}
+	}
+
+	/**
+	 * If-then-else.
+	 */
+	private class ITENode extends Node
+	{
+		final Node cond, then, other;
+
+		ITENode(int kind, Node cond, Node then, Node other)
+		{
+			super(kind);
+			this.cond = cond;
+			this.then = then;
+			this.other = other;
+		}
+
+		@Override
+		int[] evalInt(int from, int n) throws PrismLangException
+		{
+			if (kind == BOOL) {
+				return super.evalInt(from, n);
+			}
+			boolean c[] = cond.evalBool(from, n);
+			int a[] = then.evalInt(from, n);
+			int b[] = other.evalInt(from, n);
+			int res[] = intBuf();
+			for (int k = 0; k < n; k++)
+				res[k] = c[k] ? a[k] : b[k];
+			return res;
+		}
+
+		@Override
+		double[] evalDouble(int from, int n) throws PrismLangException
+		{
+			if (kind != DOUBLE) {
+				return super.evalDouble(from, n);
+			}
+			boolean c[] = cond.evalBool(from, n);
+			double a[] = then.evalDouble(from, n);
+			double b[] = other.evalDouble(from, n);
+			double res[] = doubleBuf();
+			for (int k = 0; k < n; k++)
+				res[k] = c[k] ? a[k] : b[k];
+			return res;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n) throws PrismLangException
+		{
+			boolean c[] = cond.evalBool(from, n);
+			boolean a[] = then.evalBool(from, n);
+			boolean b[] = other.evalBool(from, n);
+			boolean res[] = boolBuf();
+			for (int k = 0; k < n; k++)
+				res[k] = c[k] ? a[k] : b[k];
+			return res;
+		}
+	}
+
+	/**
+	 * Any other sub-expression, evaluated state by state by the interpreter.
+	 */
+	private class InterpretedNode extends Node
+	{
+		final Expression expr;
+
+		InterpretedNode(int kind, Expression expr)
+		{
+			super(kind);
+			this.expr = expr;
+		}
+
+		@Override
+		int[] evalInt(int from, int n) throws PrismLangException
+		{
+			if (kind == BOOL) {
+				return super.evalInt(from, n);
+			}
+			int res[] = intBuf();
+			for (int k = 0; k < n; k++)
+				res[k] = expr.evaluateInt(constantValues, statesList.get(from + k));
+			return res;
+		}
+
+		@Override
+		double[] evalDouble(int from, int n) throws PrismLangException
+		{
+			if (kind == BOOL) {
+				return super.evalDouble(from, n);
+			}
+			double res[] = doubleBuf();
+			for (int k = 0; k < n; k++)
+				res[k] = expr.evaluateDouble(constantValues, statesList.get(from + k));
+			return res;
+		}
+
+		@Override
+		boolean[] evalBool(int from, int n) throws PrismLangException
+		{
+			boolean res[] = boolBuf();
+			for (int k = 0; k < n; k++)
+				res[k] = expr.evaluateBoolean(constantValues, statesList.get(from + k));
+			return res;
+		}
+	}
+}
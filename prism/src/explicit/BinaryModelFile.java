@@ -0,0 +1,867 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+
+package explicit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import parser.State;
+import parser.VarList;
+import parser.ast.Declaration;
+import parser.ast.DeclarationBool;
+import parser.ast.DeclarationInt;
+import parser.ast.Expression;
+import parser.ast.ExpressionIdent;
+import parser.ast.ExpressionLiteral;
+import parser.ast.LabelList;
+import parser.ast.Module;
+import parser.ast.ModulesFile;
+import parser.type.TypeBool;
+import prism.ModelType;
+import prism.PrismException;
+import prism.PrismNotSupportedException;
+
+/**
+ * Binary file format for explicit-state models (DTMCs and MDPs), designed for fast loading.
+ * <br><br>
+ * A file comprises a header (model type, variables, initial/deadlock states, labels, action names)
+ * followed by the sparse matrix arrays of a {@link DTMCSparse} or {@link MDPSparse}
+ * and a table of variable values for each state, all stored as little-endian primitive arrays
+ * (8-byte aligned where needed). Loading memory-maps the file: only the (per-state/choice) offsets
+ * of the sparse matrix are copied into arrays; the columns and probabilities of the transitions,
+ * and the list of states, are read directly from the mapping on demand. So no parsing of the
+ * transitions or states is needed, and most of the model is not stored on the Java heap.
+ * <br><br>
+ * Typical usage: {@link #exportModel} to write a file, then, for import, create a
+ * {@link BinaryModelFile} (which reads just the header), use {@link #createModulesFile()}
+ * to obtain variable/label info for parsing properties, and {@link #buildModel()} to load the model.
+ */
+public class BinaryModelFile
+{
+	/** Magic bytes at the start of a file */
+	private static final byte MAGIC[] = "PRISMBIN".getBytes(StandardCharsets.US_ASCII);
+	/** File format version */
+	private static final int VERSION = 1;
+	/** Maximum size of a single memory mapping */
+	private static final int MAX_MAP_SIZE = 1 << 30;
+	/** Size of the mapping used for reading small items */
+	private static final int WINDOW_SIZE = 1 << 20;
+
+	// Variable types
+	private static final int VAR_INT = 0;
+	private static final int VAR_BOOL = 1;
+
+	// Info from the file header
+
+	private File file;
+	private ModelType modelType;
+	private int numStates;
+	private String varNames[];
+	private int varTypes[];
+	private int varLows[];
+	private int varHighs[];
+	private int initialStates[];
+	private int deadlockStates[];
+	private List<String> labelNames;
+	private List<BitSet> labelStates;
+	private String actionNames[];
+	/** Position in the file of the sparse matrix (after the header) */
+	private long matrixPos;
+
+	/**
+	 * Open a binary model file, reading its header.
+	 */
+	public BinaryModelFile(File file) throws PrismException
+	{
+		this.file = file;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			Input in = new Input(raf.getChannel());
+			byte magic[] = in.readBytes(MAGIC.length);
+			for (int i = 0; i < MAGIC.length; i++) {
+				if (magic[i] != MAGIC[i]) {
+					throw new PrismException("\"" + file + "\" is not a PRISM binary model file");
+				}
+			}
+			int version = in.readInt();
+			if (version != VERSION) {
+				throw new PrismException("Unsupported version " + version + " of binary model file \"" + file + "\"");
+			}
+			modelType = ModelType.valueOf(in.readString());
+			numStates = in.readInt();
+			int numVars = in.readInt();
+			varNames = new String[numVars];
+			varTypes = new int[numVars];
+			varLows = new int[numVars];
+			varHighs = new int[numVars];
+			for (int v = 0; v < numVars; v++) {
+				varNames[v] = in.readString();
+				varTypes[v] = in.readInt();
+				varLows[v] = in.readInt();
+				varHighs[v] = in.readInt();
+			}
+			initialStates = in.readInts(in.readInt());
+			deadlockStates = in.readInts(in.readInt());
+			int numLabels = in.readInt();
+			labelNames = new ArrayList<String>(numLabels);
+			labelStates = new ArrayList<BitSet>(numLabels);
+			for (int l = 0; l < numLabels; l++) {
+				labelNames.add(in.readString());
+				int numWords = in.readInt();
+				in.align();
+				labelStates.add(BitSet.valueOf(in.readLongs(numWords)));
+			}
+			actionNames = new String[in.readInt()];
+			for (int a = 0; a < actionNames.length; a++) {
+				actionNames[a] = in.readString();
+			}
+			in.align();
+			matrixPos = in.pos;
+		} catch (IOException | IllegalArgumentException e) {
+			throw new PrismException("Error reading binary model file \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Get the type of the model in the file.
+	 */
+	public ModelType getModelType()
+	{
+		return modelType;
+	}
+
+	/**
+	 * Get the number of states of the model in the file.
+	 */
+	public int getNumStates()
+	{
+		return numStates;
+	}
+
+	/**
+	 * Create a (partial) ModulesFile for the model in the file, storing its
+	 * model type, variables and labels (cf. {@link parser.ExplicitFiles2ModulesFile}).
+	 */
+	public ModulesFile createModulesFile() throws PrismException
+	{
+		ModulesFile modulesFile = new ModulesFile();
+		Module m = new Module("M");
+		for (int v = 0; v < varNames.length; v++) {
+			Declaration d;
+			if (varTypes[v] == VAR_BOOL) {
+				d = new Declaration(varNames[v], new DeclarationBool());
+				d.setStart(Expression.False());
+			} else {
+				// We don't allow zero-range variables
+				int high = varHighs[v] > varLows[v] ? varHighs[v] : varLows[v] + 1;
+				d = new Declaration(varNames[v], new DeclarationInt(Expression.Int(varLows[v]), Expression.Int(high)));
+				d.setStart(Expression.Int(varLows[v]));
+			}
+			m.addDeclaration(d);
+		}
+		modulesFile.addModule(m);
+		// Label expressions are just placeholders: the actual states are stored in the model
+		LabelList labelList = new LabelList();
+		for (String labelName : labelNames) {
+			labelList.addLabel(new ExpressionIdent(labelName), new ExpressionLiteral(TypeBool.getInstance(), false));
+		}
+		modulesFile.setLabelList(labelList);
+		modulesFile.setModelType(modelType);
+		modulesFile.tidyUp();
+		return modulesFile;
+	}
+
+	/**
+	 * Load the model from the file.
+	 */
+	public ModelExplicit buildModel() throws PrismException
+	{
+		ModelExplicit model;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			Input in = new Input(raf.getChannel());
+			in.pos = matrixPos;
+			if (modelType == ModelType.DTMC) {
+				int numTransitions = in.readInt();
+				int rows[] = in.readInts(numStates + 1);
+				ColumnStorage columns = new MappedColumns(in, numTransitions);
+				in.align();
+				ProbabilityStorage probabilities = new MappedProbabilities(in, numTransitions);
+				model = new DTMCSparse(numStates, rows, columns, probabilities);
+			} else {
+				int numChoices = in.readInt();
+				int numTransitions = in.readInt();
+				int rowStarts[] = in.readInts(numStates + 1);
+				int choiceStarts[] = in.readInts(numChoices + 1);
+				ColumnStorage cols = new MappedColumns(in, numTransitions);
+				in.align();
+				ProbabilityStorage nonZeros = new MappedProbabilities(in, numTransitions);
+				Object actions[] = null;
+				if (actionNames.length > 0) {
+					int actionIndices[] = in.readInts(numChoices);
+					actions = new Object[numChoices];
+					for (int c = 0; c < numChoices; c++) {
+						actions[c] = actionIndices[c] < 0 ? null : actionNames[actionIndices[c]];
+					}
+				}
+				int maxNumDistrs = 0;
+				for (int s = 0; s < numStates; s++) {
+					maxNumDistrs = Math.max(maxNumDistrs, rowStarts[s + 1] - rowStarts[s]);
+				}
+				model = new MDPSparse(numStates, rowStarts, choiceStarts, cols, nonZeros, actions, maxNumDistrs);
+			}
+			in.align();
+			model.setStatesList(new MappedStateList(in.channel, in.pos, numStates, varTypes));
+		} catch (IOException | IllegalArgumentException e) {
+			throw new PrismException("Error reading binary model file \"" + file + "\": " + e.getMessage());
+		}
+		for (int s : initialStates) {
+			model.addInitialState(s);
+		}
+		for (int s : deadlockStates) {
+			model.addDeadlockState(s);
+		}
+		for (int l = 0; l < labelNames.size(); l++) {
+			model.addLabel(labelNames.get(l), labelStates.get(l));
+		}
+		return model;
+	}
+
+	/**
+	 * Export a model (currently, a DTMC or MDP) to a binary model file.
+	 * Variable types are taken from the model's {@link VarList} if it has one (otherwise, they
+	 * are inferred from the list of states) and ranges from the variable values of the states
+	 * (if there is no list of states, a single variable "x" giving the state index is used).
+	 * The transitions are written directly to the file, without being copied first.
+	 * The file is written to a temporary file in the same directory, which then replaces it,
+	 * so it is safe to export to the file that a model was imported from (and is still mapped).
+	 * @param model The model
+	 * @param varNames Names of the variables in the model's states
+	 * @param labelNames Names of labels to store (excluding "init" and "deadlock")
+	 * @param labelStates States satisfying each label
+	 * @param file File to export to
+	 */
+	public static void exportModel(Model model, List<String> varNames, List<String> labelNames, List<BitSet> labelStates, File file) throws PrismException
+	{
+		ModelType modelType = model.getModelType();
+		if (modelType != ModelType.DTMC && modelType != ModelType.MDP) {
+			throw new PrismNotSupportedException("Binary model export is not supported for " + modelType + "s");
+		}
+		int numStates = model.getNumStates();
+		List<State> statesList = model.getStatesList();
+		VarList varList = statesList == null ? null : model.getVarList();
+		if (statesList == null) {
+			varNames = new ArrayList<String>();
+			varNames.add("x");
+		}
+		int numVars = varNames.size();
+
+		// Determine variable types/ranges
+		int varTypes[] = new int[numVars];
+		int varLows[] = new int[numVars];
+		int varHighs[] = new int[numVars];
+		for (int v = 0; v < numVars; v++) {
+			if (varList != null) {
+				varTypes[v] = varList.getType(v) instanceof TypeBool ? VAR_BOOL : VAR_INT;
+			} else {
+				varTypes[v] = statesList != null && numStates > 0 && statesList.get(0).varValues[v] instanceof Boolean ? VAR_BOOL : VAR_INT;
+			}
+			varLows[v] = varTypes[v] == VAR_BOOL ? 0 : Integer.MAX_VALUE;
+			varHighs[v] = varTypes[v] == VAR_BOOL ? 1 : Integer.MIN_VALUE;
+		}
+		int values[] = new int[numVars];
+		for (int s = 0; s < numStates; s++) {
+			getValues(statesList, s, values);
+			for (int v = 0; v < numVars; v++) {
+				varLows[v] = Math.min(varLows[v], values[v]);
+				varHighs[v] = Math.max(varHighs[v], values[v]);
+			}
+		}
+
+		// Imported models are memory-mapped from their file, so never truncate/overwrite a file in place
+		File tmpFile;
+		try {
+			tmpFile = File.createTempFile("prism", ".tmp", file.getAbsoluteFile().getParentFile());
+		} catch (IOException e) {
+			throw new PrismException("Could not write binary model file \"" + file + "\": " + e.getMessage());
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw")) {
+			Output out = new Output(raf.getChannel());
+			// Header
+			out.writeBytes(MAGIC);
+			out.writeInt(VERSION);
+			out.writeString(modelType.name());
+			out.writeInt(numStates);
+			out.writeInt(numVars);
+			for (int v = 0; v < numVars; v++) {
+				out.writeString(varNames.get(v));
+				out.writeInt(varTypes[v]);
+				out.writeInt(varLows[v]);
+				out.writeInt(varHighs[v]);
+			}
+			writeStates(out, model.getInitialStates());
+			writeStates(out, model.getDeadlockStates());
+			out.writeInt(labelNames.size());
+			for (int l = 0; l < labelNames.size(); l++) {
+				long words[] = labelStates.get(l).toLongArray();
+				out.writeString(labelNames.get(l));
+				out.writeInt(words.length);
+				out.align();
+				out.writeLongs(words, words.length);
+			}
+			// Action names (MDPs only)
+			Map<Object, Integer> actions = new HashMap<Object, Integer>();
+			List<Object> actionList = new ArrayList<Object>();
+			if (modelType == ModelType.MDP) {
+				MDP mdp = (MDP) model;
+				for (int s = 0; s < numStates; s++) {
+					for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+						Object action = mdp.getAction(s, i);
+						if (action != null && !actions.containsKey(action)) {
+							actions.put(action, actionList.size());
+							actionList.add(action);
+						}
+					}
+				}
+			}
+			out.writeInt(actionList.size());
+			for (Object action : actionList) {
+				out.writeString(action.toString());
+			}
+			out.align();
+			// Sparse matrix
+			if (modelType == ModelType.DTMC) {
+				writeDTMC(out, (DTMC) model);
+			} else {
+				writeMDP(out, (MDP) model, actions);
+			}
+			out.align();
+			// States
+			for (int s = 0; s < numStates; s++) {
+				getValues(statesList, s, values);
+				out.writeInts(values, numVars);
+			}
+			out.flush();
+		} catch (IOException e) {
+			tmpFile.delete();
+			throw new PrismException("Could not write binary model file \"" + file + "\": " + e.getMessage());
+		}
+		try {
+			Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			tmpFile.delete();
+			throw new PrismException("Could not write binary model file \"" + file + "\": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Write a list of states, preceded by its size.
+	 */
+	private static void writeStates(Output out, Iterable<Integer> states) throws IOException
+	{
+		List<Integer> list = new ArrayList<Integer>();
+		for (int s : states) {
+			list.add(s);
+		}
+		out.writeInt(list.size());
+		for (int s : list) {
+			out.writeInt(s);
+		}
+	}
+
+	/**
+	 * Get the variable values of state {@code s} as integers (0/1 for Booleans),
+	 * or just the state index if there is no list of states.
+	 */
+	private static void getValues(List<State> statesList, int s, int values[])
+	{
+		if (statesList == null) {
+			values[0] = s;
+			return;
+		}
+		Object varValues[] = statesList.get(s).varValues;
+		for (int v = 0; v < values.length; v++) {
+			Object o = varValues[v];
+			values[v] = o instanceof Boolean ? (((Boolean) o) ? 1 : 0) : ((Integer) o).intValue();
+		}
+	}
+
+	/**
+	 * Write the transitions of a DTMC, as in {@link DTMCSparse}, omitting any with zero probability.
+	 * The row offsets are computed in a first pass over the model; the columns and probabilities
+	 * are then streamed to the file in two further passes.
+	 */
+	private static void writeDTMC(Output out, DTMC dtmc) throws IOException
+	{
+		int numStates = dtmc.getNumStates();
+		int rows[] = new int[numStates + 1];
+		int numTransitions = 0;
+		for (int s = 0; s < numStates; s++) {
+			rows[s] = numTransitions;
+			for (Iterator<Entry<Integer, Double>> it = dtmc.getTransitionsIterator(s); it.hasNext();) {
+				if (it.next().getValue() > 0) {
+					numTransitions++;
+				}
+			}
+		}
+		rows[numStates] = numTransitions;
+		out.writeInt(numTransitions);
+		out.writeInts(rows, rows.length);
+		for (int s = 0; s < numStates; s++) {
+			for (Iterator<Entry<Integer, Double>> it = dtmc.getTransitionsIterator(s); it.hasNext();) {
+				Entry<Integer, Double> e = it.next();
+				if (e.getValue() > 0) {
+					out.writeInt(e.getKey());
+				}
+			}
+		}
+		out.align();
+		for (int s = 0; s < numStates; s++) {
+			for (Iterator<Entry<Integer, Double>> it = dtmc.getTransitionsIterator(s); it.hasNext();) {
+				double prob = it.next().getValue();
+				if (prob > 0) {
+					out.writeDouble(prob);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write the transitions of an MDP, as in {@link MDPSparse}, omitting any with zero probability,
+	 * with actions given as indices (as stored in {@code actions}).
+	 * As for DTMCs, the counts and per-state offsets are computed in a first pass over the model
+	 * and each of the remaining arrays is then streamed to the file in a separate pass.
+	 */
+	private static void writeMDP(Output out, MDP mdp, Map<Object, Integer> actions) throws IOException
+	{
+		int numStates = mdp.getNumStates();
+		int rowStarts[] = new int[numStates + 1];
+		int numChoices = 0;
+		int numTransitions = 0;
+		for (int s = 0; s < numStates; s++) {
+			rowStarts[s] = numChoices;
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					if (it.next().getValue() > 0) {
+						numTransitions++;
+					}
+				}
+			}
+			numChoices += mdp.getNumChoices(s);
+		}
+		rowStarts[numStates] = numChoices;
+		out.writeInt(numChoices);
+		out.writeInt(numTransitions);
+		out.writeInts(rowStarts, rowStarts.length);
+		// Choice offsets
+		int t = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				out.writeInt(t);
+				for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					if (it.next().getValue() > 0) {
+						t++;
+					}
+				}
+			}
+		}
+		out.writeInt(t);
+		// Columns
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					Entry<Integer, Double> e = it.next();
+					if (e.getValue() > 0) {
+						out.writeInt(e.getKey());
+					}
+				}
+			}
+		}
+		out.align();
+		// Probabilities
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+				for (Iterator<Entry<Integer, Double>> it = mdp.getTransitionsIterator(s, i); it.hasNext();) {
+					double prob = it.next().getValue();
+					if (prob > 0) {
+						out.writeDouble(prob);
+					}
+				}
+			}
+		}
+		// Actions
+		if (!actions.isEmpty()) {
+			for (int s = 0; s < numStates; s++) {
+				for (int i = 0, n = mdp.getNumChoices(s); i < n; i++) {
+					Object action = mdp.getAction(s, i);
+					out.writeInt(action == null ? -1 : actions.get(action));
+				}
+			}
+		}
+	}
+
+	/**
+	 * List of states whose variable values are read on demand from a memory-mapped table
+	 * (one int per variable per state).
+	 */
+	private static class MappedStateList extends AbstractList<State>
+	{
+		private int numStates;
+		private int varTypes[];
+		/** Number of states per mapped segment */
+		private int segmentSize;
+		private IntBuffer segments[];
+
+		MappedStateList(FileChannel channel, long pos, int numStates, int varTypes[]) throws IOException
+		{
+			this.numStates = numStates;
+			this.varTypes = varTypes;
+			int numVars = varTypes.length;
+			segmentSize = numVars == 0 ? numStates : MAX_MAP_SIZE / (4 * numVars);
+			int numSegments = numStates == 0 ? 0 : (int) (((long) numStates + segmentSize - 1) / segmentSize);
+			segments = new IntBuffer[numSegments];
+			for (int i = 0; i < numSegments; i++) {
+				long size = 4L * numVars * Math.min(segmentSize, numStates - (long) i * segmentSize);
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, pos, size).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+				pos += size;
+			}
+		}
+
+		@Override
+		public State get(int i)
+		{
+			int numVars = varTypes.length;
+			IntBuffer segment = segments[i / segmentSize];
+			int offset = (i % segmentSize) * numVars;
+			State state = new State(numVars);
+			for (int v = 0; v < numVars; v++) {
+				int value = segment.get(offset + v);
+				if (varTypes[v] == VAR_BOOL) {
+					state.setValue(v, value != 0);
+				} else {
+					state.setValue(v, value);
+				}
+			}
+			return state;
+		}
+
+		@Override
+		public int size()
+		{
+			return numStates;
+		}
+	}
+
+	/**
+	 * Transition columns read on demand from memory-mapped ints.
+	 */
+	private static class MappedColumns extends ColumnStorage
+	{
+		/** log2 of the number of ints per mapped segment */
+		private static final int SEGMENT_SHIFT = Integer.numberOfTrailingZeros(MAX_MAP_SIZE / 4);
+		private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+		private int size;
+		private IntBuffer segments[];
+
+		/** Map the next {@code size} ints of {@code in} */
+		MappedColumns(Input in, int size) throws IOException
+		{
+			this.size = size;
+			segments = new IntBuffer[(int) (((long) size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+			for (int i = 0; i < segments.length; i++) {
+				int len = Math.min(SEGMENT_MASK + 1, size - (i << SEGMENT_SHIFT));
+				segments[i] = in.map(4L * len).asIntBuffer();
+			}
+		}
+
+		@Override
+		public int get(int k, int s)
+		{
+			return segments[k >>> SEGMENT_SHIFT].get(k & SEGMENT_MASK);
+		}
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.INT;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			// Not on the heap, but still needs to be paged in
+			return 4L * size;
+		}
+	}
+
+	/**
+	 * Transition probabilities read on demand from memory-mapped doubles.
+	 */
+	private static class MappedProbabilities extends ProbabilityStorage
+	{
+		/** log2 of the number of doubles per mapped segment */
+		private static final int SEGMENT_SHIFT = Integer.numberOfTrailingZeros(MAX_MAP_SIZE / 8);
+		private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+		private int size;
+		private DoubleBuffer segments[];
+
+		/** Map the next {@code size} doubles of {@code in} */
+		MappedProbabilities(Input in, int size) throws IOException
+		{
+			this.size = size;
+			segments = new DoubleBuffer[(int) (((long) size + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+			for (int i = 0; i < segments.length; i++) {
+				int len = Math.min(SEGMENT_MASK + 1, size - (i << SEGMENT_SHIFT));
+				segments[i] = in.map(8L * len).asDoubleBuffer();
+			}
+		}
+
+		@Override
+		public double get(int i)
+		{
+			return segments[i >>> SEGMENT_SHIFT].get(i & SEGMENT_MASK);
+		}
+
+		@Override
+		public int size()
+		{
+			return size;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.DOUBLE;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			// Not on the heap, but still needs to be paged in
+			return 8L * size;
+		}
+	}
+
+	/**
+	 * Reads (little-endian) data from a file, sequentially, by memory-mapping it.
+	 */
+	private static class Input
+	{
+		FileChannel channel;
+		/** Current position in the file */
+		long pos = 0;
+		/** Mapping of part of the file (starting at windowStart) used for reading small items */
+		ByteBuffer window;
+		long windowStart;
+
+		Input(FileChannel channel)
+		{
+			this.channel = channel;
+		}
+
+		/** Map the next {@code size} bytes (at most MAX_MAP_SIZE) and advance past them */
+		ByteBuffer map(long size) throws IOException
+		{
+			if (pos + size > channel.size()) {
+				throw new IOException("unexpected end of file");
+			}
+			ByteBuffer buffer;
+			if (size <= WINDOW_SIZE) {
+				if (window == null || pos < windowStart || pos + size > windowStart + window.capacity()) {
+					windowStart = pos;
+					window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW_SIZE, channel.size() - pos));
+				}
+				window.position((int) (pos - windowStart));
+				buffer = window.slice().order(ByteOrder.LITTLE_ENDIAN);
+			} else {
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, pos, size).order(ByteOrder.LITTLE_ENDIAN);
+			}
+			pos += size;
+			return buffer;
+		}
+
+		void align()
+		{
+			pos = (pos + 7) & ~7L;
+		}
+
+		byte[] readBytes(int n) throws IOException
+		{
+			byte bytes[] = new byte[n];
+			map(n).get(bytes);
+			return bytes;
+		}
+
+		int readInt() throws IOException
+		{
+			return map(4).getInt();
+		}
+
+		String readString() throws IOException
+		{
+			return new String(readBytes(readInt()), StandardCharsets.UTF_8);
+		}
+
+		int[] readInts(int n) throws IOException
+		{
+			int values[] = new int[n];
+			int chunk = MAX_MAP_SIZE / 4;
+			for (int i = 0; i < n; i += chunk) {
+				int len = Math.min(chunk, n - i);
+				map(4L * len).asIntBuffer().get(values, i, len);
+			}
+			return values;
+		}
+
+		long[] readLongs(int n) throws IOException
+		{
+			long values[] = new long[n];
+			int chunk = MAX_MAP_SIZE / 8;
+			for (int i = 0; i < n; i += chunk) {
+				int len = Math.min(chunk, n - i);
+				map(8L * len).asLongBuffer().get(values, i, len);
+			}
+			return values;
+		}
+	}
+
+	/**
+	 * Writes (little-endian) data to a file, sequentially, via a buffer.
+	 */
+	private static class Output
+	{
+		private FileChannel channel;
+		private ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+		/** Number of bytes written so far */
+		private long pos = 0;
+
+		Output(FileChannel channel)
+		{
+			this.channel = channel;
+		}
+
+		/** Make sure there is space for {@code n} more bytes (at most the buffer size) in the buffer */
+		private void ensure(int n) throws IOException
+		{
+			if (buffer.remaining() < n) {
+				flush();
+			}
+		}
+
+		void flush() throws IOException
+		{
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		void align() throws IOException
+		{
+			while ((pos & 7) != 0) {
+				ensure(1);
+				buffer.put((byte) 0);
+				pos++;
+			}
+		}
+
+		void writeBytes(byte bytes[]) throws IOException
+		{
+			for (int off = 0; off < bytes.length;) {
+				ensure(1);
+				int len = Math.min(buffer.remaining(), bytes.length - off);
+				buffer.put(bytes, off, len);
+				off += len;
+			}
+			pos += bytes.length;
+		}
+
+		void writeInt(int value) throws IOException
+		{
+			ensure(4);
+			buffer.putInt(value);
+			pos += 4;
+		}
+
+		void writeString(String s) throws IOException
+		{
+			byte bytes[] = s.getBytes(StandardCharsets.UTF_8);
+			writeInt(bytes.length);
+			writeBytes(bytes);
+		}
+
+		void writeInts(int values[], int n) throws IOException
+		{
+			for (int i = 0; i < n; i++) {
+				ensure(4);
+				buffer.putInt(values[i]);
+			}
+			pos += 4L * n;
+		}
+
+		void writeLongs(long values[], int n) throws IOException
+		{
+			for (int i = 0; i < n; i++) {
+				ensure(8);
+				buffer.putLong(values[i]);
+			}
+			pos += 8L * n;
+		}
+
+		void writeDouble(double value) throws IOException
+		{
+			ensure(8);
+			buffer.putDouble(value);
+			pos += 8;
+		}
+	}
+}
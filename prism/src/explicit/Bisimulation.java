@@ -27,6 +27,7 @@
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.List;
@@ -36,17 +37,54 @@ import parser.State;
 import prism.PrismComponent;
 import prism.PrismException;
 import prism.PrismNotSupportedException;
+import prism.PrismSettings;
+import prism.PrismUtils;
 
 /**
  * Class to perform bisimulation minimisation for explicit-state models.
+ * <br>
+ * Minimisation uses signature-based partition refinement: in each iteration, the signature
+ * of each state, i.e., its outgoing distribution(s) lifted to the blocks of the current partition,
+ * is computed, and states in the same block are split if their signatures differ.
+ * For efficiency, the model is first copied to a primitive (CSR) encoding,
+ * signatures are computed in parallel (using the explicit engine worker threads)
+ * and new blocks are found via hashing.
  */
 public class Bisimulation extends PrismComponent
 {
+	/** Number of rows per chunk when computing signatures in parallel */
+	private static final int CHUNK_SIZE = 4096;
+
+	/** Number of blocks per chunk when splitting blocks in parallel */
+	private static final int BLOCK_CHUNK_SIZE = 256;
+
+	/** Relative tolerance when comparing probabilities/rates in signatures (as for {@link Distribution#equals(Object)}) */
+	private static final double EPSILON = 1e-12;
+
 	// Local storage of partition info
 	protected int numStates;
 	protected int[] partition;
 	protected int numBlocks;
-	protected MDPSimple mdp;
+
+	// Primitive (CSR) encoding of the model being minimised:
+	// each row is a distribution (a choice for MDPs, the state itself for DTMCs/CTMCs),
+	// with transitions rowStarts[r], ..., rowStarts[r+1]-1 to states cols[] with probabilities/rates vals[];
+	// for MDPs, the rows of state s are choiceStarts[s], ..., choiceStarts[s+1]-1 (null otherwise)
+	protected int numRows;
+	protected int[] choiceStarts;
+	protected int[] rowStarts;
+	protected int[] cols;
+	protected double[] vals;
+
+	// Signatures of rows (lifted to the current partition), stored at the same offsets as the transitions:
+	// blocks sigBlocks[rowStarts[r]], ..., sigBlocks[rowStarts[r]+sigLen[r]-1] (ascending) with values sigVals[]
+	protected int[] sigBlocks;
+	protected double[] sigVals;
+	protected int[] sigLen;
+	protected int[] sigHash;
+
+	// Number of threads to use
+	protected int numThreads;
 
 	/**
 	 * Construct a new Bisimulation object.
@@ -54,6 +92,7 @@ public class Bisimulation extends PrismComponent
 	public Bisimulation(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		numThreads = getSettings() == null ? 1 : getSettings().getInteger(PrismSettings.PRISM_EXPLICIT_NUM_THREADS);
 	}
 
 	/**
@@ -69,6 +108,8 @@ public class Bisimulation extends PrismComponent
 			return minimiseDTMC((DTMC) model, propNames, propBSs);
 		case CTMC:
 			return minimiseCTMC((CTMC) model, propNames, propBSs);
+		case MDP:
+			return minimiseMDP((MDP) model, propNames, propBSs);
 		default:
 			throw new PrismNotSupportedException("Bisimulation minimisation not yet supported for " + model.getModelType() + "s");
 		}
@@ -80,24 +121,26 @@ public class Bisimulation extends PrismComponent
 	 * @param propNames Names of the propositions in {@code propBSs}
 	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
 	 */
-	private DTMC minimiseDTMC(DTMC dtmc, List<String> propNames, List<BitSet> propBSs)
+	private DTMC minimiseDTMC(DTMC dtmc, List<String> propNames, List<BitSet> propBSs) throws PrismException
 	{
 		// Create initial partition based on propositions
 		initialisePartitionInfo(dtmc, propBSs);
 		//printPartition(dtmc);
 
 		// Iterative splitting
+		encodeDTMC(dtmc);
 		boolean changed = true;
 		while (changed)
-			changed = splitDTMC(dtmc);
+			changed = splitDTMC();
 		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
 		//printPartition(dtmc);
 
 		// Build reduced model
 		DTMCSimple dtmcNew = new DTMCSimple(numBlocks);
+		int reps[] = getRepresentatives();
 		for (int i = 0; i < numBlocks; i++) {
-			for (Map.Entry<Integer, Double> e : mdp.getChoice(i, 0)) {
-				dtmcNew.setProbability((Integer) mdp.getAction(i, 0), e.getKey(), e.getValue());
+			for (Map.Entry<Integer, Double> e : liftRow(reps[i])) {
+				dtmcNew.setProbability(i, e.getKey(), e.getValue());
 			}
 		}
 		attachStatesAndLabels(dtmc, dtmcNew, propNames, propBSs);
@@ -111,24 +154,26 @@ public class Bisimulation extends PrismComponent
 	 * @param propNames Names of the propositions in {@code propBSs}
 	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
 	 */
-	private CTMC minimiseCTMC(CTMC ctmc, List<String> propNames, List<BitSet> propBSs)
+	private CTMC minimiseCTMC(CTMC ctmc, List<String> propNames, List<BitSet> propBSs) throws PrismException
 	{
 		// Create initial partition based on propositions
 		initialisePartitionInfo(ctmc, propBSs);
 		//printPartition(ctmc);
 
-		// Iterative splitting
+		// Iterative splitting (rates are treated as for probabilities in a DTMC)
+		encodeDTMC(ctmc);
 		boolean changed = true;
 		while (changed)
-			changed = splitDTMC(ctmc);
+			changed = splitDTMC();
 		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
 		//printPartition(ctmc);
 
 		// Build reduced model
 		CTMCSimple ctmcNew = new CTMCSimple(numBlocks);
+		int reps[] = getRepresentatives();
 		for (int i = 0; i < numBlocks; i++) {
-			for (Map.Entry<Integer, Double> e : mdp.getChoice(i, 0)) {
-				ctmcNew.setProbability((Integer) mdp.getAction(i, 0), e.getKey(), e.getValue());
+			for (Map.Entry<Integer, Double> e : liftRow(reps[i])) {
+				ctmcNew.setProbability(i, e.getKey(), e.getValue());
 			}
 		}
 		attachStatesAndLabels(ctmc, ctmcNew, propNames, propBSs);
@@ -136,6 +181,41 @@ public class Bisimulation extends PrismComponent
 		return ctmcNew;
 	}
 
+	/**
+	 * Perform bisimulation minimisation on an MDP.
+	 * The signature of a state is the set of its distributions lifted to the current partition;
+	 * action labels are ignored (and are not kept in the minimised model).
+	 * @param mdp The MDP
+	 * @param propNames Names of the propositions in {@code propBSs}
+	 * @param propBSs Propositions (satisfying sets of states) to be preserved by bisimulation.
+	 */
+	private MDP minimiseMDP(MDP mdp, List<String> propNames, List<BitSet> propBSs) throws PrismException
+	{
+		// Create initial partition based on propositions
+		initialisePartitionInfo(mdp, propBSs);
+		//printPartition(mdp);
+
+		// Iterative splitting
+		encodeMDP(mdp);
+		boolean changed = true;
+		while (changed)
+			changed = splitMDP();
+		mainLog.println("Minimisation: " + numStates + " to " + numBlocks + " States");
+		//printPartition(mdp);
+
+		// Build reduced model (duplicate choices are removed by MDPSimple)
+		MDPSimple mdpNew = new MDPSimple(numBlocks);
+		int reps[] = getRepresentatives();
+		for (int i = 0; i < numBlocks; i++) {
+			for (int r = choiceStarts[reps[i]]; r < choiceStarts[reps[i] + 1]; r++) {
+				mdpNew.addChoice(i, liftRow(r));
+			}
+		}
+		attachStatesAndLabels(mdp, mdpNew, propNames, propBSs);
+
+		return mdpNew;
+	}
+
 	/**
 	 * Construct the initial partition based on a set of proposition bitsets.
 	 * Store info in {@code numStates}, {@code numBlocks} and {@code partition}.
@@ -182,42 +262,255 @@ public class Bisimulation extends PrismComponent
 	}
 
 	/**
-	 * Perform a split of the current partition, if possible, updating {@code numBlocks} and {@code partition}.
-	 * @return whether or not the partition was split 
+	 * Copy the transitions of a DTMC (or CTMC) to the primitive encoding (one row per state).
 	 */
-	private boolean splitDTMC(DTMC dtmc)
+	private void encodeDTMC(DTMC dtmc)
 	{
-		int s, a, i, numBlocksNew, numChoicesOld;
-		Distribution distrNew;
-		int partitionNew[];
-
-		partitionNew = new int[numStates];
-		numBlocksNew = 0;
-		// Compute the signature for each state (i.e. the distribution for outgoing
-		// transitions, lifted to the current partition)
-		// For convenience, we just store them as an MDP, with action label equal to the index of the block
-		mdp = new MDPSimple(numBlocks);
-		for (s = 0; s < numStates; s++) {
-			// Build lifted distribution
+		numRows = numStates;
+		choiceStarts = null;
+		rowStarts = new int[numRows + 1];
+		cols = new int[Math.max(numStates, 16)];
+		vals = new double[cols.length];
+		int k = 0;
+		for (int s = 0; s < numStates; s++) {
 			Iterator<Map.Entry<Integer, Double>> iter = dtmc.getTransitionsIterator(s);
-			distrNew = new Distribution();
 			while (iter.hasNext()) {
 				Map.Entry<Integer, Double> e = iter.next();
-				distrNew.add(partition[e.getKey()], e.getValue());
+				k = addTransition(k, e.getKey(), e.getValue());
 			}
-			// Store in MDP, update new partition
-			a = partition[s];
-			numChoicesOld = mdp.getNumChoices(a);
-			i = mdp.addChoice(a, distrNew);
-			if (i == numChoicesOld)
-				mdp.setAction(a, i, numBlocksNew++);
-			partitionNew[s] = (Integer) mdp.getAction(a, i);
+			rowStarts[s + 1] = k;
+		}
+		allocateSignatures(k);
+	}
+
+	/**
+	 * Copy the transitions of an MDP to the primitive encoding (one row per choice).
+	 */
+	private void encodeMDP(MDP mdp)
+	{
+		numRows = 0;
+		choiceStarts = new int[numStates + 1];
+		for (int s = 0; s < numStates; s++) {
+			numRows += mdp.getNumChoices(s);
+			choiceStarts[s + 1] = numRows;
+		}
+		rowStarts = new int[numRows + 1];
+		cols = new int[Math.max(numRows, 16)];
+		vals = new double[cols.length];
+		int k = 0, r = 0;
+		for (int s = 0; s < numStates; s++) {
+			for (int i = 0, numChoices = mdp.getNumChoices(s); i < numChoices; i++) {
+				Iterator<Map.Entry<Integer, Double>> iter = mdp.getTransitionsIterator(s, i);
+				while (iter.hasNext()) {
+					Map.Entry<Integer, Double> e = iter.next();
+					k = addTransition(k, e.getKey(), e.getValue());
+				}
+				rowStarts[++r] = k;
+			}
+		}
+		allocateSignatures(k);
+	}
+
+	/**
+	 * Store a transition at index {@code k} of the primitive encoding, growing it if needed.
+	 * Returns the next index.
+	 */
+	private int addTransition(int k, int col, double val)
+	{
+		if (k == cols.length) {
+			cols = Arrays.copyOf(cols, 2 * k);
+			vals = Arrays.copyOf(vals, 2 * k);
+		}
+		cols[k] = col;
+		vals[k] = val;
+		return k + 1;
+	}
+
+	/**
+	 * Trim the primitive encoding to {@code numTransitions} transitions and allocate storage for signatures.
+	 */
+	private void allocateSignatures(int numTransitions)
+	{
+		cols = Arrays.copyOf(cols, numTransitions);
+		vals = Arrays.copyOf(vals, numTransitions);
+		sigBlocks = new int[numTransitions];
+		sigVals = new double[numTransitions];
+		sigLen = new int[numRows];
+		sigHash = new int[numRows];
+	}
+
+	/**
+	 * Compute the signature of each row, i.e., its distribution lifted to the current partition,
+	 * in parallel. Values for the same block are summed in the order of the transitions.
+	 * The hash of a signature only depends on its support (the blocks),
+	 * since values are compared up to a tolerance.
+	 */
+	private void computeSignatures() throws PrismException
+	{
+		ParallelRange.forEachChunk(numThreads, numRows, CHUNK_SIZE, (lo, hi) -> {
+			// (block, index) pairs, sorted to group transitions by block
+			long keys[] = new long[16];
+			for (int r = lo; r < hi; r++) {
+				int start = rowStarts[r];
+				int len = rowStarts[r + 1] - start;
+				if (keys.length < len) {
+					keys = new long[len];
+				}
+				for (int k = 0; k < len; k++) {
+					keys[k] = ((long) partition[cols[start + k]] << 32) | k;
+				}
+				Arrays.sort(keys, 0, len);
+				int numSig = 0;
+				int hash = 1;
+				for (int k = 0; k < len;) {
+					int block = (int) (keys[k] >>> 32);
+					double val = vals[start + (int) keys[k]];
+					for (k++; k < len && (int) (keys[k] >>> 32) == block; k++) {
+						val += vals[start + (int) keys[k]];
+					}
+					if (val != 0.0) {
+						sigBlocks[start + numSig] = block;
+						sigVals[start + numSig] = val;
+						numSig++;
+						hash = 31 * hash + block;
+					}
+				}
+				sigLen[r] = numSig;
+				sigHash[r] = hash;
+			}
+		});
+	}
+
+	/**
+	 * Perform a split of the current partition, if possible, updating {@code numBlocks} and {@code partition}
+	 * (for DTMCs/CTMCs, where rows are states).
+	 * @return whether or not the partition was split 
+	 */
+	private boolean splitDTMC() throws PrismException
+	{
+		// Compute the signature for each state (i.e. the distribution for outgoing
+		// transitions, lifted to the current partition)
+		computeSignatures();
+		// Within each block, states stay together if their signatures are equal (up to the tolerance)
+		int rep[] = splitBlocks(sigHash, this::sameSupport, this::sameValues);
+		return updatePartition(rep);
+	}
+
+	/**
+	 * Perform a split of the current partition, if possible, updating {@code numBlocks} and {@code partition}
+	 * (for MDPs, where rows are choices).
+	 * @return whether or not the partition was split 
+	 */
+	private boolean splitMDP() throws PrismException
+	{
+		// Compute the signature for each choice, and find the distinct ones,
+		// each represented by the first choice with that signature
+		computeSignatures();
+		int rowRep[] = new int[numRows];
+		SignatureTable rowTable = new SignatureTable(new int[numRows], new int[numRows]);
+		rowTable.clear(numRows);
+		for (int r = 0; r < numRows; r++) {
+			rowRep[r] = rowTable.getRepresentative(r, sigHash[r], this::sameSupport, this::sameValues);
+		}
+		// The signature of a state is the (sorted) set of representatives of its choices,
+		// stored at the same offsets as the choices (in parallel)
+		int stateSig[] = new int[numRows];
+		int stateSigLen[] = new int[numStates];
+		int stateSigHash[] = new int[numStates];
+		ParallelRange.forEachChunk(numThreads, numStates, CHUNK_SIZE, (lo, hi) -> {
+			for (int s = lo; s < hi; s++) {
+				int start = choiceStarts[s], end = choiceStarts[s + 1];
+				System.arraycopy(rowRep, start, stateSig, start, end - start);
+				Arrays.sort(stateSig, start, end);
+				int len = 0;
+				int hash = 1;
+				for (int r = start; r < end; r++) {
+					if (len == 0 || stateSig[start + len - 1] != stateSig[r]) {
+						stateSig[start + len++] = stateSig[r];
+						hash = 31 * hash + stateSig[r];
+					}
+				}
+				stateSigLen[s] = len;
+				stateSigHash[s] = hash;
+			}
+		});
+		// Within each block, states stay together if they have the same set of choice signatures
+		int rep[] = splitBlocks(stateSigHash, (s1, s2) -> {
+			if (stateSigLen[s1] != stateSigLen[s2]) {
+				return false;
+			}
+			for (int i = 0; i < stateSigLen[s1]; i++) {
+				if (stateSig[choiceStarts[s1] + i] != stateSig[choiceStarts[s2] + i]) {
+					return false;
+				}
+			}
+			return true;
+		}, (s1, s2) -> true);
+		return updatePartition(rep);
+	}
+
+	/**
+	 * Split each block of the current partition according to state signatures, processing blocks in parallel.
+	 * States of a block are considered in ascending order; each one is compared (via {@code sameKey}
+	 * and then {@code sameSignature}) to the earlier states with a distinct signature and the same hash,
+	 * in order, and is represented by the first match (or, if none, by itself).
+	 * @param hash Hash of the signature of each state
+	 * @param sameKey Whether two states have the same key (e.g., support), determining the comparisons made
+	 * @param sameSignature Whether two states with the same key have the same signature
+	 * @return the representative of each state (which is never greater than the state itself)
+	 */
+	private int[] splitBlocks(int hash[], ItemComparison sameKey, ItemComparison sameSignature) throws PrismException
+	{
+		// List the states of each block, in ascending order
+		int blockStarts[] = new int[numBlocks + 1];
+		for (int s = 0; s < numStates; s++) {
+			blockStarts[partition[s] + 1]++;
+		}
+		for (int b = 0; b < numBlocks; b++) {
+			blockStarts[b + 1] += blockStarts[b];
+		}
+		int blockStates[] = new int[numStates];
+		int fill[] = Arrays.copyOf(blockStarts, numBlocks);
+		for (int s = 0; s < numStates; s++) {
+			blockStates[fill[partition[s]]++] = s;
+		}
+		fill = null;
+		// Find representatives within each block
+		int rep[] = new int[numStates];
+		int next[] = new int[numStates];
+		int hashes[] = new int[numStates];
+		ParallelRange.forEachChunk(numThreads, numBlocks, BLOCK_CHUNK_SIZE, (lo, hi) -> {
+			SignatureTable table = new SignatureTable(next, hashes);
+			for (int b = lo; b < hi; b++) {
+				int start = blockStarts[b], end = blockStarts[b + 1];
+				if (end - start == 1) {
+					rep[blockStates[start]] = blockStates[start];
+					continue;
+				}
+				table.clear(end - start);
+				for (int k = start; k < end; k++) {
+					int s = blockStates[k];
+					rep[s] = table.getRepresentative(s, hash[s], sameKey, sameSignature);
+				}
+			}
+		});
+		return rep;
+	}
+
+	/**
+	 * Update {@code numBlocks} and {@code partition}, given the representative of each state
+	 * (as computed by {@link #splitBlocks}). New blocks are numbered in order of their first state.
+	 * @return whether or not the partition was split 
+	 */
+	private boolean updatePartition(int rep[])
+	{
+		int partitionNew[] = new int[numStates];
+		int numBlocksNew = 0;
+		for (int s = 0; s < numStates; s++) {
+			partitionNew[s] = rep[s] == s ? numBlocksNew++ : partitionNew[rep[s]];
 		}
 		// Debug info
 		//mainLog.println("New partition: " + java.util.Arrays.toString(partitionNew));
-		//mainLog.println("Signatures MDP: " + mdp.infoString());
-		//mainLog.println("Signatures MDP: " + mdp);
-		//try { mdp.exportToDotFile("mdp.dot"); } catch (PrismException e) {}
 		// Update info
 		boolean changed = numBlocks != numBlocksNew;
 		partition = partitionNew;
@@ -226,6 +519,140 @@ public class Bisimulation extends PrismComponent
 		return changed;
 	}
 
+	/**
+	 * Do the signatures of rows {@code r1} and {@code r2} have the same blocks?
+	 */
+	private boolean sameSupport(int r1, int r2)
+	{
+		int len = sigLen[r1];
+		if (len != sigLen[r2]) {
+			return false;
+		}
+		for (int i = 0, k1 = rowStarts[r1], k2 = rowStarts[r2]; i < len; i++) {
+			if (sigBlocks[k1 + i] != sigBlocks[k2 + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Are the values in the signatures of rows {@code r1} and {@code r2}
+	 * (with the same support) equal, up to the tolerance (relative to those of {@code r1})?
+	 */
+	private boolean sameValues(int r1, int r2)
+	{
+		for (int i = 0, k1 = rowStarts[r1], k2 = rowStarts[r2], len = sigLen[r1]; i < len; i++) {
+			if (!PrismUtils.doublesAreClose(sigVals[k1 + i], sigVals[k2 + i], EPSILON, false)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Get the distribution of row {@code r}, lifted to the current partition.
+	 */
+	private Distribution liftRow(int r)
+	{
+		Distribution distr = new Distribution();
+		for (int k = rowStarts[r]; k < rowStarts[r + 1]; k++) {
+			distr.add(partition[cols[k]], vals[k]);
+		}
+		return distr;
+	}
+
+	/**
+	 * Get a representative (the first state) for each block of the current partition.
+	 */
+	private int[] getRepresentatives()
+	{
+		int reps[] = new int[numBlocks];
+		Arrays.fill(reps, -1);
+		for (int s = 0; s < numStates; s++) {
+			if (reps[partition[s]] == -1) {
+				reps[partition[s]] = s;
+			}
+		}
+		return reps;
+	}
+
+	/** Comparison of two items (states or rows), the first being the new one */
+	@FunctionalInterface
+	private interface ItemComparison
+	{
+		boolean test(int i1, int i2);
+	}
+
+	/**
+	 * Hash table finding, for a sequence of items (states or rows), the first earlier item with the same signature.
+	 * Items with the same hash and key (e.g., support) are compared with the earlier ones with a distinct signature,
+	 * in order, and are represented by the first match (matching may use a tolerance, so is not necessarily transitive).
+	 * Per-item info is stored in arrays that can be shared by tables used for disjoint sets of items.
+	 */
+	private static class SignatureTable
+	{
+		/** Open addressing table of the first item for each key (-1 = empty) */
+		private int table[] = new int[16];
+		private int mask;
+		/** Next item with the same key but a distinct signature (-1 = none) */
+		private final int next[];
+		/** Hash of each item */
+		private final int hashes[];
+
+		SignatureTable(int next[], int hashes[])
+		{
+			this.next = next;
+			this.hashes = hashes;
+		}
+
+		/**
+		 * Remove all items and prepare for (at most) {@code numItems} new ones.
+		 */
+		void clear(int numItems)
+		{
+			int capacity = Integer.highestOneBit(Math.max(2 * numItems - 1, 1)) << 1;
+			if (capacity > table.length) {
+				table = new int[capacity];
+			}
+			mask = capacity - 1;
+			Arrays.fill(table, 0, capacity, -1);
+		}
+
+		/**
+		 * Add item {@code i}, with hash {@code hash}, and get its representative,
+		 * i.e., the first earlier item with the same signature, or {@code i} itself if there is none.
+		 * @param sameKey Whether two items have the same key
+		 * @param sameSignature Whether two items with the same key have the same signature
+		 */
+		int getRepresentative(int i, int hash, ItemComparison sameKey, ItemComparison sameSignature)
+		{
+			hashes[i] = hash;
+			next[i] = -1;
+			int slot = (hash * 0x9E3779B9) >>> 1 & mask;
+			while (table[slot] != -1) {
+				int j = table[slot];
+				if (hashes[j] == hash && sameKey.test(i, j)) {
+					// Look for a matching signature among those with the same key
+					while (true) {
+						if (sameSignature.test(i, j)) {
+							return j;
+						}
+						if (next[j] == -1) {
+							break;
+						}
+						j = next[j];
+					}
+					next[j] = i;
+					return i;
+				}
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = i;
+			return i;
+		}
+	}
+
 	/**
 	 * Display the current partition, showing the states in each block.
 	 */
@@ -0,0 +1,250 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+
+/**
+ * Immutable storage for the column (destination) indices of the transitions of a sparse model
+ * (see {@link DTMCSparse}, {@link MDPSparse}). Since columns may be stored relative to
+ * the source state, the latter has to be passed when accessing a column.
+ * <br>
+ * Besides plain {@code int}s, columns can be stored in compressed form ({@link Type#DELTA}):
+ * each column is stored as a 2-byte difference to its source state. Differences that do not
+ * fit are stored separately, in full, and are slower to access. This pays off if most
+ * transitions stay close to their source state, e.g. after breadth-first state ordering.
+ */
+public abstract class ColumnStorage
+{
+	/** How to store columns */
+	public enum Type {
+		INT, DELTA
+	};
+
+	/**
+	 * Get the column for the {@code k}th transition, whose source state is {@code s}.
+	 */
+	public abstract int get(int k, int s);
+
+	/**
+	 * Get the number of transitions.
+	 */
+	public abstract int size();
+
+	/**
+	 * Get the way in which the columns are actually stored.
+	 */
+	public abstract Type getType();
+
+	/**
+	 * Get (an estimate of) the number of bytes used for storage.
+	 */
+	public abstract long getMemoryBytes();
+
+	/**
+	 * Get the underlying array if the columns are stored as plain ints, or null otherwise.
+	 * This allows performance-critical loops to bypass {@link #get(int, int)}.
+	 */
+	public int[] getIntArray()
+	{
+		return null;
+	}
+
+	/**
+	 * Get the columns as a (new) array of ints.
+	 * {@code transStarts[s]} should give the index of the first transition
+	 * of state {@code s} (array of size numStates+1).
+	 */
+	public int[] toArray(int transStarts[])
+	{
+		int array[] = new int[size()];
+		for (int s = 0, numStates = transStarts.length - 1; s < numStates; s++) {
+			for (int k = transStarts[s]; k < transStarts[s + 1]; k++) {
+				array[k] = get(k, s);
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * Create storage for the given columns, of the given type.
+	 * For {@code DELTA}, {@code transStarts[s]} should give the index of the first transition
+	 * of state {@code s} (array of size numStates+1). If too many columns are far
+	 * from their source state for this to save memory, ints are used instead.
+	 * For {@code INT}, the array is not copied.
+	 */
+	public static ColumnStorage create(int cols[], Type type, int transStarts[])
+	{
+		switch (type) {
+		case DELTA:
+			ColumnStorage delta = DeltaStorage.create(cols, transStarts);
+			return delta != null ? delta : new IntStorage(cols);
+		case INT:
+		default:
+			return new IntStorage(cols);
+		}
+	}
+
+	/**
+	 * Columns stored as ints.
+	 */
+	public static final class IntStorage extends ColumnStorage
+	{
+		private final int cols[];
+
+		public IntStorage(int cols[])
+		{
+			this.cols = cols;
+		}
+
+		@Override
+		public int get(int k, int s)
+		{
+			return cols[k];
+		}
+
+		@Override
+		public int[] getIntArray()
+		{
+			return cols;
+		}
+
+		@Override
+		public int size()
+		{
+			return cols.length;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.INT;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			return 4L * cols.length;
+		}
+	}
+
+	/**
+	 * Columns stored as 2-byte differences to the source state,
+	 * with those that do not fit stored separately.
+	 */
+	public static final class DeltaStorage extends ColumnStorage
+	{
+		/** Marker for a difference that does not fit */
+		private static final short ESCAPE = Short.MIN_VALUE;
+
+		/** Difference between column and source state, or ESCAPE */
+		private final short deltas[];
+		/** Indices of escaped transitions (ascending) */
+		private final int escapedIndices[];
+		/** Columns of escaped transitions */
+		private final int escapedCols[];
+
+		private DeltaStorage(short deltas[], int escapedIndices[], int escapedCols[])
+		{
+			this.deltas = deltas;
+			this.escapedIndices = escapedIndices;
+			this.escapedCols = escapedCols;
+		}
+
+		/**
+		 * Create delta storage, or return null if it would not save memory.
+		 */
+		static DeltaStorage create(int cols[], int transStarts[])
+		{
+			int numStates = transStarts.length - 1;
+			// Count escapes; give up if they use up the savings
+			int numEscaped = 0;
+			for (int s = 0; s < numStates; s++) {
+				for (int k = transStarts[s]; k < transStarts[s + 1]; k++) {
+					if (!fits(cols[k] - (long) s)) {
+						numEscaped++;
+					}
+				}
+			}
+			if (8L * numEscaped >= 2L * cols.length) {
+				return null;
+			}
+			short deltas[] = new short[cols.length];
+			int escapedIndices[] = new int[numEscaped];
+			int escapedCols[] = new int[numEscaped];
+			int e = 0;
+			for (int s = 0; s < numStates; s++) {
+				for (int k = transStarts[s]; k < transStarts[s + 1]; k++) {
+					long d = cols[k] - (long) s;
+					if (fits(d)) {
+						deltas[k] = (short) d;
+					} else {
+						deltas[k] = ESCAPE;
+						escapedIndices[e] = k;
+						escapedCols[e] = cols[k];
+						e++;
+					}
+				}
+			}
+			return new DeltaStorage(deltas, escapedIndices, escapedCols);
+		}
+
+		/** Can difference {@code d} be stored directly? */
+		private static boolean fits(long d)
+		{
+			return d > ESCAPE && d <= Short.MAX_VALUE;
+		}
+
+		@Override
+		public int get(int k, int s)
+		{
+			short d = deltas[k];
+			if (d != ESCAPE) {
+				return s + d;
+			}
+			return escapedCols[Arrays.binarySearch(escapedIndices, k)];
+		}
+
+		@Override
+		public int size()
+		{
+			return deltas.length;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.DELTA;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			return 2L * deltas.length + 8L * escapedIndices.length;
+		}
+	}
+}
@@ -29,13 +29,25 @@ package explicit;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import parser.State;
+import parser.StatePacker;
 import parser.Values;
 import parser.VarList;
+import parser.ast.Expression;
 import prism.ModelGenerator;
 import prism.ModelType;
 import prism.Prism;
@@ -44,6 +56,7 @@ import prism.PrismException;
 import prism.PrismLog;
 import prism.PrismNotSupportedException;
 import prism.PrismPrintStreamLog;
+import prism.PrismSettings;
 import prism.ProgressDisplay;
 import prism.UndefinedConstants;
 
@@ -67,6 +80,23 @@ public class ConstructModel extends PrismComponent
 	protected boolean distinguishActions = true;
 	/** Should labels be processed and attached to the model? */
 	protected boolean attachLabels = true; 
+	/** Number of worker threads to use for state space exploration (1 = sequential) */
+	protected int numThreads = 1;
+	/** Store states in packed form during construction, if possible? */
+	protected boolean packStates = false;
+	/** Where to store (packed) states during construction */
+	protected StateStorageType stateStorageType = StateStorageType.HEAP;
+	/** Directory for memory-mapped state storage (null = system default) */
+	protected File stateStorageDir = null;
+	/** How to store probabilities in sparse models */
+	protected ProbabilityStorage.Type probabilityStorageType = ProbabilityStorage.Type.DOUBLE;
+	/** How to store columns in sparse models */
+	protected ColumnStorage.Type columnStorageType = ColumnStorage.Type.INT;
+
+	/** Where to store states during construction */
+	public enum StateStorageType {
+		HEAP, OFF_HEAP, MEMORY_MAPPED
+	};
 
 	// Details of built model:
 
@@ -76,6 +106,33 @@ public class ConstructModel extends PrismComponent
 	public ConstructModel(PrismComponent parent) throws PrismException
 	{
 		super(parent);
+		if (settings != null) {
+			setNumThreads(settings.getInteger(PrismSettings.PRISM_EXPLICIT_NUM_THREADS));
+			setPackStates(settings.getBoolean(PrismSettings.PRISM_EXPLICIT_PACK_STATES));
+			String s = settings.getString(PrismSettings.PRISM_EXPLICIT_STATE_STORAGE);
+			if (s.equals("Heap")) {
+				setStateStorageType(StateStorageType.HEAP);
+			} else if (s.equals("Off-heap")) {
+				setStateStorageType(StateStorageType.OFF_HEAP);
+			} else if (s.equals("Memory-mapped")) {
+				setStateStorageType(StateStorageType.MEMORY_MAPPED);
+			} else {
+				throw new PrismNotSupportedException("Unknown state storage type \"" + s + "\"");
+			}
+			s = settings.getString(PrismSettings.PRISM_EXPLICIT_STATE_STORAGE_DIR);
+			setStateStorageDir("".equals(s) ? null : new File(s));
+			s = settings.getString(PrismSettings.PRISM_EXPLICIT_PROB_STORAGE);
+			if (s.equals("Double")) {
+				setProbabilityStorageType(ProbabilityStorage.Type.DOUBLE);
+			} else if (s.equals("Float")) {
+				setProbabilityStorageType(ProbabilityStorage.Type.FLOAT);
+			} else if (s.equals("Dictionary")) {
+				setProbabilityStorageType(ProbabilityStorage.Type.DICTIONARY);
+			} else {
+				throw new PrismNotSupportedException("Unknown probability storage type \"" + s + "\"");
+			}
+			setColumnStorageType(settings.getBoolean(PrismSettings.PRISM_EXPLICIT_COMPRESS_COLUMNS) ? ColumnStorage.Type.DELTA : ColumnStorage.Type.INT);
+		}
 	}
 
 	/**
@@ -98,12 +155,22 @@ public class ConstructModel extends PrismComponent
 	/**
 	 * Build a sparse representation, if possible?
 	 * (e.g. MDPSparse rather than MDPSimple data structure)
+	 * For DTMCs and MDPs, this is built directly during exploration (see {@link SparseModelBuilder}),
+	 * without an intermediate DTMCSimple/MDPSimple.
 	 */
 	public void setBuildSparse(boolean buildSparse)
 	{
 		this.buildSparse = buildSparse;
 	}
 
+	/**
+	 * Is a sparse representation built, if possible? (see {@link #setBuildSparse(boolean)})
+	 */
+	public boolean getBuildSparse()
+	{
+		return buildSparse;
+	}
+
 	/**
 	 * Should actions be attached to distributions (and used to distinguish them)?
 	 */
@@ -120,6 +187,92 @@ public class ConstructModel extends PrismComponent
 		this.attachLabels = attachLabels;
 	}
 
+	/**
+	 * Set the number of worker threads to use for state space exploration.
+	 * If this is greater than 1, and the ModelGenerator supports {@link ModelGenerator#createCopy()},
+	 * states are explored in parallel, one ModelGenerator copy per thread.
+	 * The resulting model (including state numbering) is identical to the sequential case.
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = Math.max(numThreads, 1);
+	}
+
+	/**
+	 * Store states in packed form (see {@link StatePacker}) during construction, if possible?
+	 * This requires all variables to be bounded; the resulting list of states
+	 * (see {@link #getStatesList()}) is then also stored in packed form,
+	 * which saves memory but decodes (and allocates) a new State on each access.
+	 * Default: false (but states are always packed for storage other than {@code HEAP}).
+	 */
+	public void setPackStates(boolean packStates)
+	{
+		this.packStates = packStates;
+	}
+
+	/**
+	 * Set where to store states during construction.
+	 * Anything other than {@code HEAP} requires states to be packed
+	 * (see {@link #setPackStates(boolean)}), which is then done if possible.
+	 */
+	public void setStateStorageType(StateStorageType stateStorageType)
+	{
+		this.stateStorageType = stateStorageType;
+	}
+
+	/**
+	 * Set the directory for temporary files used by memory-mapped state storage
+	 * (null means the system's default temporary directory).
+	 */
+	public void setStateStorageDir(File stateStorageDir)
+	{
+		this.stateStorageDir = stateStorageDir;
+	}
+
+	/**
+	 * Set how probabilities are stored in sparse models built directly during exploration
+	 * (see {@link ProbabilityStorage}).
+	 */
+	public void setProbabilityStorageType(ProbabilityStorage.Type probabilityStorageType)
+	{
+		this.probabilityStorageType = probabilityStorageType;
+	}
+
+	/**
+	 * Set how columns are stored in sparse models built directly during exploration
+	 * (see {@link ColumnStorage}).
+	 */
+	public void setColumnStorageType(ColumnStorage.Type columnStorageType)
+	{
+		this.columnStorageType = columnStorageType;
+	}
+
+	/**
+	 * Get a description of the options that affect the model built by this class
+	 * (e.g. for use as part of a model cache key, see {@link prism.ModelCache}).
+	 * States of built models are always sorted, so this is included too.
+	 */
+	public String getOptionsDescription()
+	{
+		return "fixdl=" + fixDeadlocks + ",sparse=" + buildSparse + ",actions=" + distinguishActions + ",sort=true";
+	}
+
+	/**
+	 * Convert the storage of a sparse model (e.g. one loaded from a file)
+	 * to match the probability/column storage options of this class.
+	 * Models of other kinds are left unchanged.
+	 */
+	public void convertStorage(Model model)
+	{
+		if (model instanceof DTMCSparse) {
+			((DTMCSparse) model).setProbabilityStorageType(probabilityStorageType);
+			((DTMCSparse) model).setColumnStorageType(columnStorageType);
+		} else if (model instanceof MDPSparse) {
+			((MDPSparse) model).setProbabilityStorageType(probabilityStorageType);
+			((MDPSparse) model).setColumnStorageType(columnStorageType);
+		}
+	}
+
 	/**
 	 * Build the set of reachable states for a model and return it.
 	 * @param modelGen The ModelGenerator interface providing the model 
@@ -152,18 +305,22 @@ public class ConstructModel extends PrismComponent
 		ModelType modelType;
 		// State storage
 		StateStorage<State> states;
-		LinkedList<State> explore;
-		State state, stateNew;
+		PackedStateStorage packedStates = null;
+		Queue<State> explore;
+		State stateNew;
 		// Explicit model storage
 		ModelSimple modelSimple = null;
 		DTMCSimple dtmc = null;
 		CTMCSimple ctmc = null;
 		MDPSimple mdp = null;
 		CTMDPSimple ctmdp = null;
+		SparseModelBuilder sparseBuilder = null;
 		ModelExplicit model = null;
 		Distribution distr = null;
 		// Misc
 		int i, j, nc, nt, src, dest;
+		double prob;
+		Object action;
 		long timer;
 
 		// Get model info
@@ -182,7 +339,12 @@ public class ConstructModel extends PrismComponent
 		timer = System.currentTimeMillis();
 
 		// Create model storage
-		if (!justReach) {
+		if (!justReach && buildSparse && (modelType == ModelType.DTMC || modelType == ModelType.MDP)) {
+			// Build a sparse model directly, if possible
+			sparseBuilder = new SparseModelBuilder(modelType);
+			sparseBuilder.setProbabilityStorageType(probabilityStorageType);
+			sparseBuilder.setColumnStorageType(columnStorageType);
+		} else if (!justReach) {
 			// Create a (simple, mutable) model of the appropriate type
 			switch (modelType) {
 			case DTMC:
@@ -210,88 +372,137 @@ public class ConstructModel extends PrismComponent
 		}
 
 		// Initialise states storage
-		states = new IndexedSet<State>(true);
-		explore = new LinkedList<State>();
+		if ((packStates || stateStorageType != StateStorageType.HEAP) && StatePacker.canPack(varList)) {
+			states = packedStates = createPackedStateStorage(new StatePacker(varList));
+			explore = new PackedExploreQueue(packedStates);
+		} else {
+			if (stateStorageType != StateStorageType.HEAP) {
+				mainLog.printWarning("States cannot be stored off-heap (they need to be packed, so all variables must be bounded)");
+			}
+			states = new IndexedSet<State>(true);
+			explore = new LinkedList<State>();
+		}
 		// Add initial state(s) to 'explore', 'states' and to the model
 		for (State initState : modelGen.getInitialStates()) {
 			explore.add(initState);
-			states.add(initState);
-			if (!justReach) {
+			if (packedStates != null) {
+				packedStates.addState(initState);
+			} else {
+				states.add(initState);
+			}
+			if (sparseBuilder != null) {
+				sparseBuilder.addInitialState(states.size() - 1);
+			} else if (!justReach) {
 				modelSimple.addState();
 				modelSimple.addInitialState(modelSimple.getNumStates() - 1);
 			}
 		}
+		// Set up parallel exploration, if required
+		ParallelExplorer parallelExplorer = null;
+		if (numThreads > 1) {
+			parallelExplorer = ParallelExplorer.create(modelGen, numThreads);
+			if (parallelExplorer == null) {
+				mainLog.printWarning("Model generator does not support parallel exploration: using a single thread");
+			}
+		}
+		// For nondeterministic models, we need the actions of choices
+		boolean storeActions = !justReach && modelType.nondeterministic() && distinguishActions;
 		// Explore...
 		src = -1;
-		while (!explore.isEmpty()) {
-			// Pick next state to explore
-			// (they are stored in order found so know index is src+1)
-			state = explore.removeFirst();
-			src++;
-			// Explore all choices/transitions from this state
-			modelGen.exploreState(state);
-			// Look at each outgoing choice in turn
-			nc = modelGen.getNumChoices();
-			for (i = 0; i < nc; i++) {
-				// For nondet models, collect transitions in a Distribution
-				if (!justReach && modelType.nondeterministic()) {
-					distr = new Distribution();
+		try {
+			while (!explore.isEmpty()) {
+				// Pick next state(s) to explore and compute their outgoing choices/transitions
+				// (they are stored in order found so know index of each is src+1)
+				// With a single thread, they are read directly from the model generator
+				int numExplored;
+				if (parallelExplorer != null) {
+					numExplored = parallelExplorer.exploreNext(explore, storeActions);
+				} else {
+					modelGen.exploreState(explore.poll());
+					numExplored = 1;
 				}
-				// Look at each transition in the choice
-				nt = modelGen.getNumTransitions(i);
-				for (j = 0; j < nt; j++) {
-					stateNew = modelGen.computeTransitionTarget(i, j);
-					// Is this a new state?
-					if (states.add(stateNew)) {
-						// If so, add to the explore list
-						explore.add(stateNew);
-						// And to model
-						if (!justReach) {
-							modelSimple.addState();
-						}
-					}
-					// Get index of state in state set
-					dest = states.getIndexOfLastAdd();
-					// Add transitions to model
-					if (!justReach) {
-						switch (modelType) {
-						case DTMC:
-							dtmc.addToProbability(src, dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case CTMC:
-							ctmc.addToProbability(src, dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case MDP:
-						case CTMDP:
-							distr.add(dest, modelGen.getTransitionProbability(i, j));
-							break;
-						case STPG:
-						case SMG:
-						case PTA:
-						case LTS:
-							throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
+				// Process explored states in order, so that state indices match the sequential case
+				for (int k = 0; k < numExplored; k++) {
+					ExploredState exploredState = parallelExplorer != null ? parallelExplorer.explored[k] : null;
+					src++;
+					// Look at each outgoing choice in turn
+					nc = exploredState != null ? exploredState.getNumChoices() : modelGen.getNumChoices();
+					for (i = 0; i < nc; i++) {
+						// For nondet models, collect transitions in a Distribution
+						if (modelSimple != null && modelType.nondeterministic()) {
+							distr = new Distribution();
 						}
-					}
-				}
-				// For nondet models, add collated transition to model 
-				if (!justReach) {
-					if (modelType == ModelType.MDP) {
-						if (distinguishActions) {
-							mdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
-						} else {
-							mdp.addChoice(src, distr);
+						// Look at each transition in the choice
+						nt = exploredState != null ? exploredState.getNumTransitions(i) : modelGen.getNumTransitions(i);
+						for (j = 0; j < nt; j++) {
+							stateNew = exploredState != null ? exploredState.getTransitionTarget(i, j) : modelGen.computeTransitionTarget(i, j);
+							prob = exploredState != null ? exploredState.getTransitionProbability(i, j) : modelGen.getTransitionProbability(i, j);
+							// Is this a new state?
+							// (packed storage is checked, e.g. for values outside a variable's range)
+							if (packedStates != null ? packedStates.addState(stateNew) : states.add(stateNew)) {
+								// If so, add to the explore list
+								explore.add(stateNew);
+								// And to model
+								if (modelSimple != null) {
+									modelSimple.addState();
+								}
+							}
+							// Get index of state in state set
+							dest = states.getIndexOfLastAdd();
+							// Add transitions to model
+							if (sparseBuilder != null) {
+								sparseBuilder.addTransition(dest, prob);
+							} else if (!justReach) {
+								switch (modelType) {
+								case DTMC:
+									dtmc.addToProbability(src, dest, prob);
+									break;
+								case CTMC:
+									ctmc.addToProbability(src, dest, prob);
+									break;
+								case MDP:
+								case CTMDP:
+									distr.add(dest, prob);
+									break;
+								case STPG:
+								case SMG:
+								case PTA:
+								case LTS:
+									throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
+								}
+							}
 						}
-					} else if (modelType == ModelType.CTMDP) {
-						if (distinguishActions) {
-							ctmdp.addActionLabelledChoice(src, distr, modelGen.getChoiceAction(i));
-						} else {
-							ctmdp.addChoice(src, distr);
+						// For nondet models, add collated transition to model 
+						action = !storeActions ? null : exploredState != null ? exploredState.getChoiceAction(i) : modelGen.getChoiceAction(i);
+						if (sparseBuilder != null) {
+							sparseBuilder.finishChoice(action);
+						} else if (!justReach) {
+							if (modelType == ModelType.MDP) {
+								if (distinguishActions) {
+									mdp.addActionLabelledChoice(src, distr, action);
+								} else {
+									mdp.addChoice(src, distr);
+								}
+							} else if (modelType == ModelType.CTMDP) {
+								if (distinguishActions) {
+									ctmdp.addActionLabelledChoice(src, distr, action);
+								} else {
+									ctmdp.addChoice(src, distr);
+								}
+							}
 						}
 					}
+					if (sparseBuilder != null) {
+						sparseBuilder.finishState();
+					}
+					// Print some progress info occasionally
+					progress.updateIfReady(src + 1);
 				}
 			}
-			// Print some progress info occasionally
-			progress.updateIfReady(src + 1);
+		} finally {
+			if (parallelExplorer != null) {
+				parallelExplorer.shutdown();
+			}
 		}
 
 		// Finish progress display
@@ -305,7 +516,11 @@ public class ConstructModel extends PrismComponent
 
 		// Find/fix deadlocks (if required)
 		if (!justReach && findDeadlocks) {
-			modelSimple.findDeadlocks(fixDeadlocks);
+			if (sparseBuilder != null) {
+				sparseBuilder.findDeadlocks(fixDeadlocks);
+			} else {
+				modelSimple.findDeadlocks(fixDeadlocks);
+			}
 		}
 
 		boolean sort = true;
@@ -315,17 +530,24 @@ public class ConstructModel extends PrismComponent
 			// Sort states and convert set to list
 			mainLog.println("Sorting reachable states list...");
 			permut = states.buildSortingPermutation();
-			statesList = states.toPermutedArrayList(permut);
+			statesList = packedStates != null ? packedStates.toPermutedStateList(permut) : states.toPermutedArrayList(permut);
 			//mainLog.println(permut);
 		} else {
-			statesList = states.toArrayList();
+			statesList = packedStates != null ? packedStates.getStateList() : states.toArrayList();
+		}
+		// (packed storage is just dropped, since clearing it would allocate new, empty storage)
+		if (packedStates == null) {
+			states.clear();
 		}
-		states.clear();
-		states = null;
+		states = packedStates = null;
 		//mainLog.println(statesList);
 
 		// Construct new explicit-state model (with correct state ordering)
-		if (!justReach) {
+		if (sparseBuilder != null) {
+			model = sparseBuilder.build(permut);
+			model.setVarList(varList);
+			sparseBuilder = null;
+		} else if (!justReach) {
 			switch (modelType) {
 			case DTMC:
 				if (buildSparse) {
@@ -353,6 +575,8 @@ public class ConstructModel extends PrismComponent
 			case LTS:
 				throw new PrismNotSupportedException("Model construction not supported for " + modelType + "s");
 			}
+		}
+		if (!justReach) {
 			model.setStatesList(statesList);
 			model.setConstantValues(new Values(modelGen.getConstantValues()));
 			//mainLog.println("Model: " + model);
@@ -367,6 +591,264 @@ public class ConstructModel extends PrismComponent
 		return model;
 	}
 
+	/**
+	 * Create storage for packed states, of the type specified by {@link #stateStorageType}.
+	 */
+	private PackedStateStorage createPackedStateStorage(StatePacker packer) throws PrismException
+	{
+		switch (stateStorageType) {
+		case OFF_HEAP:
+			return new OffHeapStateStorage(packer);
+		case MEMORY_MAPPED:
+			File dir = stateStorageDir != null ? stateStorageDir : new File(System.getProperty("java.io.tmpdir"));
+			return new OffHeapStateStorage(packer, dir);
+		case HEAP:
+		default:
+			return new PackedStateStorage(packer);
+		}
+	}
+
+	/**
+	 * Storage for the outgoing choices/transitions of a single explored state,
+	 * copied out of a ModelGenerator so that it can be processed later.
+	 * Arrays are grown as needed and reused between states.
+	 */
+	private static class ExploredState
+	{
+		/** Number of choices */
+		int numChoices;
+		/** Action label of each choice (if stored) */
+		Object[] actions = new Object[4];
+		/** Index of the first transition of each choice (and, at the end, the total number of transitions) */
+		int[] choiceStarts = new int[5];
+		/** Target state of each transition */
+		State[] targets = new State[8];
+		/** Probability/rate of each transition */
+		double[] probs = new double[8];
+
+		/**
+		 * Explore state {@code state} using {@code modelGen} and store its choices/transitions.
+		 * @param storeActions Whether to store the action labels of choices
+		 */
+		void explore(ModelGenerator modelGen, State state, boolean storeActions) throws PrismException
+		{
+			modelGen.exploreState(state);
+			numChoices = modelGen.getNumChoices();
+			if (choiceStarts.length < numChoices + 1) {
+				actions = new Object[2 * numChoices];
+				choiceStarts = new int[2 * numChoices + 1];
+			}
+			int k = 0;
+			for (int i = 0; i < numChoices; i++) {
+				choiceStarts[i] = k;
+				actions[i] = storeActions ? modelGen.getChoiceAction(i) : null;
+				int nt = modelGen.getNumTransitions(i);
+				if (targets.length < k + nt) {
+					int size = Math.max(2 * targets.length, k + nt);
+					targets = Arrays.copyOf(targets, size);
+					probs = Arrays.copyOf(probs, size);
+				}
+				for (int j = 0; j < nt; j++, k++) {
+					targets[k] = modelGen.computeTransitionTarget(i, j);
+					probs[k] = modelGen.getTransitionProbability(i, j);
+				}
+			}
+			choiceStarts[numChoices] = k;
+		}
+
+		/** Get the number of choices (as for {@link ModelGenerator#getNumChoices()}) */
+		int getNumChoices()
+		{
+			return numChoices;
+		}
+
+		/** Get the number of transitions of choice {@code i} */
+		int getNumTransitions(int i)
+		{
+			return choiceStarts[i + 1] - choiceStarts[i];
+		}
+
+		/** Get the action label of choice {@code i} (null if not stored) */
+		Object getChoiceAction(int i)
+		{
+			return actions[i];
+		}
+
+		/** Get the target of transition {@code j} of choice {@code i} */
+		State getTransitionTarget(int i, int j)
+		{
+			return targets[choiceStarts[i] + j];
+		}
+
+		/** Get the probability/rate of transition {@code j} of choice {@code i} */
+		double getTransitionProbability(int i, int j)
+		{
+			return probs[choiceStarts[i] + j];
+		}
+	}
+
+	/**
+	 * Exploration queue for states kept in a {@link PackedStateStorage}.
+	 * States are explored in the order in which they are found, so the queue is just
+	 * the stored states after the last one explored, and nothing extra needs to be kept.
+	 */
+	private static class PackedExploreQueue extends AbstractQueue<State>
+	{
+		private PackedStateStorage states;
+		/** Index of the next state to explore */
+		private int next;
+
+		PackedExploreQueue(PackedStateStorage states)
+		{
+			this.states = states;
+			next = 0;
+		}
+
+		@Override
+		public boolean offer(State state)
+		{
+			// Nothing to do: the state has been (or is about to be) added to the storage
+			return true;
+		}
+
+		@Override
+		public State poll()
+		{
+			return next < states.size() ? states.getState(next++) : null;
+		}
+
+		@Override
+		public State peek()
+		{
+			return next < states.size() ? states.getState(next) : null;
+		}
+
+		@Override
+		public int size()
+		{
+			return states.size() - next;
+		}
+
+		@Override
+		public Iterator<State> iterator()
+		{
+			return states.getStateList().subList(next, states.size()).iterator();
+		}
+	}
+
+	/**
+	 * Explores batches of states in parallel, using a pool of worker threads,
+	 * each of which owns its own copy of the ModelGenerator.
+	 * Results are stored in {@link #explored}, in the same order as the states
+	 * were taken from the exploration queue.
+	 * <br>
+	 * Only successor generation is done in parallel. Adding the successors to the state storage
+	 * (and the model) is left to the calling thread, which processes each batch in queue order.
+	 * This is deliberately simpler than a concurrent state storage: states get the same indices
+	 * as in a sequential build without any renumbering afterwards, and the StateStorage
+	 * implementations need no synchronisation.
+	 */
+	private static class ParallelExplorer
+	{
+		/** Number of states explored per batch, per thread */
+		private static final int BATCH_SIZE_PER_THREAD = 1024;
+		/** Number of states claimed at a time by a worker thread */
+		private static final int CHUNK_SIZE = 16;
+
+		private ExecutorService executor;
+		private ModelGenerator modelGens[];
+		private State batch[];
+		/** Results of the last call to {@link #exploreNext} */
+		ExploredState explored[];
+
+		/**
+		 * Create a ParallelExplorer for {@code modelGen} with {@code numThreads} threads,
+		 * or return null if {@code modelGen} cannot be copied.
+		 */
+		static ParallelExplorer create(ModelGenerator modelGen, int numThreads) throws PrismException
+		{
+			ModelGenerator modelGens[] = new ModelGenerator[numThreads];
+			for (int t = 0; t < numThreads; t++) {
+				modelGens[t] = modelGen.createCopy();
+				if (modelGens[t] == null) {
+					return null;
+				}
+			}
+			return new ParallelExplorer(modelGens);
+		}
+
+		private ParallelExplorer(ModelGenerator modelGens[])
+		{
+			this.modelGens = modelGens;
+			int batchSize = BATCH_SIZE_PER_THREAD * modelGens.length;
+			batch = new State[batchSize];
+			explored = new ExploredState[batchSize];
+			for (int k = 0; k < batchSize; k++) {
+				explored[k] = new ExploredState();
+			}
+			executor = Executors.newFixedThreadPool(modelGens.length, r -> {
+				Thread thread = new Thread(r, "ConstructModel worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		/**
+		 * Remove the next batch of states from the head of {@code explore} and explore them in parallel.
+		 * Returns the number of states explored; the results are in the first elements of {@link #explored}.
+		 * @param storeActions Whether to store the action labels of choices
+		 */
+		int exploreNext(Queue<State> explore, boolean storeActions) throws PrismException
+		{
+			int n = 0;
+			while (n < batch.length && !explore.isEmpty()) {
+				batch[n++] = explore.poll();
+			}
+			final int numStates = n;
+			AtomicInteger next = new AtomicInteger(0);
+			List<Future<Object>> futures = new ArrayList<Future<Object>>(modelGens.length);
+			for (ModelGenerator modelGen : modelGens) {
+				futures.add(executor.submit(() -> {
+					int lo;
+					while ((lo = next.getAndAdd(CHUNK_SIZE)) < numStates) {
+						int hi = Math.min(lo + CHUNK_SIZE, numStates);
+						for (int k = lo; k < hi; k++) {
+							explored[k].explore(modelGen, batch[k], storeActions);
+						}
+					}
+					return null;
+				}));
+			}
+			try {
+				for (Future<Object> future : futures) {
+					future.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PrismException("Interrupted during parallel state space exploration");
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof PrismException) {
+					throw (PrismException) e.getCause();
+				}
+				throw new PrismException("Error during parallel state space exploration: " + e.getCause());
+			} finally {
+				// Stop any remaining work if one of the workers failed
+				for (Future<Object> future : futures) {
+					future.cancel(true);
+				}
+			}
+			return numStates;
+		}
+
+		/**
+		 * Shut down the worker threads.
+		 */
+		void shutdown()
+		{
+			executor.shutdownNow();
+		}
+	}
+
 	private void attachLabels(ModelGenerator modelGen, ModelExplicit model) throws PrismException
 	{
 		// Get state info
@@ -377,16 +859,30 @@ public class ConstructModel extends PrismComponent
 		// No need to continue unless this ModelGenerator uses labels
 		if (numLabels == 0) return;
 		BitSet bitsets[] = new BitSet[numLabels];
+		boolean evaluated[] = new boolean[numLabels];
+		// Where a label's definition is available, evaluate it for all states at once
+		BatchExpressionEvaluator evaluator = new BatchExpressionEvaluator(statesList, null, numThreads);
+		int numEvaluated = 0;
 		for (int j = 0; j < numLabels; j++) {
-			bitsets[j] = new BitSet();
+			Expression expr = modelGen.getLabelExpression(j);
+			if (expr != null && BatchExpressionEvaluator.isStateExpression(expr)) {
+				bitsets[j] = evaluator.evaluateBoolean(expr);
+				evaluator.addLabel(modelGen.getLabelName(j), bitsets[j]);
+				evaluated[j] = true;
+				numEvaluated++;
+			} else {
+				bitsets[j] = new BitSet();
+			}
 		}
-		// Construct bitsets for labels
-		for (int i = 0; i < numStates; i++) {
-			State state = statesList.get(i);
-			modelGen.exploreState(state);
-			for (int j = 0; j < numLabels; j++) {
-				if (modelGen.isLabelTrue(j)) {
-					bitsets[j].set(i);
+		// Construct bitsets for any other labels, state by state
+		if (numEvaluated < numLabels) {
+			for (int i = 0; i < numStates; i++) {
+				State state = statesList.get(i);
+				modelGen.exploreState(state);
+				for (int j = 0; j < numLabels; j++) {
+					if (!evaluated[j] && modelGen.isLabelTrue(j)) {
+						bitsets[j].set(i);
+					}
 				}
 			}
 		}
@@ -611,6 +611,9 @@ public class DTMCModelChecker extends ProbModelChecker
 		case GAUSS_SEIDEL:
 		case BACKWARDS_GAUSS_SEIDEL:
 		case JACOBI:
+		case OPTIMISTIC_VALUE_ITERATION:
+		case GMRES:
+		case BICGSTAB:
 			break; // supported
 		default:
 			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
@@ -620,6 +623,25 @@ public class DTMCModelChecker extends ProbModelChecker
 		if (doIntervalIteration && (!precomp || !prob0 || !prob1)) {
 			throw new PrismNotSupportedException("Interval iteration requires precomputations to be active");
 		}
+		if (linEqMethod == LinEqMethod.OPTIMISTIC_VALUE_ITERATION) {
+			if (doIntervalIteration) {
+				throw new PrismNotSupportedException("Optimistic value iteration cannot be combined with interval iteration");
+			}
+			if (init != null) {
+				throw new PrismNotSupportedException("Optimistic value iteration does not support initial solution vectors");
+			}
+			if (!precomp || !prob0 || !prob1) {
+				throw new PrismNotSupportedException("Optimistic value iteration requires precomputations to be active");
+			}
+		}
+		if (linEqMethod.isKrylov()) {
+			if (doIntervalIteration) {
+				throw new PrismNotSupportedException(linEqMethod.fullName() + " cannot be combined with interval iteration");
+			}
+			if (!precomp || !prob0) {
+				throw new PrismNotSupportedException(linEqMethod.fullName() + " requires precomputation (Prob0) to be active");
+			}
+		}
 
 		// Start probabilistic reachability
 		timer = System.currentTimeMillis();
@@ -705,15 +727,17 @@ public class DTMCModelChecker extends ProbModelChecker
 			iterationMethod = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
 			break;
 		}
+		case OPTIMISTIC_VALUE_ITERATION:
+			iterationMethod = new IterationMethodOptimistic(termCritAbsolute, termCritParam, 1.0);
+			break;
+		case GMRES:
+		case BICGSTAB:
+			break;
 		default:
 			throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
 		}
 
-		if (doIntervalIteration) {
-			res = doIntervalIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
-		} else {
-			res = doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
-		}
+		res = computeReachProbsNumeric(dtmc, no, yes, init, known, iterationMethod);
 
 		// Finished probabilistic reachability
 		timer = System.currentTimeMillis() - timer;
@@ -727,6 +751,53 @@ public class DTMCModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute reachability probabilities numerically, once the states with probability 0 and 1 are known,
+	 * using the current linear equation solution method (for iterative methods, {@code iterationMethod}).
+	 * If required, the states of the DTMC are reordered first (see {@link #setStateReordering(StateReordering.Order)}).
+	 * @param dtmc The DTMC
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param iterationMethod The iteration method (null for Krylov methods)
+	 */
+	protected ModelCheckerResult computeReachProbsNumeric(DTMC dtmc, BitSet no, BitSet yes, double init[], BitSet known, IterationMethod iterationMethod) throws PrismException
+	{
+		ModelCheckerResult res;
+
+		// If required, solve on a copy of the DTMC with reordered states, then map back
+		if (stateReordering != StateReordering.Order.NONE) {
+			StateReordering reordering = computeStateReordering(dtmc);
+			DTMC dtmcReordered = reordering.permute(dtmc);
+			printReorderedBandwidth(dtmc, dtmcReordered);
+			res = doReachProbsNumeric(dtmcReordered, reordering.permute(no), reordering.permute(yes), reordering.permute(init), reordering.permute(known), iterationMethod);
+			res.soln = reordering.unpermute(res.soln);
+			res.lastSoln = reordering.unpermute(res.lastSoln);
+			return res;
+		}
+
+		return doReachProbsNumeric(dtmc, no, yes, init, known, iterationMethod);
+	}
+
+	/**
+	 * Compute reachability probabilities numerically, as for {@link #computeReachProbsNumeric},
+	 * but without state reordering.
+	 */
+	private ModelCheckerResult doReachProbsNumeric(DTMC dtmc, BitSet no, BitSet yes, double init[], BitSet known, IterationMethod iterationMethod) throws PrismException
+	{
+		ModelCheckerResult res;
+
+		if (linEqMethod.isKrylov()) {
+			res = doKrylovReachProbs(dtmc, no, yes, init, known, linEqMethod);
+		} else if (doIntervalIteration) {
+			res = doIntervalIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
+		} else {
+			res = doValueIterationReachProbs(dtmc, no, yes, init, known, iterationMethod, getDoTopologicalValueIteration());
+		}
+		return res;
+	}
+
 
 	/**
 	 * Prob0 precomputation algorithm (using predecessor relation),
@@ -737,7 +808,7 @@ public class DTMCModelChecker extends ProbModelChecker
 	 * @param target Target states
 	 * @param pre The predecessor relation
 	 */
-	public BitSet prob0(DTMC dtmc, BitSet remain, BitSet target, PredecessorRelation pre)
+	public BitSet prob0(DTMC dtmc, BitSet remain, BitSet target, PredecessorRelation pre) throws PrismException
 	{
 		BitSet canReachTarget, result;
 		long timer;
@@ -757,7 +828,7 @@ public class DTMCModelChecker extends ProbModelChecker
 		// calculate all states that can reach 'target'
 		// while remaining in 'remain' in the underlying graph,
 		// where all the 'target' states are made absorbing
-		canReachTarget = pre.calculatePreStar(remain, target, target);
+		canReachTarget = pre.calculatePreStar(remain, target, target, getNumThreads());
 
 		// prob0 = complement of 'canReachTarget'
 		result = new BitSet();
@@ -853,7 +924,8 @@ public class DTMCModelChecker extends ProbModelChecker
 	 * @param target Target states
 	 * @param pre The predecessor relation of the DTMC
 	 */
-	public BitSet prob1(DTMC dtmc, BitSet remain, BitSet target, PredecessorRelation pre) {
+	public BitSet prob1(DTMC dtmc, BitSet remain, BitSet target, PredecessorRelation pre) throws PrismException
+	{
 		// Implements the constrained reachability algorithm from
 		// Baier, Katoen: Principles of Model Checking (Corollary 10.31 Qualitative Constrained Reachability)
 		long timer;
@@ -886,7 +958,7 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		// the set of states that satisfy E [ F target ] in M'
 		// Pre*(target)
-		BitSet canReachTarget = pre.calculatePreStar(null, target, absorbing);
+		BitSet canReachTarget = pre.calculatePreStar(null, target, absorbing, getNumThreads());
 
 		// complement canReachTarget
 		// S\Pre*(target)
@@ -896,7 +968,7 @@ public class DTMCModelChecker extends ProbModelChecker
 
 		// the set of states that can reach a canNotReachTarget state in M'
 		// Pre*(S\Pre*(target))
-		BitSet probTargetNot1 = pre.calculatePreStar(null, canNotReachTarget, absorbing);
+		BitSet probTargetNot1 = pre.calculatePreStar(null, canNotReachTarget, absorbing, getNumThreads());
 
 		// complement probTargetNot1
 		// S\Pre*(S\Pre*(target))
@@ -1065,6 +1137,9 @@ public class DTMCModelChecker extends ProbModelChecker
 			IterationMethod.SingletonSCCSolver singletonSCCSolver = (int s, double[] soln) -> {
 				soln[s] = dtmc.mvMultJacSingle(s, soln);
 			};
+			if (topologicalDirectMaxSCC > 0) {
+				iterationMethod.setDirectSCCSolver(new SparseLUSCCSolver(dtmc, null), topologicalDirectMaxSCC);
+			}
 
 			// run the actual value iteration
 			return iterationMethod.doTopologicalValueIteration(this, description, sccs, iterationReachProbs, singletonSCCSolver, timer, iterationsExport);
@@ -1075,6 +1150,57 @@ public class DTMCModelChecker extends ProbModelChecker
 	}
 
 
+	/**
+	 * Compute reachability probabilities using a Krylov-subspace method (GMRES or BiCGSTAB).
+	 * Requires that the Prob0 states have been removed, i.e., that the remaining states
+	 * reach the yes states with positive probability.
+	 * @param dtmc The DTMC
+	 * @param no Probability 0 states
+	 * @param yes Probability 1 states
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null), 'init' must also be given and is used for the exact values.
+	 * @param method The method (GMRES or BiCGSTAB)
+	 */
+	protected ModelCheckerResult doKrylovReachProbs(DTMC dtmc, BitSet no, BitSet yes, double init[], BitSet known, LinEqMethod method) throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+		long timer;
+
+		timer = System.currentTimeMillis();
+
+		// Store num states
+		n = dtmc.getNumStates();
+
+		// Initialise solution vector. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 1.0/0.0 if in yes/no; (3) passed in initial value; (4) 0.0
+		if (init != null) {
+			if (known != null) {
+				for (i = 0; i < n; i++)
+					init[i] = known.get(i) ? init[i] : yes.get(i) ? 1.0 : no.get(i) ? 0.0 : init[i];
+			} else {
+				for (i = 0; i < n; i++)
+					init[i] = yes.get(i) ? 1.0 : no.get(i) ? 0.0 : init[i];
+			}
+		} else {
+			init = new double[n];
+			for (i = 0; i < n; i++)
+				init[i] = yes.get(i) ? 1.0 : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(yes);
+		unknown.andNot(no);
+		if (known != null)
+			unknown.andNot(known);
+
+		KrylovSolver solver = new KrylovSolver(this, method, krylovPreconditioner, gmresRestart, termCrit == TermCrit.ABSOLUTE, termCritParam);
+		return solver.solve(dtmc, unknown, null, init, timer);
+	}
+
 	/**
 	 * Compute reachability probabilities using value iteration.
 	 * @param dtmc The DTMC
@@ -1752,11 +1878,25 @@ public class DTMCModelChecker extends ProbModelChecker
 		case GAUSS_SEIDEL:
 		case BACKWARDS_GAUSS_SEIDEL:
 		case JACOBI:
+		case OPTIMISTIC_VALUE_ITERATION:
+		case GMRES:
+		case BICGSTAB:
 			break; // supported
 		default:
 			linEqMethod = LinEqMethod.GAUSS_SEIDEL;
 			mainLog.printWarning("Switching to linear equation solution method \"" + linEqMethod.fullName() + "\"");
 		}
+		if (linEqMethod == LinEqMethod.OPTIMISTIC_VALUE_ITERATION) {
+			if (doIntervalIteration) {
+				throw new PrismNotSupportedException("Optimistic value iteration cannot be combined with interval iteration");
+			}
+			if (init != null) {
+				throw new PrismNotSupportedException("Optimistic value iteration does not support initial solution vectors");
+			}
+		}
+		if (linEqMethod.isKrylov() && doIntervalIteration) {
+			throw new PrismNotSupportedException(linEqMethod.fullName() + " cannot be combined with interval iteration");
+		}
 
 		// Start expected reachability
 		timer = System.currentTimeMillis();
@@ -1815,15 +1955,18 @@ public class DTMCModelChecker extends ProbModelChecker
 			iterationMethod = new IterationMethodGS(termCritAbsolute, termCritParam, backwards);
 			break;
 		}
+		case OPTIMISTIC_VALUE_ITERATION:
+			iterationMethod = new IterationMethodOptimistic(termCritAbsolute, termCritParam, Double.POSITIVE_INFINITY);
+			break;
+		case GMRES:
+		case BICGSTAB:
+			iterationMethod = null;
+			break;
 		default:
 			throw new PrismException("Unknown linear equation solution method " + linEqMethod.fullName());
 		}
 
-		if (doIntervalIteration) {
-			res = doIntervalIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
-		} else {
-			res = doValueIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
-		}
+		res = computeReachRewardsNumeric(dtmc, mcRewards, target, inf, init, known, iterationMethod);
 
 		// Finished expected reachability
 		timer = System.currentTimeMillis() - timer;
@@ -1836,6 +1979,54 @@ public class DTMCModelChecker extends ProbModelChecker
 		return res;
 	}
 
+	/**
+	 * Compute expected reachability rewards numerically, once the states with infinite reward are known,
+	 * using the current linear equation solution method (for iterative methods, {@code iterationMethod}).
+	 * If required, the states of the DTMC are reordered first (see {@link #setStateReordering(StateReordering.Order)}).
+	 * @param dtmc The DTMC
+	 * @param mcRewards The rewards
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * @param iterationMethod The iteration method (null for Krylov methods)
+	 */
+	protected ModelCheckerResult computeReachRewardsNumeric(DTMC dtmc, MCRewards mcRewards, BitSet target, BitSet inf, double init[], BitSet known, IterationMethod iterationMethod) throws PrismException
+	{
+		ModelCheckerResult res;
+
+		// If required, solve on a copy of the DTMC with reordered states, then map back
+		if (stateReordering != StateReordering.Order.NONE) {
+			StateReordering reordering = computeStateReordering(dtmc);
+			DTMC dtmcReordered = reordering.permute(dtmc);
+			printReorderedBandwidth(dtmc, dtmcReordered);
+			res = doReachRewardsNumeric(dtmcReordered, reordering.permute(mcRewards), reordering.permute(target), reordering.permute(inf), reordering.permute(init), reordering.permute(known), iterationMethod);
+			res.soln = reordering.unpermute(res.soln);
+			res.lastSoln = reordering.unpermute(res.lastSoln);
+			return res;
+		}
+
+		return doReachRewardsNumeric(dtmc, mcRewards, target, inf, init, known, iterationMethod);
+	}
+
+	/**
+	 * Compute expected reachability rewards numerically, as for {@link #computeReachRewardsNumeric},
+	 * but without state reordering.
+	 */
+	private ModelCheckerResult doReachRewardsNumeric(DTMC dtmc, MCRewards mcRewards, BitSet target, BitSet inf, double init[], BitSet known, IterationMethod iterationMethod) throws PrismException
+	{
+		ModelCheckerResult res;
+
+		if (linEqMethod.isKrylov()) {
+			res = doKrylovReachRewards(dtmc, mcRewards, target, inf, init, known, linEqMethod);
+		} else if (doIntervalIteration) {
+			res = doIntervalIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
+		} else {
+			res = doValueIterationReachRewards(dtmc, mcRewards, target, inf, init, known, iterationMethod, getDoTopologicalValueIteration());
+		}
+		return res;
+	}
+
 	/**
 	 * Compute expected reachability rewards using value iteration.
 	 * @param dtmc The DTMC
@@ -2014,6 +2205,9 @@ public class DTMCModelChecker extends ProbModelChecker
 			IterationMethod.SingletonSCCSolver singletonSCCSolver = (int s, double[] soln) -> {
 				soln[s] = dtmc.mvMultRewJacSingle(s, soln, mcRewards);
 			};
+			if (topologicalDirectMaxSCC > 0) {
+				iterationMethod.setDirectSCCSolver(new SparseLUSCCSolver(dtmc, mcRewards), topologicalDirectMaxSCC);
+			}
 
 			return iterationMethod.doTopologicalValueIteration(this, description, sccs, forMvMultRew, singletonSCCSolver, timer, iterationsExport);
 		} else {
@@ -2021,6 +2215,62 @@ public class DTMCModelChecker extends ProbModelChecker
 		}
 	}
 
+	/**
+	 * Compute expected reachability rewards using a Krylov-subspace method (GMRES or BiCGSTAB).
+	 * @param dtmc The DTMC
+	 * @param mcRewards The rewards
+	 * @param target Target states
+	 * @param inf States for which reward is infinite
+	 * @param init Optionally, an initial solution vector (will be overwritten)
+	 * @param known Optionally, a set of states for which the exact answer is known
+	 * Note: if 'known' is specified (i.e. is non-null, 'init' must also be given and is used for the exact values.
+	 * @param method The method (GMRES or BiCGSTAB)
+	 */
+	protected ModelCheckerResult doKrylovReachRewards(DTMC dtmc, MCRewards mcRewards, BitSet target, BitSet inf, double init[], BitSet known, LinEqMethod method) throws PrismException
+	{
+		BitSet unknown;
+		int i, n;
+		long timer;
+
+		timer = System.currentTimeMillis();
+
+		// Store num states
+		n = dtmc.getNumStates();
+
+		// Initialise solution vector. Use (where available) the following in order of preference:
+		// (1) exact answer, if already known; (2) 0.0/infinity if in target/inf; (3) passed in initial value; (4) 0.0
+		if (init != null) {
+			if (known != null) {
+				for (i = 0; i < n; i++)
+					init[i] = known.get(i) ? init[i] : target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : init[i];
+			} else {
+				for (i = 0; i < n; i++)
+					init[i] = target.get(i) ? 0.0 : inf.get(i) ? Double.POSITIVE_INFINITY : init[i];
+			}
+		} else {
+			init = new double[n];
+			for (i = 0; i < n; i++)
+				init[i] = inf.get(i) ? Double.POSITIVE_INFINITY : 0.0;
+		}
+
+		// Determine set of states actually need to compute values for
+		unknown = new BitSet();
+		unknown.set(0, n);
+		unknown.andNot(target);
+		unknown.andNot(inf);
+		if (known != null)
+			unknown.andNot(known);
+
+		// Right-hand side: the state rewards
+		double[] stateRewards = new double[n];
+		for (i = unknown.nextSetBit(0); i >= 0; i = unknown.nextSetBit(i + 1)) {
+			stateRewards[i] = mcRewards.getStateReward(i);
+		}
+
+		KrylovSolver solver = new KrylovSolver(this, method, krylovPreconditioner, gmresRestart, termCrit == TermCrit.ABSOLUTE, termCritParam);
+		return solver.solve(dtmc, unknown, stateRewards, init, timer);
+	}
+
 	/**
 	 * Compute expected reachability rewards using interval iteration.
 	 * @param dtmc The DTMC
@@ -54,10 +54,10 @@ public class DTMCSparse extends DTMCExplicit
 	/** Indices into probabilities/columns giving the start of the transitions for each state (distribution);
 	 * array is of size numStates+1 and last entry is always equal to getNumTransitions() */
 	private int rows[];
-	/** Column (destination) indices for each transition (array of size numTransitions) */
-	private int columns[];
-	/** Probabilities for each transition (array of size numTransitions) */
-	private double probabilities[];
+	/** Column (destination) indices for each transition (numTransitions of them) */
+	private ColumnStorage columns;
+	/** Probabilities for each transition (numTransitions of them) */
+	private ProbabilityStorage probabilities;
 
 	public DTMCSparse(final DTMC dtmc) {
 		initialise(dtmc.getNumStates());
@@ -78,8 +78,8 @@ public class DTMCSparse extends DTMCExplicit
 		final int numTransitions = dtmc.getNumTransitions();
 		rows = new int[numStates + 1];
 		rows[numStates] = numTransitions;
-		columns = new int[numTransitions];
-		probabilities = new double[numTransitions];
+		final int columns[] = new int[numTransitions];
+		final double probabilities[] = new double[numTransitions];
 		for (int state=0, column=0; state<numStates; state++) {
 			rows[state] = column;
 			for (Iterator<Entry<Integer, Double>> transitions = dtmc.getTransitionsIterator(state); transitions.hasNext();) {
@@ -92,6 +92,8 @@ public class DTMCSparse extends DTMCExplicit
 				}
 			}
 		}
+		this.columns = new ColumnStorage.IntStorage(columns);
+		this.probabilities = new ProbabilityStorage.DoubleStorage(probabilities);
 		predecessorRelation = dtmc.hasStoredPredecessorRelation() ? dtmc.getPredecessorRelation(null, false) : null;
 	}
 
@@ -117,8 +119,8 @@ public class DTMCSparse extends DTMCExplicit
 		final int numTransitions = dtmc.getNumTransitions();
 		rows = new int[numStates + 1];
 		rows[numStates] = numTransitions;
-		columns = new int[numTransitions];
-		probabilities = new double[numTransitions];
+		final int columns[] = new int[numTransitions];
+		final double probabilities[] = new double[numTransitions];
 		for (int state=0, column=0; state<numStates; state++) {
 			rows[state] = column;
 			final int originalState = permutInv[state];
@@ -132,10 +134,79 @@ public class DTMCSparse extends DTMCExplicit
 				}
 			}
 		}
+		this.columns = new ColumnStorage.IntStorage(columns);
+		this.probabilities = new ProbabilityStorage.DoubleStorage(probabilities);
 	}
 
 
 
+	/**
+	 * Constructor: build from (already constructed) sparse matrix arrays, which are not copied.
+	 * Initial states, deadlocks, etc. should be set separately afterwards.
+	 * @param numStates Number of states
+	 * @param rows Start of the transitions for each state (array of size numStates+1)
+	 * @param columns Column (destination) indices for each transition
+	 * @param probabilities Probabilities for each transition
+	 */
+	public DTMCSparse(int numStates, int rows[], int columns[], double probabilities[])
+	{
+		this(numStates, rows, new ColumnStorage.IntStorage(columns), new ProbabilityStorage.DoubleStorage(probabilities));
+	}
+
+	/**
+	 * Constructor: build from (already constructed) sparse matrix arrays, which are not copied,
+	 * with columns and probabilities stored in the given (possibly compact) form.
+	 * Initial states, deadlocks, etc. should be set separately afterwards.
+	 * @param numStates Number of states
+	 * @param rows Start of the transitions for each state (array of size numStates+1)
+	 * @param columns Column (destination) indices for each transition
+	 * @param probabilities Probabilities for each transition
+	 */
+	public DTMCSparse(int numStates, int rows[], ColumnStorage columns, ProbabilityStorage probabilities)
+	{
+		initialise(numStates);
+		this.rows = rows;
+		this.columns = columns;
+		this.probabilities = probabilities;
+	}
+
+	/**
+	 * Get the way in which transition probabilities are stored.
+	 */
+	public ProbabilityStorage.Type getProbabilityStorageType()
+	{
+		return probabilities.getType();
+	}
+
+	/**
+	 * Store transition probabilities in the given form (see {@link ProbabilityStorage#create}),
+	 * converting the current storage if it differs.
+	 */
+	public void setProbabilityStorageType(ProbabilityStorage.Type probabilityStorageType)
+	{
+		if (probabilities.getType() != probabilityStorageType) {
+			probabilities = ProbabilityStorage.create(probabilities.toArray(), probabilityStorageType);
+		}
+	}
+
+	/**
+	 * Get the way in which transition columns are stored.
+	 */
+	public ColumnStorage.Type getColumnStorageType()
+	{
+		return columns.getType();
+	}
+
+	/**
+	 * Store transition columns in the given form (see {@link ColumnStorage#create}),
+	 * converting the current storage if it differs.
+	 */
+	public void setColumnStorageType(ColumnStorage.Type columnStorageType)
+	{
+		if (columns.getType() != columnStorageType) {
+			columns = ColumnStorage.create(columns.toArray(rows), columnStorageType, rows);
+		}
+	}
 	//--- Model ---
 
 	@Override
@@ -147,7 +218,23 @@ public class DTMCSparse extends DTMCExplicit
 	@Override
 	public OfInt getSuccessorsIterator(final int state)
 	{
-		return Arrays.stream(columns, rows[state], rows[state+1]).iterator();
+		return new OfInt()
+		{
+			int i = rows[state];
+			final int stop = rows[state+1];
+
+			@Override
+			public boolean hasNext()
+			{
+				return i < stop;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				return columns.get(i++, state);
+			}
+		};
 	}
 
 	@Override
@@ -161,7 +248,7 @@ public class DTMCSparse extends DTMCExplicit
 	public boolean isSuccessor(final int s1, final int s2)
 	{
 		for (int i=rows[s1], stop=rows[s1+1]; i < stop; i++) {
-			if (columns[i] == s2) {
+			if (columns.get(i, s1) == s2) {
 				return true;
 			}
 		}
@@ -172,7 +259,7 @@ public class DTMCSparse extends DTMCExplicit
 	public boolean allSuccessorsInSet(final int state, final BitSet set)
 	{
 		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			if (!set.get(columns[i])) {
+			if (!set.get(columns.get(i, state))) {
 				return false;
 			}
 		}
@@ -183,7 +270,7 @@ public class DTMCSparse extends DTMCExplicit
 	public boolean someSuccessorsInSet(final int state, final BitSet set)
 	{
 		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			if (set.get(columns[i])) {
+			if (set.get(columns.get(i, state))) {
 				return true;
 			}
 		}
@@ -230,7 +317,7 @@ public class DTMCSparse extends DTMCExplicit
 	public void forEachTransition(int state, TransitionConsumer consumer)
 	{
 		for (int col = rows[state], stop = rows[state+1]; col < stop; col++) {
-			consumer.accept(state, columns[col], probabilities[col]);
+			consumer.accept(state, columns.get(col, state), probabilities.get(col));
 		}
 	}
 
@@ -261,7 +348,7 @@ public class DTMCSparse extends DTMCExplicit
 				assert (col < end);
 				final int index = col;
 				col++;
-				return new AbstractMap.SimpleImmutableEntry<>(columns[index], probabilities[index]);
+				return new AbstractMap.SimpleImmutableEntry<>(columns.get(index, state), probabilities.get(index));
 			}
 		};
 	}
@@ -271,7 +358,7 @@ public class DTMCSparse extends DTMCExplicit
 	{
 		boolean hasTransitionToU = false;
 		for (int i=rows[s], stop=rows[s+1]; i < stop; i++) {
-			final int successor = columns[i];
+			final int successor = columns.get(i, s);
 			if (u.get(successor)) {
 				hasTransitionToU = true;
 				break;
@@ -286,7 +373,7 @@ public class DTMCSparse extends DTMCExplicit
 		boolean allTransitionsToU = true;
 		boolean hasTransitionToV = false;
 		for (int i=rows[s], stop=rows[s+1]; i < stop; i++) {
-			final int successor = columns[i];
+			final int successor = columns.get(i, s);
 			if (!u.get(successor)) {
 				// early abort, as overall result is false
 				allTransitionsToU = false;
@@ -301,9 +388,18 @@ public class DTMCSparse extends DTMCExplicit
 	public double mvMultSingle(final int state, final double[] vect)
 	{
 		double d = 0.0;
+		final int[] columnsArray = columns.getIntArray();
+		final double[] probabilitiesArray = probabilities.getDoubleArray();
+		if (columnsArray != null && probabilitiesArray != null) {
+			// fast path for plain (int/double) storage
+			for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
+				d += probabilitiesArray[i] * vect[columnsArray[i]];
+			}
+			return d;
+		}
 		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			final int target = columns[i];
-			final double probability = probabilities[i];
+			final int target = columns.get(i, state);
+			final double probability = probabilities.get(i);
 			d += probability * vect[target];
 		}
 		return d;
@@ -314,9 +410,23 @@ public class DTMCSparse extends DTMCExplicit
 	{
 		double diag = 1.0;
 		double d = 0.0;
+		final int[] columnsArray = columns.getIntArray();
+		final double[] probabilitiesArray = probabilities.getDoubleArray();
+		if (columnsArray != null && probabilitiesArray != null) {
+			// fast path for plain (int/double) storage
+			for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
+				final int target = columnsArray[i];
+				if (target != state) {
+					d += probabilitiesArray[i] * vect[target];
+				} else {
+					diag -= probabilitiesArray[i];
+				}
+			}
+			return diag > 0 ? d / diag : d;
+		}
 		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			final int target = columns[i];
-			final double probability = probabilities[i];
+			final int target = columns.get(i, state);
+			final double probability = probabilities.get(i);
 			if (target != state) {
 				d += probability * vect[target];
 			} else {
@@ -333,9 +443,18 @@ public class DTMCSparse extends DTMCExplicit
 	public double mvMultRewSingle(final int state, final double[] vect, final MCRewards mcRewards)
 	{
 		double d = mcRewards.getStateReward(state);
+		final int[] columnsArray = columns.getIntArray();
+		final double[] probabilitiesArray = probabilities.getDoubleArray();
+		if (columnsArray != null && probabilitiesArray != null) {
+			// fast path for plain (int/double) storage
+			for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
+				d += probabilitiesArray[i] * vect[columnsArray[i]];
+			}
+			return d;
+		}
 		for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-			final int target = columns[i];
-			final double probability = probabilities[i];
+			final int target = columns.get(i, state);
+			final double probability = probabilities.get(i);
 			d += probability * vect[target];
 		}
 		return d;
@@ -349,8 +468,8 @@ public class DTMCSparse extends DTMCExplicit
 		// Go through matrix elements (by row)
 		for (int state = 0; state < numStates; state++) {
 			for (int i=rows[state], stop=rows[state+1]; i < stop; i++) {
-				final int target = columns[i];
-				final double probability = probabilities[i];
+				final int target = columns.get(i, state);
+				final double probability = probabilities.get(i);
 				result[target] += probability * vect[state];
 			}
 		}
@@ -395,9 +514,9 @@ public class DTMCSparse extends DTMCExplicit
 			return false;
 		if (!initialStates.equals(dtmc.initialStates))
 			return false;
-		if (!Utils.doubleArraysAreEqual(probabilities, dtmc.probabilities))
+		if (!Utils.doubleArraysAreEqual(probabilities.toArray(), dtmc.probabilities.toArray()))
 			return false;
-		if (!Utils.intArraysAreEqual(columns, dtmc.columns))
+		if (!Utils.intArraysAreEqual(columns.toArray(rows), dtmc.columns.toArray(dtmc.rows)))
 			return false;
 		if (!Utils.intArraysAreEqual(rows, dtmc.rows))
 			return false;
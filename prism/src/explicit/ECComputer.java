@@ -81,7 +81,23 @@ public abstract class ECComputer extends PrismComponent
 	 * @param accept BitSet for the set of accepting states
 	 */
 	public abstract void computeMECStates(BitSet restrict, BitSet accept) throws PrismException;
-	
+
+	/**
+	 * Compute states of all accepting maximal end components (MECs) in the submodel obtained
+	 * by restricting this one to the set of states {@code restrict}, and store them,
+	 * as for {@link #computeMECStates(BitSet, BitSet)}, using the knowledge that each such MEC
+	 * is contained in one of the (disjoint) sets of states {@code enclosing},
+	 * e.g., the MECs of a larger submodel, computed earlier.
+	 * Default implementation: ignore {@code enclosing}.
+	 * @param restrict BitSet for the set of states to restrict to
+	 * @param accept BitSet for the set of accepting states
+	 * @param enclosing Sets of states enclosing the MECs
+	 */
+	public void computeMECStates(BitSet restrict, BitSet accept, List<BitSet> enclosing) throws PrismException
+	{
+		computeMECStates(restrict, accept);
+	}
+
 	/**
 	 * Get the list of states for computed MECs.
 	 */
@@ -24,33 +24,53 @@
 //	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
 //	
 //==============================================================================
-
 package explicit;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import prism.PrismComponent;
 import prism.PrismException;
+import prism.PrismSettings;
 
 /**
  * Explicit maximal end component computer for a nondeterministic model such as an MDP.
  * Implements the algorithm from p.48 of:
  * Luca de Alfaro. Formal Verification of Probabilistic Systems. Ph.D. thesis, Stanford University (1997)
+ * <br>
+ * Candidate sets of states are refined independently: states without a choice that stays
+ * within the set are removed (using the predecessor relation to find states affected by a removal),
+ * and the rest is split into SCCs, considering only choices that stay within the set.
+ * A set that is a single SCC is a MEC. Only the sets that were split are refined again,
+ * and, for large models, different sets are refined in parallel (see {@code -threads}).
  */
 public class ECComputerDefault extends ECComputer
 {
+	/** Minimum number of states in a candidate set for it to be refined in a separate task */
+	private static final int PARALLEL_MIN_STATES = 16384;
+	/** Marker in {@code index} for a state whose SCC has been found */
+	private static final int DONE = Integer.MAX_VALUE;
+
 	/** The model to compute (M)ECs for **/
 	private NondetModel model;
+	/** Number of threads to use */
+	private int numThreads;
 
 	/** Computed list of MECs **/
 	private List<BitSet> mecs = new ArrayList<BitSet>();
 
+	/** Predecessor relation of the model (during computation) */
+	private PredecessorRelation pre;
+	/** Tarjan: index of each state in DFS order, -1 if not yet visited, DONE if its SCC has been found */
+	private int index[];
+	/** Tarjan: lowlink of each state */
+	private int lowlink[];
+
 	/**
 	 * Build (M)EC computer for a given model.
 	 */
@@ -58,6 +78,7 @@ public class ECComputerDefault extends ECComputer
 	{
 		super(parent);
 		this.model = model;
+		this.numThreads = settings == null ? 1 : settings.getInteger(PrismSettings.PRISM_EXPLICIT_NUM_THREADS);
 	}
 
 	// Methods for ECComputer interface
@@ -65,19 +86,25 @@ public class ECComputerDefault extends ECComputer
 	@Override
 	public void computeMECStates() throws PrismException
 	{
-		mecs = findEndComponents(null, null);
+		mecs = findEndComponents(null, null, null);
 	}
 
 	@Override
 	public void computeMECStates(BitSet restrict) throws PrismException
 	{
-		mecs = findEndComponents(restrict, null);
+		mecs = findEndComponents(restrict, null, null);
 	}
 
 	@Override
 	public void computeMECStates(BitSet restrict, BitSet accept) throws PrismException
 	{
-		mecs = findEndComponents(restrict, accept);
+		mecs = findEndComponents(restrict, accept, null);
+	}
+
+	@Override
+	public void computeMECStates(BitSet restrict, BitSet accept, List<BitSet> enclosing) throws PrismException
+	{
+		mecs = findEndComponents(restrict, accept, enclosing);
 	}
 
 	@Override
@@ -94,147 +121,289 @@ public class ECComputerDefault extends ECComputer
 	 * where acceptance is defined as those which intersect with {@code accept}.
 	 * If {@code restrict} is null, we look at the whole model, not a submodel.
 	 * If {@code accept} is null, the acceptance condition is trivially satisfied.
+	 * If {@code enclosing} is non-null, each MEC is known to be contained in one of these (disjoint) sets.
 	 * @param restrict BitSet for the set of states to restrict to
 	 * @param accept BitSet for the set of accepting states
-	 * @return a list of BitSets representing the MECs
+	 * @param enclosing Sets of states enclosing the MECs (optional)
+	 * @return a list of BitSets representing the MECs, ordered by their smallest state
 	 */
-	private List<BitSet> findEndComponents(BitSet restrict, BitSet accept) throws PrismException
+	private List<BitSet> findEndComponents(BitSet restrict, BitSet accept, List<BitSet> enclosing) throws PrismException
 	{
-		// If restrict is null, look within set of all reachable states
-		if (restrict == null) {
-			restrict = new BitSet();
-			restrict.set(0, model.getNumStates());
-		}
-		// Initialise L with set of all states to look in (if non-empty)
-		List<BitSet> L = new ArrayList<BitSet>();
-		if (restrict.isEmpty())
-			return L;
-		L.add(restrict);
-		// Find MECs
-		boolean changed = true;
-		while (changed) {
-			changed = false;
-			BitSet E = L.remove(0);
-			SubNondetModel submodel = restrict(model, E);
-			List<BitSet> sccs = translateStates(submodel, computeSCCs(submodel));
-			L = replaceEWithSCCs(L, E, sccs);
-			changed = canLBeChanged(L, E);
-		}
-		// Filter and return those that contain a state in accept
-		if (accept != null) {
-			int i = 0;
-			while (i < L.size()) {
-				if (!L.get(i).intersects(accept)) {
-					L.remove(i);
-				} else {
-					i++;
+		int numStates = model.getNumStates();
+		// Initial candidate sets: restrict (or all states), split by enclosing sets
+		List<BitSet> candidates = new ArrayList<BitSet>();
+		if (enclosing == null) {
+			BitSet all = new BitSet();
+			if (restrict == null) {
+				all.set(0, numStates);
+			} else {
+				all.or(restrict);
+			}
+			candidates.add(all);
+		} else {
+			for (BitSet set : enclosing) {
+				BitSet candidate = (BitSet) set.clone();
+				if (restrict != null) {
+					candidate.and(restrict);
 				}
+				candidates.add(candidate);
 			}
 		}
-		return L;
-	}
 
-	private Set<BitSet> processedSCCs = new HashSet<BitSet>();
+		// Refine
+		pre = model.getPredecessorRelation(this, true);
+		index = new int[numStates];
+		lowlink = new int[numStates];
+		List<BitSet> result = Collections.synchronizedList(new ArrayList<BitSet>());
+		if (numThreads > 1 && numStates >= PARALLEL_MIN_STATES && IterationMethod.supportsConcurrentAccess(model)) {
+			List<RefineTask> tasks = new ArrayList<RefineTask>();
+			for (BitSet candidate : candidates) {
+				tasks.add(new RefineTask(candidate, accept, result));
+			}
+			ForkJoinPool pool = new ForkJoinPool(numThreads);
+			try {
+				pool.invoke(new RecursiveAction()
+				{
+					private static final long serialVersionUID = 1L;
 
-	private boolean canLBeChanged(List<BitSet> L, BitSet E)
-	{
-		processedSCCs.add(E);
-		for (int i = 0; i < L.size(); i++) {
-			if (!processedSCCs.contains(L.get(i))) {
-				return true;
+					@Override
+					protected void compute()
+					{
+						invokeAll(tasks);
+					}
+				});
+			} finally {
+				pool.shutdown();
 			}
+		} else {
+			refineAll(candidates, accept, result, false);
 		}
-		return false;
+		pre = null;
+		index = lowlink = null;
+
+		// Order deterministically (by smallest state)
+		List<BitSet> L = new ArrayList<BitSet>(result);
+		L.sort((a, b) -> Integer.compare(a.nextSetBit(0), b.nextSetBit(0)));
+		return L;
 	}
 
-	private List<BitSet> replaceEWithSCCs(List<BitSet> L, BitSet E, List<BitSet> sccs)
+	/**
+	 * Refine the (disjoint) candidate sets {@code candidates}, and any sets they are split into,
+	 * adding the MECs found to {@code result}. If {@code fork} is true, large sets
+	 * are refined in separate tasks (this must then be called from within a ForkJoinPool).
+	 */
+	private void refineAll(List<BitSet> candidates, BitSet accept, List<BitSet> result, boolean fork)
 	{
-		if (sccs.size() > 0) {
-			List<BitSet> toAdd = new ArrayList<BitSet>();
-			for (int i = 0; i < sccs.size(); i++) {
-				if (!L.contains(sccs.get(i))) {
-					toAdd.add(sccs.get(i));
-				}
+		List<BitSet> todo = new ArrayList<BitSet>(candidates);
+		List<RefineTask> tasks = new ArrayList<RefineTask>();
+		List<BitSet> split = new ArrayList<BitSet>();
+		while (!todo.isEmpty()) {
+			BitSet candidate = todo.remove(todo.size() - 1);
+			if (fork && candidate.cardinality() >= PARALLEL_MIN_STATES) {
+				RefineTask task = new RefineTask(candidate, accept, result);
+				task.fork();
+				tasks.add(task);
+				continue;
 			}
-			if (toAdd.size() > 0) {
-				L.addAll(toAdd);
+			split.clear();
+			if (refine(candidate, accept, split)) {
+				result.add(candidate);
+			} else {
+				todo.addAll(split);
 			}
 		}
-		return L;
+		for (RefineTask task : tasks) {
+			task.join();
+		}
 	}
 
-	private SubNondetModel restrict(NondetModel model, BitSet states)
+	/**
+	 * Task to refine a candidate set (and the sets it is split into).
+	 */
+	private class RefineTask extends RecursiveAction
 	{
-		Map<Integer, BitSet> actions = new HashMap<Integer, BitSet>();
-		BitSet initialStates = new BitSet();
-		initialStates.set(states.nextSetBit(0));
-
-		boolean changed = true;
-		while (changed) {
-			changed = false;
-			actions.clear();
-			for (int i = 0; i < model.getNumStates(); i++) {
-				BitSet act = new BitSet();
-				if (states.get(i)) {
-					for (int j = 0; j < model.getNumChoices(i); j++) {
-						if (model.allSuccessorsInSet(i, j, states)) {
-							act.set(j);
-						}
-					}
-					if (act.isEmpty()) {
-						states.clear(i);
-						changed = true;
-					}
-					actions.put(i, act);
-				}
-			}
+		private static final long serialVersionUID = 1L;
+
+		private final BitSet candidate;
+		private final BitSet accept;
+		private final List<BitSet> result;
+
+		public RefineTask(BitSet candidate, BitSet accept, List<BitSet> result)
+		{
+			this.candidate = candidate;
+			this.accept = accept;
+			this.result = result;
 		}
 
-		return new SubNondetModel(model, states, actions, initialStates);
+		@Override
+		protected void compute()
+		{
+			List<BitSet> split = new ArrayList<BitSet>();
+			if (refine(candidate, accept, split)) {
+				result.add(candidate);
+			} else {
+				refineAll(split, accept, result, true);
+			}
+		}
 	}
 
-	private List<BitSet> computeSCCs(NondetModel model) throws PrismException
+	/**
+	 * Refine a candidate set of states {@code states} (which is modified):
+	 * remove states that have no choice staying in the set, and split the rest into SCCs.
+	 * Returns true if the (modified) set is a MEC; otherwise, the sets that may still contain
+	 * MECs are added to {@code split}. Sets not intersecting {@code accept} (if non-null) are dropped.
+	 */
+	private boolean refine(BitSet states, BitSet accept, List<BitSet> split)
 	{
-		SCCConsumerStore sccs = new SCCConsumerStore();
-		SCCComputer sccc = SCCComputer.createSCCComputer(this, model, sccs);
-		sccc.computeSCCs();
-		return sccs.getSCCs();
+		prune(states);
+		if (states.isEmpty() || (accept != null && !states.intersects(accept))) {
+			return false;
+		}
+		int numSCCs = computeSCCs(states, split);
+		if (numSCCs == 1) {
+			// the single SCC is the whole set
+			split.clear();
+			return true;
+		}
+		return false;
 	}
 
-	private List<BitSet> translateStates(SubNondetModel model, List<BitSet> sccs)
+	/**
+	 * Repeatedly remove states from {@code states} that have no choice
+	 * whose successors are all in {@code states}.
+	 */
+	private void prune(BitSet states)
 	{
-		List<BitSet> r = new ArrayList<BitSet>();
-		for (int i = 0; i < sccs.size(); i++) {
-			BitSet set = sccs.get(i);
-			BitSet set2 = new BitSet();
-			r.add(set2);
-			for (int j = set.nextSetBit(0); j >= 0; j = set.nextSetBit(j + 1)) {
-				set2.set(model.translateState(j));
-
+		// stack of states to check, each at most once at a time
+		int todo[] = new int[states.cardinality()];
+		int todoSize = 0;
+		BitSet inTodo = (BitSet) states.clone();
+		for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+			todo[todoSize++] = s;
+		}
+		while (todoSize > 0) {
+			int s = todo[--todoSize];
+			inTodo.clear(s);
+			if (!states.get(s) || hasChoiceInSet(s, states)) {
+				continue;
+			}
+			states.clear(s);
+			// predecessors may have lost their only choice staying in states
+			for (int i = 0, numPre = pre.getNumPre(s); i < numPre; i++) {
+				int p = pre.getPre(s, i);
+				if (states.get(p) && !inTodo.get(p)) {
+					inTodo.set(p);
+					todo[todoSize++] = p;
+				}
 			}
 		}
-		return r;
 	}
 
-	private boolean isMEC(BitSet b)
+	/**
+	 * Does state {@code s} have a choice whose successors are all in {@code states}?
+	 */
+	private boolean hasChoiceInSet(int s, BitSet states)
 	{
-		if (b.isEmpty())
-			return false;
+		for (int j = 0, numChoices = model.getNumChoices(s); j < numChoices; j++) {
+			if (model.allSuccessorsInSet(s, j, states)) {
+				return true;
+			}
+		}
+		return false;
+	}
 
-		int state = b.nextSetBit(0);
-		while (state != -1) {
-			boolean atLeastOneAction = false;
-			for (int i = 0; i < model.getNumChoices(state); i++) {
-				if (model.allSuccessorsInSet(state, i, b)) {
-					atLeastOneAction = true;
-				}
+	/**
+	 * Compute the SCCs of the graph restricted to the states {@code states}, using only those choices
+	 * whose successors are all in {@code states} (iterative version of Tarjan's algorithm).
+	 * The SCCs are added to {@code sccs}; returns the number of SCCs.
+	 */
+	private int computeSCCs(BitSet states, List<BitSet> sccs)
+	{
+		for (int s = states.nextSetBit(0); s >= 0; s = states.nextSetBit(s + 1)) {
+			index[s] = -1;
+		}
+		int numSCCs = 0;
+		int nextIndex = 0;
+		// Tarjan's stack
+		int stack[] = new int[16];
+		int stackSize = 0;
+		// Call stack: states, current choices, and iterators over the successors of the current choices
+		int callStates[] = new int[16];
+		int callChoices[] = new int[16];
+		SuccessorsIterator callIterators[] = new SuccessorsIterator[16];
+		int callSize = 0;
+		for (int root = states.nextSetBit(0); root >= 0; root = states.nextSetBit(root + 1)) {
+			if (index[root] != -1) {
+				continue;
 			}
-			if (!atLeastOneAction) {
-				return false;
+			int v = root;
+			while (true) {
+				if (v != -1) {
+					// visit v
+					index[v] = lowlink[v] = nextIndex++;
+					if (stackSize == stack.length) {
+						stack = Arrays.copyOf(stack, 2 * stack.length);
+					}
+					stack[stackSize++] = v;
+					if (callSize == callStates.length) {
+						callStates = Arrays.copyOf(callStates, 2 * callStates.length);
+						callChoices = Arrays.copyOf(callChoices, 2 * callChoices.length);
+						callIterators = Arrays.copyOf(callIterators, 2 * callIterators.length);
+					}
+					callStates[callSize] = v;
+					callChoices[callSize] = -1;
+					callIterators[callSize] = null;
+					callSize++;
+				}
+				if (callSize == 0) {
+					break;
+				}
+				int top = callSize - 1;
+				int u = callStates[top];
+				v = -1;
+				// find next unvisited successor of u (via choices staying in states)
+				while (true) {
+					SuccessorsIterator it = callIterators[top];
+					if (it == null || !it.hasNext()) {
+						int j = ++callChoices[top];
+						if (j >= model.getNumChoices(u)) {
+							break;
+						}
+						callIterators[top] = model.allSuccessorsInSet(u, j, states) ? model.getSuccessors(u, j) : null;
+						continue;
+					}
+					int e = it.nextInt();
+					if (index[e] == -1) {
+						v = e;
+						break;
+					} else if (index[e] != DONE) {
+						// on the stack
+						lowlink[u] = Math.min(lowlink[u], index[e]);
+					}
+				}
+				if (v != -1) {
+					continue;
+				}
+				// all successors of u done
+				callIterators[top] = null;
+				callSize--;
+				if (callSize > 0) {
+					int parent = callStates[callSize - 1];
+					lowlink[parent] = Math.min(lowlink[parent], lowlink[u]);
+				}
+				if (lowlink[u] == index[u]) {
+					BitSet scc = new BitSet();
+					int n;
+					do {
+						n = stack[--stackSize];
+						index[n] = DONE;
+						scc.set(n);
+					} while (n != u);
+					sccs.add(scc);
+					numSCCs++;
+				}
 			}
-			state = b.nextSetBit(state + 1);
 		}
-
-		return true;
+		return numSCCs;
 	}
 }
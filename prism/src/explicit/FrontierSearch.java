@@ -0,0 +1,208 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import prism.PrismException;
+
+/**
+ * Frontier-driven backward search over the predecessor relation of a model,
+ * as used for qualitative precomputations (e.g. Prob0/Prob1).
+ * <br>
+ * Starting from a set of initial states (added in round 0), in each round k = 1, 2, ...,
+ * the candidate states that are predecessors of the states added in round k-1 (the frontier),
+ * and are not in the set yet, are tested; those for which the test succeeds are added in round k.
+ * The search stops after the first round in which no states are added.
+ * <br>
+ * A test for round k may only depend on which states were added <i>before</i> round k
+ * (see {@link #isIn(int, int)}). Then, the result (and the number of rounds) is the same
+ * as for the usual fixed-point loop that recomputes the set in each iteration,
+ * as long as the test is monotonic in the set and only succeeds
+ * for states with a successor in the frontier, or for the {@code seeds} (in round 1).
+ * In particular, the result does not depend on the number of threads.
+ * <br>
+ * The frontier of each round is split into chunks, which are processed in parallel
+ * (see {@link ParallelRange}), each collecting newly added states in its own list.
+ */
+public class FrontierSearch
+{
+	/**
+	 * A test for adding a state in a given round.
+	 */
+	@FunctionalInterface
+	public interface StateTest
+	{
+		/**
+		 * Should state {@code s} be added in round {@code round}?
+		 * The test is evaluated at most once per round for each state, and not again once it succeeds.
+		 */
+		public boolean test(int s, int round);
+	}
+
+	/** Round of states that are not (yet) in the set */
+	private static final int NOT_ADDED = Integer.MAX_VALUE;
+
+	/** Number of frontier states per chunk */
+	private static final int CHUNK_SIZE = 1024;
+
+	/** Predecessor relation */
+	private final PredecessorRelation pre;
+	/** Number of threads to use */
+	private final int numThreads;
+	/**
+	 * Round in which each state was added (or NOT_ADDED).
+	 * Written only by the thread that claimed the state in the current round; a concurrent read
+	 * sees either NOT_ADDED or the current round, neither of which counts as "before" it.
+	 */
+	private final int rounds[];
+	/** Last round in which each state was tested (to claim tests) */
+	private final AtomicIntegerArray claimed;
+	/** Number of rounds of the last search */
+	private int numRounds = 0;
+
+	/**
+	 * Constructor.
+	 * @param pre Predecessor relation of the model
+	 * @param numStates Number of states of the model
+	 * @param numThreads Number of threads to use
+	 *        (tests must support concurrent evaluation if this is more than 1)
+	 */
+	public FrontierSearch(PredecessorRelation pre, int numStates, int numThreads)
+	{
+		this.pre = pre;
+		this.numThreads = numThreads;
+		rounds = new int[numStates];
+		claimed = new AtomicIntegerArray(numStates);
+	}
+
+	/**
+	 * Run the search, returning the resulting set of states.
+	 * @param init Initial states (added in round 0)
+	 * @param candidates States that may be added (null means "all")
+	 * @param seeds Candidates to be tested in round 1, even if they have no successor in {@code init} (optional)
+	 * @param test Test for adding a state
+	 */
+	public BitSet search(BitSet init, BitSet candidates, BitSet seeds, StateTest test) throws PrismException
+	{
+		int n = rounds.length;
+		Arrays.fill(rounds, NOT_ADDED);
+		for (int s = 0; s < n; s++) {
+			claimed.set(s, 0);
+		}
+		int frontier[] = new int[n];
+		int next[] = new int[n];
+		int frontierSize = 0;
+		for (int s = init.nextSetBit(0); s >= 0; s = init.nextSetBit(s + 1)) {
+			rounds[s] = 0;
+			frontier[frontierSize++] = s;
+		}
+		AtomicInteger nextSize = new AtomicInteger();
+		int round = 0;
+		do {
+			final int k = ++round;
+			final int curFrontier[] = frontier, curNext[] = next;
+			nextSize.set(0);
+			ParallelRange.forEachChunk(numThreads, frontierSize, CHUNK_SIZE, (lo, hi) -> {
+				int added[] = new int[16];
+				int numAdded = 0;
+				for (int i = lo; i < hi; i++) {
+					int t = curFrontier[i];
+					for (int j = 0, numPre = pre.getNumPre(t); j < numPre; j++) {
+						int p = pre.getPre(t, j);
+						if (tryAdd(p, k, candidates, test)) {
+							if (numAdded == added.length) {
+								added = Arrays.copyOf(added, 2 * added.length);
+							}
+							added[numAdded++] = p;
+						}
+					}
+				}
+				System.arraycopy(added, 0, curNext, nextSize.getAndAdd(numAdded), numAdded);
+			});
+			if (k == 1 && seeds != null) {
+				for (int s = seeds.nextSetBit(0); s >= 0; s = seeds.nextSetBit(s + 1)) {
+					if (tryAdd(s, k, candidates, test)) {
+						next[nextSize.getAndIncrement()] = s;
+					}
+				}
+			}
+			frontier = next;
+			next = curFrontier;
+			frontierSize = nextSize.get();
+		} while (frontierSize > 0);
+		numRounds = round;
+
+		BitSet result = new BitSet(n);
+		for (int s = 0; s < n; s++) {
+			if (rounds[s] != NOT_ADDED) {
+				result.set(s);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Claim, test and (if successful) add state {@code s} in round {@code k}.
+	 * Returns true if {@code s} was added.
+	 */
+	private boolean tryAdd(int s, int k, BitSet candidates, StateTest test)
+	{
+		if (rounds[s] != NOT_ADDED || (candidates != null && !candidates.get(s))) {
+			return false;
+		}
+		if (claimed.getAndSet(s, k) == k) {
+			// already tested in this round (by this or another thread)
+			return false;
+		}
+		if (!test.test(s, k)) {
+			return false;
+		}
+		rounds[s] = k;
+		return true;
+	}
+
+	/**
+	 * Was state {@code s} added before round {@code round}?
+	 * (For use by tests.)
+	 */
+	public boolean isIn(int s, int round)
+	{
+		return rounds[s] < round;
+	}
+
+	/**
+	 * Get the number of rounds of the last search (including the final one, in which no states were added).
+	 */
+	public int getNumRounds()
+	{
+		return numRounds;
+	}
+}
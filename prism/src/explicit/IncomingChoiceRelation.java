@@ -26,9 +26,9 @@
 
 package explicit;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 import prism.PrismComponent;
 
 /**
@@ -107,9 +107,12 @@ public class IncomingChoiceRelation
 	};
 
 	/**
-	 * pre[i] provides the list of incoming choices of the state with index i.
+	 * The incoming choices of the state with index i are given by
+	 * (preStates[k], preChoices[k]) for k = preStarts[i], ..., preStarts[i+1]-1.
 	 */
-	List<ArrayList<Choice>> pre;
+	int preStarts[];
+	int preStates[];
+	int preChoices[];
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -119,41 +122,74 @@ public class IncomingChoiceRelation
 	 */
 	public IncomingChoiceRelation(NondetModel model)
 	{
-		pre = new ArrayList<ArrayList<Choice>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Choice>());
-		}
-
 		compute(model);
 	}
 
-	/** Compute the predecessor relation using getSuccessorsIterator. */
+	/** Compute the predecessor relation using getSuccessors. */
 	private void compute(NondetModel model)
 	{
 		int n = model.getNumStates();
 
+		// First pass: count the incoming choices of each state
+		preStarts = new int[n + 1];
 		for (int s = 0; s < n; s++) {
 			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
-				Choice choice = new Choice(s, c);
-
-				Iterator<Integer> it = model.getSuccessorsIterator(s, c);
+				SuccessorsIterator it = model.getSuccessors(s, c).distinct();
 				while (it.hasNext()) {
-					int successor = it.next();
+					preStarts[it.nextInt() + 1]++;
+				}
+			}
+		}
+		for (int s = 0; s < n; s++) {
+			preStarts[s + 1] += preStarts[s];
+		}
 
-					// Add the current choice s to pre[successor].
-					pre.get(successor).add(choice);
+		// Second pass: add the current choice (s,c) to the incoming choices of each successor
+		preStates = new int[preStarts[n]];
+		preChoices = new int[preStarts[n]];
+		int fill[] = Arrays.copyOf(preStarts, n);
+		for (int s = 0; s < n; s++) {
+			for (int c = 0, m = model.getNumChoices(s); c < m; c++) {
+				SuccessorsIterator it = model.getSuccessors(s, c).distinct();
+				while (it.hasNext()) {
+					int k = fill[it.nextInt()]++;
+					preStates[k] = s;
+					preChoices[k] = c;
 				}
 			}
 		}
 	}
 
+	/**
+	 * Get the number of incoming choices of state {@code s}.
+	 */
+	public int getNumIncomingChoices(int s)
+	{
+		return preStarts[s + 1] - preStarts[s];
+	}
+
+	/**
+	 * Get the source state of the {@code i}th incoming choice of state {@code s}.
+	 */
+	public int getIncomingChoiceState(int s, int i)
+	{
+		return preStates[preStarts[s] + i];
+	}
+
+	/**
+	 * Get the choice index (within its source state) of the {@code i}th incoming choice of state {@code s}.
+	 */
+	public int getIncomingChoiceIndex(int s, int i)
+	{
+		return preChoices[preStarts[s] + i];
+	}
+
 	/**
 	 * Get an Iterable over the incoming choices of state {@code s}.
 	 */
 	public Iterable<Choice> getIncomingChoices(int s)
 	{
-		return pre.get(s);
+		return () -> getIncomingChoicesIterator(s);
 	}
 
 	/**
@@ -161,7 +197,28 @@ public class IncomingChoiceRelation
 	 */
 	public Iterator<Choice> getIncomingChoicesIterator(int s)
 	{
-		return getIncomingChoices(s).iterator();
+		return new Iterator<Choice>()
+		{
+			int k = preStarts[s];
+			final int end = preStarts[s + 1];
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public Choice next()
+			{
+				if (k >= end) {
+					throw new NoSuchElementException();
+				}
+				Choice choice = new Choice(preStates[k], preChoices[k]);
+				k++;
+				return choice;
+			}
+		};
 	}
 
 	/**
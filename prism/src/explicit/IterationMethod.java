@@ -27,7 +27,13 @@
 
 package explicit;
 
+import java.util.Arrays;
 import java.util.PrimitiveIterator;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
 
 import common.IntSet;
 import common.PeriodicTimer;
@@ -111,6 +117,28 @@ public abstract class IterationMethod {
 		public Model getModel();
 	}
 
+	/**
+	 * Interface for an IterationValIter that can iterate over the states of several SCCs
+	 * concurrently, in different threads (used for parallel topological value iteration).
+	 */
+	public interface ConcurrentSCCIterationValIter extends IterationValIter {
+		/** Can iterations for different SCCs be done concurrently with this object? */
+		public boolean supportsConcurrentSCCs();
+
+		/**
+		 * Perform one iteration over the states of an SCC, all of whose successor SCCs
+		 * are done, and return true if convergence has been detected.
+		 * <br>
+		 * Only the values of the states in the SCC may be modified. As other SCCs may be processed
+		 * at the same time, two-vector methods have to update the current solution vector in place,
+		 * rather than switching vectors.
+		 * @param states the states of the SCC
+		 * @param statesArray the states of the SCC, in the same order as for {@code states}
+		 * @param scratch storage of size at least {@code statesArray.length}, for use by the calling thread only
+		 */
+		public boolean iterateSCCAndCheckConvergence(IntSet states, int[] statesArray, double[] scratch) throws PrismException;
+	}
+
 	/** Storage for a single solution vector */
 	public class IterationBasic {
 		protected final Model model;
@@ -150,12 +178,25 @@ public abstract class IterationMethod {
 	}
 
 	/** Abstract base class for an IterationValIter with a single solution vector */
-	protected abstract class SingleVectorIterationValIter extends IterationBasic implements IterationValIter
+	protected abstract class SingleVectorIterationValIter extends IterationBasic implements ConcurrentSCCIterationValIter
 	{
 		public SingleVectorIterationValIter(Model model)
 		{
 			super(model);
 		}
+
+		@Override
+		public boolean supportsConcurrentSCCs()
+		{
+			// the iteration works in place on the states of the SCC
+			return supportsConcurrentAccess(model);
+		}
+
+		@Override
+		public boolean iterateSCCAndCheckConvergence(IntSet states, int[] statesArray, double[] scratch) throws PrismException
+		{
+			return iterateAndCheckConvergence(states);
+		}
 	}
 
 	/** Abstract base class for an IterationIntervalIter with a single solution vector */
@@ -223,10 +264,7 @@ public abstract class IterationMethod {
 				postProcessor.apply(soln, soln2, states);
 			}
 
-			// switch vectors
-			double[] tmp = soln;
-			soln = soln2;
-			soln2 = tmp;
+			switchVectors();
 		}
 
 		@Override
@@ -241,12 +279,17 @@ public abstract class IterationMethod {
 			// check convergence (on the set of states)
 			boolean done = PrismUtils.doublesAreClose(soln, soln2, states.iterator(), termCritParam, absolute);
 
-			// switch vectors
+			switchVectors();
+
+			return done;
+		}
+
+		/** Switch the roles of the two solution vectors */
+		protected void switchVectors()
+		{
 			double[] tmp = soln;
 			soln = soln2;
 			soln2 = tmp;
-
-			return done;
 		}
 
 		@Override
@@ -273,6 +316,161 @@ public abstract class IterationMethod {
 
 	}
 
+	/**
+	 * Abstract base class for a TwoVectorIteration where each iteration step
+	 * computes the new value of each state independently from the old solution vector,
+	 * i.e., {@code soln2[s] = f(s, soln)}.
+	 * <br>
+	 * If several threads are available (see {@link IterationMethod#setNumThreads(int)}),
+	 * the model supports concurrent access and the set of states is large enough,
+	 * the states are split into chunks of consecutive (in iteration order) states,
+	 * which are processed in parallel. The convergence check is done for each chunk
+	 * directly after its update and combined across chunks.
+	 * Otherwise, the sequential {@code doIterate} is used.
+	 */
+	protected abstract class PerStateTwoVectorIteration extends TwoVectorIteration implements ConcurrentSCCIterationValIter
+	{
+		/** The state set for which {@code stateArray} was computed */
+		private IntSet cachedStates = null;
+		/** The members of {@code cachedStates}, or null if it is too small for parallel iteration */
+		private int[] stateArray = null;
+
+		/** Constructor */
+		protected PerStateTwoVectorIteration(Model model, IterationMethod.IterationPostProcessor postProcessor)
+		{
+			super(model, postProcessor);
+		}
+
+		/** Compute the new value for state {@code s} from the current solution vector {@code soln} */
+		public abstract double doIterateSingle(int s);
+
+		@Override
+		public void iterate(IntSet states) throws PrismException
+		{
+			int[] statesArray = getStatesForParallelIteration(states);
+			if (statesArray == null) {
+				super.iterate(states);
+				return;
+			}
+			doIterateParallel(statesArray, false);
+			// optionally, post processing
+			if (postProcessor != null) {
+				postProcessor.apply(soln, soln2, states);
+			}
+			switchVectors();
+		}
+
+		@Override
+		public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+		{
+			int[] statesArray = getStatesForParallelIteration(states);
+			if (statesArray == null) {
+				return super.iterateAndCheckConvergence(states);
+			}
+			boolean done;
+			if (postProcessor == null) {
+				// check convergence along with the update
+				done = doIterateParallel(statesArray, true);
+			} else {
+				// post processing may change values, so check afterwards
+				doIterateParallel(statesArray, false);
+				postProcessor.apply(soln, soln2, states);
+				done = PrismUtils.doublesAreClose(soln, soln2, states.iterator(), termCritParam, absolute);
+			}
+			switchVectors();
+			return done;
+		}
+
+		@Override
+		public boolean supportsConcurrentSCCs()
+		{
+			return postProcessor == null && supportsConcurrentAccess(model);
+		}
+
+		@Override
+		public boolean iterateSCCAndCheckConvergence(IntSet states, int[] statesArray, double[] scratch) throws PrismException
+		{
+			// compute the new values into scratch, then copy them to soln,
+			// which gives the same values as the usual two-vector iteration
+			int n = statesArray.length;
+			if (numThreads > 1 && n >= 2 * PARALLEL_CHUNK_SIZE && supportsConcurrentAccess(model)) {
+				ParallelRange.forEachChunk(numThreads, n, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+					for (int i = lo; i < hi; i++) {
+						scratch[i] = doIterateSingle(statesArray[i]);
+					}
+				});
+			} else {
+				for (int i = 0; i < n; i++) {
+					scratch[i] = doIterateSingle(statesArray[i]);
+				}
+			}
+			boolean done = true;
+			for (int i = 0; i < n; i++) {
+				int s = statesArray[i];
+				if (done && !PrismUtils.doublesAreClose(soln[s], scratch[i], termCritParam, absolute)) {
+					done = false;
+				}
+				soln[s] = scratch[i];
+			}
+			return done;
+		}
+
+		/**
+		 * Get the members of {@code states} as an array, if the iteration
+		 * over {@code states} should be done in parallel, or null otherwise.
+		 * The array is cached, as the same state set is typically used for many iterations.
+		 */
+		private int[] getStatesForParallelIteration(IntSet states)
+		{
+			if (numThreads <= 1 || !supportsConcurrentAccess(model)) {
+				return null;
+			}
+			if (states != cachedStates) {
+				cachedStates = states;
+				int n = states.cardinality();
+				if (n < 2 * PARALLEL_CHUNK_SIZE) {
+					stateArray = null;
+				} else {
+					stateArray = new int[n];
+					PrimitiveIterator.OfInt it = states.iterator();
+					for (int i = 0; i < n; i++) {
+						stateArray[i] = it.nextInt();
+					}
+				}
+			}
+			return stateArray;
+		}
+
+		/**
+		 * Compute {@code soln2[s]} for all states in {@code states}, in parallel.
+		 * If {@code checkConvergence} is true, returns whether the old and new values
+		 * are close for all of these states (otherwise, the return value is meaningless).
+		 */
+		private boolean doIterateParallel(int[] states, boolean checkConvergence) throws PrismException
+		{
+			final double[] solnNew = soln2;
+			// cleared by the first chunk that finds a difference above the threshold,
+			// after which the remaining chunks skip their check
+			AtomicBoolean converged = new AtomicBoolean(true);
+			ParallelRange.forEachChunk(numThreads, states.length, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+				for (int i = lo; i < hi; i++) {
+					int s = states[i];
+					solnNew[s] = doIterateSingle(s);
+				}
+				if (checkConvergence && converged.get()) {
+					for (int i = lo; i < hi; i++) {
+						int s = states[i];
+						if (!PrismUtils.doublesAreClose(soln[s], solnNew[s], termCritParam, absolute)) {
+							converged.set(false);
+							break;
+						}
+					}
+				}
+			});
+			return converged.get();
+		}
+	}
+
 	/**
 	 * Functional interface for a method that allows to
 	 * determine the value for a singleton SCC in the model,
@@ -289,10 +487,41 @@ public abstract class IterationMethod {
 		public void solveFor(int state, double[] soln);
 	}
 
+	/**
+	 * Interface for a method that solves (non-singleton) SCCs of the model directly,
+	 * given that all values for successor states outside the SCC have already been computed.
+	 * Implementations must support being called for different SCCs concurrently.
+	 */
+	@FunctionalInterface
+	public interface SCCSolver {
+		/**
+		 * Compute the values for the states in {@code states}, which form an SCC,
+		 * under the assumption that all values of successors outside of the SCC
+		 * have already been computed in {@code soln}. Stores the results in {@code soln}.
+		 * Returns false (leaving {@code soln} unchanged) if this is not possible,
+		 * in which case the SCC is solved by iteration instead.
+		 */
+		public boolean solveFor(IntSet states, double[] soln);
+	}
+
 	/** Convergence check: absolute or relative? */
 	protected final boolean absolute;
-	/** Convergence check: epsilon value */
-	protected final double termCritParam;
+	/** Convergence check: epsilon value (may be varied by subclasses, e.g. in optimistic value iteration) */
+	protected double termCritParam;
+
+	/** Number of threads for iteration steps over large state sets (see PerStateTwoVectorIteration) */
+	protected int numThreads = 1;
+
+	/**
+	 * Number of states per chunk in a parallel iteration step,
+	 * chosen so that the part of the solution vectors touched by a chunk stays in cache.
+	 */
+	protected static final int PARALLEL_CHUNK_SIZE = 4096;
+
+	/** For topological value iteration, the solver for SCCs that are solved directly (optional) */
+	protected SCCSolver directSCCSolver = null;
+	/** For topological value iteration, the maximum size of SCCs that are solved directly */
+	protected int directSCCMaxSize = 0;
 
 	/**
 	 * Constructor.
@@ -305,6 +534,54 @@ public abstract class IterationMethod {
 		this.termCritParam = termCritParam;
 	}
 
+	/**
+	 * Set the number of threads to be used for the iteration steps
+	 * (only used by iteration methods that support this).
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = Math.max(numThreads, 1);
+	}
+
+	/**
+	 * For topological value iteration, solve non-singleton SCCs with at most {@code maxSize} states
+	 * directly, using {@code solver}, instead of iterating (if possible).
+	 * Pass {@code null} to always iterate.
+	 */
+	public void setDirectSCCSolver(SCCSolver solver, int maxSize)
+	{
+		this.directSCCSolver = solver;
+		this.directSCCMaxSize = maxSize;
+	}
+
+	/**
+	 * Try to solve a non-singleton SCC directly (see {@link #setDirectSCCSolver(SCCSolver, int)}),
+	 * storing the result in the solution vector(s) of {@code iterator}.
+	 * Returns true if this was done, false if the SCC needs to be solved by iteration.
+	 */
+	protected boolean solveSCCDirectly(IterationValIter iterator, SCCInfo sccs, int scc)
+	{
+		if (directSCCSolver == null || sccs.getNumStatesInSCC(scc) > directSCCMaxSize) {
+			return false;
+		}
+		IntSet statesForSCC = sccs.getStatesForSCC(scc);
+		if (!directSCCSolver.solveFor(statesForSCC, iterator.getSolnVector())) {
+			return false;
+		}
+		// copy the values to the second vector, for two-vector iteration methods
+		iterator.doneWith(statesForSCC);
+		return true;
+	}
+
+	/**
+	 * Can the per-state matrix-vector multiplication methods of the model
+	 * safely be called concurrently from several threads?
+	 */
+	protected static boolean supportsConcurrentAccess(Model model)
+	{
+		return model instanceof DTMCSparse || model instanceof DTMCSimple || model instanceof MDPSparse || model instanceof MDPSimple;
+	}
+
 	// ------------ Abstract DTMC methods ----------------------------
 
 	/** Obtain an Iteration object using mvMult (matrix-vector multiplication) in a DTMC */
@@ -401,6 +678,8 @@ public abstract class IterationMethod {
 	 */
 	public ModelCheckerResult doValueIteration(ProbModelChecker mc, String description, IterationValIter iteration, IntSet unknownStates, long startTime, ExportIterations iterationsExport) throws PrismException
 	{
+		setNumThreads(mc.getNumIterationThreads());
+
 		int iters = 0;
 		final int maxIters = mc.maxIters;
 		boolean done = false;
@@ -463,6 +742,15 @@ public abstract class IterationMethod {
 	 */
 	public ModelCheckerResult doTopologicalValueIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationMethod.IterationValIter iterator, SingletonSCCSolver singletonSCCSolver, long startTime, ExportIterations iterationsExport) throws PrismException
 	{
+		setNumThreads(mc.getNumIterationThreads());
+
+		// With several threads, solve independent SCCs concurrently
+		// (not if exporting iterations, which requires a fixed order)
+		if (numThreads > 1 && iterationsExport == null && sccs.getNumSCCs() > 1 && iterator instanceof ConcurrentSCCIterationValIter
+				&& ((ConcurrentSCCIterationValIter) iterator).supportsConcurrentSCCs()) {
+			return doTopologicalValueIterationParallel(mc, description, sccs, (ConcurrentSCCIterationValIter) iterator, singletonSCCSolver, startTime);
+		}
+
 		// Start iterations
 		int iters = 0;
 		long mvCount = 0;
@@ -471,6 +759,7 @@ public abstract class IterationMethod {
 		int numSCCs = sccs.getNumSCCs();
 		int numNonSingletonSCCs = sccs.countNonSingletonSCCs();
 		int finishedNonSingletonSCCs = 0;
+		int numDirectSCCs = 0;
 
 		PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
 		updatesTimer.start();
@@ -493,6 +782,16 @@ public abstract class IterationMethod {
 				if (iterationsExport != null)
 					iterationsExport.exportVector(iterator.getSolnVector(), 0);
 
+				doneSCC = true;
+			} else if (solveSCCDirectly(iterator, sccs, scc)) {
+				// small complex SCC: solved directly
+				IntSet statesForSCC = sccs.getStatesForSCC(scc);
+				mvCount += countTransitions(iterator.getModel(), statesForSCC);
+				iters++;
+				numDirectSCCs++;
+				if (iterationsExport != null)
+					iterationsExport.exportVector(iterator.getSolnVector(), 0);
+
 				doneSCC = true;
 			} else {
 				// complex SCC: do VI
@@ -533,7 +832,10 @@ public abstract class IterationMethod {
 
 		// Finished value iteration
 		long timer = System.currentTimeMillis() - startTime;
-		mc.getLog().print("Value iteration (" + description + ", with " + numNonSingletonSCCs + " non-singleton SCCs)");
+		mc.getLog().print("Value iteration (" + description + ", with " + numNonSingletonSCCs + " non-singleton SCCs");
+		if (numDirectSCCs > 0)
+			mc.getLog().print(", " + numDirectSCCs + " solved directly");
+		mc.getLog().print(")");
 		mc.getLog().print(" took " + iters + " iterations, ");
 		mc.getLog().print(mvCount + " multiplications");
 		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
@@ -556,6 +858,211 @@ public abstract class IterationMethod {
 		return res;
 	}
 
+	/**
+	 * Perform the actual work of a topological value iteration, solving SCCs concurrently.
+	 * <br>
+	 * The SCCs and the transitions between them form a DAG, which is used as a task graph:
+	 * an SCC becomes ready once all of its successor SCCs are done, and ready SCCs are
+	 * solved by a pool of {@code numThreads} worker threads. Each SCC is solved as in
+	 * {@link #doTopologicalValueIteration}, so the results are the same.
+	 * <br>
+	 * Arguments and return value as for {@link #doTopologicalValueIteration}.
+	 */
+	private ModelCheckerResult doTopologicalValueIterationParallel(ProbModelChecker mc, String description, SCCInfo sccs, ConcurrentSCCIterationValIter iterator, SingletonSCCSolver singletonSCCSolver, long startTime) throws PrismException
+	{
+		final int maxIters = mc.maxIters;
+		final Model model = iterator.getModel();
+
+		int numSCCs = sccs.getNumSCCs();
+		int numNonSingletonSCCs = sccs.countNonSingletonSCCs();
+
+		// Build the task graph: number of successor SCCs not yet done, and predecessor SCCs
+		SCCTaskGraph graph = new SCCTaskGraph(model, sccs);
+		AtomicIntegerArray pending = new AtomicIntegerArray(graph.numSuccessors);
+		LinkedBlockingQueue<Integer> ready = new LinkedBlockingQueue<Integer>();
+		for (int scc = 0; scc < numSCCs; scc++) {
+			if (graph.numSuccessors[scc] == 0) {
+				ready.add(scc);
+			}
+		}
+
+		AtomicInteger remaining = new AtomicInteger(numSCCs);
+		AtomicInteger finishedNonSingletonSCCs = new AtomicInteger(0);
+		AtomicInteger numDirectSCCs = new AtomicInteger(0);
+		AtomicLong iters = new AtomicLong(0);
+		AtomicLong mvCount = new AtomicLong(0);
+		AtomicBoolean done = new AtomicBoolean(true);
+
+		PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+		updatesTimer.start();
+
+		// Run one worker per thread; each takes ready SCCs until all are done
+		// (signalled by a negative SCC index) or some SCC did not converge
+		final int numWorkers = numThreads;
+		ParallelRange.forEachChunk(numWorkers, numWorkers, 1, (lo, hi) -> {
+			double[] scratch = new double[0];
+			try {
+				while (true) {
+					int scc = ready.take();
+					if (scc < 0) {
+						break;
+					}
+					boolean doneSCC;
+					if (sccs.isSingletonSCC(scc)) {
+						int state = sccs.getStatesForSCC(scc).iterator().nextInt();
+						iterator.solveSingletonSCC(state, singletonSCCSolver);
+						mvCount.addAndGet(countTransitions(model, IntSet.asIntSet(state)));
+						iters.incrementAndGet();
+						doneSCC = true;
+					} else if (solveSCCDirectly(iterator, sccs, scc)) {
+						mvCount.addAndGet(countTransitions(model, sccs.getStatesForSCC(scc)));
+						iters.incrementAndGet();
+						numDirectSCCs.incrementAndGet();
+						finishedNonSingletonSCCs.incrementAndGet();
+						doneSCC = true;
+					} else {
+						IntSet statesForSCC = sccs.getStatesForSCC(scc);
+						int[] statesArray = new int[sccs.getNumStatesInSCC(scc)];
+						PrimitiveIterator.OfInt it = statesForSCC.iterator();
+						for (int i = 0; i < statesArray.length; i++) {
+							statesArray[i] = it.nextInt();
+						}
+						if (scratch.length < statesArray.length) {
+							scratch = new double[statesArray.length];
+						}
+						doneSCC = false;
+						int itersInSCC = 0;
+						// abort on convergence or if iterations *in this SCC* are above maxIters
+						while (!doneSCC && itersInSCC < maxIters) {
+							itersInSCC++;
+							doneSCC = iterator.iterateSCCAndCheckConvergence(statesForSCC, statesArray, scratch);
+						}
+						iterator.doneWith(statesForSCC);
+						iters.addAndGet(itersInSCC);
+						mvCount.addAndGet(itersInSCC * countTransitions(model, statesForSCC));
+						int finished = finishedNonSingletonSCCs.incrementAndGet();
+						synchronized (updatesTimer) {
+							if (updatesTimer.triggered()) {
+								mc.getLog().print("Iteration " + iters.get() + ": ");
+								mc.getLog().print(finished + " of " + numNonSingletonSCCs + " non-singleton SCCs done");
+								mc.getLog().println(", " + PrismUtils.formatDouble2dp(updatesTimer.elapsedMillisTotal() / 1000.0) + " sec so far");
+							}
+						}
+					}
+					if (!doneSCC) {
+						// stop all workers (see below)
+						done.set(false);
+						break;
+					}
+					// predecessors whose successors are now all done become ready
+					for (int j = graph.predStart[scc]; j < graph.predStart[scc + 1]; j++) {
+						int pred = graph.preds[j];
+						if (pending.decrementAndGet(pred) == 0) {
+							ready.add(pred);
+						}
+					}
+					if (remaining.decrementAndGet() == 0) {
+						for (int i = 0; i < numWorkers; i++) {
+							ready.add(-1);
+						}
+					}
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new PrismException("Interrupted during topological value iteration");
+			} finally {
+				// make sure the other workers terminate, however this one stopped
+				// (including errors, e.g. running out of memory)
+				for (int i = 0; i < numWorkers; i++) {
+					ready.add(-1);
+				}
+			}
+		});
+
+		// Finished value iteration
+		long timer = System.currentTimeMillis() - startTime;
+		mc.getLog().print("Value iteration (" + description + ", with " + numNonSingletonSCCs + " non-singleton SCCs");
+		if (numDirectSCCs.get() > 0)
+			mc.getLog().print(", " + numDirectSCCs.get() + " solved directly");
+		mc.getLog().print(")");
+		mc.getLog().print(" took " + iters.get() + " iterations, ");
+		mc.getLog().print(mvCount.get() + " multiplications");
+		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!done.get() && mc.errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + iters.get() + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		// Return results
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = iterator.getSolnVector();
+		res.numIters = (int) iters.get();
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+
+	/**
+	 * The DAG of SCCs (the quotient of the model by its SCCs), restricted to the states in an SCCInfo,
+	 * stored as the number of (distinct) successor SCCs and the list of (distinct) predecessor SCCs of each SCC.
+	 */
+	private static class SCCTaskGraph
+	{
+		/** Number of distinct successor SCCs, for each SCC */
+		int[] numSuccessors;
+		/** Predecessors of SCC i are preds[predStart[i]], ..., preds[predStart[i+1]-1] */
+		int[] predStart;
+		int[] preds;
+
+		SCCTaskGraph(Model model, SCCInfo sccs)
+		{
+			int numSCCs = sccs.getNumSCCs();
+			numSuccessors = new int[numSCCs];
+			predStart = new int[numSCCs + 1];
+			// first pass: count edges (each distinct pair of SCCs once)
+			int[] lastSeen = new int[numSCCs];
+			Arrays.fill(lastSeen, -1);
+			int numEdges = 0;
+			for (int scc = 0; scc < numSCCs; scc++) {
+				PrimitiveIterator.OfInt it = sccs.getStatesForSCC(scc).iterator();
+				while (it.hasNext()) {
+					SuccessorsIterator succs = model.getSuccessors(it.nextInt());
+					while (succs.hasNext()) {
+						int succSCC = sccs.getSCCIndex(succs.nextInt());
+						if (succSCC >= 0 && succSCC != scc && lastSeen[succSCC] != scc) {
+							lastSeen[succSCC] = scc;
+							numSuccessors[scc]++;
+							predStart[succSCC + 1]++;
+							numEdges++;
+						}
+					}
+				}
+			}
+			for (int scc = 0; scc < numSCCs; scc++) {
+				predStart[scc + 1] += predStart[scc];
+			}
+			// second pass: store predecessors
+			preds = new int[numEdges];
+			int[] next = Arrays.copyOf(predStart, numSCCs);
+			Arrays.fill(lastSeen, -1);
+			for (int scc = 0; scc < numSCCs; scc++) {
+				PrimitiveIterator.OfInt it = sccs.getStatesForSCC(scc).iterator();
+				while (it.hasNext()) {
+					SuccessorsIterator succs = model.getSuccessors(it.nextInt());
+					while (succs.hasNext()) {
+						int succSCC = sccs.getSCCIndex(succs.nextInt());
+						if (succSCC >= 0 && succSCC != scc && lastSeen[succSCC] != scc) {
+							lastSeen[succSCC] = scc;
+							preds[next[succSCC]++] = scc;
+						}
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Perform the actual work of an interval iteration, i.e., iterate until convergence or abort.
 	 *
@@ -570,6 +1077,8 @@ public abstract class IterationMethod {
 	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
 	public ModelCheckerResult doIntervalIteration(ProbModelChecker mc, String description, IterationIntervalIter below, IterationIntervalIter above, IntSet unknownStates, long timer, ExportIterations iterationsExport) throws PrismException {
+		setNumThreads(mc.getNumIterationThreads());
+
 		try {
 			// Start iterations
 			int iters = 0;
@@ -662,6 +1171,8 @@ public abstract class IterationMethod {
 	 * @throws PrismException on non-convergence (if mc.errorOnNonConverge is set)
 	 */
 	public ModelCheckerResult doTopologicalIntervalIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationIntervalIter below, IterationIntervalIter above, SingletonSCCSolver singletonSCCSolver, long timer, ExportIterations iterationsExport) throws PrismException {
+		setNumThreads(mc.getNumIterationThreads());
+
 		try {
 			// Start iterations
 			int iters = 0;
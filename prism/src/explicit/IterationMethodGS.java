@@ -26,6 +26,9 @@
 
 package explicit;
 
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+
 import common.IntSet;
 import explicit.rewards.MCRewards;
 import explicit.rewards.MDPRewards;
@@ -50,20 +53,150 @@ public class IterationMethodGS extends IterationMethod {
 		this.backwards = backwards;
 	}
 
+	/**
+	 * Abstract base class for a Gauss-Seidel IterationValIter.
+	 * <br>
+	 * If several threads are available (see {@link IterationMethod#setNumThreads(int)}),
+	 * the model supports concurrent access and the set of states is large enough,
+	 * a multicolour Gauss-Seidel iteration is done instead of the sequential one:
+	 * the states are coloured such that there are no transitions between states of the same colour
+	 * (see {@link StateColouring}). The colours are then processed one after the other
+	 * (in reverse for backwards Gauss-Seidel), updating the states of each colour in parallel.
+	 * The results do not depend on the number of threads, but can differ slightly from
+	 * the sequential variant, as the order of state updates is different.
+	 */
+	protected abstract class GSIterationValIter extends SingleVectorIterationValIter
+	{
+		/** Colourings for the state sets seen so far (only for large state sets) */
+		private final ConcurrentHashMap<IntSet, StateColouring> colourings = new ConcurrentHashMap<IntSet, StateColouring>();
+
+		public GSIterationValIter(Model model)
+		{
+			super(model);
+		}
+
+		/**
+		 * Perform a (sequential) Gauss-Seidel iteration over {@code states} on {@code soln},
+		 * in the order given by {@code states}. Returns the maximum difference between old/new values.
+		 */
+		protected abstract double doIterateSequential(PrimitiveIterator.OfInt states);
+
+		/**
+		 * Compute the new value for state {@code s} from the current solution vector {@code soln},
+		 * in Gauss-Seidel fashion (i.e. solving for the self-loop).
+		 */
+		protected abstract double doIterateSingle(int s);
+
+		@Override
+		public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+		{
+			StateColouring colouring = getColouring(states, null);
+			double maxDiff;
+			if (colouring == null) {
+				maxDiff = doIterateSequential(backwards ? states.reversedIterator() : states.iterator());
+			} else {
+				maxDiff = doIterateColoured(colouring);
+			}
+			// Check termination
+			return (maxDiff < termCritParam);
+		}
+
+		@Override
+		public boolean iterateSCCAndCheckConvergence(IntSet states, int[] statesArray, double[] scratch) throws PrismException
+		{
+			StateColouring colouring = getColouring(states, statesArray);
+			double maxDiff;
+			if (colouring == null) {
+				maxDiff = doIterateSequential(backwards ? states.reversedIterator() : states.iterator());
+			} else {
+				maxDiff = doIterateColoured(colouring);
+			}
+			// Check termination
+			return (maxDiff < termCritParam);
+		}
+
+		@Override
+		public void doneWith(IntSet states)
+		{
+			colourings.remove(states);
+		}
+
+		/**
+		 * Get the colouring for {@code states}, if a multicolour iteration should be done, or null otherwise.
+		 * @param states the states
+		 * @param statesArray optionally (may be null), the states as an array
+		 */
+		private StateColouring getColouring(IntSet states, int[] statesArray)
+		{
+			if (numThreads <= 1 || !supportsConcurrentAccess(model)) {
+				return null;
+			}
+			int n = statesArray != null ? statesArray.length : states.cardinality();
+			if (n < 2 * PARALLEL_CHUNK_SIZE) {
+				return null;
+			}
+			return colourings.computeIfAbsent(states, set -> {
+				int[] subset = statesArray;
+				if (subset == null) {
+					subset = new int[n];
+					PrimitiveIterator.OfInt it = set.iterator();
+					for (int i = 0; i < n; i++) {
+						subset[i] = it.nextInt();
+					}
+				}
+				return new StateColouring(model, subset);
+			});
+		}
+
+		/**
+		 * Perform a multicolour Gauss-Seidel iteration on {@code soln}.
+		 * Returns the maximum difference between old/new values.
+		 */
+		private double doIterateColoured(StateColouring colouring) throws PrismException
+		{
+			int[] colouredStates = colouring.getStates();
+			int numColours = colouring.getNumColours();
+			double maxDiff = 0.0;
+			for (int k = 0; k < numColours; k++) {
+				int c = backwards ? numColours - 1 - k : k;
+				int start = colouring.getColourStart(c);
+				int n = colouring.getColourStart(c + 1) - start;
+				// maximum difference for each chunk
+				double[] chunkMaxDiff = new double[(n + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE];
+				ParallelRange.forEachChunk(numThreads, n, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+					double d, diff, chunkMax = 0.0;
+					for (int i = start + lo; i < start + hi; i++) {
+						int s = colouredStates[i];
+						d = doIterateSingle(s);
+						diff = absolute ? (Math.abs(d - soln[s])) : (Math.abs(d - soln[s]) / d);
+						chunkMax = diff > chunkMax ? diff : chunkMax;
+						soln[s] = d;
+					}
+					chunkMaxDiff[lo / PARALLEL_CHUNK_SIZE] = chunkMax;
+				});
+				for (double diff : chunkMaxDiff) {
+					maxDiff = diff > maxDiff ? diff : maxDiff;
+				}
+			}
+			return maxDiff;
+		}
+	}
+
 	@Override
 	public IterationValIter forMvMult(DTMC dtmc)
 	{
-		return new SingleVectorIterationValIter(dtmc) {
+		return new GSIterationValIter(dtmc) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterateSequential(PrimitiveIterator.OfInt states)
 			{
 				// Matrix-vector multiply
-				double maxDiff = dtmc.mvMultGS(soln,
-				                               backwards ? states.reversedIterator() : states.iterator(),
-				                               absolute);
+				return dtmc.mvMultGS(soln, states, absolute);
+			}
 
-				// Check termination
-				return (maxDiff < termCritParam);
+			@Override
+			protected double doIterateSingle(int s)
+			{
+				return dtmc.mvMultJacSingle(s, soln);
 			}
 		};
 	}
@@ -88,18 +221,18 @@ public class IterationMethodGS extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultRew(DTMC dtmc, MCRewards rew)
 	{
-		return new SingleVectorIterationValIter(dtmc) {
+		return new GSIterationValIter(dtmc) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterateSequential(PrimitiveIterator.OfInt states)
 			{
 				// Matrix-vector multiply
-				double maxDiff = dtmc.mvMultRewGS(soln,
-				                                  rew,
-				                                  backwards ? states.reversedIterator() : states.iterator(),
-				                                  absolute);
+				return dtmc.mvMultRewGS(soln, rew, states, absolute);
+			}
 
-				// Check termination
-				return (maxDiff < termCritParam);
+			@Override
+			protected double doIterateSingle(int s)
+			{
+				return dtmc.mvMultRewJacSingle(s, soln, rew);
 			}
 		};
 	}
@@ -125,19 +258,18 @@ public class IterationMethodGS extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultMinMax(MDP mdp, boolean min, int[] strat)
 	{
-		return new SingleVectorIterationValIter(mdp) {
+		return new GSIterationValIter(mdp) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterateSequential(PrimitiveIterator.OfInt states)
 			{
 				// Matrix-vector multiply
-				double maxDiff = mdp.mvMultGSMinMax(soln,
-				                                    min,
-				                                    backwards ? states.reversedIterator() : states.iterator(),
-				                                    absolute,
-				                                    strat);
+				return mdp.mvMultGSMinMax(soln, min, states, absolute, strat);
+			}
 
-				// Check termination
-				return (maxDiff < termCritParam);
+			@Override
+			protected double doIterateSingle(int s)
+			{
+				return mdp.mvMultJacMinMaxSingle(s, soln, min, strat);
 			}
 		};
 	}
@@ -166,20 +298,18 @@ public class IterationMethodGS extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultRewMinMax(MDP mdp, MDPRewards rewards, boolean min, int[] strat) throws PrismException
 	{
-		return new SingleVectorIterationValIter(mdp) {
+		return new GSIterationValIter(mdp) {
 			@Override
-			public boolean iterateAndCheckConvergence(IntSet states)
+			protected double doIterateSequential(PrimitiveIterator.OfInt states)
 			{
 				// Matrix-vector multiply
-				double maxDiff = mdp.mvMultRewGSMinMax(soln,
-				                                       rewards,
-				                                       min,
-				                                       backwards ? states.reversedIterator() : states.iterator(),
-				                                       absolute,
-				                                       strat);
-
-				// Check termination
-				return (maxDiff < termCritParam);
+				return mdp.mvMultRewGSMinMax(soln, rewards, min, states, absolute, strat);
+			}
+
+			@Override
+			protected double doIterateSingle(int s)
+			{
+				return mdp.mvMultRewJacMinMaxSingle(s, soln, rewards, min, strat);
 			}
 		};
 	}
@@ -50,12 +50,18 @@ class IterationMethodJacobi extends IterationMethod {
 	@Override
 	public IterationValIter forMvMult(DTMC dtmc)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new PerStateTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMultJac(soln, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultJacSingle(s, soln);
+			}
 		};
 	}
 
@@ -66,24 +72,36 @@ class IterationMethodJacobi extends IterationMethod {
 			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new PerStateTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMultJac(soln, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultJacSingle(s, soln);
+			}
 		};
 	}
 
 	@Override
 	public IterationValIter forMvMultRew(DTMC dtmc, MCRewards rew)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new PerStateTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMultRewJac(soln, rew, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultRewJacSingle(s, soln, rew);
+			}
 		};
 	}
 
@@ -94,12 +112,18 @@ class IterationMethodJacobi extends IterationMethod {
 			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new PerStateTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMultRewJac(soln, rew, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultRewJacSingle(s, soln, rew);
+			}
 		};
 	}
 
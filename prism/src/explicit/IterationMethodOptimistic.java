@@ -0,0 +1,318 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+
+import common.IntSet;
+import common.PeriodicTimer;
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import prism.PrismException;
+import prism.PrismUtils;
+
+/**
+ * IterationMethod that encapsulates optimistic value iteration
+ * (Hartmanns/Kaminski, CAV 2020), based on the Power method.
+ * <br>
+ * Value iteration from below is performed until convergence, as usual. Then, an upper bound
+ * is guessed from the current (lower) values and verified by iterating on both vectors:
+ * once an iteration does not increase any value of the guessed vector, it is an upper bound
+ * on the least fixed point. If the lower and upper bounds are then close enough,
+ * the midpoint is returned, giving a sound result. If the guess turns out to be wrong,
+ * value iteration continues with a smaller precision, followed by a new guess.
+ * <br>
+ * This requires iteration from below and a unique fixed point (as for interval iteration),
+ * but no a-priori upper bounds.
+ */
+class IterationMethodOptimistic extends IterationMethodPower
+{
+	/** Maximum value (e.g. 1 for probabilities), used to clip guessed upper bounds */
+	private final double maxValue;
+
+	/** Functional interface for creating an IterationValIter */
+	@FunctionalInterface
+	private interface IterationValIterCreator
+	{
+		IterationValIter create() throws PrismException;
+	}
+
+	/**
+	 * An IterationValIter for optimistic value iteration: the lower iteration (which
+	 * also stores the strategy, if required), together with a way to create the upper one.
+	 */
+	private class OptimisticValIter implements IterationValIter
+	{
+		private final IterationValIter lower;
+		private final IterationValIterCreator upperCreator;
+
+		OptimisticValIter(IterationValIter lower, IterationValIterCreator upperCreator)
+		{
+			this.lower = lower;
+			this.upperCreator = upperCreator;
+		}
+
+		@Override
+		public void init(double[] soln)
+		{
+			lower.init(soln);
+		}
+
+		@Override
+		public double[] getSolnVector()
+		{
+			return lower.getSolnVector();
+		}
+
+		@Override
+		public boolean iterateAndCheckConvergence(IntSet states) throws PrismException
+		{
+			return lower.iterateAndCheckConvergence(states);
+		}
+
+		@Override
+		public void doneWith(IntSet states)
+		{
+			lower.doneWith(states);
+		}
+
+		@Override
+		public void solveSingletonSCC(int state, SingletonSCCSolver solver)
+		{
+			lower.solveSingletonSCC(state, solver);
+		}
+
+		@Override
+		public Model getModel()
+		{
+			return lower.getModel();
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * @param absolute For convergence check, perform absolute comparison?
+	 * @param termCritParam For convergence check, the epsilon value to use
+	 * @param maxValue Maximum possible value (e.g. 1 for probabilities, infinity for rewards)
+	 */
+	public IterationMethodOptimistic(boolean absolute, double epsilon, double maxValue)
+	{
+		super(absolute, epsilon);
+		this.maxValue = maxValue;
+	}
+
+	@Override
+	public IterationValIter forMvMult(DTMC dtmc)
+	{
+		return new OptimisticValIter(super.forMvMult(dtmc), () -> super.forMvMult(dtmc));
+	}
+
+	@Override
+	public IterationValIter forMvMultRew(DTMC dtmc, MCRewards rew)
+	{
+		return new OptimisticValIter(super.forMvMultRew(dtmc, rew), () -> super.forMvMultRew(dtmc, rew));
+	}
+
+	@Override
+	public IterationValIter forMvMultMinMax(MDP mdp, boolean min, int[] strat)
+	{
+		// only the lower iteration stores the strategy
+		return new OptimisticValIter(super.forMvMultMinMax(mdp, min, strat), () -> super.forMvMultMinMax(mdp, min, null));
+	}
+
+	@Override
+	public IterationValIter forMvMultRewMinMax(MDP mdp, MDPRewards rewards, boolean min, int[] strat) throws PrismException
+	{
+		// only the lower iteration stores the strategy
+		return new OptimisticValIter(super.forMvMultRewMinMax(mdp, rewards, min, strat), () -> super.forMvMultRewMinMax(mdp, rewards, min, null));
+	}
+
+	@Override
+	public String getDescriptionShort()
+	{
+		return "Power method, optimistic";
+	}
+
+	@Override
+	public ModelCheckerResult doTopologicalValueIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationValIter iterator, SingletonSCCSolver singletonSCCSolver, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		if (!(iterator instanceof OptimisticValIter)) {
+			return super.doTopologicalValueIteration(mc, description, sccs, iterator, singletonSCCSolver, startTime, iterationsExport);
+		}
+		// not done SCC-wise (yet): iterate over the states of all SCCs at once
+		mc.getLog().println("Note: Optimistic value iteration does not support topological iteration, iterating over all states at once.");
+		BitSet states = new BitSet();
+		for (int scc = 0, numSCCs = sccs.getNumSCCs(); scc < numSCCs; scc++) {
+			PrimitiveIterator.OfInt it = sccs.getStatesForSCC(scc).iterator();
+			while (it.hasNext()) {
+				states.set(it.nextInt());
+			}
+		}
+		return doValueIteration(mc, description, iterator, IntSet.asIntSet(states), startTime, iterationsExport);
+	}
+
+	@Override
+	public ModelCheckerResult doValueIteration(ProbModelChecker mc, String description, IterationValIter iteration, IntSet unknownStates, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		if (!(iteration instanceof OptimisticValIter)) {
+			return super.doValueIteration(mc, description, iteration, unknownStates, startTime, iterationsExport);
+		}
+		setNumThreads(mc.getNumIterationThreads());
+
+		IterationValIter lower = ((OptimisticValIter) iteration).lower;
+		IterationValIter upper = ((OptimisticValIter) iteration).upperCreator.create();
+		final double epsilon = termCritParam;
+		final int maxIters = mc.maxIters;
+		int iters = 0;
+		int viIters = 0;
+		int verificationIters = 0;
+		int numGuesses = 0;
+		boolean done = false;
+
+		PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+		updatesTimer.start();
+
+		try {
+			double[] upperOld = null;
+			while (!done && iters < maxIters) {
+				// Value iteration (from below), with the current precision
+				boolean converged = false;
+				while (!converged && iters < maxIters) {
+					iters++;
+					viIters++;
+					converged = lower.iterateAndCheckConvergence(unknownStates);
+					if (iterationsExport != null)
+						iterationsExport.exportVector(lower.getSolnVector(), 0);
+					if (!converged && updatesTimer.triggered()) {
+						mc.getLog().print("Iteration " + iters + ": ");
+						mc.getLog().println(PrismUtils.formatDouble2dp(updatesTimer.elapsedMillisTotal() / 1000.0) + " sec so far");
+					}
+				}
+				if (!converged) {
+					break;
+				}
+
+				// Guess an upper bound from the lower one
+				numGuesses++;
+				double[] soln = lower.getSolnVector();
+				double[] guess = soln.clone();
+				PrimitiveIterator.OfInt it = unknownStates.iterator();
+				while (it.hasNext()) {
+					int s = it.nextInt();
+					double d = absolute ? soln[s] + epsilon : soln[s] + epsilon * Math.abs(soln[s]);
+					guess[s] = Math.min(d, maxValue);
+				}
+				upper.init(guess);
+				if (upperOld == null) {
+					upperOld = new double[guess.length];
+				}
+
+				// Verification: iterate on both vectors, for (at most) as long as all value iteration so far
+				for (int i = 0; i < viIters && iters < maxIters; i++) {
+					iters++;
+					verificationIters++;
+					double[] u = upper.getSolnVector();
+					it = unknownStates.iterator();
+					while (it.hasNext()) {
+						int s = it.nextInt();
+						upperOld[s] = u[s];
+					}
+					upper.iterateAndCheckConvergence(unknownStates);
+					lower.iterateAndCheckConvergence(unknownStates);
+					if (iterationsExport != null) {
+						iterationsExport.exportVector(lower.getSolnVector(), 0);
+						iterationsExport.exportVector(upper.getSolnVector(), 1);
+					}
+					double[] l = lower.getSolnVector();
+					u = upper.getSolnVector();
+					boolean decreasing = true;
+					boolean crossed = false;
+					it = unknownStates.iterator();
+					while (it.hasNext()) {
+						int s = it.nextInt();
+						if (u[s] > upperOld[s]) {
+							decreasing = false;
+						}
+						if (l[s] > u[s]) {
+							crossed = true;
+							break;
+						}
+					}
+					if (crossed) {
+						// the guess was too low
+						break;
+					}
+					if (decreasing) {
+						// u is an upper bound; stop if it is close enough to the lower bound
+						double diff = PrismUtils.measureSupNormInterval(l, u, absolute, unknownStates.iterator());
+						if (diff <= 2 * epsilon) {
+							// use the midpoint of lower and upper bound as the result
+							it = unknownStates.iterator();
+							while (it.hasNext()) {
+								int s = it.nextInt();
+								l[s] = (l[s] + u[s]) / 2;
+							}
+							mc.getLog().println("Max " + (absolute ? "" : "relative ") + "diff between upper and lower bound on convergence: " + PrismUtils.formatDouble(diff));
+							done = true;
+							break;
+						}
+					}
+				}
+				// Otherwise, continue value iteration with a higher precision
+				termCritParam /= 2;
+			}
+		} finally {
+			termCritParam = epsilon;
+		}
+
+		// Finished optimistic value iteration
+		long mvCount = (iters + verificationIters) * countTransitions(lower.getModel(), unknownStates);
+		long timer = System.currentTimeMillis() - startTime;
+		mc.getLog().print("Optimistic value iteration (" + description + ")");
+		mc.getLog().print(" took " + iters + " iterations (" + verificationIters + " for verification of " + numGuesses + " guesses), ");
+		mc.getLog().print(mvCount + " multiplications");
+		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+		if (iterationsExport != null)
+			iterationsExport.close();
+
+		// Non-convergence is an error (usually)
+		if (!done && mc.errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		// Return results
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = lower.getSolnVector();
+		res.numIters = iters;
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+}
@@ -49,12 +49,18 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationValIter forMvMult(DTMC dtmc)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new PerStateTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMult(soln, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultSingle(s, soln);
+			}
 		};
 	}
 
@@ -65,24 +71,36 @@ public class IterationMethodPower extends IterationMethod {
 			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new PerStateTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMult(soln, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultSingle(s, soln);
+			}
 		};
 	}
 
 	@Override
 	public IterationValIter forMvMultRew(DTMC dtmc, MCRewards rew)
 	{
-		return new TwoVectorIteration(dtmc, null) {
+		return new PerStateTwoVectorIteration(dtmc, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMultRew(soln, rew, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultRewSingle(s, soln, rew);
+			}
 		};
 	}
 
@@ -93,24 +111,36 @@ public class IterationMethodPower extends IterationMethod {
 			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(dtmc, post) {
+		return new PerStateTwoVectorIteration(dtmc, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				dtmc.mvMultRew(soln, rew, soln2, states.iterator());
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return dtmc.mvMultRewSingle(s, soln, rew);
+			}
 		};
 	}
 
 	@Override
 	public IterationValIter forMvMultMinMax(MDP mdp, boolean min, int[] strat)
 	{
-		return new TwoVectorIteration(mdp, null) {
+		return new PerStateTwoVectorIteration(mdp, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				mdp.mvMultMinMax(soln, min, soln2, states.iterator(), strat);
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return mdp.mvMultMinMaxSingle(s, soln, min, strat);
+			}
 		};
 	}
 
@@ -122,12 +152,18 @@ public class IterationMethodPower extends IterationMethod {
 			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(mdp, post) {
+		return new PerStateTwoVectorIteration(mdp, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				mdp.mvMultMinMax(soln, min, soln2, states.iterator(), strat);
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return mdp.mvMultMinMaxSingle(s, soln, min, strat);
+			}
 		};
 	}
 
@@ -140,12 +176,18 @@ public class IterationMethodPower extends IterationMethod {
 	@Override
 	public IterationValIter forMvMultRewMinMax(MDP mdp, MDPRewards rewards, boolean min, int[] strat) throws PrismException
 	{
-		return new TwoVectorIteration(mdp, null) {
+		return new PerStateTwoVectorIteration(mdp, null) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				mdp.mvMultRewMinMax(soln, rewards, min, soln2, states.iterator(), strat);
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return mdp.mvMultRewMinMaxSingle(s, soln, rewards, min, strat);
+			}
 		};
 	}
 
@@ -157,12 +199,18 @@ public class IterationMethodPower extends IterationMethod {
 			twoVectorPostProcessing(soln, soln2, states, fromBelow, enforceMonotonicity, checkMonotonicity);
 		};
 
-		return new TwoVectorIteration(mdp, post) {
+		return new PerStateTwoVectorIteration(mdp, post) {
 			@Override
 			public void doIterate(IntSet states)
 			{
 				mdp.mvMultRewMinMax(soln, rewards, min, soln2, states.iterator(), strat);
 			}
+
+			@Override
+			public double doIterateSingle(int s)
+			{
+				return mdp.mvMultRewMinMaxSingle(s, soln, rewards, min, strat);
+			}
 		};
 	}
 
@@ -0,0 +1,336 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+import common.IntSet;
+import common.PeriodicTimer;
+import explicit.rewards.MDPRewards;
+import prism.PrismException;
+import prism.PrismUtils;
+
+/**
+ * IterationMethod that encapsulates prioritised (asynchronous) value iteration for MDPs,
+ * also known as prioritised sweeping.
+ * <br>
+ * Rather than sweeping over all states in each iteration, the states are updated one at a time
+ * (in place, as for Gauss-Seidel), in the order of their residual, i.e., the difference between
+ * their current value and the value after one more update. The residuals are kept in a priority queue.
+ * After a state has been updated, only the residuals of its predecessors (see {@link PredecessorRelation})
+ * can change, so only these are recomputed. States whose residual is below the termination
+ * threshold are not updated; iteration stops once there are none left, i.e., when the usual
+ * convergence criterion for value iteration holds for all states.
+ * <br>
+ * This pays off if values only change in a small part of the model at a time.
+ * For DTMCs, and for interval iteration, this behaves like (forward) Gauss-Seidel.
+ */
+class IterationMethodPrioritised extends IterationMethodGS
+{
+	/** Functional interface for computing the updated value of a state, from the current solution vector */
+	@FunctionalInterface
+	private interface StateUpdate
+	{
+		double update(int s, double[] soln);
+	}
+
+	/**
+	 * An IterationValIter for prioritised value iteration. Used as such
+	 * (e.g. by other iteration methods), it performs Gauss-Seidel sweeps.
+	 * <br>
+	 * Residuals are computed with a separate, strategy-free update, so that
+	 * the strategy (if any) is only modified when a state is actually updated.
+	 */
+	private class PrioritisedValIter extends SingleVectorIterationValIter
+	{
+		private final MDP mdp;
+		private final StateUpdate update;
+		private final StateUpdate residualUpdate;
+
+		PrioritisedValIter(MDP mdp, StateUpdate update, StateUpdate residualUpdate)
+		{
+			super(mdp);
+			this.mdp = mdp;
+			this.update = update;
+			this.residualUpdate = residualUpdate;
+		}
+
+		/** The number of transitions of state {@code s}, i.e., the multiplications for one update */
+		int getNumTransitions(int s)
+		{
+			int count = 0;
+			for (int i = 0, numChoices = mdp.getNumChoices(s); i < numChoices; i++) {
+				count += mdp.getNumTransitions(s, i);
+			}
+			return count;
+		}
+
+		@Override
+		public boolean supportsConcurrentSCCs()
+		{
+			return false;
+		}
+
+		@Override
+		public boolean iterateAndCheckConvergence(IntSet states)
+		{
+			double maxDiff = 0.0;
+			PrimitiveIterator.OfInt it = states.iterator();
+			while (it.hasNext()) {
+				int s = it.nextInt();
+				double d = update.update(s, soln);
+				maxDiff = Math.max(maxDiff, diff(d, soln[s]));
+				soln[s] = d;
+			}
+			return maxDiff < termCritParam;
+		}
+	}
+
+	/** Entry of the priority queue (stale if its priority differs from the current one for the state) */
+	private static class QueueEntry implements Comparable<QueueEntry>
+	{
+		final int s;
+		final double priority;
+
+		QueueEntry(int s, double priority)
+		{
+			this.s = s;
+			this.priority = priority;
+		}
+
+		@Override
+		public int compareTo(QueueEntry o)
+		{
+			// highest priority first
+			return Double.compare(o.priority, priority);
+		}
+	}
+
+	/**
+	 * Constructor.
+	 * @param absolute For convergence check, perform absolute comparison?
+	 * @param epsilon For convergence check, the epsilon value to use
+	 */
+	public IterationMethodPrioritised(boolean absolute, double epsilon)
+	{
+		super(absolute, epsilon, false);
+	}
+
+	@Override
+	public IterationValIter forMvMultMinMax(MDP mdp, boolean min, int[] strat)
+	{
+		return new PrioritisedValIter(mdp, (s, soln) -> mdp.mvMultJacMinMaxSingle(s, soln, min, strat),
+				(s, soln) -> mdp.mvMultJacMinMaxSingle(s, soln, min, null));
+	}
+
+	@Override
+	public IterationValIter forMvMultRewMinMax(MDP mdp, MDPRewards rewards, boolean min, int[] strat) throws PrismException
+	{
+		return new PrioritisedValIter(mdp, (s, soln) -> mdp.mvMultRewJacMinMaxSingle(s, soln, rewards, min, strat),
+				(s, soln) -> mdp.mvMultRewJacMinMaxSingle(s, soln, rewards, min, null));
+	}
+
+	@Override
+	public String getDescriptionShort()
+	{
+		return "prioritised value iteration";
+	}
+
+	/**
+	 * The difference between a new and an old value, as for the convergence check.
+	 */
+	private double diff(double newValue, double oldValue)
+	{
+		return absolute ? PrismUtils.measureSupNormAbs(newValue, oldValue) : PrismUtils.measureSupNormRel(newValue, oldValue);
+	}
+
+	@Override
+	public ModelCheckerResult doValueIteration(ProbModelChecker mc, String description, IterationValIter iteration, IntSet unknownStates, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		if (!(iteration instanceof PrioritisedValIter) || iterationsExport != null) {
+			return super.doValueIteration(mc, description, iteration, unknownStates, startTime, iterationsExport);
+		}
+		PrioritisedValIter iter = (PrioritisedValIter) iteration;
+		Model model = iter.getModel();
+
+		PrioritisedStats stats = new PrioritisedStats(mc, model);
+		boolean done = doPrioritised(mc, iter, unknownStates, unknownStates::contains, model.getPredecessorRelation(mc, true), stats);
+
+		return finish(mc, description, iter, stats, unknownStates.cardinality(), done, startTime);
+	}
+
+	@Override
+	public ModelCheckerResult doTopologicalValueIteration(ProbModelChecker mc, String description, SCCInfo sccs, IterationValIter iterator, SingletonSCCSolver singletonSCCSolver, long startTime, ExportIterations iterationsExport) throws PrismException
+	{
+		if (!(iterator instanceof PrioritisedValIter) || iterationsExport != null) {
+			return super.doTopologicalValueIteration(mc, description, sccs, iterator, singletonSCCSolver, startTime, iterationsExport);
+		}
+		PrioritisedValIter iter = (PrioritisedValIter) iterator;
+		Model model = iter.getModel();
+		PredecessorRelation pre = model.getPredecessorRelation(mc, true);
+
+		PrioritisedStats stats = new PrioritisedStats(mc, model);
+		int numStates = 0;
+		boolean done = true;
+		for (int scc = 0, numSCCs = sccs.getNumSCCs(); scc < numSCCs && done; scc++) {
+			IntSet statesForSCC = sccs.getStatesForSCC(scc);
+			numStates += sccs.getNumStatesInSCC(scc);
+			if (sccs.isSingletonSCC(scc)) {
+				int state = statesForSCC.iterator().nextInt();
+				iter.solveSingletonSCC(state, singletonSCCSolver);
+				stats.updates++;
+				stats.mvCount += iter.getNumTransitions(state);
+			} else {
+				final int currentSCC = scc;
+				done = doPrioritised(mc, iter, statesForSCC, s -> sccs.getSCCIndex(s) == currentSCC, pre, stats);
+			}
+		}
+
+		return finish(mc, description + ", with " + sccs.countNonSingletonSCCs() + " non-singleton SCCs", iter, stats, numStates, done, startTime);
+	}
+
+	/** Statistics for prioritised value iteration */
+	private static class PrioritisedStats
+	{
+		/** Number of state updates */
+		long updates = 0;
+		/** Number of multiplications */
+		long mvCount = 0;
+		/** Max number of state updates */
+		final long maxUpdates;
+		/** Timer for progress updates */
+		final PeriodicTimer updatesTimer = new PeriodicTimer(ProbModelChecker.UPDATE_DELAY);
+
+		PrioritisedStats(ProbModelChecker mc, Model model)
+		{
+			// allow as many updates as maxIters sweeps over all states
+			maxUpdates = (long) mc.maxIters * Math.max(model.getNumStates(), 1);
+			updatesTimer.start();
+		}
+	}
+
+	/**
+	 * Do prioritised value iteration for the states in {@code states} (given also as a predicate {@code inStates}).
+	 * Returns true on convergence, false if the maximum number of updates was exceeded.
+	 */
+	private boolean doPrioritised(ProbModelChecker mc, PrioritisedValIter iter, IntSet states, IntPredicate inStates, PredecessorRelation pre, PrioritisedStats stats)
+	{
+		Model model = iter.getModel();
+		double[] soln = iter.getSolnVector();
+		// priority (residual) of each state, 0 if not in the queue
+		double[] priority = new double[model.getNumStates()];
+		PriorityQueue<QueueEntry> queue = new PriorityQueue<QueueEntry>();
+
+		// initial residuals
+		PrimitiveIterator.OfInt it = states.iterator();
+		while (it.hasNext()) {
+			int s = it.nextInt();
+			double r = residual(iter, s, soln, stats);
+			if (r >= termCritParam) {
+				priority[s] = r;
+				queue.add(new QueueEntry(s, r));
+			}
+		}
+
+		while (!queue.isEmpty()) {
+			QueueEntry e = queue.poll();
+			int s = e.s;
+			if (e.priority != priority[s]) {
+				// stale entry
+				continue;
+			}
+			if (stats.updates >= stats.maxUpdates) {
+				return false;
+			}
+			// update the state
+			priority[s] = 0.0;
+			soln[s] = iter.update.update(s, soln);
+			stats.updates++;
+			stats.mvCount += iter.getNumTransitions(s);
+			// recompute the residuals of its predecessors (including itself, if it is one)
+			for (int i = 0, numPre = pre.getNumPre(s); i < numPre; i++) {
+				int p = pre.getPre(s, i);
+				if (!inStates.test(p)) {
+					continue;
+				}
+				double r = residual(iter, p, soln, stats);
+				if (r < termCritParam) {
+					r = 0.0;
+				}
+				if (r != priority[p]) {
+					priority[p] = r;
+					if (r > 0.0) {
+						queue.add(new QueueEntry(p, r));
+					}
+				}
+			}
+			if (stats.updatesTimer.triggered()) {
+				mc.getLog().print("State update " + stats.updates + ": " + queue.size() + " queued");
+				mc.getLog().println(", " + PrismUtils.formatDouble2dp(stats.updatesTimer.elapsedMillisTotal() / 1000.0) + " sec so far");
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The residual of state {@code s}, i.e., the difference between its current value and the value after an update.
+	 */
+	private double residual(PrioritisedValIter iter, int s, double[] soln, PrioritisedStats stats)
+	{
+		stats.mvCount += iter.getNumTransitions(s);
+		return diff(iter.residualUpdate.update(s, soln), soln[s]);
+	}
+
+	/**
+	 * Log statistics, check for convergence and return the result.
+	 */
+	private ModelCheckerResult finish(ProbModelChecker mc, String description, PrioritisedValIter iter, PrioritisedStats stats, int numStates, boolean done, long startTime) throws PrismException
+	{
+		// equivalent number of iterations over all states
+		int iters = numStates == 0 ? 0 : (int) ((stats.updates + numStates - 1) / numStates);
+		long timer = System.currentTimeMillis() - startTime;
+		mc.getLog().print("Value iteration (" + description + ")");
+		mc.getLog().print(" took " + stats.updates + " state updates (equivalent to " + iters + " iterations), ");
+		mc.getLog().print(stats.mvCount + " multiplications");
+		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!done && mc.errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = iter.getSolnVector();
+		res.numIters = iters;
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+}
@@ -0,0 +1,611 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import explicit.ProbModelChecker.KrylovPreconditioner;
+import explicit.ProbModelChecker.LinEqMethod;
+import prism.PrismException;
+
+/**
+ * Krylov-subspace solvers (restarted GMRES, BiCGSTAB) for the linear equation system
+ * {@code x = P x + c} of a DTMC, restricted to a set of "unknown" states.
+ * <br>
+ * The system {@code (I - P_uu) x_u = c_u + P_uk x_k} is stored as a sparse matrix in
+ * compressed row format (using local indices for the unknown states), so this works for
+ * any type of DTMC. Values for all other states are taken from the solution vector
+ * and remain unchanged. Matrix-vector products are split across several threads.
+ * <br>
+ * Both methods are right-preconditioned, i.e., the residual that is checked for convergence
+ * is that of the original system. The system is assumed to be non-singular, i.e., all unknown states
+ * leave the unknown states with probability 1 (which is guaranteed by the usual precomputations).
+ */
+class KrylovSolver
+{
+	/** For BiCGSTAB, growth of the residual norm (since the last restart) that is considered divergence */
+	private static final double DIVERGENCE_FACTOR = 1e10;
+
+	/** Number of rows per chunk for parallel matrix-vector multiplication */
+	private static final int PARALLEL_CHUNK_SIZE = 4096;
+
+	/** The model checker (for log, settings) */
+	private ProbModelChecker mc;
+	/** The method (GMRES or BiCGSTAB) */
+	private LinEqMethod method;
+	/** The preconditioner */
+	private KrylovPreconditioner preconditioner;
+	/** For GMRES, the number of iterations before a restart */
+	private int restart;
+	/** Number of threads for matrix-vector multiplication */
+	private int numThreads;
+	/** Convergence check: absolute or relative? */
+	private boolean absolute;
+	/** Convergence check: epsilon */
+	private double epsilon;
+
+	// Matrix I - P_uu, in compressed row format (sorted columns, diagonal always present)
+	private int n;
+	private int[] rowStart;
+	private int[] cols;
+	private double[] vals;
+	private int[] diagPos;
+	/** Global state indices of the unknown states */
+	private int[] states;
+
+	// Preconditioner data: inverse diagonal (Jacobi) or ILU(0) factors (same structure as the matrix)
+	private double[] invDiag;
+	private double[] lu;
+
+	// Statistics
+	private int numMatVecs = 0;
+
+	/**
+	 * Constructor.
+	 * @param mc The model checker (for log, settings)
+	 * @param method The Krylov method (GMRES or BiCGSTAB)
+	 * @param preconditioner The preconditioner
+	 * @param restart For GMRES, the number of iterations before a restart
+	 * @param absolute For convergence check, perform absolute comparison?
+	 * @param epsilon For convergence check, the epsilon value to use
+	 */
+	public KrylovSolver(ProbModelChecker mc, LinEqMethod method, KrylovPreconditioner preconditioner, int restart, boolean absolute, double epsilon)
+	{
+		this.mc = mc;
+		this.method = method;
+		this.preconditioner = preconditioner;
+		this.restart = Math.max(1, restart);
+		this.numThreads = mc.getNumIterationThreads();
+		this.absolute = absolute;
+		this.epsilon = epsilon;
+	}
+
+	/**
+	 * Get a short description of the method, e.g., "GMRES(30), Jacobi preconditioner".
+	 */
+	public String getDescriptionShort()
+	{
+		String s = method.fullName();
+		if (method == LinEqMethod.GMRES)
+			s += "(" + restart + ")";
+		if (preconditioner != KrylovPreconditioner.NONE)
+			s += ", " + preconditioner.fullName() + " preconditioner";
+		return s;
+	}
+
+	/**
+	 * Solve {@code x = P x + c} for the states in {@code unknown}, where {@code c} is given by
+	 * {@code constant} (indexed by global state, {@code null} means all zero).
+	 * On entry, {@code soln} contains the values for all states not in {@code unknown}
+	 * and the initial guess for those in {@code unknown}; on exit, it contains the solution.
+	 * @param dtmc The DTMC
+	 * @param unknown The states to solve for
+	 * @param constant The constant vector {@code c} (optional)
+	 * @param soln The solution vector
+	 * @param startTime The start time (for logging)
+	 */
+	public ModelCheckerResult solve(DTMC dtmc, BitSet unknown, double[] constant, double[] soln, long startTime) throws PrismException
+	{
+		String description = getDescriptionShort();
+		mc.getLog().println("Starting " + description + "...");
+
+		// Build system and right-hand side, set up preconditioner
+		double[] b = buildSystem(dtmc, unknown, constant, soln);
+		setUpPreconditioner();
+		double[] x = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = soln[states[i]];
+		}
+
+		int iters;
+		boolean converged;
+		if (method == LinEqMethod.GMRES) {
+			iters = solveGMRES(b, x);
+		} else {
+			iters = solveBiCGSTAB(b, x);
+		}
+		converged = iters >= 0;
+		if (!converged)
+			iters = -iters;
+
+		for (int i = 0; i < n; i++) {
+			soln[states[i]] = x[i];
+		}
+
+		// Finished
+		long timer = System.currentTimeMillis() - startTime;
+		mc.getLog().print(description);
+		mc.getLog().print(" took " + iters + " iterations, ");
+		mc.getLog().print((long) numMatVecs * vals.length + " multiplications");
+		mc.getLog().println(" and " + timer / 1000.0 + " seconds.");
+
+		// Non-convergence is an error (usually)
+		if (!converged && mc.errorOnNonConverge) {
+			String msg = "Iterative method did not converge within " + iters + " iterations.";
+			msg += "\nConsider using a different numerical method or increasing the maximum number of iterations";
+			throw new PrismException(msg);
+		}
+
+		ModelCheckerResult res = new ModelCheckerResult();
+		res.soln = soln;
+		res.numIters = iters;
+		res.timeTaken = timer / 1000.0;
+		return res;
+	}
+
+	/**
+	 * Build the matrix {@code I - P_uu} and return the right-hand side {@code c_u + P_uk x_k}.
+	 */
+	private double[] buildSystem(DTMC dtmc, BitSet unknown, double[] constant, double[] soln)
+	{
+		int numStates = dtmc.getNumStates();
+		n = unknown.cardinality();
+		states = new int[n];
+		int[] local = new int[numStates];
+		Arrays.fill(local, -1);
+		for (int s = unknown.nextSetBit(0), i = 0; s >= 0; s = unknown.nextSetBit(s + 1), i++) {
+			states[i] = s;
+			local[s] = i;
+		}
+
+		// Count entries (an upper bound, duplicates are merged below), plus one for the diagonal
+		int maxNnz = 0;
+		for (int i = 0; i < n; i++) {
+			maxNnz += dtmc.getNumTransitions(states[i]) + 1;
+		}
+		rowStart = new int[n + 1];
+		int[] colsTmp = new int[maxNnz];
+		double[] valsTmp = new double[maxNnz];
+		double[] b = new double[n];
+
+		// Fill rows: -P(s,t) for unknown t, plus diagonal; other successors go to the right-hand side
+		int[] pos = new int[1];
+		int nnz = 0;
+		for (int i = 0; i < n; i++) {
+			final int row = i;
+			int start = nnz;
+			colsTmp[nnz] = i;
+			valsTmp[nnz] = 1.0;
+			nnz++;
+			pos[0] = nnz;
+			b[i] = constant == null ? 0.0 : constant[states[i]];
+			dtmc.forEachTransition(states[i], (s, t, prob) -> {
+				int j = local[t];
+				if (j >= 0) {
+					colsTmp[pos[0]] = j;
+					valsTmp[pos[0]] = -prob;
+					pos[0]++;
+				} else {
+					b[row] += prob * soln[t];
+				}
+			});
+			nnz = sortAndMergeRow(colsTmp, valsTmp, start, pos[0]);
+			rowStart[i] = start;
+			rowStart[i + 1] = nnz;
+		}
+		cols = Arrays.copyOf(colsTmp, nnz);
+		vals = Arrays.copyOf(valsTmp, nnz);
+		diagPos = new int[n];
+		for (int i = 0; i < n; i++) {
+			for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+				if (cols[p] == i) {
+					diagPos[i] = p;
+					break;
+				}
+			}
+		}
+		return b;
+	}
+
+	/**
+	 * Sort the entries {@code start}, ..., {@code end - 1} by column (insertion sort, rows are short)
+	 * and merge duplicates. Returns the new end of the row.
+	 */
+	private static int sortAndMergeRow(int[] cols, double[] vals, int start, int end)
+	{
+		for (int p = start + 1; p < end; p++) {
+			int c = cols[p];
+			double v = vals[p];
+			int q = p - 1;
+			while (q >= start && cols[q] > c) {
+				cols[q + 1] = cols[q];
+				vals[q + 1] = vals[q];
+				q--;
+			}
+			cols[q + 1] = c;
+			vals[q + 1] = v;
+		}
+		int last = start;
+		for (int p = start + 1; p < end; p++) {
+			if (cols[p] == cols[last]) {
+				vals[last] += vals[p];
+			} else {
+				last++;
+				cols[last] = cols[p];
+				vals[last] = vals[p];
+			}
+		}
+		return end > start ? last + 1 : start;
+	}
+
+	/**
+	 * Set up the preconditioner.
+	 */
+	private void setUpPreconditioner()
+	{
+		switch (preconditioner) {
+		case JACOBI:
+			invDiag = new double[n];
+			for (int i = 0; i < n; i++) {
+				invDiag[i] = 1.0 / vals[diagPos[i]];
+			}
+			break;
+		case ILU0:
+			// Incomplete LU factorisation with no fill-in; L (unit diagonal) and U share the storage
+			lu = vals.clone();
+			int[] iw = new int[n];
+			Arrays.fill(iw, -1);
+			for (int i = 0; i < n; i++) {
+				for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+					iw[cols[p]] = p;
+				}
+				for (int p = rowStart[i]; p < rowStart[i + 1] && cols[p] < i; p++) {
+					int k = cols[p];
+					lu[p] /= lu[diagPos[k]];
+					for (int q = diagPos[k] + 1; q < rowStart[k + 1]; q++) {
+						int jw = iw[cols[q]];
+						if (jw != -1) {
+							lu[jw] -= lu[p] * lu[q];
+						}
+					}
+				}
+				for (int p = rowStart[i]; p < rowStart[i + 1]; p++) {
+					iw[cols[p]] = -1;
+				}
+			}
+			break;
+		case NONE:
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Apply the preconditioner: {@code z = M^-1 r}.
+	 */
+	private void applyPreconditioner(double[] r, double[] z)
+	{
+		switch (preconditioner) {
+		case JACOBI:
+			for (int i = 0; i < n; i++) {
+				z[i] = invDiag[i] * r[i];
+			}
+			break;
+		case ILU0:
+			// Forward substitution with L, then backward substitution with U
+			for (int i = 0; i < n; i++) {
+				double d = r[i];
+				for (int p = rowStart[i]; p < diagPos[i]; p++) {
+					d -= lu[p] * z[cols[p]];
+				}
+				z[i] = d;
+			}
+			for (int i = n - 1; i >= 0; i--) {
+				double d = z[i];
+				for (int p = diagPos[i] + 1; p < rowStart[i + 1]; p++) {
+					d -= lu[p] * z[cols[p]];
+				}
+				z[i] = d / lu[diagPos[i]];
+			}
+			break;
+		case NONE:
+		default:
+			System.arraycopy(r, 0, z, 0, n);
+			break;
+		}
+	}
+
+	/**
+	 * Matrix-vector multiplication {@code y = A x}.
+	 */
+	private void matVec(double[] x, double[] y) throws PrismException
+	{
+		numMatVecs++;
+		ParallelRange.forEachChunk(numThreads, n, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+			for (int i = lo; i < hi; i++) {
+				double d = 0.0;
+				for (int p = rowStart[i], end = rowStart[i + 1]; p < end; p++) {
+					d += vals[p] * x[cols[p]];
+				}
+				y[i] = d;
+			}
+		});
+	}
+
+	/**
+	 * Compute the residual {@code r = b - A x}.
+	 */
+	private void residual(double[] b, double[] x, double[] r) throws PrismException
+	{
+		matVec(x, r);
+		for (int i = 0; i < n; i++) {
+			r[i] = b[i] - r[i];
+		}
+	}
+
+	private static double dot(double[] u, double[] v)
+	{
+		double d = 0.0;
+		for (int i = 0; i < u.length; i++) {
+			d += u[i] * v[i];
+		}
+		return d;
+	}
+
+	private static double norm(double[] u)
+	{
+		return Math.sqrt(dot(u, u));
+	}
+
+	/**
+	 * Check for convergence, using the same criterion as value iteration:
+	 * since {@code b - A x = F(x) - x}, where {@code F} is one step of value iteration,
+	 * the residual {@code r} is the difference between {@code x} and the next iterate.
+	 * For the absolute criterion, all {@code |r_i|} must be at most epsilon;
+	 * for the relative one, {@code |r_i|} must be at most epsilon times {@code |x_i + r_i|}.
+	 */
+	private boolean converged(double[] x, double[] r)
+	{
+		for (int i = 0; i < n; i++) {
+			double diff = Math.abs(r[i]);
+			if (absolute) {
+				if (diff > epsilon)
+					return false;
+			} else {
+				if (diff > epsilon * Math.abs(x[i] + r[i]))
+					return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Restarted GMRES (right-preconditioned), modifying {@code x} in place.
+	 * Returns the number of iterations, negated if it did not converge.
+	 * <br>
+	 * Within a cycle, the (cheap) estimate of the Euclidean norm of the residual
+	 * is used to stop early; convergence is then checked on the true residual.
+	 * If this fails, the tolerance for the estimate is reduced.
+	 */
+	private int solveGMRES(double[] b, double[] x) throws PrismException
+	{
+		int maxIters = mc.maxIters;
+		int m = Math.min(restart, Math.max(n, 1));
+		double tol = absolute ? epsilon : epsilon * norm(b);
+		double[][] v = new double[m + 1][n];
+		double[][] h = new double[m + 1][m];
+		double[] cs = new double[m];
+		double[] sn = new double[m];
+		double[] g = new double[m + 1];
+		double[] y = new double[m];
+		double[] z = new double[n];
+		double[] w = new double[n];
+		int iters = 0;
+		boolean stoppedEarly = false;
+
+		while (true) {
+			// (Re)start: compute and check the true residual
+			residual(b, x, v[0]);
+			if (converged(x, v[0])) {
+				return iters;
+			}
+			if (iters >= maxIters) {
+				return -iters;
+			}
+			if (stoppedEarly) {
+				tol /= 10;
+			}
+			double beta = norm(v[0]);
+			for (int i = 0; i < n; i++) {
+				v[0][i] /= beta;
+			}
+			Arrays.fill(g, 0.0);
+			g[0] = beta;
+
+			// Arnoldi process, with Givens rotations to keep H upper triangular
+			int k = 0;
+			stoppedEarly = false;
+			while (k < m && iters < maxIters) {
+				iters++;
+				applyPreconditioner(v[k], z);
+				matVec(z, w);
+				for (int i = 0; i <= k; i++) {
+					double d = dot(w, v[i]);
+					h[i][k] = d;
+					for (int l = 0; l < n; l++) {
+						w[l] -= d * v[i][l];
+					}
+				}
+				double hNext = norm(w);
+				h[k + 1][k] = hNext;
+				if (hNext != 0.0) {
+					for (int l = 0; l < n; l++) {
+						v[k + 1][l] = w[l] / hNext;
+					}
+				}
+				for (int i = 0; i < k; i++) {
+					double tmp = cs[i] * h[i][k] + sn[i] * h[i + 1][k];
+					h[i + 1][k] = -sn[i] * h[i][k] + cs[i] * h[i + 1][k];
+					h[i][k] = tmp;
+				}
+				double r = Math.hypot(h[k][k], h[k + 1][k]);
+				cs[k] = h[k][k] / r;
+				sn[k] = h[k + 1][k] / r;
+				h[k][k] = r;
+				h[k + 1][k] = 0.0;
+				g[k + 1] = -sn[k] * g[k];
+				g[k] = cs[k] * g[k];
+				k++;
+				if (Math.abs(g[k]) <= tol || hNext == 0.0) {
+					stoppedEarly = hNext != 0.0;
+					break;
+				}
+			}
+
+			// Update x += M^-1 (V y), where H y = g
+			for (int i = k - 1; i >= 0; i--) {
+				double d = g[i];
+				for (int j = i + 1; j < k; j++) {
+					d -= h[i][j] * y[j];
+				}
+				y[i] = d / h[i][i];
+			}
+			Arrays.fill(w, 0.0);
+			for (int j = 0; j < k; j++) {
+				for (int l = 0; l < n; l++) {
+					w[l] += y[j] * v[j][l];
+				}
+			}
+			applyPreconditioner(w, z);
+			for (int l = 0; l < n; l++) {
+				x[l] += z[l];
+			}
+		}
+	}
+
+	/**
+	 * BiCGSTAB (right-preconditioned), modifying {@code x} in place.
+	 * Returns the number of iterations, negated if it did not converge.
+	 * <br>
+	 * Convergence is checked on the recursively updated residual, then confirmed
+	 * on the true residual; if this fails (or on breakdown), the method is restarted.
+	 * As for GMRES, the Euclidean norm of the residual must also be small: the per-state
+	 * criterion alone can be met by an iterate that is still far from the solution.
+	 * As for GMRES, the Euclidean norm of the residual must also be small: the per-state
+	 * criterion alone can be met by an iterate that is still far from the solution.
+	 * If the residual grows too much, the method is considered to have diverged and stops.
+	 */
+	private int solveBiCGSTAB(double[] b, double[] x) throws PrismException
+	{
+		int maxIters = mc.maxIters;
+		double tol = absolute ? epsilon : epsilon * norm(b);
+		double[] r = new double[n];
+		double[] rHat = new double[n];
+		double[] p = new double[n];
+		double[] pHat = new double[n];
+		double[] v = new double[n];
+		double[] s = new double[n];
+		double[] sHat = new double[n];
+		double[] t = new double[n];
+		double[] xRestart = new double[n];
+		double restartNorm = 0.0;
+		int iters = 0;
+		double rho = 1.0, alpha = 1.0, omega = 1.0;
+		boolean restart = true;
+
+		while (true) {
+			if (restart) {
+				// (Re)start from the true residual
+				residual(b, x, r);
+				restartNorm = norm(r);
+				if (restartNorm <= tol && converged(x, r)) {
+					return iters;
+				}
+				System.arraycopy(x, 0, xRestart, 0, n);
+				System.arraycopy(r, 0, rHat, 0, n);
+				Arrays.fill(p, 0.0);
+				Arrays.fill(v, 0.0);
+				rho = alpha = omega = 1.0;
+				restart = false;
+			}
+			if (iters >= maxIters) {
+				return -iters;
+			}
+			iters++;
+			double rhoNew = dot(rHat, r);
+			if (rhoNew == 0.0) {
+				restart = true;
+				continue;
+			}
+			double beta = (rhoNew / rho) * (alpha / omega);
+			for (int i = 0; i < n; i++) {
+				p[i] = r[i] + beta * (p[i] - omega * v[i]);
+			}
+			applyPreconditioner(p, pHat);
+			matVec(pHat, v);
+			double rHatV = dot(rHat, v);
+			if (rHatV == 0.0) {
+				restart = true;
+				continue;
+			}
+			alpha = rhoNew / rHatV;
+			for (int i = 0; i < n; i++) {
+				s[i] = r[i] - alpha * v[i];
+			}
+			applyPreconditioner(s, sHat);
+			matVec(sHat, t);
+			double tt = dot(t, t);
+			omega = tt == 0.0 ? 0.0 : dot(t, s) / tt;
+			for (int i = 0; i < n; i++) {
+				x[i] += alpha * pHat[i] + omega * sHat[i];
+				r[i] = s[i] - omega * t[i];
+			}
+			rho = rhoNew;
+			double rNorm = norm(r);
+			if (!(rNorm <= DIVERGENCE_FACTOR * restartNorm)) {
+				// Diverged (or overflow): go back to the last restart and give up
+				System.arraycopy(xRestart, 0, x, 0, n);
+				mc.getLog().printWarning("BiCGSTAB diverged, consider using GMRES or a different preconditioner.");
+				return -iters;
+			}
+			if (omega == 0.0 || (rNorm <= tol && converged(x, r))) {
+				restart = true;
+			}
+		}
+	}
+}
@@ -725,6 +725,9 @@ public class LTLModelChecker extends PrismComponent
 	{
 		BitSet allAcceptingStates = new BitSet();
 		int numStates = model.getNumStates();
+		// MECs of the whole model, which enclose the MECs for each pair
+		// (computed on demand, and only if there are several pairs, so that they can be reused)
+		List<BitSet> allMecs = null;
 		
 		// Go through the DRA acceptance pairs (L_i, K_i) 
 		for (int i = 0; i < acceptance.size(); i++) {
@@ -741,7 +744,11 @@ public class LTLModelChecker extends PrismComponent
 				continue;
 			// Compute accepting maximum end components (MECs) in !L_i
 			ECComputer ecComputer = ECComputer.createECComputer(this, model);
-			ecComputer.computeMECStates(statesLi_not, acceptance.get(i).getK());
+			if (allMecs == null && acceptance.size() > 1) {
+				ecComputer.computeMECStates();
+				allMecs = ecComputer.getMECStates();
+			}
+			ecComputer.computeMECStates(statesLi_not, acceptance.get(i).getK(), allMecs);
 			List<BitSet> mecs = ecComputer.getMECStates();
 			// Union MEC states
 			for (BitSet mec : mecs) {
@@ -828,6 +835,9 @@ public class LTLModelChecker extends PrismComponent
 	{
 		BitSet allAcceptingStates = new BitSet();
 		int numStates = model.getNumStates();
+		// MECs of the whole model, which enclose the MECs for each pair
+		// (computed on demand, and only if there are several pairs, so that they can be reused)
+		List<BitSet> allMecs = null;
 		
 		// Go through the GR acceptance pairs (L_i, K_i_1, ..., K_i_n) 
 		for (int i = 0; i < acceptance.size(); i++) {
@@ -844,11 +854,16 @@ public class LTLModelChecker extends PrismComponent
 			if (statesLi_not.cardinality() == 0)
 				continue;
 			// Compute maximum end components (MECs) in !L_i
+			// (that contain a state from K_i_1, if any, since this is needed below)
+			int n = acceptance.get(i).getNumK();
 			ECComputer ecComputer = ECComputer.createECComputer(this, model);
-			ecComputer.computeMECStates(statesLi_not);
+			if (allMecs == null && acceptance.size() > 1) {
+				ecComputer.computeMECStates();
+				allMecs = ecComputer.getMECStates();
+			}
+			ecComputer.computeMECStates(statesLi_not, n > 0 ? acceptance.get(i).getK(0) : null, allMecs);
 			List<BitSet> mecs = ecComputer.getMECStates();
 			// Check which MECs contain a state from each K_i_j
-			int n = acceptance.get(i).getNumK();
 			for (BitSet mec : mecs) {
 				boolean allj = true;
 				for (int j = 0; j < n; j++) {
@@ -377,6 +377,26 @@ public class MDPModelChecker extends ProbModelChecker
 				doPmaxQuotient = true;
 			}
 		}
+		if (mdpSolnMethod == MDPSolnMethod.OPTIMISTIC_VALUE_ITERATION) {
+			if (doIntervalIteration) {
+				throw new PrismNotSupportedException("Optimistic value iteration cannot be combined with interval iteration");
+			}
+			if (!min && (genStrat || exportAdv)) {
+				throw new PrismNotSupportedException("Currently, explicit engine does not support adversary construction for optimistic value iteration and Pmax");
+			}
+			if (valIterDir == ValIterDir.ABOVE) {
+				throw new PrismNotSupportedException("Optimistic value iteration cannot be performed from above");
+			}
+			if (init != null)
+				throw new PrismNotSupportedException("Optimistic value iteration currently not supported with provided initial values");
+			if (!(precomp && prob0 && prob1)) {
+				throw new PrismNotSupportedException("Precomputations (Prob0 & Prob1) must be enabled for optimistic value iteration");
+			}
+
+			if (!min) {
+				doPmaxQuotient = true;
+			}
+		}
 		if (mdpSolnMethod == MDPSolnMethod.POLICY_ITERATION || mdpSolnMethod == MDPSolnMethod.MODIFIED_POLICY_ITERATION) {
 			if (known != null) {
 				throw new PrismException("Policy iteration methods cannot be passed 'known' values for some states");
@@ -548,6 +568,30 @@ public class MDPModelChecker extends ProbModelChecker
 	{
 		ModelCheckerResult res = null;
 
+		// If required, solve on a copy of the MDP with reordered states, then map back
+		if (stateReordering != StateReordering.Order.NONE) {
+			StateReordering reordering = computeStateReordering(mdp);
+			MDP mdpReordered = reordering.permute(mdp);
+			printReorderedBandwidth(mdp, mdpReordered);
+			int stratReordered[] = reordering.permute(strat);
+			res = doReachProbsNumeric(mdpReordered, method, reordering.permute(no), reordering.permute(yes), min, reordering.permute(init), reordering.permute(known), stratReordered);
+			res.soln = reordering.unpermute(res.soln);
+			res.lastSoln = reordering.unpermute(res.lastSoln);
+			reordering.unpermute(stratReordered, strat);
+			return res;
+		}
+
+		return doReachProbsNumeric(mdp, method, no, yes, min, init, known, strat);
+	}
+
+	/**
+	 * Compute reachability probabilities numerically, as for {@link #computeReachProbsNumeric},
+	 * but without state reordering.
+	 */
+	private ModelCheckerResult doReachProbsNumeric(MDP mdp, MDPSolnMethod method, BitSet no, BitSet yes, boolean min, double init[], BitSet known, int strat[]) throws PrismException
+	{
+		ModelCheckerResult res = null;
+
 		IterationMethod iterationMethod = null;
 		switch (method) {
 		case VALUE_ITERATION:
@@ -556,6 +600,12 @@ public class MDPModelChecker extends ProbModelChecker
 		case GAUSS_SEIDEL:
 			iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
 			break;
+		case OPTIMISTIC_VALUE_ITERATION:
+			iterationMethod = new IterationMethodOptimistic(termCrit == TermCrit.ABSOLUTE, termCritParam, 1.0);
+			break;
+		case PRIORITISED_VALUE_ITERATION:
+			iterationMethod = new IterationMethodPrioritised(termCrit == TermCrit.ABSOLUTE, termCritParam);
+			break;
 		case POLICY_ITERATION:
 			if (doIntervalIteration) {
 				throw new PrismNotSupportedException("Interval iteration currently not supported for policy iteration");
@@ -595,7 +645,7 @@ public class MDPModelChecker extends ProbModelChecker
 	 * @param min Min or max probabilities (true=min, false=max)
 	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
 	 */
-	public BitSet prob0(MDPGeneric<?> mdp, BitSet remain, BitSet target, boolean min, int strat[])
+	public BitSet prob0(MDPGeneric<?> mdp, BitSet remain, BitSet target, boolean min, int strat[]) throws PrismException
 	{
 		int n, iters;
 		BitSet u, soln, unknown;
@@ -631,22 +681,42 @@ public class MDPModelChecker extends ProbModelChecker
 		if (remain != null)
 			unknown.and(remain);
 
-		// Fixed point loop
-		iters = 0;
-		u_done = false;
-		// Least fixed point - should start from 0 but we optimise by
-		// starting from 'target', thus bypassing first iteration
-		u.or(target);
-		soln.or(target);
-		while (!u_done) {
-			iters++;
-			// Single step of Prob0
-			mdp.prob0step(unknown, u, min, soln);
-			// Check termination
-			u_done = soln.equals(u);
-			// u = soln
-			u.clear();
-			u.or(soln);
+		if (preRel) {
+			// Frontier-driven version of the fixed point loop below:
+			// states are only (re)checked when one of their successors has just been added
+			FrontierSearch search = createFrontierSearch(mdp);
+			BitSet seeds = min ? statesWithoutChoices(mdp, unknown) : null;
+			u = search.search(target, unknown, seeds, (s, k) -> {
+				// max: any predecessor of the frontier has a choice with a successor in the set
+				if (!min) {
+					return true;
+				}
+				for (int choice = 0, numChoices = mdp.getNumChoices(s); choice < numChoices; choice++) {
+					if (!mdp.someSuccessorsMatch(s, choice, t -> search.isIn(t, k))) {
+						return false;
+					}
+				}
+				return true;
+			});
+			iters = search.getNumRounds();
+		} else {
+			// Fixed point loop
+			iters = 0;
+			u_done = false;
+			// Least fixed point - should start from 0 but we optimise by
+			// starting from 'target', thus bypassing first iteration
+			u.or(target);
+			soln.or(target);
+			while (!u_done) {
+				iters++;
+				// Single step of Prob0
+				mdp.prob0step(unknown, u, min, soln);
+				// Check termination
+				u_done = soln.equals(u);
+				// u = soln
+				u.clear();
+				u.or(soln);
+			}
 		}
 
 		// Negate
@@ -689,7 +759,7 @@ public class MDPModelChecker extends ProbModelChecker
 	 * @param min Min or max probabilities (true=min, false=max)
 	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
 	 */
-	public BitSet prob1(MDPGeneric<?> mdp, BitSet remain, BitSet target, boolean min, int strat[])
+	public BitSet prob1(MDPGeneric<?> mdp, BitSet remain, BitSet target, boolean min, int strat[]) throws PrismException
 	{
 		int n, iters;
 		BitSet u, v, soln, unknown;
@@ -719,6 +789,10 @@ public class MDPModelChecker extends ProbModelChecker
 		if (remain != null)
 			unknown.and(remain);
 
+		if (preRel) {
+			return prob1Frontier(mdp, unknown, target, min, strat, timer);
+		}
+
 		// Nested fixed point loop
 		iters = 0;
 		u_done = false;
@@ -785,6 +859,104 @@ public class MDPModelChecker extends ProbModelChecker
 		return u;
 	}
 
+	/**
+	 * Prob1 precomputation algorithm, as for {@link #prob1(MDPGeneric, BitSet, BitSet, boolean, int[])},
+	 * but with the inner (least) fixed point computed by a frontier-driven search
+	 * over the predecessor relation (see {@link FrontierSearch}), with the same results.
+	 * @param mdp The MDP
+	 * @param unknown States to perform the computation for (not in target, in remain)
+	 * @param target Target states
+	 * @param min Min or max probabilities (true=min, false=max)
+	 * @param strat Storage for (memoryless) strategy choice indices (ignored if null)
+	 * @param timer Start time of the precomputation
+	 */
+	private BitSet prob1Frontier(MDPGeneric<?> mdp, BitSet unknown, BitSet target, boolean min, int strat[], long timer) throws PrismException
+	{
+		int n = mdp.getNumStates();
+		FrontierSearch search = createFrontierSearch(mdp);
+		BitSet seeds = min ? statesWithoutChoices(mdp, unknown) : null;
+
+		// Nested fixed point loop
+		int iters = 0;
+		boolean u_done = false;
+		// Greatest fixed point
+		BitSet u = new BitSet(n);
+		u.set(0, n);
+		while (!u_done) {
+			final BitSet uCur = u;
+			BitSet v = search.search(target, unknown, seeds, (s, k) -> prob1Test(mdp, s, min, uCur, search, k, null));
+			iters += search.getNumRounds();
+			// Check termination (outer)
+			u_done = v.equals(u);
+			u = v;
+		}
+
+		// If we need to generate a strategy, do another search for this (see prob1)
+		if (!min && strat != null) {
+			final BitSet uFinal = u;
+			BitSet unknownFinal = (BitSet) unknown.clone();
+			unknownFinal.and(u);
+			search.search(target, unknownFinal, null, (s, k) -> prob1Test(mdp, s, false, uFinal, search, k, strat));
+		}
+
+		// Finished precomputation
+		timer = System.currentTimeMillis() - timer;
+		if (!silentPrecomputations) {
+			mainLog.print("Prob1 (" + (min ? "min" : "max") + ")");
+			mainLog.println(" took " + iters + " iterations and " + timer / 1000.0 + " seconds.");
+		}
+
+		return u;
+	}
+
+	/**
+	 * Test for state {@code s} in round {@code k} of the frontier-driven Prob1 search:
+	 * for all/some choices ({@code forall}), are all transitions to states in {@code u},
+	 * and is some transition to a state added to {@code search} before round {@code k}?
+	 * For some choices, optionally store the first such choice in {@code strat}.
+	 */
+	private static boolean prob1Test(MDPGeneric<?> mdp, int s, boolean forall, BitSet u, FrontierSearch search, int k, int strat[])
+	{
+		for (int choice = 0, numChoices = mdp.getNumChoices(s); choice < numChoices; choice++) {
+			boolean b = mdp.successorsSafeAndCanReach(s, choice, u::get, t -> search.isIn(t, k));
+			if (forall && !b) {
+				return false;
+			}
+			if (!forall && b) {
+				if (strat != null) {
+					strat[s] = choice;
+				}
+				return true;
+			}
+		}
+		return forall;
+	}
+
+	/**
+	 * Create a FrontierSearch over the (stored) predecessor relation of a model, for precomputations,
+	 * using multiple threads if the model supports concurrent access.
+	 */
+	private FrontierSearch createFrontierSearch(Model model)
+	{
+		int numThreads = IterationMethod.supportsConcurrentAccess(model) ? getNumThreads() : 1;
+		return new FrontierSearch(model.getPredecessorRelation(this, true), model.getNumStates(), numThreads);
+	}
+
+	/**
+	 * Get the states in {@code subset} without any choices.
+	 * (For these, "for all choices" conditions hold trivially, without any successor in the frontier.)
+	 */
+	private static BitSet statesWithoutChoices(NondetModel model, BitSet subset)
+	{
+		BitSet result = new BitSet();
+		for (int s = subset.nextSetBit(0); s >= 0; s = subset.nextSetBit(s + 1)) {
+			if (model.getNumChoices(s) == 0) {
+				result.set(s);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Compute reachability probabilities using value iteration.
 	 * Optionally, store optimal (memoryless) strategy info. 
@@ -1510,7 +1682,7 @@ public class MDPModelChecker extends ProbModelChecker
 	 * Return true if the MDP is contracting for all states in the 'unknown'
 	 * set, i.e., if Pmin=1( unknown U target) holds.
 	 */
-	private boolean isContracting(MDP mdp, BitSet unknown, BitSet target)
+	private boolean isContracting(MDP mdp, BitSet unknown, BitSet target) throws PrismException
 	{
 		// compute Pmin=1( unknown U target )
 		BitSet pmin1 = prob1(mdp, unknown, target, true, null);
@@ -2073,7 +2245,8 @@ public class MDPModelChecker extends ProbModelChecker
 		MDPSolnMethod mdpSolnMethod = this.mdpSolnMethod;
 
 		// Switch to a supported method, if necessary
-		if (!(mdpSolnMethod == MDPSolnMethod.VALUE_ITERATION || mdpSolnMethod == MDPSolnMethod.GAUSS_SEIDEL || mdpSolnMethod == MDPSolnMethod.POLICY_ITERATION)) {
+		if (!(mdpSolnMethod == MDPSolnMethod.VALUE_ITERATION || mdpSolnMethod == MDPSolnMethod.GAUSS_SEIDEL || mdpSolnMethod == MDPSolnMethod.POLICY_ITERATION || mdpSolnMethod == MDPSolnMethod.OPTIMISTIC_VALUE_ITERATION
+				|| mdpSolnMethod == MDPSolnMethod.PRIORITISED_VALUE_ITERATION)) {
 			mdpSolnMethod = MDPSolnMethod.GAUSS_SEIDEL;
 			mainLog.printWarning("Switching to MDP solution method \"" + mdpSolnMethod.fullName() + "\"");
 		}
@@ -2084,6 +2257,13 @@ public class MDPModelChecker extends ProbModelChecker
 				throw new PrismException("Policy iteration methods cannot be passed 'known' values for some states");
 			}
 		}
+		if (mdpSolnMethod == MDPSolnMethod.OPTIMISTIC_VALUE_ITERATION) {
+			if (doIntervalIteration) {
+				throw new PrismNotSupportedException("Optimistic value iteration cannot be combined with interval iteration");
+			}
+			if (init != null)
+				throw new PrismNotSupportedException("Optimistic value iteration currently not supported with provided initial values");
+		}
 		if (doIntervalIteration) {
 			if (mdpSolnMethod != MDPSolnMethod.VALUE_ITERATION && mdpSolnMethod != MDPSolnMethod.GAUSS_SEIDEL) {
 				throw new PrismNotSupportedException("Currently, explicit engine only supports interval iteration with value iteration or Gauss-Seidel for MDPs");
@@ -2229,6 +2409,30 @@ public class MDPModelChecker extends ProbModelChecker
 	{
 		ModelCheckerResult res = null;
 
+		// If required, solve on a copy of the MDP with reordered states, then map back
+		if (stateReordering != StateReordering.Order.NONE) {
+			StateReordering reordering = computeStateReordering(mdp);
+			MDP mdpReordered = reordering.permute(mdp);
+			printReorderedBandwidth(mdp, mdpReordered);
+			int stratReordered[] = reordering.permute(strat);
+			res = doReachRewardsNumeric(mdpReordered, reordering.permute(mdpRewards), method, reordering.permute(target), reordering.permute(inf), min, reordering.permute(init), reordering.permute(known), stratReordered);
+			res.soln = reordering.unpermute(res.soln);
+			res.lastSoln = reordering.unpermute(res.lastSoln);
+			reordering.unpermute(stratReordered, strat);
+			return res;
+		}
+
+		return doReachRewardsNumeric(mdp, mdpRewards, method, target, inf, min, init, known, strat);
+	}
+
+	/**
+	 * Compute expected reachability rewards numerically, as for {@link #computeReachRewardsNumeric},
+	 * but without state reordering.
+	 */
+	private ModelCheckerResult doReachRewardsNumeric(MDP mdp, MDPRewards mdpRewards, MDPSolnMethod method, BitSet target, BitSet inf, boolean min, double init[], BitSet known, int strat[]) throws PrismException
+	{
+		ModelCheckerResult res = null;
+
 		IterationMethod iterationMethod = null;
 		switch (method) {
 		case VALUE_ITERATION:
@@ -2237,6 +2441,12 @@ public class MDPModelChecker extends ProbModelChecker
 		case GAUSS_SEIDEL:
 			iterationMethod = new IterationMethodGS(termCrit == TermCrit.ABSOLUTE, termCritParam, false);
 			break;
+		case OPTIMISTIC_VALUE_ITERATION:
+			iterationMethod = new IterationMethodOptimistic(termCrit == TermCrit.ABSOLUTE, termCritParam, Double.POSITIVE_INFINITY);
+			break;
+		case PRIORITISED_VALUE_ITERATION:
+			iterationMethod = new IterationMethodPrioritised(termCrit == TermCrit.ABSOLUTE, termCritParam);
+			break;
 		case POLICY_ITERATION:
 			if (doIntervalIteration) {
 				throw new PrismNotSupportedException("Interval iteration currently not supported for policy iteration");
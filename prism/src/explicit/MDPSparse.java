@@ -55,10 +55,10 @@ import prism.PrismUtils;
 public class MDPSparse extends MDPExplicit
 {
 	// Sparse matrix storing transition function (Steps)
-	/** Probabilities for each transition (array of size numTransitions) */
-	protected double nonZeros[];
-	/** Column (destination) indices for each transition (array of size numTransitions) */
-	protected int cols[];
+	/** Probabilities for each transition (numTransitions of them) */
+	protected ProbabilityStorage nonZeros;
+	/** Column (destination) indices for each transition (numTransitions of them) */
+	protected ColumnStorage cols;
 	/** Indices into nonZeros/cols giving the start of the transitions for each choice (distribution);
 	 * array is of size numDistrs+1 and last entry is always equal to numTransitions */
 	protected int choiceStarts[];
@@ -109,8 +109,8 @@ public class MDPSparse extends MDPExplicit
 		numTransitions = mdp.getNumTransitions();
 		maxNumDistrs = mdp.getMaxNumChoices();
 		// Initialise transition function
-		nonZeros = new double[numTransitions];
-		cols = new int[numTransitions];
+		double nonZeros[] = new double[numTransitions];
+		int cols[] = new int[numTransitions];
 		choiceStarts = new int[numDistrs + 1];
 		rowStarts = new int[numStates + 1];
 		actions = hasActionLabels(mdp) ? new Object[numDistrs] : null;
@@ -157,6 +157,71 @@ public class MDPSparse extends MDPExplicit
 		}
 		choiceStarts[numDistrs] = numTransitions;
 		rowStarts[numStates] = numDistrs;
+		this.cols = new ColumnStorage.IntStorage(cols);
+		this.nonZeros = new ProbabilityStorage.DoubleStorage(nonZeros);
+	}
+
+	/**
+	 * Constructor: Build new MDPSparse from arbitrary MDP type,
+	 * with states permuted, i.e. old state index i becomes index permut[i].
+	 * Note: labels and a states list, if present, are not copied
+	 * and should be set separately afterwards if required.
+	 *
+	 * @param mdp some MDP
+	 * @param permut State space permutation
+	 */
+	public MDPSparse(final MDP mdp, int permut[])
+	{
+		initialise(mdp.getNumStates());
+
+		setConstantValues(mdp.getConstantValues());
+		setVarList(mdp.getVarList());
+		for (int state : mdp.getInitialStates()) {
+			addInitialState(permut[state]);
+		}
+		for (int state : mdp.getDeadlockStates()) {
+			deadlocks.add(permut[state]);
+		}
+
+		// Copy stats
+		numDistrs = mdp.getNumChoices();
+		numTransitions = mdp.getNumTransitions();
+		maxNumDistrs = mdp.getMaxNumChoices();
+		// Compute the inverse of the permutation
+		int permutInv[] = new int[numStates];
+		for (int state = 0; state < numStates; state++) {
+			permutInv[permut[state]] = state;
+		}
+		// Initialise transition function
+		double nonZeros[] = new double[numTransitions];
+		int cols[] = new int[numTransitions];
+		choiceStarts = new int[numDistrs + 1];
+		rowStarts = new int[numStates + 1];
+		actions = hasActionLabels(mdp) ? new Object[numDistrs] : null;
+
+		// Copy transition function
+		int rowIndex = 0, choiceIndex = 0;
+		for (int state = 0; state < numStates; state++) {
+			final int originalState = permutInv[state];
+			rowStarts[state] = rowIndex;
+			for (int choice = 0, numChoices = mdp.getNumChoices(originalState); choice < numChoices; choice++) {
+				if (actions != null) {
+					actions[rowIndex] = mdp.getAction(originalState, choice);
+				}
+				choiceStarts[rowIndex] = choiceIndex;
+				for (Iterator<Entry<Integer, Double>> transitions = mdp.getTransitionsIterator(originalState, choice); transitions.hasNext();) {
+					final Map.Entry<Integer, Double> trans = transitions.next();
+					cols[choiceIndex] = permut[trans.getKey()];
+					nonZeros[choiceIndex] = trans.getValue();
+					choiceIndex++;
+				}
+				rowIndex++;
+			}
+		}
+		choiceStarts[numDistrs] = numTransitions;
+		rowStarts[numStates] = numDistrs;
+		this.cols = new ColumnStorage.IntStorage(cols);
+		this.nonZeros = new ProbabilityStorage.DoubleStorage(nonZeros);
 	}
 
 	/** Helper: Does the given MDP have action labels on any of the choices? */
@@ -200,8 +265,8 @@ public class MDPSparse extends MDPExplicit
 		if (sort) {
 			sorted = new TreeMap<Integer, Double>();
 		}
-		nonZeros = new double[numTransitions];
-		cols = new int[numTransitions];
+		double nonZeros[] = new double[numTransitions];
+		int cols[] = new int[numTransitions];
 		choiceStarts = new int[numDistrs + 1];
 		rowStarts = new int[numStates + 1];
 		actions = mdp.actions == null ? null : new Object[numDistrs];
@@ -238,6 +303,8 @@ public class MDPSparse extends MDPExplicit
 		}
 		choiceStarts[numDistrs] = numTransitions;
 		rowStarts[numStates] = numDistrs;
+		this.cols = new ColumnStorage.IntStorage(cols);
+		this.nonZeros = new ProbabilityStorage.DoubleStorage(nonZeros);
 	}
 
 	/**
@@ -270,8 +337,8 @@ public class MDPSparse extends MDPExplicit
 		if (sort) {
 			sorted = new TreeMap<Integer, Double>();
 		}
-		nonZeros = new double[numTransitions];
-		cols = new int[numTransitions];
+		double nonZeros[] = new double[numTransitions];
+		int cols[] = new int[numTransitions];
 		choiceStarts = new int[numDistrs + 1];
 		rowStarts = new int[numStates + 1];
 		actions = mdp.actions == null ? null : new Object[numDistrs];
@@ -308,6 +375,8 @@ public class MDPSparse extends MDPExplicit
 		}
 		choiceStarts[numDistrs] = numTransitions;
 		rowStarts[numStates] = numDistrs;
+		this.cols = new ColumnStorage.IntStorage(cols);
+		this.nonZeros = new ProbabilityStorage.DoubleStorage(nonZeros);
 	}
 
 	/**
@@ -345,8 +414,8 @@ public class MDPSparse extends MDPExplicit
 				numTransitions += mdp.getNumTransitions(s, a);
 			}
 		}
-		nonZeros = new double[numTransitions];
-		cols = new int[numTransitions];
+		double nonZeros[] = new double[numTransitions];
+		int cols[] = new int[numTransitions];
 		choiceStarts = new int[numDistrs + 1];
 		rowStarts = new int[numStates + 1];
 		this.actions = new Object[numDistrs];
@@ -374,6 +443,49 @@ public class MDPSparse extends MDPExplicit
 		}
 		choiceStarts[numDistrs] = numTransitions;
 		rowStarts[numStates] = numDistrs;
+		this.cols = new ColumnStorage.IntStorage(cols);
+		this.nonZeros = new ProbabilityStorage.DoubleStorage(nonZeros);
+	}
+
+	/**
+	 * Constructor: build from (already constructed) sparse matrix arrays, which are not copied.
+	 * Initial states, deadlocks, etc. should be set separately afterwards.
+	 * @param numStates Number of states
+	 * @param rowStarts Indices into choiceStarts for each state (array of size numStates+1)
+	 * @param choiceStarts Indices into nonZeros/cols for each choice (array of size numDistrs+1)
+	 * @param cols Column (destination) indices for each transition
+	 * @param nonZeros Probabilities for each transition
+	 * @param actions Action labels for choices (null if there are no actions)
+	 * @param maxNumDistrs Maximum number of choices in any state
+	 */
+	public MDPSparse(int numStates, int rowStarts[], int choiceStarts[], int cols[], double nonZeros[], Object actions[], int maxNumDistrs)
+	{
+		this(numStates, rowStarts, choiceStarts, new ColumnStorage.IntStorage(cols), new ProbabilityStorage.DoubleStorage(nonZeros), actions, maxNumDistrs);
+	}
+
+	/**
+	 * Constructor: build from (already constructed) sparse matrix arrays, which are not copied,
+	 * with columns and probabilities stored in the given (possibly compact) form.
+	 * Initial states, deadlocks, etc. should be set separately afterwards.
+	 * @param numStates Number of states
+	 * @param rowStarts Indices into choiceStarts for each state (array of size numStates+1)
+	 * @param choiceStarts Indices into nonZeros/cols for each choice (array of size numDistrs+1)
+	 * @param cols Column (destination) indices for each transition
+	 * @param nonZeros Probabilities for each transition
+	 * @param actions Action labels for choices (null if there are no actions)
+	 * @param maxNumDistrs Maximum number of choices in any state
+	 */
+	public MDPSparse(int numStates, int rowStarts[], int choiceStarts[], ColumnStorage cols, ProbabilityStorage nonZeros, Object actions[], int maxNumDistrs)
+	{
+		initialise(numStates);
+		this.rowStarts = rowStarts;
+		this.choiceStarts = choiceStarts;
+		this.cols = cols;
+		this.nonZeros = nonZeros;
+		this.actions = actions;
+		numDistrs = rowStarts[numStates];
+		numTransitions = choiceStarts[numDistrs];
+		this.maxNumDistrs = maxNumDistrs;
 	}
 
 	// Mutators (other)
@@ -413,6 +525,10 @@ public class MDPSparse extends MDPExplicit
 			// Store stats
 			numDistrs = Integer.parseInt(ss[1]);
 			numTransitions = Integer.parseInt(ss[2]);
+			double nonZeros[] = new double[numTransitions];
+			int cols[] = new int[numTransitions];
+			choiceStarts = new int[numDistrs + 1];
+			rowStarts = new int[numStates + 1];
 			// Go though list of transitions in file
 			iLast = -1;
 			kLast = -1;
@@ -449,6 +565,8 @@ public class MDPSparse extends MDPExplicit
 			}
 			choiceStarts[numDistrs] = numTransitions;
 			rowStarts[numStates] = numDistrs;
+			this.cols = new ColumnStorage.IntStorage(cols);
+			this.nonZeros = new ProbabilityStorage.DoubleStorage(nonZeros);
 			// Compute maxNumDistrs
 			maxNumDistrs = 0;
 			for (i = 0; i < numStates; i++) {
@@ -478,7 +596,7 @@ public class MDPSparse extends MDPExplicit
 		return numTransitions;
 	}
 
-	private SuccessorsIterator colsIterator(int start, int end, boolean distinct)
+	private SuccessorsIterator colsIterator(int s, int start, int end, boolean distinct)
 	{
 		return new SuccessorsIterator() {
 			int cur = start;
@@ -498,7 +616,7 @@ public class MDPSparse extends MDPExplicit
 			@Override
 			public int nextInt()
 			{
-				return cols[cur++];
+				return cols.get(cur++, s);
 			}
 		};
 	}
@@ -511,7 +629,7 @@ public class MDPSparse extends MDPExplicit
 		int end = choiceStarts[rowStarts[s + 1]];
 		// we can guarantee that the successors are distinct if there is at most one successor...
 		boolean distinct = (start == end || start + 1 == end);
-		return colsIterator(start, end, distinct);
+		return colsIterator(s, start, end, distinct);
 	}
 
 	@Override
@@ -569,7 +687,7 @@ public class MDPSparse extends MDPExplicit
 		int start = choiceStarts[rowStarts[s] + i];
 		int end = choiceStarts[rowStarts[s] + i + 1];
 		// we assume here that the successors for a single choice are distinct
-		return colsIterator(start, end, true);
+		return colsIterator(s, start, end, true);
 	}
 
 	// Accessors (for MDP)
@@ -601,7 +719,7 @@ public class MDPSparse extends MDPExplicit
 				assert (col < end);
 				final int i = col;
 				col++;
-				return new AbstractMap.SimpleImmutableEntry<>(cols[i], nonZeros[i]);
+				return new AbstractMap.SimpleImmutableEntry<>(cols.get(i, s), nonZeros.get(i));
 			}
 		};
 	}
@@ -621,7 +739,7 @@ public class MDPSparse extends MDPExplicit
 				h2 = choiceStarts[j + 1];
 				for (k = l2; k < h2; k++) {
 					// Assume that only non-zero entries are stored
-					if (u.get(cols[k])) {
+					if (u.get(cols.get(k, i))) {
 						some = true;
 						break;
 					}
@@ -658,11 +776,11 @@ public class MDPSparse extends MDPExplicit
 				h2 = choiceStarts[j + 1];
 				for (k = l2; k < h2; k++) {
 					// Assume that only non-zero entries are stored
-					if (!u.get(cols[k])) {
+					if (!u.get(cols.get(k, i))) {
 						all = false;
 						break; // Stop early (already know b1 will be set to false)
 					}
-					if (v.get(cols[k])) {
+					if (v.get(cols.get(k, i))) {
 						some = true;
 					}
 				}
@@ -691,11 +809,11 @@ public class MDPSparse extends MDPExplicit
 				h2 = choiceStarts[j + 1];
 				for (k = l2; k < h2; k++) {
 					// Assume that only non-zero entries are stored
-					if (!u.get(cols[k])) {
+					if (!u.get(cols.get(k, i))) {
 						all = false;
 						break; // Stop early (already know b1 will not be set to true)
 					}
-					if (v.get(cols[k])) {
+					if (v.get(cols.get(k, i))) {
 						some = true;
 					}
 				}
@@ -733,10 +851,10 @@ public class MDPSparse extends MDPExplicit
 				h2 = choiceStarts[j + 1];
 				for (k = l2; k < h2; k++) {
 					// Assume that only non-zero entries are stored
-					if (v.get(cols[k])) {
+					if (v.get(cols.get(k, i))) {
 						some = true;
 					}
-					if (!u.get(cols[k])) {
+					if (!u.get(cols.get(k, i))) {
 						all = false;
 					}
 				}
@@ -769,10 +887,10 @@ public class MDPSparse extends MDPExplicit
 		h2 = choiceStarts[j + 1];
 		for (k = l2; k < h2; k++) {
 			// Assume that only non-zero entries are stored
-			if (v.get(cols[k])) {
+			if (v.get(cols.get(k, s))) {
 				some = true;
 			}
-			if (!u.get(cols[k])) {
+			if (!u.get(cols.get(k, s))) {
 				all = false;
 			}
 		}
@@ -785,6 +903,9 @@ public class MDPSparse extends MDPExplicit
 		int j, k, l1, h1, l2, h2, stratCh = -1;
 		double d, minmax;
 		boolean first;
+		// Fast path for plain (int/double) storage
+		final int colsArray[] = cols.getIntArray();
+		final double nonZerosArray[] = nonZeros.getDoubleArray();
 
 		minmax = 0;
 		first = true;
@@ -795,8 +916,14 @@ public class MDPSparse extends MDPExplicit
 			d = 0.0;
 			l2 = choiceStarts[j];
 			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
+			if (colsArray != null && nonZerosArray != null) {
+				for (k = l2; k < h2; k++) {
+					d += nonZerosArray[k] * vect[colsArray[k]];
+				}
+			} else {
+				for (k = l2; k < h2; k++) {
+					d += nonZeros.get(k) * vect[cols.get(k, s)];
+				}
 			}
 			// Check whether we have exceeded min/max so far
 			if (first || (min && d < minmax) || (!min && d > minmax)) {
@@ -838,7 +965,7 @@ public class MDPSparse extends MDPExplicit
 			l2 = choiceStarts[j];
 			h2 = choiceStarts[j + 1];
 			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
+				d += nonZeros.get(k) * vect[cols.get(k, s)];
 			}
 			// Store strategy info if value matches
 			if (PrismUtils.doublesAreClose(val, d, 1e-12, false)) {
@@ -854,14 +981,23 @@ public class MDPSparse extends MDPExplicit
 	{
 		int j, k, l2, h2;
 		double d;
+		// Fast path for plain (int/double) storage
+		final int colsArray[] = cols.getIntArray();
+		final double nonZerosArray[] = nonZeros.getDoubleArray();
 
 		j = rowStarts[s] + i;
 		// Compute sum for this distribution
 		d = 0.0;
 		l2 = choiceStarts[j];
 		h2 = choiceStarts[j + 1];
-		for (k = l2; k < h2; k++) {
-			d += nonZeros[k] * vect[cols[k]];
+		if (colsArray != null && nonZerosArray != null) {
+			for (k = l2; k < h2; k++) {
+				d += nonZerosArray[k] * vect[colsArray[k]];
+			}
+		} else {
+			for (k = l2; k < h2; k++) {
+				d += nonZeros.get(k) * vect[cols.get(k, s)];
+			}
 		}
 
 		return d;
@@ -873,6 +1009,9 @@ public class MDPSparse extends MDPExplicit
 		int j, k, l1, h1, l2, h2, stratCh = -1;
 		double diag, d, minmax;
 		boolean first;
+		// Fast path for plain (int/double) storage
+		final int colsArray[] = cols.getIntArray();
+		final double nonZerosArray[] = nonZeros.getDoubleArray();
 
 		minmax = 0;
 		first = true;
@@ -884,11 +1023,21 @@ public class MDPSparse extends MDPExplicit
 			d = 0.0;
 			l2 = choiceStarts[j];
 			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				if (cols[k] != s) {
-					d += nonZeros[k] * vect[cols[k]];
-				} else {
-					diag -= nonZeros[k];
+			if (colsArray != null && nonZerosArray != null) {
+				for (k = l2; k < h2; k++) {
+					if (colsArray[k] != s) {
+						d += nonZerosArray[k] * vect[colsArray[k]];
+					} else {
+						diag -= nonZerosArray[k];
+					}
+				}
+			} else {
+				for (k = l2; k < h2; k++) {
+					if (cols.get(k, s) != s) {
+						d += nonZeros.get(k) * vect[cols.get(k, s)];
+					} else {
+						diag -= nonZeros.get(k);
+					}
 				}
 			}
 			if (diag > 0)
@@ -920,6 +1069,9 @@ public class MDPSparse extends MDPExplicit
 	{
 		int j, k, l2, h2;
 		double diag, d;
+		// Fast path for plain (int/double) storage
+		final int colsArray[] = cols.getIntArray();
+		final double nonZerosArray[] = nonZeros.getDoubleArray();
 
 		j = rowStarts[s] + i;
 		diag = 1.0;
@@ -927,11 +1079,21 @@ public class MDPSparse extends MDPExplicit
 		d = 0.0;
 		l2 = choiceStarts[j];
 		h2 = choiceStarts[j + 1];
-		for (k = l2; k < h2; k++) {
-			if (cols[k] != s) {
-				d += nonZeros[k] * vect[cols[k]];
-			} else {
-				diag -= nonZeros[k];
+		if (colsArray != null && nonZerosArray != null) {
+			for (k = l2; k < h2; k++) {
+				if (colsArray[k] != s) {
+					d += nonZerosArray[k] * vect[colsArray[k]];
+				} else {
+					diag -= nonZerosArray[k];
+				}
+			}
+		} else {
+			for (k = l2; k < h2; k++) {
+				if (cols.get(k, s) != s) {
+					d += nonZeros.get(k) * vect[cols.get(k, s)];
+				} else {
+					diag -= nonZeros.get(k);
+				}
 			}
 		}
 		if (diag > 0)
@@ -946,6 +1108,9 @@ public class MDPSparse extends MDPExplicit
 		int j, k, l1, h1, l2, h2, stratCh = -1;
 		double d, minmax;
 		boolean first;
+		// Fast path for plain (int/double) storage
+		final int colsArray[] = cols.getIntArray();
+		final double nonZerosArray[] = nonZeros.getDoubleArray();
 
 		minmax = 0;
 		first = true;
@@ -956,8 +1121,14 @@ public class MDPSparse extends MDPExplicit
 			d = mdpRewards.getTransitionReward(s, j - l1);
 			l2 = choiceStarts[j];
 			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
+			if (colsArray != null && nonZerosArray != null) {
+				for (k = l2; k < h2; k++) {
+					d += nonZerosArray[k] * vect[colsArray[k]];
+				}
+			} else {
+				for (k = l2; k < h2; k++) {
+					d += nonZeros.get(k) * vect[cols.get(k, s)];
+				}
 			}
 			// Check whether we have exceeded min/max so far
 			if (first || (min && d < minmax) || (!min && d > minmax)) {
@@ -988,6 +1159,9 @@ public class MDPSparse extends MDPExplicit
 	{
 		int j, k, l2, h2;
 		double d;
+		// Fast path for plain (int/double) storage
+		final int colsArray[] = cols.getIntArray();
+		final double nonZerosArray[] = nonZeros.getDoubleArray();
 
 		j = rowStarts[s] + i;
 		// Compute sum for this distribution
@@ -996,8 +1170,14 @@ public class MDPSparse extends MDPExplicit
 		d = 0;
 		l2 = choiceStarts[j];
 		h2 = choiceStarts[j + 1];
-		for (k = l2; k < h2; k++) {
-			d += nonZeros[k] * vect[cols[k]];
+		if (colsArray != null && nonZerosArray != null) {
+			for (k = l2; k < h2; k++) {
+				d += nonZerosArray[k] * vect[colsArray[k]];
+			}
+		} else {
+			for (k = l2; k < h2; k++) {
+				d += nonZeros.get(k) * vect[cols.get(k, s)];
+			}
 		}
 		d += mcRewards.getStateReward(s);
 		return d;
@@ -1009,6 +1189,9 @@ public class MDPSparse extends MDPExplicit
 		int j, k, l1, h1, l2, h2, stratCh = -1;
 		double diag, d, minmax;
 		boolean first;
+		// Fast path for plain (int/double) storage
+		final int colsArray[] = cols.getIntArray();
+		final double nonZerosArray[] = nonZeros.getDoubleArray();
 
 		minmax = 0;
 		first = true;
@@ -1023,12 +1206,23 @@ public class MDPSparse extends MDPExplicit
 			d += mdpRewards.getTransitionReward(s, j - l1);
 			l2 = choiceStarts[j];
 			h2 = choiceStarts[j + 1];
-			for (k = l2; k < h2; k++) {
-				if (cols[k] != s) {
-					onlySelfloops = false;
-					d += nonZeros[k] * vect[cols[k]];
-				} else {
-					diag -= nonZeros[k];
+			if (colsArray != null && nonZerosArray != null) {
+				for (k = l2; k < h2; k++) {
+					if (colsArray[k] != s) {
+						onlySelfloops = false;
+						d += nonZerosArray[k] * vect[colsArray[k]];
+					} else {
+						diag -= nonZerosArray[k];
+					}
+				}
+			} else {
+				for (k = l2; k < h2; k++) {
+					if (cols.get(k, s) != s) {
+						onlySelfloops = false;
+						d += nonZeros.get(k) * vect[cols.get(k, s)];
+					} else {
+						diag -= nonZeros.get(k);
+					}
 				}
 			}
 			// Catch special case of probability 1 self-loop (Jacobi does it wrong)
@@ -1085,7 +1279,7 @@ public class MDPSparse extends MDPExplicit
 			l2 = choiceStarts[j];
 			h2 = choiceStarts[j + 1];
 			for (k = l2; k < h2; k++) {
-				d += nonZeros[k] * vect[cols[k]];
+				d += nonZeros.get(k) * vect[cols.get(k, s)];
 			}
 			d += mdpRewards.getStateReward(s);
 			// Store strategy info if value matches
@@ -1107,11 +1301,64 @@ public class MDPSparse extends MDPExplicit
 			l2 = choiceStarts[j];
 			h2 = choiceStarts[j + 1];
 			for (k = l2; k < h2; k++) {
-				dest[cols[k]] += nonZeros[k] * source[s];
+				dest[cols.get(k, s)] += nonZeros.get(k) * source[s];
 			}
 		}
 	}
 
+	// Accessors (other)
+
+	/**
+	 * Get the way in which transition probabilities are stored.
+	 */
+	public ProbabilityStorage.Type getProbabilityStorageType()
+	{
+		return nonZeros.getType();
+	}
+
+	/**
+	 * Store transition probabilities in the given form (see {@link ProbabilityStorage#create}),
+	 * converting the current storage if it differs.
+	 */
+	public void setProbabilityStorageType(ProbabilityStorage.Type probabilityStorageType)
+	{
+		if (nonZeros.getType() != probabilityStorageType) {
+			nonZeros = ProbabilityStorage.create(nonZeros.toArray(), probabilityStorageType);
+		}
+	}
+
+	/**
+	 * Get the way in which transition columns are stored.
+	 */
+	public ColumnStorage.Type getColumnStorageType()
+	{
+		return cols.getType();
+	}
+
+	/**
+	 * Get the index of the first transition of each state (array of size numStates+1).
+	 */
+	private int[] getTransitionStarts()
+	{
+		int transStarts[] = new int[numStates + 1];
+		for (int s = 0; s <= numStates; s++) {
+			transStarts[s] = choiceStarts[rowStarts[s]];
+		}
+		return transStarts;
+	}
+
+	/**
+	 * Store transition columns in the given form (see {@link ColumnStorage#create}),
+	 * converting the current storage if it differs.
+	 */
+	public void setColumnStorageType(ColumnStorage.Type columnStorageType)
+	{
+		if (cols.getType() != columnStorageType) {
+			int transStarts[] = getTransitionStarts();
+			cols = ColumnStorage.create(cols.toArray(transStarts), columnStorageType, transStarts);
+		}
+	}
+
 	// Standard methods
 
 	@Override
@@ -1139,7 +1386,7 @@ public class MDPSparse extends MDPExplicit
 				for (k = l2; k < h2; k++) {
 					if (k > l2)
 						s += ", ";
-					s += cols[k] + ":" + nonZeros[k];
+					s += cols.get(k, i) + ":" + nonZeros.get(k);
 				}
 				s += "}";
 			}
@@ -1160,9 +1407,9 @@ public class MDPSparse extends MDPExplicit
 			return false;
 		if (!initialStates.equals(mdp.initialStates))
 			return false;
-		if (!Utils.doubleArraysAreEqual(nonZeros, mdp.nonZeros))
+		if (!Utils.doubleArraysAreEqual(nonZeros.toArray(), mdp.nonZeros.toArray()))
 			return false;
-		if (!Utils.intArraysAreEqual(cols, mdp.cols))
+		if (!Utils.intArraysAreEqual(cols.toArray(getTransitionStarts()), mdp.cols.toArray(mdp.getTransitionStarts())))
 			return false;
 		if (!Utils.intArraysAreEqual(choiceStarts, mdp.choiceStarts))
 			return false;
@@ -0,0 +1,265 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import parser.StatePacker;
+import prism.PrismException;
+
+/**
+ * Indexed set of states, stored in packed form (see {@link PackedStateStorage}),
+ * but outside of the Java heap: either in direct (native) memory or in memory-mapped
+ * temporary files. Since the storage consists of a small number of large buffers,
+ * it does not add to garbage collection costs.
+ * <br><br>
+ * Note that the amount of direct memory that the JVM allows is limited
+ * (see the {@code -XX:MaxDirectMemorySize} JVM option, which by default is about the maximum
+ * heap size), so state spaces larger than the heap need memory-mapped files,
+ * which are only limited by the available disk space and address space.
+ * If storage cannot be allocated, a {@link PrismException} is thrown.
+ * Temporary files are unlinked as soon as they have been opened, where the OS allows this,
+ * and otherwise deleted when the JVM exits.
+ * Like on-heap storage, memory is freed once buffers are no longer referenced.
+ */
+public class OffHeapStateStorage extends PackedStateStorage
+{
+	/** Log2 of the number of hash table slots per buffer */
+	private static final int SEGMENT_BITS = 26;
+	/** Number of hash table slots per buffer */
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+	/** Mask to get the index of a hash table slot within its buffer */
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	/** Directory for memory-mapped files (null means use direct memory instead) */
+	private File dir;
+	/** Allocator for the hash table buffers */
+	private BufferAllocator tableAllocator;
+	/** Hash table, split into buffers of at most SEGMENT_SIZE slots */
+	private IntBuffer tableSegments[];
+
+	/**
+	 * Create an empty set of states, packed using {@code packer}, stored in direct (native) memory.
+	 */
+	public OffHeapStateStorage(StatePacker packer) throws PrismException
+	{
+		this(packer, null);
+	}
+
+	/**
+	 * Create an empty set of states, packed using {@code packer}, stored in
+	 * memory-mapped temporary files in directory {@code dir}
+	 * (or in direct memory, if {@code dir} is null).
+	 */
+	public OffHeapStateStorage(StatePacker packer, File dir) throws PrismException
+	{
+		super(packer, false);
+		this.dir = dir;
+		if (dir != null && !dir.isDirectory()) {
+			throw new PrismException("Directory \"" + dir + "\" for state storage does not exist");
+		}
+		init();
+	}
+
+	@Override
+	protected PackedStateList createStateList()
+	{
+		return new OffHeapStateList(packer, dir);
+	}
+
+	@Override
+	protected void allocateTable(int capacity) throws PrismException
+	{
+		// Discard any old table
+		if (tableAllocator != null) {
+			tableAllocator.close();
+		}
+		tableAllocator = new BufferAllocator(dir);
+		int numSegments = (capacity + SEGMENT_SIZE - 1) >>> SEGMENT_BITS;
+		tableSegments = new IntBuffer[numSegments];
+		for (int s = 0; s < numSegments; s++) {
+			int size = Math.min(capacity - s * SEGMENT_SIZE, SEGMENT_SIZE);
+			// (buffers are zeroed on allocation, i.e., all slots are empty)
+			tableSegments[s] = tableAllocator.allocate(4L * size).asIntBuffer();
+		}
+	}
+
+	@Override
+	protected int readSlot(int slot)
+	{
+		return tableSegments[slot >>> SEGMENT_BITS].get(slot & SEGMENT_MASK);
+	}
+
+	@Override
+	protected void writeSlot(int slot, int value)
+	{
+		tableSegments[slot >>> SEGMENT_BITS].put(slot & SEGMENT_MASK, value);
+	}
+
+	/**
+	 * List of packed states, stored outside the Java heap.
+	 * Each list has its own storage, so lists created from this one (e.g. by {@link #permute(int[])})
+	 * are independent of it.
+	 */
+	public static class OffHeapStateList extends PackedStateList
+	{
+		/** Directory for memory-mapped files (null means use direct memory instead) */
+		private File dir;
+		/** Allocator for the pages */
+		private BufferAllocator allocator;
+		/** Pages of packed states */
+		private LongBuffer pages[];
+
+		/**
+		 * Create an empty list of states, packed using {@code packer}, stored in
+		 * memory-mapped temporary files in directory {@code dir}
+		 * (or in direct memory, if {@code dir} is null).
+		 */
+		public OffHeapStateList(StatePacker packer, File dir)
+		{
+			super(packer);
+			this.dir = dir;
+			allocator = new BufferAllocator(dir);
+			pages = new LongBuffer[16];
+		}
+
+		@Override
+		protected PackedStateList createEmpty()
+		{
+			return new OffHeapStateList(packer, dir);
+		}
+
+		@Override
+		protected void allocatePage(int p) throws PrismException
+		{
+			if (p == pages.length) {
+				pages = Arrays.copyOf(pages, 2 * pages.length);
+			}
+			pages[p] = allocator.allocate(8L * PAGE_SIZE * numWords).asLongBuffer();
+		}
+
+		@Override
+		protected long readWord(int p, int pos)
+		{
+			return pages[p].get(pos);
+		}
+
+		@Override
+		protected void writeWord(int p, int pos, long value)
+		{
+			pages[p].put(pos, value);
+		}
+
+		@Override
+		public void clear()
+		{
+			allocator.close();
+			allocator = new BufferAllocator(dir);
+			pages = new LongBuffer[16];
+			super.clear();
+		}
+	}
+
+	/**
+	 * Allocates (zeroed) buffers, either in direct memory
+	 * or as consecutive regions of a memory-mapped temporary file.
+	 */
+	private static class BufferAllocator
+	{
+		/** Directory for memory-mapped files (null means use direct memory instead) */
+		private File dir;
+		/** Memory-mapped file (created on first allocation) */
+		private RandomAccessFile raf;
+		/** Size of memory-mapped file allocated so far */
+		private long fileSize;
+
+		BufferAllocator(File dir)
+		{
+			this.dir = dir;
+		}
+
+		/**
+		 * Allocate a new zeroed buffer of {@code bytes} bytes (at most {@code Integer.MAX_VALUE}).
+		 * Throws an exception if there is not enough direct memory or the file cannot be mapped.
+		 */
+		ByteBuffer allocate(long bytes) throws PrismException
+		{
+			if (bytes > Integer.MAX_VALUE) {
+				throw new PrismException("Buffer too large for off-heap state storage");
+			}
+			if (dir == null) {
+				try {
+					return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+				} catch (OutOfMemoryError e) {
+					// (the limit is set by -XX:MaxDirectMemorySize, which by default is about the maximum heap size)
+					throw new PrismException("Out of direct memory for off-heap state storage (try memory-mapped storage instead)");
+				}
+			}
+			try {
+				if (raf == null) {
+					File file = File.createTempFile("prism-states-", ".bin", dir);
+					raf = new RandomAccessFile(file, "rw");
+					fileSize = 0;
+					// The open file (and any mappings) remain usable after deletion on most OSs
+					if (!file.delete()) {
+						file.deleteOnExit();
+					}
+				}
+				// Mapping beyond the end of the file extends it (with zeros)
+				ByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, fileSize, bytes);
+				fileSize += bytes;
+				return buffer.order(ByteOrder.nativeOrder());
+			} catch (IOException e) {
+				throw new PrismException("Could not allocate memory-mapped storage in \"" + dir + "\": " + e.getMessage());
+			}
+		}
+
+		/**
+		 * Close the file used for memory mapping, if any. Existing buffers remain valid,
+		 * and memory/disk space is actually freed once they are garbage collected.
+		 */
+		void close()
+		{
+			if (raf != null) {
+				try {
+					raf.close();
+				} catch (IOException e) {
+					// Ignore: file is temporary anyway
+				}
+				raf = null;
+			}
+		}
+	}
+}
@@ -0,0 +1,365 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+import parser.State;
+import parser.StatePacker;
+import prism.PrismException;
+
+/**
+ * A list of states, stored compactly in packed form (see {@link StatePacker}).
+ * States are decoded into (fresh) State objects on access, so this can be used wherever
+ * a (read-only) {@code List<State>} is needed, e.g. as the list of states of a model.
+ * <br><br>
+ * Packed states are stored in pages, so the list is not restricted by the maximum size
+ * of a Java array. This class stores pages as {@code long} arrays on the Java heap;
+ * subclasses can store them elsewhere by overriding {@link #allocatePage(int)},
+ * {@link #readWord(int, int)}, {@link #writeWord(int, int, long)} and {@link #createEmpty()}.
+ */
+public class PackedStateList extends AbstractList<State>
+{
+	/** Log2 of the number of states stored per page */
+	private static final int PAGE_BITS = 16;
+	/** Number of states stored per page */
+	protected static final int PAGE_SIZE = 1 << PAGE_BITS;
+	/** Mask to get the index of a state within its page */
+	private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+	/** Encoder used for the states */
+	protected StatePacker packer;
+	/** Number of words per state */
+	protected int numWords;
+	/** Pages of packed states (for storage on the Java heap) */
+	private long pages[][];
+	/** Number of pages allocated */
+	protected int numPages;
+	/** Number of states stored */
+	protected int size;
+
+	/**
+	 * Create an empty list of states, packed using {@code packer}.
+	 */
+	public PackedStateList(StatePacker packer)
+	{
+		this.packer = packer;
+		numWords = packer.getNumWords();
+		pages = new long[16][];
+		numPages = 0;
+		size = 0;
+	}
+
+	/**
+	 * Create a new, empty list using the same encoder and the same kind of storage as this one.
+	 */
+	protected PackedStateList createEmpty()
+	{
+		return new PackedStateList(packer);
+	}
+
+	/**
+	 * Allocate storage for page {@code p}, which holds {@code PAGE_SIZE * numWords} words.
+	 * Pages are allocated in order, so this is called with {@code p == numPages}.
+	 * Throws an exception if the storage cannot be allocated.
+	 */
+	protected void allocatePage(int p) throws PrismException
+	{
+		if (p == pages.length) {
+			pages = Arrays.copyOf(pages, 2 * pages.length);
+		}
+		pages[p] = new long[PAGE_SIZE * numWords];
+	}
+
+	/**
+	 * Read the word at position {@code pos} of page {@code p}.
+	 */
+	protected long readWord(int p, int pos)
+	{
+		return pages[p][pos];
+	}
+
+	/**
+	 * Write the word at position {@code pos} of page {@code p}.
+	 */
+	protected void writeWord(int p, int pos, long value)
+	{
+		pages[p][pos] = value;
+	}
+
+	/**
+	 * Make sure that storage for the {@code i}th state has been allocated.
+	 */
+	private void ensureAllocated(int i) throws PrismException
+	{
+		int p = i >>> PAGE_BITS;
+		while (numPages <= p) {
+			allocatePage(numPages++);
+		}
+	}
+
+	/**
+	 * Get the encoder used for the states in this list.
+	 */
+	public StatePacker getPacker()
+	{
+		return packer;
+	}
+
+	/**
+	 * Append a (packed) state, stored in {@code words[offset]}, ..., {@code words[offset + numWords - 1]},
+	 * and return its index.
+	 */
+	public int addPacked(long words[], int offset) throws PrismException
+	{
+		if (size == Integer.MAX_VALUE) {
+			throw new PrismException("Too many states");
+		}
+		setPacked(size, words, offset);
+		return size++;
+	}
+
+	/**
+	 * Get the {@code w}th word of the packed representation of the {@code i}th state.
+	 */
+	public long getWord(int i, int w)
+	{
+		return readWord(i >>> PAGE_BITS, (i & PAGE_MASK) * numWords + w);
+	}
+
+	/**
+	 * Store a packed state, from {@code words[offset]}, ..., {@code words[offset + numWords - 1]},
+	 * as the {@code i}th state (allocating storage if needed, but not changing the size of the list).
+	 */
+	protected void setPacked(int i, long words[], int offset) throws PrismException
+	{
+		ensureAllocated(i);
+		int p = i >>> PAGE_BITS;
+		int start = (i & PAGE_MASK) * numWords;
+		for (int w = 0; w < numWords; w++) {
+			writeWord(p, start + w, words[offset + w]);
+		}
+	}
+
+	/**
+	 * Copy the packed representation of the {@code i}th state into
+	 * {@code words[offset]}, ..., {@code words[offset + numWords - 1]}.
+	 */
+	public void getPacked(int i, long words[], int offset)
+	{
+		int p = i >>> PAGE_BITS;
+		int start = (i & PAGE_MASK) * numWords;
+		for (int w = 0; w < numWords; w++) {
+			words[offset + w] = readWord(p, start + w);
+		}
+	}
+
+	/**
+	 * Check whether the {@code i}th state is equal to the packed state stored in
+	 * {@code words[offset]}, ..., {@code words[offset + numWords - 1]}.
+	 */
+	public boolean equalsPacked(int i, long words[], int offset)
+	{
+		int p = i >>> PAGE_BITS;
+		int start = (i & PAGE_MASK) * numWords;
+		for (int w = 0; w < numWords; w++) {
+			if (readWord(p, start + w) != words[offset + w]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compare the {@code i}th and {@code j}th states, in the style of {@link State#compareTo(State)}.
+	 */
+	public int compare(int i, int j)
+	{
+		int pI = i >>> PAGE_BITS;
+		int pJ = j >>> PAGE_BITS;
+		int startI = (i & PAGE_MASK) * numWords;
+		int startJ = (j & PAGE_MASK) * numWords;
+		for (int w = 0; w < numWords; w++) {
+			int c = Long.compareUnsigned(readWord(pI, startI + w), readWord(pJ, startJ + w));
+			if (c != 0) {
+				return c;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Get the value of variable {@code var} in the {@code i}th state, encoded as an integer
+	 * (see {@link StatePacker#getEncodedValue(long, int)}).
+	 */
+	public int getEncodedValue(int i, int var)
+	{
+		return packer.getEncodedValue(getWord(i, packer.getWordIndex(var)), var);
+	}
+
+	/**
+	 * Get the values of variable {@code var} in states {@code from}, ..., {@code from + n - 1}
+	 * as integers (with Booleans as 0/1), and store them in {@code values[0]}, ..., {@code values[n - 1]}.
+	 */
+	public void getValues(int var, int from, int n, int values[])
+	{
+		int w = packer.getWordIndex(var);
+		int low = packer.getLow(var);
+		for (int k = 0; k < n; k++) {
+			int i = from + k;
+			values[k] = packer.getEncodedValue(readWord(i >>> PAGE_BITS, (i & PAGE_MASK) * numWords + w), var) + low;
+		}
+	}
+
+	/**
+	 * Create a permuted copy of this list.
+	 * Index in new list is permut[old_index].
+	 * @param permut Permutation to apply
+	 */
+	public PackedStateList permute(int permut[]) throws PrismException
+	{
+		PackedStateList list = createEmpty();
+		long words[] = new long[numWords];
+		if (size > 0) {
+			list.ensureAllocated(size - 1);
+		}
+		for (int i = 0; i < size; i++) {
+			getPacked(i, words, 0);
+			list.setPacked(permut[i], words, 0);
+		}
+		list.size = size;
+		return list;
+	}
+
+	/**
+	 * Build the permutation that sorts the states in this list,
+	 * mapping current indices to new indices under the sorting order
+	 * (the same order as {@link State#compareTo(State)}).
+	 */
+	public int[] buildSortingPermutation()
+	{
+		int order[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+		}
+		sort(order, 0, size - 1);
+		int perm[] = new int[size];
+		for (int i = 0; i < size; i++) {
+			perm[order[i]] = i;
+		}
+		return perm;
+	}
+
+	/**
+	 * Sort (indices of) states {@code order[lo..hi]}, using quicksort
+	 * (recursing on the smaller part, so stack depth is logarithmic).
+	 */
+	private void sort(int order[], int lo, int hi)
+	{
+		while (hi - lo > 16) {
+			// Median-of-three pivot
+			int mid = (lo + hi) >>> 1;
+			if (compare(order[mid], order[lo]) < 0)
+				swap(order, lo, mid);
+			if (compare(order[hi], order[lo]) < 0)
+				swap(order, lo, hi);
+			if (compare(order[hi], order[mid]) < 0)
+				swap(order, mid, hi);
+			int pivot = order[mid];
+			int i = lo, j = hi;
+			while (i <= j) {
+				while (compare(order[i], pivot) < 0)
+					i++;
+				while (compare(order[j], pivot) > 0)
+					j--;
+				if (i <= j) {
+					swap(order, i, j);
+					i++;
+					j--;
+				}
+			}
+			if (j - lo < hi - i) {
+				sort(order, lo, j);
+				lo = i;
+			} else {
+				sort(order, i, hi);
+				hi = j;
+			}
+		}
+		// Insertion sort for small ranges
+		for (int i = lo + 1; i <= hi; i++) {
+			int x = order[i];
+			int j = i - 1;
+			while (j >= lo && compare(order[j], x) > 0) {
+				order[j + 1] = order[j];
+				j--;
+			}
+			order[j + 1] = x;
+		}
+	}
+
+	private static void swap(int order[], int i, int j)
+	{
+		int tmp = order[i];
+		order[i] = order[j];
+		order[j] = tmp;
+	}
+
+	/**
+	 * Remove all states from the list (and free the memory used).
+	 */
+	@Override
+	public void clear()
+	{
+		pages = new long[16][];
+		numPages = 0;
+		size = 0;
+	}
+
+	// Methods for List interface
+
+	/**
+	 * Get the {@code i}th state, decoded as a new State object.
+	 */
+	@Override
+	public State get(int i)
+	{
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+		long words[] = new long[numWords];
+		getPacked(i, words, 0);
+		return packer.unpack(words, 0);
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+}
@@ -0,0 +1,378 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import parser.State;
+import parser.StatePacker;
+import prism.PrismException;
+import prism.PrismLangException;
+
+/**
+ * Indexed set of states, stored in packed form (see {@link StatePacker}),
+ * for use during explicit-state reachability.
+ * <br><br>
+ * States are kept in a {@link PackedStateList}, in the order they are added
+ * (so the index of a state is the number of states added before it),
+ * and are looked up using an open-addressing hash table of state indices.
+ * Unlike {@link IndexedSet}, no State objects are stored, so each state just needs
+ * the words of its packed representation plus (amortised) a few bytes of hash table.
+ * <br><br>
+ * The hash table is an {@code int} array on the Java heap; subclasses can store it elsewhere
+ * by overriding {@link #allocateTable(int)}, {@link #readSlot(int)}, {@link #writeSlot(int, int)},
+ * and (for the states themselves) {@link #createStateList()}.
+ */
+public class PackedStateStorage implements StateStorage<State>
+{
+	/** Maximum load factor of the hash table */
+	private static final double MAX_LOAD = 0.75;
+	/** Initial capacity of the hash table */
+	private static final int INITIAL_CAPACITY = 1 << 10;
+	/** Maximum capacity of the hash table */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/** Encoder used for the states */
+	protected StatePacker packer;
+	/** Number of words per state */
+	protected int numWords;
+	/** The states, in order of index */
+	protected PackedStateList states;
+	/** Hash table: (index + 1) of the state in each slot, 0 for an empty slot */
+	private int table[];
+	/** Capacity of the hash table */
+	protected int capacity;
+	/** Mask for computing hash table slots (capacity - 1) */
+	protected int mask;
+	/** Storage for the state currently being added/looked up */
+	protected long words[];
+	/** Index of the state found/added by the last call to {@link #add(State)} */
+	protected int indexOfLastAdd;
+
+	/**
+	 * Create an empty set of states, packed using {@code packer}.
+	 */
+	public PackedStateStorage(StatePacker packer) throws PrismException
+	{
+		this(packer, true);
+	}
+
+	/**
+	 * Create a set of states, packed using {@code packer}.
+	 * If {@code init} is false, storage is not allocated yet and {@link #init()}
+	 * must be called before use (e.g. at the end of a subclass constructor).
+	 */
+	protected PackedStateStorage(StatePacker packer, boolean init) throws PrismException
+	{
+		this.packer = packer;
+		numWords = packer.getNumWords();
+		words = new long[numWords];
+		if (init) {
+			init();
+		}
+	}
+
+	/**
+	 * Allocate empty storage, discarding any states currently stored.
+	 * Throws an exception if the storage cannot be allocated.
+	 */
+	protected void init() throws PrismException
+	{
+		states = createStateList();
+		capacity = INITIAL_CAPACITY;
+		mask = capacity - 1;
+		allocateTable(capacity);
+		indexOfLastAdd = -1;
+	}
+
+	/**
+	 * Create an empty list in which to store the (packed) states.
+	 */
+	protected PackedStateList createStateList()
+	{
+		return new PackedStateList(packer);
+	}
+
+	/**
+	 * Allocate a new, empty (all zero) hash table with {@code capacity} slots,
+	 * replacing any existing one. Throws an exception if the table cannot be allocated.
+	 */
+	protected void allocateTable(int capacity) throws PrismException
+	{
+		table = new int[capacity];
+	}
+
+	/**
+	 * Read the entry in slot {@code slot} of the hash table.
+	 */
+	protected int readSlot(int slot)
+	{
+		return table[slot];
+	}
+
+	/**
+	 * Write the entry in slot {@code slot} of the hash table.
+	 */
+	protected void writeSlot(int slot, int value)
+	{
+		table[slot] = value;
+	}
+
+	/**
+	 * Get the {@code i}th state, decoded as a new State object.
+	 */
+	public State getState(int i)
+	{
+		return states.get(i);
+	}
+
+	/**
+	 * Get access to the list of (packed) states, ordered by index.
+	 */
+	public PackedStateList getStateList()
+	{
+		return states;
+	}
+
+	/**
+	 * Create a list of the (packed) states, ordered by permuted index.
+	 * Index in new list is permut[old_index].
+	 * @param permut Permutation to apply
+	 */
+	public PackedStateList toPermutedStateList(int permut[]) throws PrismException
+	{
+		return states.permute(permut);
+	}
+
+	/**
+	 * Pack {@code state} into {@code words} and return the hash table slot where it is,
+	 * or the (empty) slot where it should be added.
+	 * Throws an exception if the state cannot be packed (e.g. a variable is out of range).
+	 */
+	protected int findSlot(State state) throws PrismLangException
+	{
+		packer.pack(state, words, 0);
+		int slot = hash(words, 0) & mask;
+		while (true) {
+			int entry = readSlot(slot);
+			if (entry == 0 || states.equalsPacked(entry - 1, words, 0)) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	/**
+	 * Compute the hash code of a packed state.
+	 */
+	protected int hash(long words[], int offset)
+	{
+		long h = 0;
+		for (int w = 0; w < numWords; w++) {
+			h = (h ^ words[offset + w]) * 0x9E3779B97F4A7C15L;
+			h ^= h >>> 32;
+		}
+		return (int) h;
+	}
+
+	/**
+	 * Double the capacity of the hash table and re-insert all states.
+	 */
+	protected void grow() throws PrismException
+	{
+		if (capacity >= MAX_CAPACITY) {
+			throw new PrismException("Too many states for packed state storage");
+		}
+		capacity *= 2;
+		mask = capacity - 1;
+		allocateTable(capacity);
+		long tmp[] = new long[numWords];
+		int n = states.size();
+		for (int i = 0; i < n; i++) {
+			states.getPacked(i, tmp, 0);
+			int slot = hash(tmp, 0) & mask;
+			while (readSlot(slot) != 0) {
+				slot = (slot + 1) & mask;
+			}
+			writeSlot(slot, i + 1);
+		}
+	}
+
+	/**
+	 * Add a state, if not already stored, and return true if it was added.
+	 * Unlike {@link #add(State)}, this throws a checked exception if the state cannot be stored
+	 * (e.g. a variable is outside its declared range, or storage cannot be allocated).
+	 */
+	public boolean addState(State state) throws PrismException
+	{
+		int slot = findSlot(state);
+		int entry = readSlot(slot);
+		if (entry != 0) {
+			indexOfLastAdd = entry - 1;
+			return false;
+		}
+		indexOfLastAdd = states.addPacked(words, 0);
+		writeSlot(slot, indexOfLastAdd + 1);
+		if (states.size() > MAX_LOAD * capacity) {
+			grow();
+		}
+		return true;
+	}
+
+	// Methods for StateStorage interface
+
+	/**
+	 * Get the index of a state, or -1 if it is not stored.
+	 */
+	@Override
+	public int get(State state)
+	{
+		try {
+			return readSlot(findSlot(state)) - 1;
+		} catch (PrismLangException e) {
+			// States that cannot be packed are never stored
+			return -1;
+		}
+	}
+
+	/**
+	 * Add a state, as for {@link #addState(State)},
+	 * but throwing an unchecked exception if it cannot be stored.
+	 */
+	@Override
+	public boolean add(State state)
+	{
+		try {
+			return addState(state);
+		} catch (PrismException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+	}
+
+	@Override
+	public void clear()
+	{
+		try {
+			init();
+		} catch (PrismException e) {
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	@Override
+	public boolean contains(State state)
+	{
+		return get(state) != -1;
+	}
+
+	@Override
+	public int getIndexOfLastAdd()
+	{
+		return indexOfLastAdd;
+	}
+
+	@Override
+	public boolean isEmpty()
+	{
+		return states.isEmpty();
+	}
+
+	@Override
+	public int size()
+	{
+		return states.size();
+	}
+
+	/**
+	 * Get the set of map entries (state to index).
+	 * Note: this is not a view of the storage; a new map is built on each call.
+	 */
+	@Override
+	public Set<Map.Entry<State, Integer>> getEntrySet()
+	{
+		Map<State, Integer> map = new LinkedHashMap<State, Integer>();
+		int n = states.size();
+		for (int i = 0; i < n; i++) {
+			map.put(states.get(i), i);
+		}
+		return map.entrySet();
+	}
+
+	@Override
+	public ArrayList<State> toArrayList()
+	{
+		ArrayList<State> list = new ArrayList<State>(states.size());
+		toArrayList(list);
+		return list;
+	}
+
+	@Override
+	public void toArrayList(ArrayList<State> list)
+	{
+		list.addAll(states);
+	}
+
+	@Override
+	public ArrayList<State> toPermutedArrayList(int permut[])
+	{
+		ArrayList<State> list = new ArrayList<State>(states.size());
+		toPermutedArrayList(permut, list);
+		return list;
+	}
+
+	@Override
+	public void toPermutedArrayList(int permut[], ArrayList<State> list)
+	{
+		// Decode directly into permuted order (rather than via a permuted packed list)
+		int n = states.size();
+		State permuted[] = new State[n];
+		for (int i = 0; i < n; i++) {
+			permuted[permut[i]] = states.get(i);
+		}
+		list.addAll(Arrays.asList(permuted));
+	}
+
+	/**
+	 * Build sort permutation, mapping current indices to new indices
+	 * under the sorting order of states (the same order as {@link State#compareTo(State)}).
+	 */
+	@Override
+	public int[] buildSortingPermutation()
+	{
+		return states.buildSortingPermutation();
+	}
+
+	@Override
+	public String toString()
+	{
+		return states.toString();
+	}
+}
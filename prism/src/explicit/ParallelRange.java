@@ -0,0 +1,140 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import prism.PrismException;
+
+/**
+ * Helper for splitting a range of indices (typically, states) across several threads.
+ * <br>
+ * The range {@code 0}, ..., {@code n - 1} is divided into chunks, which are claimed
+ * dynamically by worker threads (one of which is the calling thread).
+ * Worker threads come from a shared pool of daemon threads, so that repeated calls
+ * (e.g. once per iteration of a numerical method) do not create new threads.
+ */
+public class ParallelRange
+{
+	/**
+	 * A task to be applied to a chunk of indices.
+	 */
+	@FunctionalInterface
+	public interface ChunkTask
+	{
+		/**
+		 * Process indices {@code lo}, ..., {@code hi - 1}.
+		 */
+		public void run(int lo, int hi) throws PrismException;
+	}
+
+	/** Shared pool of worker threads */
+	private static ExecutorService executor = null;
+
+	/**
+	 * Apply {@code task} to the indices {@code 0}, ..., {@code n - 1}, split into chunks
+	 * of (at most) {@code chunkSize} consecutive indices, using up to {@code numThreads} threads.
+	 * Each chunk except the last starts at a multiple of {@code chunkSize}.
+	 * If {@code numThreads} is 1, or there is only one chunk, everything is done in the calling thread.
+	 */
+	public static void forEachChunk(int numThreads, int n, int chunkSize, ChunkTask task) throws PrismException
+	{
+		int numChunks = (n + chunkSize - 1) / chunkSize;
+		int numWorkers = Math.min(numThreads, numChunks);
+		if (numWorkers <= 1) {
+			for (int lo = 0; lo < n; lo += chunkSize) {
+				task.run(lo, Math.min(lo + chunkSize, n));
+			}
+			return;
+		}
+		AtomicInteger next = new AtomicInteger(0);
+		ChunkTask worker = (unused1, unused2) -> {
+			int c;
+			while ((c = next.getAndIncrement()) < numChunks) {
+				int lo = c * chunkSize;
+				task.run(lo, Math.min(lo + chunkSize, n));
+			}
+		};
+		List<Future<Object>> futures = new ArrayList<Future<Object>>(numWorkers - 1);
+		ExecutorService executor = getExecutor();
+		for (int t = 1; t < numWorkers; t++) {
+			futures.add(executor.submit(() -> {
+				worker.run(0, 0);
+				return null;
+			}));
+		}
+		try {
+			worker.run(0, 0);
+			for (Future<Object> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new PrismException("Interrupted during parallel computation");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof PrismException) {
+				throw (PrismException) e.getCause();
+			}
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new PrismException("Error during parallel computation: " + e.getCause());
+		} finally {
+			// Stop any remaining work if one of the workers failed
+			next.set(numChunks);
+			for (Future<Object> future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException | ExecutionException e) {
+					// Already reported above
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the shared pool of worker threads, creating it if needed.
+	 */
+	private static synchronized ExecutorService getExecutor()
+	{
+		if (executor == null) {
+			executor = Executors.newCachedThreadPool(r -> {
+				Thread thread = new Thread(r, "PRISM explicit worker");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+}
@@ -26,30 +26,39 @@
 
 package explicit;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Stack;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import prism.PrismComponent;
-import common.IterableBitSet;
+import prism.PrismException;
+import prism.PrismSettings;
 
 /**
  * A class for storing and accessing the predecessor relation of an explicit Model.
  * <p>
  * As Model only provide easy access to successors of states,
  * the predecessor relation is computed and stored for subsequent efficient access.
+ * The relation is stored in compressed sparse row form, i.e., as two int arrays,
+ * and the predecessors of each state are stored in ascending order.
+ * For allocation-free access, use {@link #getNumPre(int)} and {@link #getPre(int, int)}.
  * <p>
  * Note: Naturally, if the model changes, the predecessor relation
  * has to be recomputed to remain accurate.
  */
 public class PredecessorRelation
 {
+	/** Number of source states per chunk when computing the relation in parallel */
+	private static final int PARALLEL_CHUNK_SIZE = 4096;
+
 	/**
-	 * pre[i] provides the list of predecessors of state with index i.
+	 * The predecessors of the state with index i are
+	 * pre[preStarts[i]], ..., pre[preStarts[i+1]-1].
 	 */
-	List<ArrayList<Integer>> pre;
+	int preStarts[];
+	int pre[];
 
 	/**
 	 * Constructor. Computes the predecessor relation for the given model
@@ -59,54 +68,160 @@ public class PredecessorRelation
 	 */
 	public PredecessorRelation(Model model)
 	{
-		pre = new ArrayList<ArrayList<Integer>>(model.getNumStates());
-		// construct the (empty) array list for all states
-		for (int s = 0; s < model.getNumStates(); s++) {
-			pre.add(s, new ArrayList<Integer>());
-		}
-
 		compute(model);
 	}
 
-	/** Compute the predecessor relation using getSuccessorsIterator. */
+	/**
+	 * Constructor. Computes the predecessor relation for the given model
+	 * by considering the successors of each state, using up to {@code numThreads} threads
+	 * (if the model supports concurrent access).
+	 *
+	 * @param model the Model
+	 * @param numThreads the number of threads to use
+	 */
+	public PredecessorRelation(Model model, int numThreads) throws PrismException
+	{
+		if (numThreads > 1 && model.getNumStates() >= 2 * PARALLEL_CHUNK_SIZE && IterationMethod.supportsConcurrentAccess(model)) {
+			computeParallel(model, numThreads);
+		} else {
+			compute(model);
+		}
+	}
+
+	/** Compute the predecessor relation using getSuccessors. */
 	private void compute(Model model)
 	{
 		int n = model.getNumStates();
 
+		// First pass: count the predecessors of each state
+		preStarts = new int[n + 1];
+		for (int s = 0; s < n; s++) {
+			// As distinct() guarantees that there are no duplicates
+			// in the successors, s will be counted (and, below, added)
+			// for each successor exactly once.
+			SuccessorsIterator it = model.getSuccessors(s).distinct();
+			while (it.hasNext()) {
+				preStarts[it.nextInt() + 1]++;
+			}
+		}
+		for (int s = 0; s < n; s++) {
+			preStarts[s + 1] += preStarts[s];
+		}
+
+		// Second pass: add the current state s to the predecessors of each successor
+		// (since states are processed in order, predecessors end up sorted)
+		pre = new int[preStarts[n]];
+		int fill[] = Arrays.copyOf(preStarts, n);
 		for (int s = 0; s < n; s++) {
-			Iterator<Integer> it = model.getSuccessorsIterator(s);
+			SuccessorsIterator it = model.getSuccessors(s).distinct();
 			while (it.hasNext()) {
-				Integer successor = it.next();
-
-				// Add the current state s to pre[successor].
-				//
-				// As getSuccessorsIterator guarantees that
-				// there are no duplicates in the successors,
-				// s will be added to successor exactly once.
-				pre.get(successor).add(s);
+				pre[fill[it.nextInt()]++] = s;
 			}
 		}
 	}
 
+	/**
+	 * Compute the predecessor relation using getSuccessors, in parallel.
+	 * The result is the same as for {@link #compute(Model)}.
+	 */
+	private void computeParallel(Model model, int numThreads) throws PrismException
+	{
+		int n = model.getNumStates();
+
+		// First pass: count the predecessors of each state
+		AtomicIntegerArray counts = new AtomicIntegerArray(n);
+		ParallelRange.forEachChunk(numThreads, n, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+			for (int s = lo; s < hi; s++) {
+				SuccessorsIterator it = model.getSuccessors(s).distinct();
+				while (it.hasNext()) {
+					counts.getAndIncrement(it.nextInt());
+				}
+			}
+		});
+		preStarts = new int[n + 1];
+		for (int s = 0; s < n; s++) {
+			preStarts[s + 1] = preStarts[s] + counts.get(s);
+		}
+
+		// Second pass: add the current state s to the predecessors of each successor,
+		// claiming slots via the counts (reused as fill positions)
+		pre = new int[preStarts[n]];
+		for (int s = 0; s < n; s++) {
+			counts.set(s, preStarts[s]);
+		}
+		ParallelRange.forEachChunk(numThreads, n, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+			for (int s = lo; s < hi; s++) {
+				SuccessorsIterator it = model.getSuccessors(s).distinct();
+				while (it.hasNext()) {
+					pre[counts.getAndIncrement(it.nextInt())] = s;
+				}
+			}
+		});
+
+		// Chunks are processed in arbitrary order, so sort the predecessors of each state
+		ParallelRange.forEachChunk(numThreads, n, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+			for (int t = lo; t < hi; t++) {
+				Arrays.sort(pre, preStarts[t], preStarts[t + 1]);
+			}
+		});
+	}
+
+	/**
+	 * Get the number of predecessor states of {@code s}.
+	 */
+	public int getNumPre(int s)
+	{
+		return preStarts[s + 1] - preStarts[s];
+	}
+
+	/**
+	 * Get the {@code i}th predecessor state of {@code s} (in ascending order),
+	 * for 0 &le; {@code i} &lt; {@code getNumPre(s)}.
+	 */
+	public int getPre(int s, int i)
+	{
+		return pre[preStarts[s] + i];
+	}
+
 	/**
 	 * Get an Iterable over the predecessor states of {@code s}.
 	 */
 	public Iterable<Integer> getPre(int s)
 	{
-		return pre.get(s);
+		return () -> getPredecessorsIterator(s);
 	}
 
 	/**
 	 * Get an Iterator over the predecessor states of {@code s}.
 	 */
-	public Iterator<Integer> getPredecessorsIterator(int s)
+	public PrimitiveIterator.OfInt getPredecessorsIterator(int s)
 	{
-		return getPre(s).iterator();
+		return new PrimitiveIterator.OfInt()
+		{
+			int k = preStarts[s];
+			final int end = preStarts[s + 1];
+
+			@Override
+			public boolean hasNext()
+			{
+				return k < end;
+			}
+
+			@Override
+			public int nextInt()
+			{
+				if (k >= end) {
+					throw new NoSuchElementException();
+				}
+				return pre[k++];
+			}
+		};
 	}
 
 	/**
 	 * Static constructor to compute the predecessor relation for the given model.
 	 * Logs diagnostic information to the log of the given PrismComponent.
+	 * The number of threads used is taken from the settings of the PrismComponent, if present.
 	 *
 	 * @param parent a PrismComponent (for obtaining the log and settings)
 	 * @param model the model for which the predecessor relation should be computed
@@ -119,7 +234,14 @@ public class PredecessorRelation
 		parent.getLog().print("Calculating predecessor relation for "+model.getModelType().fullName()+"...  ");
 		parent.getLog().flush();
 
-		PredecessorRelation pre = new PredecessorRelation(model);
+		int numThreads = parent.getSettings() == null ? 1 : parent.getSettings().getInteger(PrismSettings.PRISM_EXPLICIT_NUM_THREADS);
+		PredecessorRelation pre;
+		try {
+			pre = new PredecessorRelation(model, numThreads);
+		} catch (PrismException e) {
+			// only thrown by parallel computation: fall back to sequential computation
+			pre = new PredecessorRelation(model);
+		}
 		
 		timer = System.currentTimeMillis() - timer;
 		parent.getLog().println("done (" + timer / 1000.0 + " seconds)");
@@ -155,36 +277,30 @@ public class PredecessorRelation
 		result = (BitSet)target.clone();
 
 		// the stack of states whose predecessors have to be considered
-		Stack<Integer> todo = new Stack<Integer>();
+		// (each state is pushed at most once, since it is added to result when pushed)
+		int todo[] = new int[preStarts.length - 1];
+		int todoSize = 0;
 
 		// initial todo: all the target states
-		for (Integer s : IterableBitSet.getSetBits(target)) {
-			todo.add(s);
-		};
-
-		// the set of states that are finished
-		BitSet done = new BitSet();
-
-		while (!todo.isEmpty()) {
-			int s = todo.pop();
-			// already considered?
-			if (done.get(s)) continue;
+		for (int s = target.nextSetBit(0); s >= 0; s = target.nextSetBit(s + 1)) {
+			todo[todoSize++] = s;
+		}
 
-			done.set(s);
+		while (todoSize > 0) {
+			int s = todo[--todoSize];
 
 			// for each predecessor in the graph
-			for (int p : getPre(s)) {
+			for (int k = preStarts[s], end = preStarts[s + 1]; k < end; k++) {
+				int p = pre[k];
 				if (absorbing != null && absorbing.get(p)) {
 					// predecessor is absorbing, thus the edge is considered to not exist
 					continue;
 				}
-				if (remain == null || remain.get(p)) {
+				if ((remain == null || remain.get(p)) && !result.get(p)) {
 					// can reach result (and is in remain)
 					result.set(p);
-					if (!done.get(p)) {
-						// add to stack
-						todo.add(p);
-					}
+					// add to stack
+					todo[todoSize++] = p;
 				}
 			}
 		}
@@ -192,4 +308,37 @@ public class PredecessorRelation
 		return result;
 	}
 
+	/**
+	 * Computes the set Pre*(target), as for {@link #calculatePreStar(BitSet, BitSet, BitSet)},
+	 * but via a frontier-driven breadth-first search using up to {@code numThreads} threads
+	 * (see {@link FrontierSearch}). The result is the same.
+
+	 * @param remain restriction on the states that may occur
+	 *               on the path to target, {@code null} = all states
+	 * @param target The set of target states
+	 * @param absorbing (optional) set of states that should be considered to be absorbing,
+	 *               i.e., their outgoing edges are ignored, {@code null} = no states
+	 * @param numThreads the number of threads to use
+	 * @return the set of states Pre*(target)
+	 */
+	public BitSet calculatePreStar(BitSet remain, BitSet target, BitSet absorbing, int numThreads) throws PrismException
+	{
+		if (numThreads <= 1) {
+			return calculatePreStar(remain, target, absorbing);
+		}
+		int n = preStarts.length - 1;
+		// candidates: states in remain that are not absorbing
+		BitSet candidates = new BitSet(n);
+		if (remain == null) {
+			candidates.set(0, n);
+		} else {
+			candidates.or(remain);
+		}
+		if (absorbing != null) {
+			candidates.andNot(absorbing);
+		}
+		// any candidate that is a predecessor of the frontier can reach target
+		return new FrontierSearch(this, n, numThreads).search(target, candidates, null, (s, round) -> true);
+	}
+
 }
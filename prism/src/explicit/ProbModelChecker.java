@@ -89,6 +89,14 @@ public class ProbModelChecker extends NonProbModelChecker
 	protected SolnMethod solnMethod = SolnMethod.VALUE_ITERATION;
 	// Is non-convergence of an iterative method an error?
 	protected boolean errorOnNonConverge = true;
+	// Preconditioner for Krylov-subspace linear equation solvers
+	protected KrylovPreconditioner krylovPreconditioner = KrylovPreconditioner.JACOBI;
+	// Number of iterations before a restart of GMRES
+	protected int gmresRestart = 30;
+	// Max size of (DTMC) SCCs to solve directly in topological value iteration (0 = never)
+	protected int topologicalDirectMaxSCC = 0;
+	// Reordering of states before numerical solution
+	protected StateReordering.Order stateReordering = StateReordering.Order.NONE;
 	// Adversary export
 	protected boolean exportAdv = false;
 	protected String exportAdvFilename;
@@ -101,7 +109,7 @@ public class ProbModelChecker extends NonProbModelChecker
 
 	// Method used for numerical solution
 	public enum LinEqMethod {
-		POWER, JACOBI, GAUSS_SEIDEL, BACKWARDS_GAUSS_SEIDEL, JOR, SOR, BACKWARDS_SOR;
+		POWER, JACOBI, GAUSS_SEIDEL, BACKWARDS_GAUSS_SEIDEL, JOR, SOR, BACKWARDS_SOR, OPTIMISTIC_VALUE_ITERATION, GMRES, BICGSTAB;
 		public String fullName()
 		{
 			switch (this) {
@@ -119,6 +127,35 @@ public class ProbModelChecker extends NonProbModelChecker
 				return "SOR";
 			case BACKWARDS_SOR:
 				return "Backwards SOR";
+			case OPTIMISTIC_VALUE_ITERATION:
+				return "Optimistic value iteration";
+			case GMRES:
+				return "GMRES";
+			case BICGSTAB:
+				return "BiCGSTAB";
+			default:
+				return this.toString();
+			}
+		}
+		/** Is this a Krylov-subspace method? */
+		public boolean isKrylov()
+		{
+			return this == GMRES || this == BICGSTAB;
+		}
+	};
+
+	// Preconditioner for Krylov-subspace methods
+	public enum KrylovPreconditioner {
+		NONE, JACOBI, ILU0;
+		public String fullName()
+		{
+			switch (this) {
+			case NONE:
+				return "None";
+			case JACOBI:
+				return "Jacobi";
+			case ILU0:
+				return "ILU(0)";
 			default:
 				return this.toString();
 			}
@@ -127,7 +164,7 @@ public class ProbModelChecker extends NonProbModelChecker
 
 	// Method used for solving MDPs
 	public enum MDPSolnMethod {
-		VALUE_ITERATION, GAUSS_SEIDEL, POLICY_ITERATION, MODIFIED_POLICY_ITERATION, LINEAR_PROGRAMMING;
+		VALUE_ITERATION, GAUSS_SEIDEL, POLICY_ITERATION, MODIFIED_POLICY_ITERATION, LINEAR_PROGRAMMING, OPTIMISTIC_VALUE_ITERATION, PRIORITISED_VALUE_ITERATION;
 		public String fullName()
 		{
 			switch (this) {
@@ -141,6 +178,10 @@ public class ProbModelChecker extends NonProbModelChecker
 				return "Modified policy iteration";
 			case LINEAR_PROGRAMMING:
 				return "Linear programming";
+			case OPTIMISTIC_VALUE_ITERATION:
+				return "Optimistic value iteration";
+			case PRIORITISED_VALUE_ITERATION:
+				return "Prioritised value iteration";
 			default:
 				return this.toString();
 			}
@@ -188,6 +229,12 @@ public class ProbModelChecker extends NonProbModelChecker
 				setLinEqMethod(LinEqMethod.SOR);
 			} else if (s.equals("Backwards SOR")) {
 				setLinEqMethod(LinEqMethod.BACKWARDS_SOR);
+			} else if (s.equals("Optimistic value iteration")) {
+				setLinEqMethod(LinEqMethod.OPTIMISTIC_VALUE_ITERATION);
+			} else if (s.equals("GMRES")) {
+				setLinEqMethod(LinEqMethod.GMRES);
+			} else if (s.equals("BiCGSTAB")) {
+				setLinEqMethod(LinEqMethod.BICGSTAB);
 			} else {
 				throw new PrismNotSupportedException("Explicit engine does not support linear equation solution method \"" + s + "\"");
 			}
@@ -203,9 +250,41 @@ public class ProbModelChecker extends NonProbModelChecker
 				setMDPSolnMethod(MDPSolnMethod.MODIFIED_POLICY_ITERATION);
 			} else if (s.equals("Linear programming")) {
 				setMDPSolnMethod(MDPSolnMethod.LINEAR_PROGRAMMING);
+			} else if (s.equals("Optimistic value iteration")) {
+				setMDPSolnMethod(MDPSolnMethod.OPTIMISTIC_VALUE_ITERATION);
+			} else if (s.equals("Prioritised value iteration")) {
+				setMDPSolnMethod(MDPSolnMethod.PRIORITISED_VALUE_ITERATION);
 			} else {
 				throw new PrismNotSupportedException("Explicit engine does not support MDP solution method \"" + s + "\"");
 			}
+			// PRISM_KRYLOV_PRECONDITIONER
+			s = settings.getString(PrismSettings.PRISM_KRYLOV_PRECONDITIONER);
+			if (s.equals("None")) {
+				setKrylovPreconditioner(KrylovPreconditioner.NONE);
+			} else if (s.equals("Jacobi")) {
+				setKrylovPreconditioner(KrylovPreconditioner.JACOBI);
+			} else if (s.equals("ILU(0)")) {
+				setKrylovPreconditioner(KrylovPreconditioner.ILU0);
+			} else {
+				throw new PrismNotSupportedException("Unknown Krylov preconditioner \"" + s + "\"");
+			}
+			// PRISM_GMRES_RESTART
+			setGMRESRestart(settings.getInteger(PrismSettings.PRISM_GMRES_RESTART));
+			// PRISM_TOPOLOGICAL_DIRECT_MAX
+			setTopologicalDirectMaxSCC(settings.getInteger(PrismSettings.PRISM_TOPOLOGICAL_DIRECT_MAX));
+			// PRISM_EXPLICIT_REORDER
+			s = settings.getString(PrismSettings.PRISM_EXPLICIT_REORDER);
+			if (s.equals("None")) {
+				setStateReordering(StateReordering.Order.NONE);
+			} else if (s.equals("BFS")) {
+				setStateReordering(StateReordering.Order.BFS);
+			} else if (s.equals("RCM")) {
+				setStateReordering(StateReordering.Order.RCM);
+			} else if (s.equals("SCC")) {
+				setStateReordering(StateReordering.Order.SCC);
+			} else {
+				throw new PrismNotSupportedException("Unknown state reordering \"" + s + "\"");
+			}
 			// PRISM_TERM_CRIT
 			s = settings.getString(PrismSettings.PRISM_TERM_CRIT);
 			if (s.equals("Absolute")) {
@@ -262,6 +341,10 @@ public class ProbModelChecker extends NonProbModelChecker
 		setValIterDir(other.getValIterDir());
 		setSolnMethod(other.getSolnMethod());
 		setErrorOnNonConverge(other.geterrorOnNonConverge());
+		setKrylovPreconditioner(other.getKrylovPreconditioner());
+		setGMRESRestart(other.getGMRESRestart());
+		setTopologicalDirectMaxSCC(other.getTopologicalDirectMaxSCC());
+		setStateReordering(other.getStateReordering());
 	}
 
 	/**
@@ -401,6 +484,39 @@ public class ProbModelChecker extends NonProbModelChecker
 		this.errorOnNonConverge = errorOnNonConverge;
 	}
 
+	/**
+	 * Set preconditioner for Krylov-subspace linear equation solvers.
+	 */
+	public void setKrylovPreconditioner(KrylovPreconditioner krylovPreconditioner)
+	{
+		this.krylovPreconditioner = krylovPreconditioner;
+	}
+
+	/**
+	 * Set number of iterations before a restart of GMRES.
+	 */
+	public void setGMRESRestart(int gmresRestart)
+	{
+		this.gmresRestart = gmresRestart;
+	}
+
+	/**
+	 * Set the maximum size of SCCs (of DTMCs) that are solved directly,
+	 * rather than by iteration, in topological value iteration (0 = never).
+	 */
+	public void setTopologicalDirectMaxSCC(int topologicalDirectMaxSCC)
+	{
+		this.topologicalDirectMaxSCC = topologicalDirectMaxSCC;
+	}
+
+	/**
+	 * Set the reordering of states applied before numerical solution.
+	 */
+	public void setStateReordering(StateReordering.Order stateReordering)
+	{
+		this.stateReordering = stateReordering;
+	}
+
 	public void setExportAdv(boolean exportAdv)
 	{
 		this.exportAdv = exportAdv;
@@ -481,6 +597,63 @@ public class ProbModelChecker extends NonProbModelChecker
 		return errorOnNonConverge;
 	}
 
+	/**
+	 * Get preconditioner for Krylov-subspace linear equation solvers.
+	 */
+	public KrylovPreconditioner getKrylovPreconditioner()
+	{
+		return krylovPreconditioner;
+	}
+
+	/**
+	 * Get number of iterations before a restart of GMRES.
+	 */
+	public int getGMRESRestart()
+	{
+		return gmresRestart;
+	}
+
+	/**
+	 * Get the maximum size of SCCs (of DTMCs) that are solved directly,
+	 * rather than by iteration, in topological value iteration (0 = never).
+	 */
+	public int getTopologicalDirectMaxSCC()
+	{
+		return topologicalDirectMaxSCC;
+	}
+
+	/**
+	 * Get the reordering of states applied before numerical solution.
+	 */
+	public StateReordering.Order getStateReordering()
+	{
+		return stateReordering;
+	}
+
+	/**
+	 * Compute the reordering of the states of a model given by the current setting
+	 * (see {@link #setStateReordering(StateReordering.Order)}), which should not be {@code NONE}.
+	 */
+	protected StateReordering computeStateReordering(Model model) throws PrismException
+	{
+		long timer = System.currentTimeMillis();
+		StateReordering reordering = StateReordering.compute(this, model, stateReordering);
+		timer = System.currentTimeMillis() - timer;
+		mainLog.println("State reordering (" + stateReordering.fullName() + ") took " + timer / 1000.0 + " seconds.");
+		return reordering;
+	}
+
+	/**
+	 * Log the bandwidth of a model's transition matrix before and after reordering of states
+	 * (in verbose mode only, since this needs an extra pass over both models).
+	 */
+	protected void printReorderedBandwidth(Model original, Model reordered)
+	{
+		if (verbosity >= 10) {
+			mainLog.println("Bandwidth: " + StateReordering.computeBandwidth(original) + " (original), " + StateReordering.computeBandwidth(reordered) + " (reordered)");
+		}
+	}
+
 	// Model checking functions
 
 	@Override
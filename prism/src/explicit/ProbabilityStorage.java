@@ -0,0 +1,367 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+
+/**
+ * Immutable storage for the probabilities of the transitions of a sparse model
+ * (see {@link DTMCSparse}, {@link MDPSparse}), indexed like the column indices.
+ * <br>
+ * Besides plain {@code double}s, probabilities can be stored more compactly:
+ * <ul>
+ * <li> {@link Type#DICTIONARY}: each distinct value is stored once, in a small dictionary,
+ *      and each transition stores a 1-byte (up to 256 distinct values) or 2-byte (up to 65536)
+ *      index into it. This is exact. If there are too many distinct values, doubles are used.
+ * <li> {@link Type#FLOAT}: each probability is stored as a {@code float}. This is not exact:
+ *      each probability has a relative error of at most 2^-24 (about 6e-8), so distributions
+ *      may sum to 1 only up to this error. Numerical results should then only be
+ *      trusted up to a correspondingly larger error.
+ * </ul>
+ */
+public abstract class ProbabilityStorage
+{
+	/** How to store probabilities */
+	public enum Type {
+		DOUBLE, FLOAT, DICTIONARY
+	};
+
+	/**
+	 * Get the probability for the {@code i}th transition.
+	 */
+	public abstract double get(int i);
+
+	/**
+	 * Get the number of transitions.
+	 */
+	public abstract int size();
+
+	/**
+	 * Get the way in which the probabilities are actually stored.
+	 */
+	public abstract Type getType();
+
+	/**
+	 * Get (an estimate of) the number of bytes used for storage.
+	 */
+	public abstract long getMemoryBytes();
+
+	/**
+	 * Get the underlying array if the probabilities are stored as plain doubles, or null otherwise.
+	 * This allows performance-critical loops to bypass {@link #get(int)}.
+	 */
+	public double[] getDoubleArray()
+	{
+		return null;
+	}
+
+	/**
+	 * Get the probabilities as a (new) array of doubles.
+	 */
+	public double[] toArray()
+	{
+		double array[] = new double[size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = get(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Create storage for the given probabilities, of the given type.
+	 * For {@code DOUBLE}, the array is not copied.
+	 * For {@code DICTIONARY}, doubles are used if there are too many distinct values.
+	 */
+	public static ProbabilityStorage create(double probs[], Type type)
+	{
+		switch (type) {
+		case FLOAT:
+			return new FloatStorage(probs);
+		case DICTIONARY:
+			ProbabilityStorage dict = createDictionary(probs);
+			return dict != null ? dict : new DoubleStorage(probs);
+		case DOUBLE:
+		default:
+			return new DoubleStorage(probs);
+		}
+	}
+
+	/**
+	 * Create dictionary-based storage for the given probabilities,
+	 * or return null if there are too many distinct values.
+	 */
+	private static ProbabilityStorage createDictionary(double probs[])
+	{
+		// Build dictionary (keyed by bit pattern, to keep e.g. -0.0 and 0.0 apart)
+		ValueDictionary dict = new ValueDictionary(CharDictionaryStorage.MAX_SIZE);
+		for (double p : probs) {
+			if (dict.indexOf(p, true) < 0) {
+				return null;
+			}
+		}
+		double values[] = dict.getValues();
+		// Store indices
+		if (values.length <= ByteDictionaryStorage.MAX_SIZE) {
+			byte index[] = new byte[probs.length];
+			for (int i = 0; i < probs.length; i++) {
+				index[i] = (byte) dict.indexOf(probs[i], false);
+			}
+			return new ByteDictionaryStorage(values, index);
+		} else {
+			char index[] = new char[probs.length];
+			for (int i = 0; i < probs.length; i++) {
+				index[i] = (char) dict.indexOf(probs[i], false);
+			}
+			return new CharDictionaryStorage(values, index);
+		}
+	}
+
+	/**
+	 * Map from (bit patterns of) doubles to consecutive indices, for at most {@code maxSize} values,
+	 * stored in an open-addressing hash table of primitives (so no boxing is needed).
+	 */
+	private static final class ValueDictionary
+	{
+		private final long keys[];
+		private final int indices[];
+		private final int mask;
+		private final int maxSize;
+		private double values[] = new double[256];
+		private int size = 0;
+
+		ValueDictionary(int maxSize)
+		{
+			// Table size: power of 2, at most half full
+			int capacity = Integer.highestOneBit(2 * maxSize - 1) << 1;
+			keys = new long[capacity];
+			indices = new int[capacity];
+			Arrays.fill(indices, -1);
+			mask = capacity - 1;
+			this.maxSize = maxSize;
+		}
+
+		/**
+		 * Get the index of value {@code d}, adding it if not present and {@code add} is true.
+		 * Returns -1 if {@code d} is not present and cannot be added.
+		 */
+		int indexOf(double d, boolean add)
+		{
+			long key = Double.doubleToRawLongBits(d);
+			long h = key * 0x9E3779B97F4A7C15L;
+			int slot = (int) (h ^ (h >>> 32)) & mask;
+			while (indices[slot] >= 0) {
+				if (keys[slot] == key) {
+					return indices[slot];
+				}
+				slot = (slot + 1) & mask;
+			}
+			if (!add || size == maxSize) {
+				return -1;
+			}
+			if (size == values.length) {
+				values = Arrays.copyOf(values, 2 * values.length);
+			}
+			values[size] = d;
+			keys[slot] = key;
+			indices[slot] = size;
+			return size++;
+		}
+
+		/**
+		 * Get the values in the dictionary, ordered by index.
+		 */
+		double[] getValues()
+		{
+			return Arrays.copyOf(values, size);
+		}
+	}
+
+	/**
+	 * Probabilities stored as doubles.
+	 */
+	public static final class DoubleStorage extends ProbabilityStorage
+	{
+		private final double probs[];
+
+		public DoubleStorage(double probs[])
+		{
+			this.probs = probs;
+		}
+
+		@Override
+		public double get(int i)
+		{
+			return probs[i];
+		}
+
+		@Override
+		public double[] getDoubleArray()
+		{
+			return probs;
+		}
+
+		@Override
+		public int size()
+		{
+			return probs.length;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.DOUBLE;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			return 8L * probs.length;
+		}
+	}
+
+	/**
+	 * Probabilities stored as floats (rounded to nearest).
+	 */
+	public static final class FloatStorage extends ProbabilityStorage
+	{
+		private final float probs[];
+
+		public FloatStorage(double probs[])
+		{
+			this.probs = new float[probs.length];
+			for (int i = 0; i < probs.length; i++) {
+				this.probs[i] = (float) probs[i];
+			}
+		}
+
+		@Override
+		public double get(int i)
+		{
+			return probs[i];
+		}
+
+		@Override
+		public int size()
+		{
+			return probs.length;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.FLOAT;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			return 4L * probs.length;
+		}
+	}
+
+	/**
+	 * Probabilities stored as 1-byte indices into a dictionary of (at most 256) values.
+	 */
+	public static final class ByteDictionaryStorage extends ProbabilityStorage
+	{
+		static final int MAX_SIZE = 256;
+
+		private final double values[];
+		private final byte index[];
+
+		ByteDictionaryStorage(double values[], byte index[])
+		{
+			this.values = values;
+			this.index = index;
+		}
+
+		@Override
+		public double get(int i)
+		{
+			return values[index[i] & 0xFF];
+		}
+
+		@Override
+		public int size()
+		{
+			return index.length;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.DICTIONARY;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			return index.length + 8L * values.length;
+		}
+	}
+
+	/**
+	 * Probabilities stored as 2-byte indices into a dictionary of (at most 65536) values.
+	 */
+	public static final class CharDictionaryStorage extends ProbabilityStorage
+	{
+		static final int MAX_SIZE = 65536;
+
+		private final double values[];
+		private final char index[];
+
+		CharDictionaryStorage(double values[], char index[])
+		{
+			this.values = values;
+			this.index = index;
+		}
+
+		@Override
+		public double get(int i)
+		{
+			return values[index[i]];
+		}
+
+		@Override
+		public int size()
+		{
+			return index.length;
+		}
+
+		@Override
+		public Type getType()
+		{
+			return Type.DICTIONARY;
+		}
+
+		@Override
+		public long getMemoryBytes()
+		{
+			return 2L * index.length + 8L * values.length;
+		}
+	}
+}
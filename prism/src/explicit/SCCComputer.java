@@ -63,8 +63,8 @@ public abstract class SCCComputer extends PrismComponent
 	 */
 	public static SCCComputer createSCCComputer(PrismComponent parent, Model model, SCCConsumer consumer) throws PrismException
 	{
-		// Only one algorithm implemented currently
-		return new SCCComputerTarjan(parent, model, consumer);
+		// Iterative Tarjan, or parallel forward-backward for large models if there are multiple threads
+		return new SCCComputerParallel(parent, model, consumer);
 	}
 
 	/**
@@ -0,0 +1,669 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import prism.PrismComponent;
+import prism.PrismException;
+import prism.PrismSettings;
+
+/**
+ * SCC computation for a Model object, avoiding recursion and per-state objects.
+ * <br>
+ * By default, an iterative version of Tarjan's algorithm is used, which reports SCCs
+ * in the same order as the standard recursive formulation, i.e., in reverse topological order.
+ * <br>
+ * For large models, if several threads are available (see {@code -threads}),
+ * a parallel algorithm is used instead: the graph is split repeatedly by
+ * forward/backward reachability from a pivot state (the "forward-backward" algorithm),
+ * with the parts processed in parallel. Before each split, states that can not be part
+ * of a non-trivial SCC are trimmed. Small parts, and parts that do not split well
+ * (e.g. chains of SCCs), are handled by Tarjan's algorithm.
+ * Finally, the SCCs are sorted into reverse topological order before being reported,
+ * so the consumer sees SCCs in an order that is valid for Tarjan's algorithm too.
+ */
+public class SCCComputerParallel extends SCCComputer
+{
+	/** Minimum number of states for which the parallel algorithm is used */
+	public static final int PARALLEL_MIN_STATES = 32768;
+	/** Maximum number of states in a part of the graph that is handled by Tarjan's algorithm */
+	private static final int SEQUENTIAL_MAX_STATES = 4096;
+	/** Number of states per chunk for parallel loops over all states */
+	private static final int PARALLEL_CHUNK_SIZE = 4096;
+
+	/* The model to compute (B)SCCs for */
+	private Model model;
+	/* Number of nodes (model states) */
+	private int numNodes;
+	/* Number of threads to use */
+	private int numThreads;
+
+	/** Should we filter trivial SCCs? */
+	private boolean filterTrivialSCCs;
+	private IntPredicate restrict;
+
+	/* Tarjan: index of each node in DFS order (-1 = not yet visited) */
+	private int index[];
+	/* Tarjan: lowlink of each node */
+	private int lowlink[];
+	/* SCC (index) of each node (-1 = not yet assigned); visited but unassigned nodes are on Tarjan's stack */
+	private int sccOf[];
+	/* Parallel algorithm: the part of the graph each node is in (-1 = not in any part) */
+	private int colour[];
+	/* Parallel algorithm: counter for new SCC indices */
+	private AtomicInteger sccCount;
+
+	/**
+	 * Build (B)SCC computer for a given model.
+	 */
+	public SCCComputerParallel(PrismComponent parent, Model model, SCCConsumer consumer) throws PrismException
+	{
+		super(parent, consumer);
+		this.model = model;
+		this.numNodes = model.getNumStates();
+		this.numThreads = settings == null ? 1 : settings.getInteger(PrismSettings.PRISM_EXPLICIT_NUM_THREADS);
+	}
+
+	// Methods for SCCComputer interface
+
+	@Override
+	public void computeSCCs(boolean filterTrivialSCCs, IntPredicate restrict) throws PrismException
+	{
+		this.filterTrivialSCCs = filterTrivialSCCs;
+		consumer.notifyStart(model);
+		this.restrict = restrict;
+		index = new int[numNodes];
+		lowlink = new int[numNodes];
+		sccOf = new int[numNodes];
+		Arrays.fill(index, -1);
+		Arrays.fill(sccOf, -1);
+		if (numThreads > 1 && numNodes >= PARALLEL_MIN_STATES && IterationMethod.supportsConcurrentAccess(model)) {
+			computeSCCsParallel();
+		} else {
+			TarjanSearch search = new TarjanSearch(true);
+			for (int i = 0; i < numNodes; i++) {
+				if (restrict != null && !restrict.test(i))
+					continue; // skip state if not one of the relevant states
+				if (index[i] == -1)
+					search.search(i, 0);
+			}
+		}
+		index = lowlink = sccOf = colour = null;
+		consumer.notifyDone();
+	}
+
+	/** Is state {@code s} in the part of the graph currently considered ({@code c} for the parallel algorithm)? */
+	private boolean inGraph(int s, int c)
+	{
+		if (colour != null) {
+			return colour[s] == c;
+		}
+		return restrict == null || restrict.test(s);
+	}
+
+	// Tarjan
+
+	/**
+	 * Workspace for an iterative depth-first search of Tarjan's algorithm.
+	 * Different searches can run concurrently, as long as they consider disjoint parts of the graph.
+	 */
+	private class TarjanSearch
+	{
+		/** Report SCCs to the consumer (otherwise, only store them in {@code sccOf}) */
+		private final boolean report;
+		/** Next DFS index */
+		private int nextIndex = 0;
+		/** Tarjan's stack */
+		private int stack[] = new int[16];
+		private int stackSize = 0;
+		/** Call stack: states, their successor iterators, and whether they have a self-loop */
+		private int callStates[] = new int[16];
+		private SuccessorsIterator callIterators[] = new SuccessorsIterator[16];
+		private boolean callSelfloops[] = new boolean[16];
+		private int callSize = 0;
+
+		public TarjanSearch(boolean report)
+		{
+			this.report = report;
+		}
+
+		/**
+		 * Search from {@code root}, restricted to the part {@code c} of the graph, and handle the SCCs found.
+		 */
+		public void search(int root, int c) throws PrismException
+		{
+			visit(root);
+			while (callSize > 0) {
+				int top = callSize - 1;
+				int v = callStates[top];
+				SuccessorsIterator it = callIterators[top];
+				boolean descended = false;
+				while (it.hasNext()) {
+					int e = it.nextInt();
+					if (e == v) {
+						callSelfloops[top] = true;
+						continue;
+					}
+					if (!inGraph(e, c)) {
+						continue; // ignore edge to state that is not relevant
+					}
+					if (index[e] == -1) {
+						visit(e);
+						descended = true;
+						break;
+					} else if (sccOf[e] == -1) {
+						// on the stack
+						lowlink[v] = Math.min(lowlink[v], index[e]);
+					}
+				}
+				if (descended) {
+					continue;
+				}
+				// all successors of v done
+				boolean hadSelfloop = callSelfloops[top];
+				callIterators[top] = null;
+				callSize--;
+				if (callSize > 0) {
+					int parent = callStates[callSize - 1];
+					lowlink[parent] = Math.min(lowlink[parent], lowlink[v]);
+				}
+				if (lowlink[v] == index[v]) {
+					popSCC(v, hadSelfloop);
+				}
+			}
+		}
+
+		/** Start visiting state {@code v} */
+		private void visit(int v)
+		{
+			index[v] = nextIndex;
+			lowlink[v] = nextIndex;
+			nextIndex++;
+			if (stackSize == stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			stack[stackSize++] = v;
+			if (callSize == callStates.length) {
+				callStates = Arrays.copyOf(callStates, 2 * callStates.length);
+				callIterators = Arrays.copyOf(callIterators, 2 * callIterators.length);
+				callSelfloops = Arrays.copyOf(callSelfloops, 2 * callSelfloops.length);
+			}
+			callStates[callSize] = v;
+			callIterators[callSize] = model.getSuccessors(v);
+			callSelfloops[callSize] = false;
+			callSize++;
+		}
+
+		/** Pop the SCC with root {@code v} from the stack */
+		private void popSCC(int v, boolean hadSelfloop) throws PrismException
+		{
+			if (!report) {
+				int scc = sccCount.getAndIncrement();
+				int n;
+				do {
+					n = stack[--stackSize];
+					sccOf[n] = scc;
+				} while (n != v);
+				return;
+			}
+			// this is a singleton SCC if the top of the stack equals v
+			boolean singletonSCC = stack[stackSize - 1] == v;
+			if (singletonSCC && filterTrivialSCCs && !hadSelfloop) {
+				// singleton SCC & no selfloop -> trivial
+				stackSize--;
+				sccOf[v] = 0;
+				return;
+			}
+			int n;
+			consumer.notifyStartSCC();
+			do {
+				n = stack[--stackSize];
+				sccOf[n] = 0;
+				consumer.notifyStateInSCC(n);
+			} while (n != v);
+			consumer.notifyEndSCC();
+		}
+	}
+
+	// Parallel algorithm
+
+	/**
+	 * Compute the SCCs with the parallel algorithm and report them to the consumer.
+	 */
+	private void computeSCCsParallel() throws PrismException
+	{
+		PredecessorRelation pre = model.getPredecessorRelation(this, false);
+		colour = new int[numNodes];
+		sccCount = new AtomicInteger(0);
+
+		// Relevant states form part 0 of the graph
+		int numRelevant = 0;
+		for (int s = 0; s < numNodes; s++) {
+			if (restrict == null || restrict.test(s)) {
+				colour[s] = 0;
+				numRelevant++;
+			} else {
+				colour[s] = -1;
+			}
+		}
+		int states[] = new int[numRelevant];
+		numRelevant = 0;
+		for (int s = 0; s < numNodes; s++) {
+			if (colour[s] == 0) {
+				states[numRelevant++] = s;
+			}
+		}
+
+		// Trim states without predecessors or successors in the graph (ignoring self-loops)
+		int inDegree[] = new int[numNodes];
+		int outDegree[] = new int[numNodes];
+		int remaining[] = trim(states, 0, pre, inDegree, outDegree, numThreads);
+
+		// Forward-backward decomposition of the rest
+		int fwd[] = new int[numNodes];
+		int bwd[] = new int[numNodes];
+		Arrays.fill(fwd, -1);
+		Arrays.fill(bwd, -1);
+		AtomicInteger nextColour = new AtomicInteger(1);
+		ForkJoinPool pool = new ForkJoinPool(numThreads);
+		try {
+			pool.invoke(new ForwardBackwardTask(remaining, 0, true, fwd, bwd, inDegree, outDegree, pre, nextColour));
+		} catch (RuntimeException e) {
+			if (e.getCause() instanceof PrismException) {
+				throw (PrismException) e.getCause();
+			}
+			throw e;
+		} finally {
+			pool.shutdown();
+		}
+		fwd = bwd = inDegree = outDegree = null;
+
+		reportInTopologicalOrder(pre);
+	}
+
+	/**
+	 * Repeatedly remove states from part {@code c} of the graph, consisting of the states {@code states},
+	 * that have no predecessors or no successors in it (other than themselves).
+	 * Each of them forms an SCC on its own. Returns the remaining states (in the same order).
+	 * <br>
+	 * {@code inDegree} and {@code outDegree} are workspace, of which only the entries
+	 * for {@code states} are used, so disjoint parts can be trimmed concurrently.
+	 */
+	private int[] trim(int states[], int c, PredecessorRelation pre, int inDegree[], int outDegree[], int threads) throws PrismException
+	{
+		ParallelRange.forEachChunk(threads, states.length, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+			for (int k = lo; k < hi; k++) {
+				int s = states[k];
+				inDegree[s] = outDegree[s] = 0;
+				for (int i = 0, numPre = pre.getNumPre(s); i < numPre; i++) {
+					int p = pre.getPre(s, i);
+					if (p != s && colour[p] == c) {
+						inDegree[s]++;
+					}
+				}
+				SuccessorsIterator it = model.getSuccessors(s).distinct();
+				while (it.hasNext()) {
+					int e = it.nextInt();
+					if (e != s && colour[e] == c) {
+						outDegree[s]++;
+					}
+				}
+			}
+		});
+		int queue[] = new int[states.length];
+		int head = 0, tail = 0;
+		for (int s : states) {
+			if (inDegree[s] == 0 || outDegree[s] == 0) {
+				colour[s] = -1;
+				queue[tail++] = s;
+			}
+		}
+		if (tail == 0) {
+			return states;
+		}
+		while (head < tail) {
+			int s = queue[head++];
+			sccOf[s] = sccCount.getAndIncrement();
+			SuccessorsIterator it = model.getSuccessors(s).distinct();
+			while (it.hasNext()) {
+				int e = it.nextInt();
+				if (e != s && colour[e] == c && --inDegree[e] == 0) {
+					colour[e] = -1;
+					queue[tail++] = e;
+				}
+			}
+			for (int i = 0, numPre = pre.getNumPre(s); i < numPre; i++) {
+				int p = pre.getPre(s, i);
+				if (p != s && colour[p] == c && --outDegree[p] == 0) {
+					colour[p] = -1;
+					queue[tail++] = p;
+				}
+			}
+		}
+		// Collect the remaining states
+		int numRemaining = 0;
+		for (int s : states) {
+			if (colour[s] == c) {
+				queue[numRemaining++] = s;
+			}
+		}
+		return Arrays.copyOf(queue, numRemaining);
+	}
+
+	/**
+	 * Task for the forward-backward algorithm on a part of the graph,
+	 * i.e., the states {@code states}, all of which have colour {@code c}.
+	 * <br>
+	 * Each step trims the part and splits off the SCC of a pivot state, leaving up to three
+	 * smaller parts. The smaller ones are forked as new tasks and the largest one is handled
+	 * by the next step of the same task, so the nesting depth of tasks stays logarithmic.
+	 * If a step only splits off the SCC of the pivot (leaving a single part, e.g., for a chain of SCCs),
+	 * the rest is handled by Tarjan's algorithm, since further splitting would take quadratic time.
+	 */
+	private class ForwardBackwardTask extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		private int states[];
+		private int c;
+		/** Has the part already been trimmed? */
+		private boolean trimmed;
+		/** Marks for forward/backward reachability (colour of the part in which a state was reached) */
+		private final int fwd[], bwd[];
+		/** Workspace for trimming */
+		private final int inDegree[], outDegree[];
+		private final PredecessorRelation pre;
+		private final AtomicInteger nextColour;
+
+		public ForwardBackwardTask(int states[], int c, boolean trimmed, int fwd[], int bwd[], int inDegree[], int outDegree[], PredecessorRelation pre, AtomicInteger nextColour)
+		{
+			this.states = states;
+			this.c = c;
+			this.trimmed = trimmed;
+			this.fwd = fwd;
+			this.bwd = bwd;
+			this.inDegree = inDegree;
+			this.outDegree = outDegree;
+			this.pre = pre;
+			this.nextColour = nextColour;
+		}
+
+		@Override
+		protected void compute()
+		{
+			List<ForwardBackwardTask> forked = new ArrayList<ForwardBackwardTask>();
+			try {
+				while (states.length > 0) {
+					if (!trimmed && states.length > SEQUENTIAL_MAX_STATES) {
+						states = trim(states, c, pre, inDegree, outDegree, 1);
+					}
+					if (states.length <= SEQUENTIAL_MAX_STATES) {
+						tarjan(states, c);
+						break;
+					}
+					// Split off the SCC of a pivot
+					int parts[][] = split();
+					int largest = -1, numParts = 0;
+					for (int i = 0; i < parts.length; i++) {
+						if (parts[i].length > 0) {
+							numParts++;
+							if (largest == -1 || parts[i].length > parts[largest].length) {
+								largest = i;
+							}
+						}
+					}
+					if (numParts == 0) {
+						break;
+					}
+					if (numParts == 1) {
+						tarjan(parts[largest], colour[parts[largest][0]]);
+						break;
+					}
+					for (int i = 0; i < parts.length; i++) {
+						if (i != largest && parts[i].length > 0) {
+							ForwardBackwardTask task = new ForwardBackwardTask(parts[i], colour[parts[i][0]], false, fwd, bwd, inDegree, outDegree, pre, nextColour);
+							task.fork();
+							forked.add(task);
+						}
+					}
+					states = parts[largest];
+					c = colour[states[0]];
+					trimmed = false;
+				}
+			} catch (PrismException e) {
+				throw new RuntimeException(e);
+			}
+			for (ForwardBackwardTask task : forked) {
+				task.join();
+			}
+		}
+
+		/**
+		 * Find the SCCs of the part {@code states} (of colour {@code c}) with Tarjan's algorithm.
+		 */
+		private void tarjan(int states[], int c) throws PrismException
+		{
+			TarjanSearch search = new TarjanSearch(false);
+			for (int s : states) {
+				if (index[s] == -1) {
+					search.search(s, c);
+				}
+			}
+		}
+
+		/**
+		 * Split off the SCC of a pivot state from the current part, by forward and backward
+		 * reachability (in parallel). Returns the states reachable only forward, only backward,
+		 * and neither, each of which is given a new colour.
+		 */
+		private int[][] split()
+		{
+			int pivot = states[0];
+			RecursiveAction backward = new RecursiveAction()
+			{
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute()
+				{
+					reachBackward(pivot);
+				}
+			};
+			backward.fork();
+			reachForward(pivot);
+			backward.join();
+			// The SCC of the pivot is the intersection; the other SCCs are
+			// within forward-only, backward-only or neither
+			int scc = sccCount.getAndIncrement();
+			int cFwd = nextColour.getAndIncrement();
+			int cBwd = nextColour.getAndIncrement();
+			int cRest = nextColour.getAndIncrement();
+			int numFwd = 0, numBwd = 0, numRest = 0;
+			for (int s : states) {
+				boolean f = fwd[s] == c, b = bwd[s] == c;
+				if (f && b) {
+					sccOf[s] = scc;
+					colour[s] = -1;
+				} else if (f) {
+					colour[s] = cFwd;
+					numFwd++;
+				} else if (b) {
+					colour[s] = cBwd;
+					numBwd++;
+				} else {
+					colour[s] = cRest;
+					numRest++;
+				}
+			}
+			int statesFwd[] = new int[numFwd], statesBwd[] = new int[numBwd], statesRest[] = new int[numRest];
+			numFwd = numBwd = numRest = 0;
+			for (int s : states) {
+				int col = colour[s];
+				if (col == cFwd) {
+					statesFwd[numFwd++] = s;
+				} else if (col == cBwd) {
+					statesBwd[numBwd++] = s;
+				} else if (col == cRest) {
+					statesRest[numRest++] = s;
+				}
+			}
+			return new int[][] { statesFwd, statesBwd, statesRest };
+		}
+
+		/** Mark the states of this part reachable from {@code pivot} in {@code fwd} */
+		private void reachForward(int pivot)
+		{
+			int queue[] = new int[states.length];
+			int head = 0, tail = 0;
+			fwd[pivot] = c;
+			queue[tail++] = pivot;
+			while (head < tail) {
+				int s = queue[head++];
+				SuccessorsIterator it = model.getSuccessors(s);
+				while (it.hasNext()) {
+					int e = it.nextInt();
+					if (colour[e] == c && fwd[e] != c) {
+						fwd[e] = c;
+						queue[tail++] = e;
+					}
+				}
+			}
+		}
+
+		/** Mark the states of this part that can reach {@code pivot} in {@code bwd} */
+		private void reachBackward(int pivot)
+		{
+			int queue[] = new int[states.length];
+			int head = 0, tail = 0;
+			bwd[pivot] = c;
+			queue[tail++] = pivot;
+			while (head < tail) {
+				int s = queue[head++];
+				for (int i = 0, numPre = pre.getNumPre(s); i < numPre; i++) {
+					int p = pre.getPre(s, i);
+					if (colour[p] == c && bwd[p] != c) {
+						bwd[p] = c;
+						queue[tail++] = p;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Report the SCCs stored in {@code sccOf} to the consumer, in reverse topological order
+	 * (i.e., each SCC after all SCCs reachable from it). SCCs are first numbered
+	 * by their smallest state, so that the order does not depend on thread scheduling.
+	 */
+	private void reportInTopologicalOrder(PredecessorRelation pre) throws PrismException
+	{
+		// Canonical numbering
+		int numSCCs = sccCount.get();
+		int canonical[] = new int[numSCCs];
+		Arrays.fill(canonical, -1);
+		int next = 0;
+		for (int s = 0; s < numNodes; s++) {
+			int scc = sccOf[s];
+			if (scc >= 0) {
+				if (canonical[scc] == -1) {
+					canonical[scc] = next++;
+				}
+				sccOf[s] = canonical[scc];
+			}
+		}
+		canonical = null;
+		// States of each SCC
+		int sccStarts[] = new int[numSCCs + 1];
+		for (int s = 0; s < numNodes; s++) {
+			if (sccOf[s] >= 0) {
+				sccStarts[sccOf[s] + 1]++;
+			}
+		}
+		for (int scc = 0; scc < numSCCs; scc++) {
+			sccStarts[scc + 1] += sccStarts[scc];
+		}
+		int sccStates[] = new int[sccStarts[numSCCs]];
+		int fill[] = Arrays.copyOf(sccStarts, numSCCs);
+		for (int s = 0; s < numNodes; s++) {
+			if (sccOf[s] >= 0) {
+				sccStates[fill[sccOf[s]]++] = s;
+			}
+		}
+		fill = null;
+		// Number of edges from each SCC to other SCCs
+		int outDegree[] = new int[numSCCs];
+		ParallelRange.forEachChunk(numThreads, numSCCs, PARALLEL_CHUNK_SIZE, (lo, hi) -> {
+			for (int scc = lo; scc < hi; scc++) {
+				for (int k = sccStarts[scc]; k < sccStarts[scc + 1]; k++) {
+					SuccessorsIterator it = model.getSuccessors(sccStates[k]).distinct();
+					while (it.hasNext()) {
+						int e = it.nextInt();
+						if (sccOf[e] >= 0 && sccOf[e] != scc) {
+							outDegree[scc]++;
+						}
+					}
+				}
+			}
+		});
+		// Report bottom-up (Kahn's algorithm on the reversed graph of SCCs)
+		int queue[] = new int[numSCCs];
+		int head = 0, tail = 0;
+		for (int scc = 0; scc < numSCCs; scc++) {
+			if (outDegree[scc] == 0) {
+				queue[tail++] = scc;
+			}
+		}
+		while (head < tail) {
+			int scc = queue[head++];
+			int start = sccStarts[scc], end = sccStarts[scc + 1];
+			if (!(filterTrivialSCCs && end - start == 1 && isTrivialSCC(model, sccStates[start]))) {
+				consumer.notifyStartSCC();
+				for (int k = start; k < end; k++) {
+					consumer.notifyStateInSCC(sccStates[k]);
+				}
+				consumer.notifyEndSCC();
+			}
+			for (int k = start; k < end; k++) {
+				int s = sccStates[k];
+				for (int i = 0, numPre = pre.getNumPre(s); i < numPre; i++) {
+					int p = pre.getPre(s, i);
+					int sccP = sccOf[p];
+					if (sccP >= 0 && sccP != scc && --outDegree[sccP] == 0) {
+						queue[tail++] = sccP;
+					}
+				}
+			}
+		}
+	}
+}
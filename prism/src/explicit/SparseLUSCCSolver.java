@@ -0,0 +1,187 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.PriorityQueue;
+
+import common.IntSet;
+import explicit.rewards.MCRewards;
+
+/**
+ * Solver for the states of an SCC of a DTMC, for use in topological value iteration,
+ * using a sparse LU factorisation (Gaussian elimination, with fill-in) of the
+ * linear equation system {@code (I - P_CC) x_C = c_C + P_CO x_O}, where {@code C}
+ * are the states of the SCC, {@code O} all other states (whose values have been computed
+ * already) and {@code c} the state rewards (if any).
+ * <br>
+ * No pivoting is done: for SCCs that can be left (as is the case after the usual precomputations),
+ * {@code I - P_CC} is an irreducibly diagonally dominant M-matrix, for which this is stable.
+ * If a (near) zero pivot is encountered anyway, e.g., for a bottom SCC, the solver gives up
+ * and the SCC is solved by iteration instead.
+ * <br>
+ * The solver does not keep any state between calls, so it can be used for several SCCs concurrently.
+ */
+class SparseLUSCCSolver implements IterationMethod.SCCSolver
+{
+	/** Pivots with smaller absolute value are considered to be zero */
+	private static final double PIVOT_TOLERANCE = 1e-12;
+
+	/** The DTMC */
+	private DTMC dtmc;
+	/** The rewards (optional) */
+	private MCRewards rewards;
+
+	/**
+	 * Constructor.
+	 * @param dtmc The DTMC
+	 * @param rewards The rewards ({@code null} for reachability probabilities)
+	 */
+	public SparseLUSCCSolver(DTMC dtmc, MCRewards rewards)
+	{
+		this.dtmc = dtmc;
+		this.rewards = rewards;
+	}
+
+	@Override
+	public boolean solveFor(IntSet states, double[] soln)
+	{
+		// Local indices for the states of the SCC (sorted)
+		int m = states.cardinality();
+		int[] global = new int[m];
+		PrimitiveIterator.OfInt it = states.iterator();
+		for (int i = 0; i < m; i++) {
+			global[i] = it.nextInt();
+		}
+		Arrays.sort(global);
+
+		// Rows of the upper triangular factor U, stored sparsely once computed
+		int[][] uCols = new int[m][];
+		double[][] uVals = new double[m][];
+		double[] b = new double[m];
+
+		// Dense work row, with the list of its non-zero columns
+		double[] w = new double[m];
+		boolean[] inPattern = new boolean[m];
+		int[] pattern = new int[m];
+		PriorityQueue<Integer> lower = new PriorityQueue<Integer>();
+
+		for (int i = 0; i < m; i++) {
+			// Scatter row i of I - P_CC into w; other successors go to the right-hand side
+			int s = global[i];
+			int[] patternSize = new int[] { 0 };
+			final int row = i;
+			b[i] = rewards == null ? 0.0 : rewards.getStateReward(s);
+			addToRow(i, 1.0, w, inPattern, pattern, patternSize);
+			dtmc.forEachTransition(s, (s1, t, prob) -> {
+				int j = Arrays.binarySearch(global, t);
+				if (j >= 0) {
+					addToRow(j, -prob, w, inPattern, pattern, patternSize);
+				} else {
+					b[row] += prob * soln[t];
+				}
+			});
+			for (int p = 0; p < patternSize[0]; p++) {
+				if (pattern[p] < i) {
+					lower.add(pattern[p]);
+				}
+			}
+
+			// Eliminate the entries below the diagonal, in increasing column order
+			while (!lower.isEmpty()) {
+				int j = lower.poll();
+				double l = w[j] / uVals[j][0];
+				w[j] = 0.0;
+				if (l == 0.0) {
+					continue;
+				}
+				b[i] -= l * b[j];
+				for (int q = 1; q < uCols[j].length; q++) {
+					int k = uCols[j][q];
+					if (!inPattern[k] && k < i) {
+						lower.add(k);
+					}
+					addToRow(k, -l * uVals[j][q], w, inPattern, pattern, patternSize);
+				}
+			}
+
+			// Store row i of U (diagonal first), and clear the work row
+			if (Math.abs(w[i]) < PIVOT_TOLERANCE) {
+				return false;
+			}
+			int count = 1;
+			for (int p = 0; p < patternSize[0]; p++) {
+				int k = pattern[p];
+				if (k > i && w[k] != 0.0) {
+					count++;
+				}
+			}
+			uCols[i] = new int[count];
+			uVals[i] = new double[count];
+			uCols[i][0] = i;
+			uVals[i][0] = w[i];
+			count = 1;
+			for (int p = 0; p < patternSize[0]; p++) {
+				int k = pattern[p];
+				if (k > i && w[k] != 0.0) {
+					uCols[i][count] = k;
+					uVals[i][count] = w[k];
+					count++;
+				}
+				w[k] = 0.0;
+				inPattern[k] = false;
+			}
+		}
+
+		// Backward substitution
+		double[] x = new double[m];
+		for (int i = m - 1; i >= 0; i--) {
+			double d = b[i];
+			for (int q = 1; q < uCols[i].length; q++) {
+				d -= uVals[i][q] * x[uCols[i][q]];
+			}
+			x[i] = d / uVals[i][0];
+		}
+		for (int i = 0; i < m; i++) {
+			soln[global[i]] = x[i];
+		}
+		return true;
+	}
+
+	/**
+	 * Add {@code value} to entry {@code j} of the work row {@code w}, updating its pattern.
+	 */
+	private static void addToRow(int j, double value, double[] w, boolean[] inPattern, int[] pattern, int[] patternSize)
+	{
+		if (!inPattern[j]) {
+			inPattern[j] = true;
+			pattern[patternSize[0]++] = j;
+		}
+		w[j] += value;
+	}
+}
@@ -0,0 +1,477 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+
+package explicit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import prism.ModelType;
+import prism.PrismNotSupportedException;
+import prism.PrismUtils;
+
+/**
+ * Incremental builder for sparse matrix explicit-state models ({@link DTMCSparse} or {@link MDPSparse}),
+ * which appends states (rows) directly into growable sparse matrix arrays,
+ * avoiding the construction of an intermediate (e.g. MDPSimple) model.
+ * <br><br>
+ * States must be added in order of their index: transitions for the next state are added
+ * using {@link #addTransition(int, double)}, each choice is completed with {@link #finishChoice(Object)}
+ * and the state itself with {@link #finishState()}. Transitions may go to states that have not been added yet.
+ * The final model is created with {@link #build(int[])}, optionally permuting state indices.
+ * <br><br>
+ * The resulting model is the same as that obtained via the corresponding "simple" model:
+ * duplicate targets within a distribution are merged (probabilities summed),
+ * and, for MDPs, duplicate choices (same action and distribution) in a state are discarded.
+ */
+public class SparseModelBuilder
+{
+	/** Type of model being built (DTMC or MDP) */
+	private ModelType modelType;
+	/** Is the model nondeterministic? (if not, each state is a single distribution) */
+	private boolean nondet;
+
+	// Sparse matrix (same layout as MDPSparse; for DTMCs, choiceStarts is not used
+	// and rowStarts indexes transitions directly)
+	private int rowStarts[] = new int[1024];
+	private int choiceStarts[];
+	private Object actions[];
+	private int cols[] = new int[4096];
+	private double nonZeros[] = new double[4096];
+
+	/** Number of states finished so far */
+	private int numStates = 0;
+	/** Number of choices so far (nondeterministic models only) */
+	private int numChoices = 0;
+	/** Number of transitions so far (including those of the current, unfinished choice) */
+	private int numTransitions = 0;
+	/** Start of the transitions of the current, unfinished choice */
+	private int pendingStart = 0;
+	/** Maximum number of choices in any state */
+	private int maxNumChoices = 0;
+
+	/** Initial states */
+	private List<Integer> initialStates = new ArrayList<Integer>();
+	/** States with no outgoing transitions */
+	private BitSet emptyStates = new BitSet();
+	/** Have deadlocks been searched for? If so, should they be fixed? */
+	private boolean findDeadlocks = false, fixDeadlocks = false;
+	/** How to store probabilities in the built model */
+	private ProbabilityStorage.Type probabilityStorageType = ProbabilityStorage.Type.DOUBLE;
+	/** How to store columns in the built model */
+	private ColumnStorage.Type columnStorageType = ColumnStorage.Type.INT;
+
+	/** Scratch space for sorting */
+	private long sortKeys[] = new long[64];
+	private int sortCols[] = new int[64];
+	private double sortValues[] = new double[64];
+
+	/**
+	 * Create a builder for a model of type {@code modelType} (currently, DTMC or MDP).
+	 */
+	public SparseModelBuilder(ModelType modelType) throws PrismNotSupportedException
+	{
+		if (modelType != ModelType.DTMC && modelType != ModelType.MDP) {
+			throw new PrismNotSupportedException("Sparse model building not supported for " + modelType + "s");
+		}
+		this.modelType = modelType;
+		nondet = modelType.nondeterministic();
+		if (nondet) {
+			choiceStarts = new int[1024];
+		}
+	}
+
+	// Mutators
+
+	/**
+	 * Set how probabilities are stored in the built model (see {@link ProbabilityStorage}).
+	 */
+	public void setProbabilityStorageType(ProbabilityStorage.Type probabilityStorageType)
+	{
+		this.probabilityStorageType = probabilityStorageType;
+	}
+
+	/**
+	 * Set how columns are stored in the built model (see {@link ColumnStorage}).
+	 */
+	public void setColumnStorageType(ColumnStorage.Type columnStorageType)
+	{
+		this.columnStorageType = columnStorageType;
+	}
+
+	/**
+	 * Add a state to the list of initial states.
+	 */
+	public void addInitialState(int i)
+	{
+		initialStates.add(i);
+	}
+
+	/**
+	 * Add a transition (to state {@code dest}, with probability {@code prob})
+	 * to the current choice of the current state.
+	 * For DTMCs, transitions to the same state are summed over all choices of the state. 
+	 */
+	public void addTransition(int dest, double prob)
+	{
+		if (numTransitions == cols.length) {
+			int size = grow(cols.length);
+			cols = Arrays.copyOf(cols, size);
+			nonZeros = Arrays.copyOf(nonZeros, size);
+		}
+		cols[numTransitions] = dest;
+		nonZeros[numTransitions] = prob;
+		numTransitions++;
+	}
+
+	/**
+	 * Finish the current choice of the current state, labelling it with {@code action} (which may be null).
+	 * For nondeterministic models, the choice is discarded if it duplicates an existing one in the state.
+	 * For DTMCs, this does nothing (action is ignored) since choices are merged into a single distribution.
+	 */
+	public void finishChoice(Object action)
+	{
+		if (!nondet) {
+			return;
+		}
+		int end = mergeTransitions(pendingStart, numTransitions);
+		// Drop the choice if it is a duplicate
+		for (int c = rowStarts[numStates]; c < numChoices; c++) {
+			if (sameChoice(c, action, pendingStart, end)) {
+				numTransitions = pendingStart;
+				return;
+			}
+		}
+		if (numChoices + 1 >= choiceStarts.length) {
+			choiceStarts = Arrays.copyOf(choiceStarts, grow(choiceStarts.length));
+		}
+		if (action != null && actions == null) {
+			actions = new Object[choiceStarts.length];
+		}
+		if (actions != null) {
+			if (actions.length < choiceStarts.length) {
+				actions = Arrays.copyOf(actions, choiceStarts.length);
+			}
+			actions[numChoices] = action;
+		}
+		choiceStarts[numChoices++] = pendingStart;
+		numTransitions = pendingStart = end;
+	}
+
+	/**
+	 * Finish the current state; the next transitions added belong to the state with the next index.
+	 */
+	public void finishState()
+	{
+		if (numStates + 2 >= rowStarts.length) {
+			rowStarts = Arrays.copyOf(rowStarts, grow(rowStarts.length));
+		}
+		boolean empty;
+		if (nondet) {
+			// Discard any transitions not added as part of a choice
+			numTransitions = pendingStart;
+			int n = numChoices - rowStarts[numStates];
+			maxNumChoices = Math.max(maxNumChoices, n);
+			empty = n == 0;
+			rowStarts[numStates + 1] = numChoices;
+		} else {
+			// Zero-probability transitions are removed first, so that
+			// a state with only such transitions counts as a deadlock
+			numTransitions = pendingStart = removeZeros(rowStarts[numStates], mergeTransitions(rowStarts[numStates], numTransitions));
+			empty = pendingStart == rowStarts[numStates];
+			rowStarts[numStates + 1] = pendingStart;
+		}
+		if (empty) {
+			emptyStates.set(numStates);
+		}
+		numStates++;
+	}
+
+	/**
+	 * Find all deadlock states (states with no outgoing transitions) and,
+	 * if {@code fix} is true, add self-loops to them when the model is built.
+	 */
+	public void findDeadlocks(boolean fix)
+	{
+		findDeadlocks = true;
+		fixDeadlocks = fix;
+	}
+
+	// Accessors
+
+	/**
+	 * Get the number of states finished so far.
+	 */
+	public int getNumStates()
+	{
+		return numStates;
+	}
+
+	/**
+	 * Build the model, with state index i becoming index permut[i] (if {@code permut} is non-null).
+	 * Transitions within each distribution are sorted by (new) destination index.
+	 * The builder should not be used after this.
+	 */
+	public ModelExplicit build(int permut[])
+	{
+		// Compute the inverse of the permutation
+		int permutInv[] = null;
+		if (permut != null) {
+			permutInv = new int[numStates];
+			for (int i = 0; i < numStates; i++) {
+				permutInv[permut[i]] = i;
+			}
+		}
+		int numFixed = (findDeadlocks && fixDeadlocks) ? emptyStates.cardinality() : 0;
+		int newRowStarts[] = new int[numStates + 1];
+		int newChoiceStarts[] = nondet ? new int[numChoices + numFixed + 1] : null;
+		Object newActions[] = actions == null ? null : new Object[numChoices + numFixed];
+		int newCols[] = new int[numTransitions + numFixed];
+		double newNonZeros[] = new double[numTransitions + numFixed];
+		// Copy transition function (permuted)
+		int c = 0, t = 0;
+		for (int i = 0; i < numStates; i++) {
+			int orig = permutInv == null ? i : permutInv[i];
+			if (nondet) {
+				newRowStarts[i] = c;
+				for (int oc = rowStarts[orig]; oc < rowStarts[orig + 1]; oc++) {
+					newChoiceStarts[c] = t;
+					if (newActions != null) {
+						newActions[c] = actions[oc];
+					}
+					t = copyPermuted(choiceStarts[oc], oc + 1 < numChoices ? choiceStarts[oc + 1] : numTransitions, newCols, newNonZeros, t, permut);
+					c++;
+				}
+				if (numFixed > 0 && emptyStates.get(orig)) {
+					newChoiceStarts[c++] = t;
+					newCols[t] = i;
+					newNonZeros[t++] = 1.0;
+				}
+			} else {
+				newRowStarts[i] = t;
+				t = copyPermuted(rowStarts[orig], rowStarts[orig + 1], newCols, newNonZeros, t, permut);
+				if (numFixed > 0 && emptyStates.get(orig)) {
+					newCols[t] = i;
+					newNonZeros[t++] = 1.0;
+				}
+			}
+		}
+		// Free builder storage
+		rowStarts = choiceStarts = cols = null;
+		nonZeros = null;
+		actions = null;
+		// Create model
+		ProbabilityStorage probs = ProbabilityStorage.create(newNonZeros, probabilityStorageType);
+		newNonZeros = null;
+		ModelExplicit model;
+		if (nondet) {
+			newRowStarts[numStates] = c;
+			newChoiceStarts[c] = t;
+			int transStarts[] = new int[numStates + 1];
+			for (int i = 0; i <= numStates; i++) {
+				transStarts[i] = newChoiceStarts[newRowStarts[i]];
+			}
+			ColumnStorage columns = ColumnStorage.create(newCols, columnStorageType, transStarts);
+			int maxNumDistrs = Math.max(maxNumChoices, numFixed > 0 ? 1 : 0);
+			model = new MDPSparse(numStates, newRowStarts, newChoiceStarts, columns, probs, newActions, maxNumDistrs);
+		} else {
+			newRowStarts[numStates] = t;
+			ColumnStorage columns = ColumnStorage.create(newCols, columnStorageType, newRowStarts);
+			model = new DTMCSparse(numStates, newRowStarts, columns, probs);
+		}
+		for (int in : initialStates) {
+			model.addInitialState(permut == null ? in : permut[in]);
+		}
+		if (findDeadlocks) {
+			for (int dl = emptyStates.nextSetBit(0); dl >= 0; dl = emptyStates.nextSetBit(dl + 1)) {
+				model.addDeadlockState(permut == null ? dl : permut[dl]);
+			}
+		}
+		return model;
+	}
+
+	/**
+	 * Get the type of model being built.
+	 */
+	public ModelType getModelType()
+	{
+		return modelType;
+	}
+
+	// Private methods
+
+	/**
+	 * Copy transitions {@code from}...{@code to}-1 into {@code newCols}/{@code newNonZeros},
+	 * starting at {@code pos}, applying the permutation (if non-null) and sorting by destination.
+	 * Returns the position after the last copied transition.
+	 */
+	private int copyPermuted(int from, int to, int newCols[], double newNonZeros[], int pos, int permut[])
+	{
+		int start = pos;
+		for (int k = from; k < to; k++) {
+			newCols[pos] = permut == null ? cols[k] : permut[cols[k]];
+			newNonZeros[pos] = nonZeros[k];
+			pos++;
+		}
+		sortByColumn(newCols, newNonZeros, start, pos);
+		return pos;
+	}
+
+	/**
+	 * Merge transitions {@code from}...{@code to}-1 with the same destination,
+	 * in the same way as {@link Distribution#add(int, double)} does,
+	 * and sort them by destination. Returns the new end of the transitions.
+	 */
+	private int mergeTransitions(int from, int to)
+	{
+		sortByColumn(cols, nonZeros, from, to);
+		int pos = from;
+		int k = from;
+		while (k < to) {
+			int col = cols[k];
+			boolean present = false;
+			double sum = 0.0;
+			for (; k < to && cols[k] == col; k++) {
+				if (!present) {
+					sum = nonZeros[k];
+					present = true;
+				} else {
+					sum += nonZeros[k];
+					present = sum != 0.0;
+				}
+			}
+			if (present) {
+				cols[pos] = col;
+				nonZeros[pos] = sum;
+				pos++;
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * Remove transitions {@code from}...{@code to}-1 whose probability is not positive,
+	 * keeping the order of the others. Returns the new end of the transitions.
+	 */
+	private int removeZeros(int from, int to)
+	{
+		int pos = from;
+		for (int k = from; k < to; k++) {
+			if (nonZeros[k] > 0) {
+				cols[pos] = cols[k];
+				nonZeros[pos] = nonZeros[k];
+				pos++;
+			}
+		}
+		return pos;
+	}
+
+	/**
+	 * Check whether existing choice {@code c} equals the choice with action {@code action}
+	 * and (merged, sorted) transitions {@code from}...{@code to}-1
+	 * (as for {@link Distribution#equals(Object)}).
+	 */
+	private boolean sameChoice(int c, Object action, int from, int to)
+	{
+		Object a = actions == null ? null : actions[c];
+		if (action == null ? a != null : !action.equals(a)) {
+			return false;
+		}
+		int cFrom = choiceStarts[c];
+		int cTo = c + 1 < numChoices ? choiceStarts[c + 1] : from;
+		if (cTo - cFrom != to - from) {
+			return false;
+		}
+		for (int k = 0; k < to - from; k++) {
+			if (cols[cFrom + k] != cols[from + k] || !PrismUtils.doublesAreClose(nonZeros[cFrom + k], nonZeros[from + k], 1e-12, false)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sort the entries {@code from}...{@code to}-1 of {@code cols}/{@code values} by column (stably).
+	 */
+	private void sortByColumn(int cols[], double values[], int from, int to)
+	{
+		int n = to - from;
+		if (n < 2) {
+			return;
+		}
+		// Check if already sorted (common case)
+		boolean sorted = true;
+		for (int k = from + 1; k < to && sorted; k++) {
+			sorted = cols[k - 1] <= cols[k];
+		}
+		if (sorted) {
+			return;
+		}
+		if (n <= 16) {
+			// Insertion sort
+			for (int k = from + 1; k < to; k++) {
+				int col = cols[k];
+				double value = values[k];
+				int l = k - 1;
+				for (; l >= from && cols[l] > col; l--) {
+					cols[l + 1] = cols[l];
+					values[l + 1] = values[l];
+				}
+				cols[l + 1] = col;
+				values[l + 1] = value;
+			}
+			return;
+		}
+		// Otherwise sort (column, position) keys
+		if (sortKeys.length < n) {
+			sortKeys = new long[n];
+			sortCols = new int[n];
+			sortValues = new double[n];
+		}
+		for (int k = 0; k < n; k++) {
+			sortKeys[k] = ((long) cols[from + k] << 32) | k;
+			sortCols[k] = cols[from + k];
+			sortValues[k] = values[from + k];
+		}
+		Arrays.sort(sortKeys, 0, n);
+		for (int k = 0; k < n; k++) {
+			int orig = (int) sortKeys[k];
+			cols[from + k] = sortCols[orig];
+			values[from + k] = sortValues[orig];
+		}
+	}
+
+	/**
+	 * New size for a growable array of the given size.
+	 */
+	private static int grow(int size)
+	{
+		return (int) Math.min(Integer.MAX_VALUE - 8, 2L * size);
+	}
+}
@@ -0,0 +1,152 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+
+/**
+ * A colouring of a subset of the states of a model, such that no two (distinct) states
+ * of the same colour are connected by a transition, in either direction.
+ * <br>
+ * The values of all states of one colour can thus be updated independently of each other,
+ * e.g., in parallel, as part of a multicolour Gauss-Seidel iteration.
+ * Colours are assigned greedily, visiting states in the order given.
+ */
+public class StateColouring
+{
+	/** The states, sorted by colour (and in the original order for each colour) */
+	private int[] states;
+	/** States of colour c are states[colourStart[c]], ..., states[colourStart[c+1]-1] */
+	private int[] colourStart;
+
+	/**
+	 * Compute a colouring for the states in {@code subset} of {@code model}.
+	 * Only transitions between states of the subset are taken into account.
+	 */
+	public StateColouring(Model model, int[] subset)
+	{
+		int n = subset.length;
+		// Map states to their index in the subset
+		int[] localIndex = new int[model.getNumStates()];
+		Arrays.fill(localIndex, -1);
+		for (int i = 0; i < n; i++) {
+			localIndex[subset[i]] = i;
+		}
+		// Collect edges within the subset (self-loops are ignored), in both directions
+		int[] degree = new int[n + 1];
+		int numEdges = 0;
+		for (int i = 0; i < n; i++) {
+			SuccessorsIterator succs = model.getSuccessors(subset[i]);
+			while (succs.hasNext()) {
+				int j = localIndex[succs.nextInt()];
+				if (j >= 0 && j != i) {
+					degree[i + 1]++;
+					degree[j + 1]++;
+					numEdges++;
+				}
+			}
+		}
+		int[] start = degree;
+		for (int i = 0; i < n; i++) {
+			start[i + 1] += start[i];
+		}
+		int[] next = Arrays.copyOf(start, n);
+		int[] neighbours = new int[2 * numEdges];
+		for (int i = 0; i < n; i++) {
+			SuccessorsIterator succs = model.getSuccessors(subset[i]);
+			while (succs.hasNext()) {
+				int j = localIndex[succs.nextInt()];
+				if (j >= 0 && j != i) {
+					neighbours[next[i]++] = j;
+					neighbours[next[j]++] = i;
+				}
+			}
+		}
+		localIndex = null;
+		// Greedy colouring: smallest colour not used by an already coloured neighbour
+		int[] colour = new int[n];
+		Arrays.fill(colour, -1);
+		int[] usedBy = new int[16];
+		Arrays.fill(usedBy, -1);
+		int numColours = 0;
+		for (int i = 0; i < n; i++) {
+			for (int k = start[i]; k < start[i + 1]; k++) {
+				int c = colour[neighbours[k]];
+				if (c >= 0) {
+					usedBy[c] = i;
+				}
+			}
+			int c = 0;
+			while (c < numColours && usedBy[c] == i) {
+				c++;
+			}
+			colour[i] = c;
+			if (c == numColours) {
+				numColours++;
+				if (numColours == usedBy.length) {
+					int oldLength = usedBy.length;
+					usedBy = Arrays.copyOf(usedBy, 2 * oldLength);
+					Arrays.fill(usedBy, oldLength, usedBy.length, -1);
+				}
+			}
+		}
+		// Sort states by colour (counting sort, stable)
+		colourStart = new int[numColours + 1];
+		for (int i = 0; i < n; i++) {
+			colourStart[colour[i] + 1]++;
+		}
+		for (int c = 0; c < numColours; c++) {
+			colourStart[c + 1] += colourStart[c];
+		}
+		int[] pos = Arrays.copyOf(colourStart, numColours);
+		states = new int[n];
+		for (int i = 0; i < n; i++) {
+			states[pos[colour[i]]++] = subset[i];
+		}
+	}
+
+	/** Get the number of colours */
+	public int getNumColours()
+	{
+		return colourStart.length - 1;
+	}
+
+	/** Get the states, sorted by colour (see {@link #getColourStart(int)}) */
+	public int[] getStates()
+	{
+		return states;
+	}
+
+	/**
+	 * Get the index in {@link #getStates()} of the first state of colour {@code c}.
+	 * For {@code c} = {@code getNumColours()}, this is the total number of states.
+	 */
+	public int getColourStart(int c)
+	{
+		return colourStart[c];
+	}
+}
@@ -93,6 +93,12 @@ public class StateModelChecker extends PrismComponent
 	// Verbosity level
 	protected int verbosity = 0;
 
+	// Number of threads to use
+	protected int numThreads = 1;
+
+	// Use multiple threads for iterative numerical methods?
+	protected boolean doParallelIteration = true;
+
 	// Additional flags/settings not included in PrismSettings
 
 	// Export target state info?
@@ -161,6 +167,8 @@ public class StateModelChecker extends PrismComponent
 		// If present, initialise settings from PrismSettings
 		if (settings != null) {
 			verbosity = settings.getBoolean(PrismSettings.PRISM_VERBOSE) ? 10 : 1;
+			setNumThreads(settings.getInteger(PrismSettings.PRISM_EXPLICIT_NUM_THREADS));
+			setDoParallelIteration(settings.getBoolean(PrismSettings.PRISM_PARALLEL_ITERATION));
 		}
 	}
 
@@ -212,6 +220,8 @@ public class StateModelChecker extends PrismComponent
 		setModulesFileAndPropertiesFile(other.modelInfo, other.propertiesFile, other.modelGen);
 		setLog(other.getLog());
 		setVerbosity(other.getVerbosity());
+		setNumThreads(other.getNumThreads());
+		setDoParallelIteration(other.getDoParallelIteration());
 		setExportTarget(other.getExportTarget());
 		setExportTargetFilename(other.getExportTargetFilename());
 		setExportProductTrans(other.getExportProductTrans());
@@ -246,6 +256,23 @@ public class StateModelChecker extends PrismComponent
 		this.verbosity = verbosity;
 	}
 
+	/**
+	 * Set the number of threads to use (where supported).
+	 */
+	public void setNumThreads(int numThreads)
+	{
+		this.numThreads = Math.max(numThreads, 1);
+	}
+
+	/**
+	 * Specify whether iterative numerical methods may use multiple threads
+	 * (the number of which is given by {@link #setNumThreads(int)}).
+	 */
+	public void setDoParallelIteration(boolean doParallelIteration)
+	{
+		this.doParallelIteration = doParallelIteration;
+	}
+
 	public void setExportTarget(boolean b)
 	{
 		exportTarget = b;
@@ -349,6 +376,25 @@ public class StateModelChecker extends PrismComponent
 		return verbosity;
 	}
 
+	public int getNumThreads()
+	{
+		return numThreads;
+	}
+
+	public boolean getDoParallelIteration()
+	{
+		return doParallelIteration;
+	}
+
+	/**
+	 * Get the number of threads to use for iterative numerical methods
+	 * (1 if parallel iteration is disabled).
+	 */
+	public int getNumIterationThreads()
+	{
+		return doParallelIteration ? numThreads : 1;
+	}
+
 	public boolean getExportTarget()
 	{
 		return exportTarget;
@@ -543,6 +589,10 @@ public class StateModelChecker extends PrismComponent
 
 		// If required, do bisimulation minimisation
 		if (doBisim) {
+			// (for MDPs, choices are merged and their action labels dropped, so action rewards are lost)
+			if (model.getModelType().nondeterministic() && Expression.containsRewardOperator(expr)) {
+				throw new PrismNotSupportedException("Bisimulation minimisation does not preserve rewards of MDPs, so is not supported for reward properties");
+			}
 			mainLog.println("\nPerforming bisimulation minimisation...");
 			ArrayList<String> propNames = new ArrayList<String>();
 			ArrayList<BitSet> propBSs = new ArrayList<BitSet>();
@@ -588,8 +638,12 @@ public class StateModelChecker extends PrismComponent
 	{
 		StateValues res = null;
 
+		// Non-constant expressions over state variables (and labels) only: evaluate for all states at once
+		if (!expr.isConstant() && !(expr instanceof ExpressionLabel) && model.getStatesList() != null && BatchExpressionEvaluator.isStateExpression(expr)) {
+			res = checkExpressionBatch(model, expr, statesOfInterest);
+		}
 		// If-then-else
-		if (expr instanceof ExpressionITE) {
+		else if (expr instanceof ExpressionITE) {
 			res = checkExpressionITE(model, (ExpressionITE) expr, statesOfInterest);
 		}
 		// Binary ops
@@ -649,6 +703,27 @@ public class StateModelChecker extends PrismComponent
 		return res;
 	}
 
+	/**
+	 * Model check an expression over state variables and labels only (see {@link BatchExpressionEvaluator#isStateExpression(Expression)}),
+	 * evaluating it for all states of the model at once.
+	 * @param statesOfInterest the states of interest, see checkExpression()
+	 */
+	protected StateValues checkExpressionBatch(Model model, Expression expr, BitSet statesOfInterest) throws PrismException
+	{
+		BatchExpressionEvaluator evaluator = new BatchExpressionEvaluator(model.getStatesList(), constantValues, numThreads);
+		// Labels are computed first (in the usual way) and then looked up by the evaluator
+		for (String label : expr.getAllLabels()) {
+			evaluator.addLabel(label, checkExpressionLabel(model, new ExpressionLabel(label), statesOfInterest).getBitSet());
+		}
+		if (expr.getType() instanceof TypeBool) {
+			return StateValues.createFromBitSet(evaluator.evaluateBoolean(expr, statesOfInterest), model);
+		} else if (expr.getType() instanceof TypeInt) {
+			return StateValues.createFromIntegerArray(evaluator.evaluateInt(expr, statesOfInterest), model);
+		} else {
+			return StateValues.createFromDoubleArray(evaluator.evaluateDouble(expr, statesOfInterest), model);
+		}
+	}
+
 	/**
 	 * Model check a binary operator.
 	 * @param statesOfInterest the states of interest, see checkExpression()
@@ -0,0 +1,465 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package explicit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PrimitiveIterator.OfInt;
+
+import explicit.rewards.MCRewards;
+import explicit.rewards.MDPRewards;
+import explicit.rewards.MDPRewardsSimple;
+import explicit.rewards.StateRewardsArray;
+import prism.PrismComponent;
+import prism.PrismException;
+
+/**
+ * A renumbering of the states of a model, used before numerical solution to improve
+ * the locality of matrix-vector multiplication and the convergence of Gauss-Seidel.
+ * State index i (of the original model) becomes index permut[i] (in the reordered model).
+ * <br>
+ * Besides computing the permutation, this class provides methods to map models,
+ * state sets, vectors, rewards and strategies to the new numbering, and back.
+ */
+public class StateReordering
+{
+	/** State orderings */
+	public enum Order {
+		NONE, BFS, RCM, SCC;
+		public String fullName()
+		{
+			switch (this) {
+			case NONE:
+				return "None";
+			case BFS:
+				return "BFS";
+			case RCM:
+				return "Reverse Cuthill-McKee";
+			case SCC:
+				return "SCC";
+			default:
+				return this.toString();
+			}
+		}
+	};
+
+	/** State index i becomes permut[i] */
+	private final int permut[];
+	/** Inverse of permut */
+	private final int permutInv[];
+
+	/**
+	 * Constructor: from a permutation (state index i becomes index permut[i]).
+	 */
+	public StateReordering(int permut[])
+	{
+		this.permut = permut;
+		permutInv = new int[permut.length];
+		for (int i = 0; i < permut.length; i++) {
+			permutInv[permut[i]] = i;
+		}
+	}
+
+	/**
+	 * Compute a reordering of the states of a model:
+	 * <ul>
+	 * <li> {@code BFS}: in breadth-first order from the initial states;
+	 * <li> {@code RCM}: reverse Cuthill-McKee order, for a small bandwidth of the transition matrix
+	 *      (ignoring the direction of transitions);
+	 * <li> {@code SCC}: by SCCs, in reverse topological order (i.e., bottom SCCs first).
+	 * </ul>
+	 * @param parent PrismComponent (for settings)
+	 * @param model The model
+	 * @param order The order to use (not {@code NONE})
+	 */
+	public static StateReordering compute(PrismComponent parent, Model model, Order order) throws PrismException
+	{
+		int newOrder[];
+		switch (order) {
+		case BFS:
+			newOrder = computeBFSOrder(model);
+			break;
+		case RCM:
+			newOrder = computeRCMOrder(model);
+			break;
+		case SCC:
+			newOrder = computeSCCOrder(parent, model);
+			break;
+		default:
+			throw new PrismException("Unknown state ordering " + order.fullName());
+		}
+		// newOrder lists the states in their new order, i.e., is the inverse permutation
+		int permut[] = new int[newOrder.length];
+		for (int i = 0; i < newOrder.length; i++) {
+			permut[newOrder[i]] = i;
+		}
+		return new StateReordering(permut);
+	}
+
+	/**
+	 * List the states in breadth-first order, starting from the initial states.
+	 * Unreachable states follow, each starting a new search, in index order.
+	 */
+	private static int[] computeBFSOrder(Model model)
+	{
+		int n = model.getNumStates();
+		int order[] = new int[n];
+		BitSet visited = new BitSet(n);
+		int head = 0, tail = 0;
+		for (int s : model.getInitialStates()) {
+			if (!visited.get(s)) {
+				visited.set(s);
+				order[tail++] = s;
+			}
+		}
+		int next = 0;
+		while (tail < n) {
+			if (head == tail) {
+				next = visited.nextClearBit(next);
+				visited.set(next);
+				order[tail++] = next;
+			}
+			while (head < tail) {
+				SuccessorsIterator it = model.getSuccessors(order[head++]);
+				while (it.hasNext()) {
+					int t = it.nextInt();
+					if (!visited.get(t)) {
+						visited.set(t);
+						order[tail++] = t;
+					}
+				}
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * List the states in reverse Cuthill-McKee order, on the undirected graph of the model.
+	 * Each connected component is started from a state of minimum degree.
+	 */
+	private static int[] computeRCMOrder(Model model)
+	{
+		int n = model.getNumStates();
+		// Build undirected adjacency (successors and predecessors) in CSR form
+		int degree[] = new int[n];
+		for (int s = 0; s < n; s++) {
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				int t = it.nextInt();
+				if (t != s) {
+					degree[s]++;
+					degree[t]++;
+				}
+			}
+		}
+		int starts[] = new int[n + 1];
+		for (int s = 0; s < n; s++) {
+			starts[s + 1] = starts[s] + degree[s];
+		}
+		int adj[] = new int[starts[n]];
+		int fill[] = Arrays.copyOf(starts, n);
+		for (int s = 0; s < n; s++) {
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				int t = it.nextInt();
+				if (t != s) {
+					adj[fill[s]++] = t;
+					adj[fill[t]++] = s;
+				}
+			}
+		}
+		fill = null;
+		// Candidate start states, by increasing degree
+		long byDegree[] = new long[n];
+		for (int s = 0; s < n; s++) {
+			byDegree[s] = ((long) degree[s] << 32) | s;
+		}
+		Arrays.sort(byDegree);
+		// Cuthill-McKee: BFS, visiting neighbours by increasing degree
+		int order[] = new int[n];
+		BitSet visited = new BitSet(n);
+		long neighbours[] = new long[16];
+		int head = 0, tail = 0;
+		for (int c = 0; c < n; c++) {
+			int start = (int) byDegree[c];
+			if (visited.get(start)) {
+				continue;
+			}
+			visited.set(start);
+			order[tail++] = start;
+			while (head < tail) {
+				int s = order[head++];
+				int numNeighbours = 0;
+				for (int k = starts[s]; k < starts[s + 1]; k++) {
+					int t = adj[k];
+					if (!visited.get(t)) {
+						visited.set(t);
+						if (numNeighbours == neighbours.length) {
+							neighbours = Arrays.copyOf(neighbours, 2 * neighbours.length);
+						}
+						neighbours[numNeighbours++] = ((long) degree[t] << 32) | t;
+					}
+				}
+				Arrays.sort(neighbours, 0, numNeighbours);
+				for (int k = 0; k < numNeighbours; k++) {
+					order[tail++] = (int) neighbours[k];
+				}
+			}
+		}
+		// Reverse
+		for (int i = 0, j = n - 1; i < j; i++, j--) {
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+		return order;
+	}
+
+	/**
+	 * List the states by SCC, in the (reverse topological) order
+	 * used by topological value iteration, i.e., bottom SCCs first.
+	 */
+	private static int[] computeSCCOrder(PrismComponent parent, Model model) throws PrismException
+	{
+		SCCInfo sccs = SCCComputer.computeTopologicalOrdering(parent, model, true);
+		int order[] = new int[model.getNumStates()];
+		int i = 0;
+		for (int scc = 0, numSCCs = sccs.getNumSCCs(); scc < numSCCs; scc++) {
+			OfInt it = sccs.getStatesForSCC(scc).iterator();
+			while (it.hasNext()) {
+				order[i++] = it.nextInt();
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Compute the bandwidth of the transition matrix of a model,
+	 * i.e., the maximum distance between the indices of a state and a successor.
+	 */
+	public static int computeBandwidth(Model model)
+	{
+		int bandwidth = 0;
+		for (int s = 0, n = model.getNumStates(); s < n; s++) {
+			SuccessorsIterator it = model.getSuccessors(s);
+			while (it.hasNext()) {
+				bandwidth = Math.max(bandwidth, Math.abs(it.nextInt() - s));
+			}
+		}
+		return bandwidth;
+	}
+
+	/**
+	 * Get the permutation (state index i becomes index permut[i]).
+	 */
+	public int[] getPermutation()
+	{
+		return permut;
+	}
+
+	/**
+	 * Get a copy of a DTMC, with states reordered.
+	 * Labels and the list of states are not copied.
+	 * Probability/column storage of a {@link DTMCSparse} is preserved.
+	 */
+	public DTMC permute(DTMC dtmc)
+	{
+		DTMCSparse result = new DTMCSparse(dtmc, permut);
+		if (dtmc instanceof DTMCSparse) {
+			result.setProbabilityStorageType(((DTMCSparse) dtmc).getProbabilityStorageType());
+			result.setColumnStorageType(((DTMCSparse) dtmc).getColumnStorageType());
+		}
+		return result;
+	}
+
+	/**
+	 * Get a copy of an MDP, with states reordered.
+	 * Labels and the list of states are not copied.
+	 * Probability/column storage of an {@link MDPSparse} is preserved.
+	 */
+	public MDP permute(MDP mdp)
+	{
+		MDPSparse result = new MDPSparse(mdp, permut);
+		if (mdp instanceof MDPSparse) {
+			result.setProbabilityStorageType(((MDPSparse) mdp).getProbabilityStorageType());
+			result.setColumnStorageType(((MDPSparse) mdp).getColumnStorageType());
+		}
+		return result;
+	}
+
+	/**
+	 * Map a set of states to the new numbering (null maps to null).
+	 */
+	public BitSet permute(BitSet set)
+	{
+		if (set == null) {
+			return null;
+		}
+		BitSet result = new BitSet(permut.length);
+		for (int s = set.nextSetBit(0); s >= 0; s = set.nextSetBit(s + 1)) {
+			result.set(permut[s]);
+		}
+		return result;
+	}
+
+	/**
+	 * Map a vector to the new numbering (null maps to null).
+	 */
+	public double[] permute(double vect[])
+	{
+		if (vect == null) {
+			return null;
+		}
+		double result[] = new double[vect.length];
+		for (int s = 0; s < vect.length; s++) {
+			result[permut[s]] = vect[s];
+		}
+		return result;
+	}
+
+	/**
+	 * Map a vector back to the original numbering (null maps to null).
+	 */
+	public double[] unpermute(double vect[])
+	{
+		if (vect == null) {
+			return null;
+		}
+		double result[] = new double[vect.length];
+		for (int s = 0; s < vect.length; s++) {
+			result[s] = vect[permut[s]];
+		}
+		return result;
+	}
+
+	/**
+	 * Map a strategy (array of choice indices) to the new numbering (null maps to null).
+	 * Choice indices are not affected by the reordering.
+	 */
+	public int[] permute(int strat[])
+	{
+		if (strat == null) {
+			return null;
+		}
+		int result[] = new int[strat.length];
+		for (int s = 0; s < strat.length; s++) {
+			result[permut[s]] = strat[s];
+		}
+		return result;
+	}
+
+	/**
+	 * Map a strategy (array of choice indices) back to the original numbering,
+	 * storing it in {@code strat} (if non-null).
+	 */
+	public void unpermute(int stratPermuted[], int strat[])
+	{
+		if (strat == null) {
+			return;
+		}
+		for (int s = 0; s < strat.length; s++) {
+			strat[s] = stratPermuted[permut[s]];
+		}
+	}
+
+	/**
+	 * Get a view of DTMC rewards with states reordered.
+	 */
+	public MCRewards permute(MCRewards mcRewards)
+	{
+		return new MCRewards()
+		{
+			@Override
+			public double getStateReward(int s)
+			{
+				return mcRewards.getStateReward(permutInv[s]);
+			}
+
+			@Override
+			public MCRewards liftFromModel(Product<? extends Model> product)
+			{
+				int numStatesProd = product.getProductModel().getNumStates();
+				StateRewardsArray rewardsProd = new StateRewardsArray(numStatesProd);
+				for (int s = 0; s < numStatesProd; s++) {
+					rewardsProd.setStateReward(s, getStateReward(product.getModelState(s)));
+				}
+				return rewardsProd;
+			}
+
+			@Override
+			public boolean hasTransitionRewards()
+			{
+				return mcRewards.hasTransitionRewards();
+			}
+		};
+	}
+
+	/**
+	 * Get a view of MDP rewards with states reordered.
+	 * Choice indices are not affected by the reordering.
+	 */
+	public MDPRewards permute(MDPRewards mdpRewards)
+	{
+		return new MDPRewards()
+		{
+			@Override
+			public double getStateReward(int s)
+			{
+				return mdpRewards.getStateReward(permutInv[s]);
+			}
+
+			@Override
+			public double getTransitionReward(int s, int i)
+			{
+				return mdpRewards.getTransitionReward(permutInv[s], i);
+			}
+
+			@Override
+			public MDPRewards liftFromModel(Product<? extends Model> product)
+			{
+				NondetModel modelProd = (NondetModel) product.getProductModel();
+				int numStatesProd = modelProd.getNumStates();
+				MDPRewardsSimple rewardsProd = new MDPRewardsSimple(numStatesProd);
+				for (int s = 0; s < numStatesProd; s++) {
+					int sModel = product.getModelState(s);
+					rewardsProd.setStateReward(s, getStateReward(sModel));
+					int numChoices = modelProd.getNumChoices(s);
+					for (int i = 0; i < numChoices; i++) {
+						rewardsProd.setTransitionReward(s, i, getTransitionReward(sModel, i));
+					}
+				}
+				return rewardsProd;
+			}
+
+			@Override
+			public boolean hasTransitionRewards()
+			{
+				return mdpRewards.hasTransitionRewards();
+			}
+		};
+	}
+}
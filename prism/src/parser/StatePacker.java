@@ -0,0 +1,225 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+package parser;
+
+import parser.ast.DeclarationIntUnbounded;
+import parser.type.TypeBool;
+import parser.type.TypeInt;
+import prism.PrismLangException;
+
+/**
+ * Class to encode states (State objects) compactly, as one or more {@code long} words,
+ * using the (bounded) ranges of variables that are known from a {@link VarList}.
+ * Each variable is stored, offset by its lower bound, in a bit field of
+ * just the size needed for its range; a variable never spans two words.
+ * <br><br>
+ * Variables are packed starting from the most significant bits of the first word,
+ * so comparing two encodings word by word, as unsigned values, gives the same ordering
+ * as {@link State#compareTo(State)} on the original states.
+ */
+public class StatePacker
+{
+	/** Number of variables */
+	private int numVars;
+	/** Number of words used to store a state */
+	private int numWords;
+	/** For each variable, the word it is stored in */
+	private int varWord[];
+	/** For each variable, the (right) shift of its bit field within the word */
+	private int varShift[];
+	/** For each variable, the (unshifted) mask of its bit field */
+	private long varMask[];
+	/** For each variable, its lower bound */
+	private int varLow[];
+	/** For each variable, the largest value that can be stored (upper bound minus lower bound) */
+	private long varRange[];
+	/** For each variable, its name */
+	private String varNames[];
+	/** For each variable, whether it is a Boolean */
+	private boolean varIsBool[];
+
+	/**
+	 * Check whether the states for the variables in a VarList can be packed,
+	 * i.e. whether all variables are bounded integers or Booleans.
+	 */
+	public static boolean canPack(VarList varList)
+	{
+		int n = varList.getNumVars();
+		for (int i = 0; i < n; i++) {
+			if (varList.getDeclaration(i).getDeclType() instanceof DeclarationIntUnbounded) {
+				return false;
+			}
+			if (!(varList.getType(i) instanceof TypeInt || varList.getType(i) instanceof TypeBool)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Create a StatePacker for the variables in a VarList.
+	 * Throws an exception if the variables cannot be packed (see {@link #canPack(VarList)}).
+	 */
+	public StatePacker(VarList varList) throws PrismLangException
+	{
+		if (!canPack(varList)) {
+			throw new PrismLangException("States can only be packed if all variables are bounded integers or Booleans");
+		}
+		numVars = varList.getNumVars();
+		varWord = new int[numVars];
+		varShift = new int[numVars];
+		varMask = new long[numVars];
+		varLow = new int[numVars];
+		varRange = new long[numVars];
+		varNames = new String[numVars];
+		varIsBool = new boolean[numVars];
+		// Allocate bit fields, from the most significant bit downwards
+		int word = 0;
+		int bitsLeft = 64;
+		for (int i = 0; i < numVars; i++) {
+			int range = varList.getRange(i);
+			int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(range - 1));
+			if (bits > bitsLeft) {
+				word++;
+				bitsLeft = 64;
+			}
+			bitsLeft -= bits;
+			varWord[i] = word;
+			varShift[i] = bitsLeft;
+			varMask[i] = (1L << bits) - 1;
+			varLow[i] = varList.getLow(i);
+			varRange[i] = (long) varList.getHigh(i) - varList.getLow(i);
+			varNames[i] = varList.getName(i);
+			varIsBool[i] = varList.getType(i) instanceof TypeBool;
+		}
+		numWords = numVars == 0 ? 1 : word + 1;
+	}
+
+	/**
+	 * Get the number of variables in each state.
+	 */
+	public int getNumVars()
+	{
+		return numVars;
+	}
+
+	/**
+	 * Get the number of {@code long} words needed to store each state.
+	 */
+	public int getNumWords()
+	{
+		return numWords;
+	}
+
+	/**
+	 * Encode a state, storing it in {@code words[offset]}, ..., {@code words[offset + getNumWords() - 1]}.
+	 * Throws an exception if a variable value is of the wrong type or outside its declared range.
+	 */
+	public void pack(State state, long words[], int offset) throws PrismLangException
+	{
+		for (int w = 0; w < numWords; w++) {
+			words[offset + w] = 0L;
+		}
+		Object varValues[] = state.varValues;
+		for (int i = 0; i < numVars; i++) {
+			long val;
+			if (varIsBool[i]) {
+				if (!(varValues[i] instanceof Boolean)) {
+					throw new PrismLangException("Value " + varValues[i] + " of variable \"" + varNames[i] + "\" in state " + state + " is not a Boolean");
+				}
+				val = ((Boolean) varValues[i]) ? 1 : 0;
+			} else {
+				if (!(varValues[i] instanceof Integer)) {
+					throw new PrismLangException("Value " + varValues[i] + " of variable \"" + varNames[i] + "\" in state " + state + " is not an integer");
+				}
+				val = (long) ((Integer) varValues[i]) - varLow[i];
+				if (val < 0 || val > varRange[i]) {
+					String range = varLow[i] + ".." + (varLow[i] + varRange[i]);
+					throw new PrismLangException("Value " + varValues[i] + " of variable \"" + varNames[i] + "\" in state " + state + " is out of range (" + range + ")");
+				}
+			}
+			words[offset + varWord[i]] |= val << varShift[i];
+		}
+	}
+
+	/**
+	 * Decode a state stored in {@code words[offset]}, ..., {@code words[offset + getNumWords() - 1]},
+	 * returning it as a new State object.
+	 */
+	public State unpack(long words[], int offset)
+	{
+		State state = new State(numVars);
+		for (int i = 0; i < numVars; i++) {
+			state.varValues[i] = getValue(words, offset, i);
+		}
+		return state;
+	}
+
+	/**
+	 * Get the value (as an Object) of the {@code i}th variable of a state stored
+	 * in {@code words[offset]}, ..., {@code words[offset + getNumWords() - 1]}.
+	 */
+	public Object getValue(long words[], int offset, int i)
+	{
+		int val = getEncodedValue(words[offset + varWord[i]], i);
+		return varIsBool[i] ? Boolean.valueOf(val != 0) : Integer.valueOf(val + varLow[i]);
+	}
+
+	/**
+	 * Get the value of the {@code i}th variable, encoded as an integer (i.e., offset by the
+	 * lower bound of the variable, or 0/1 for Booleans), from the word in which it is stored
+	 * (see {@link #getWordIndex(int)}).
+	 */
+	public int getEncodedValue(long word, int i)
+	{
+		return (int) ((word >>> varShift[i]) & varMask[i]);
+	}
+
+	/**
+	 * Get the index of the word in which the {@code i}th variable is stored.
+	 */
+	public int getWordIndex(int i)
+	{
+		return varWord[i];
+	}
+
+	/**
+	 * Get the lower bound of the {@code i}th variable (0 for Booleans).
+	 */
+	public int getLow(int i)
+	{
+		return varLow[i];
+	}
+
+	/**
+	 * Is the {@code i}th variable a Boolean?
+	 */
+	public boolean isBoolean(int i)
+	{
+		return varIsBool[i];
+	}
+}
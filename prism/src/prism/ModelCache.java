@@ -0,0 +1,171 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+
+package prism;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import explicit.BinaryModelFile;
+import explicit.Model;
+import explicit.ModelExplicit;
+import parser.Values;
+import parser.ast.ModulesFile;
+
+/**
+ * Persistent, on-disk cache of models built by the explicit engine, stored as
+ * binary model files (see {@link BinaryModelFile}) in a directory.
+ * <br><br>
+ * Models are identified by a key, computed from the (normalised) text of the
+ * PRISM model, the values of its constants and any options that affect the model built.
+ * The total size of the cache is bounded: when it is exceeded, the least recently used
+ * models are removed. Problems accessing the cache are reported as warnings,
+ * so that the model is just built as usual.
+ */
+public class ModelCache extends PrismComponent
+{
+	/** File name extension for cached models */
+	private static final String EXTENSION = ".pbin";
+
+	/** Cache directory */
+	private File dir;
+	/** Maximum total size of the cache (bytes) */
+	private long maxSize;
+
+	/**
+	 * Create a model cache, stored in directory {@code dir} (created if needed),
+	 * of total size at most {@code maxSize} bytes.
+	 */
+	public ModelCache(PrismComponent parent, File dir, long maxSize)
+	{
+		super(parent);
+		this.dir = dir;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Compute the cache key for a PRISM model.
+	 * @param modulesFile The model
+	 * @param constantValues Values of the model's undefined constants (may be null)
+	 * @param options Description of all settings that affect model construction
+	 * (e.g. from {@link explicit.ConstructModel#getOptionsDescription()})
+	 */
+	public static String getKey(ModulesFile modulesFile, Values constantValues, String options) throws PrismException
+	{
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(modulesFile.toString().getBytes(StandardCharsets.UTF_8));
+			digest.update(("\n" + (constantValues == null ? "" : constantValues.toString())).getBytes(StandardCharsets.UTF_8));
+			digest.update(("\n" + options).getBytes(StandardCharsets.UTF_8));
+			StringBuilder key = new StringBuilder();
+			for (byte b : digest.digest()) {
+				key.append(String.format("%02x", b));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new PrismException("Could not compute model cache key: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Load the model with key {@code key} from the cache, or return null if it is not present
+	 * (or cannot be loaded).
+	 */
+	public ModelExplicit load(String key)
+	{
+		File file = new File(dir, key + EXTENSION);
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			ModelExplicit model = new BinaryModelFile(file).buildModel();
+			// Mark as recently used
+			file.setLastModified(System.currentTimeMillis());
+			return model;
+		} catch (PrismException e) {
+			mainLog.printWarning("Could not load model from cache: " + e.getMessage());
+			file.delete();
+			return null;
+		}
+	}
+
+	/**
+	 * Store a model in the cache, with key {@code key}, and remove least recently used models if needed.
+	 * @param key The key
+	 * @param model The model (a DTMC or MDP)
+	 * @param varNames Names of the variables in the model's states
+	 * @param labelNames Names of labels to store (excluding "init" and "deadlock")
+	 * @param labelStates States satisfying each label
+	 */
+	public void store(String key, Model model, List<String> varNames, List<String> labelNames, List<BitSet> labelStates)
+	{
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			mainLog.printWarning("Could not create model cache directory \"" + dir + "\"");
+			return;
+		}
+		File file = new File(dir, key + EXTENSION);
+		try {
+			// (this writes a temporary file first, so other processes never see a partial file)
+			BinaryModelFile.exportModel(model, varNames, labelNames, labelStates, file);
+		} catch (PrismException e) {
+			mainLog.printWarning("Could not store model in cache: " + e.getMessage());
+			return;
+		}
+		evict();
+	}
+
+	/**
+	 * Remove the least recently used models until the cache is within its maximum size.
+	 */
+	private void evict()
+	{
+		File files[] = dir.listFiles((d, name) -> name.endsWith(EXTENSION));
+		if (files == null) {
+			return;
+		}
+		long lastModified[] = new long[files.length];
+		Integer order[] = new Integer[files.length];
+		for (int i = 0; i < files.length; i++) {
+			lastModified[i] = files[i].lastModified();
+			order[i] = i;
+		}
+		// Most recently used first
+		Arrays.sort(order, (i, j) -> Long.compare(lastModified[j], lastModified[i]));
+		long size = 0;
+		for (int i : order) {
+			size += files[i].length();
+			if (size > maxSize) {
+				files[i].delete();
+			}
+		}
+	}
+}
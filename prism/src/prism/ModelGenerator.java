@@ -31,6 +31,7 @@ import java.util.Collections;
 import java.util.List;
 
 import parser.State;
+import parser.ast.Expression;
 
 /**
  * Interface for classes that generate a probabilistic model:
@@ -65,6 +66,17 @@ public interface ModelGenerator extends ModelInfo
 	 */
 	public State getInitialState() throws PrismException;
 	
+	/**
+	 * Create a copy of this ModelGenerator that has its own, independent exploration state,
+	 * so that the two can be used concurrently from different threads.
+	 * Returns null if this is not supported (the default).
+	 */
+	public default ModelGenerator createCopy() throws PrismException
+	{
+		// No support for copies by default
+		return null;
+	}
+	
 	/**
 	 * Explore a given state of the model. After a call to this method,
 	 * the class should be able to respond to the various methods that are
@@ -176,6 +188,17 @@ public interface ModelGenerator extends ModelInfo
 		throw new PrismException("Label number \"" + i + "\" not defined");
 	}
 	
+	/**
+	 * Get an expression over the model's variables (with any constants already replaced)
+	 * that defines the {@code i}th label, or null if there is none (the default). If available, this is used to evaluate
+	 * the label for all states of a model at once, rather than via {@link #isLabelTrue(int)}.
+	 * @param i The index of the label
+	 */
+	public default Expression getLabelExpression(int i) throws PrismException
+	{
+		return null;
+	}
+	
 	/**
 	 * Get the state reward of the {@code r}th reward structure for state {@code state}
 	 * ({@code r} is indexed from 0, not from 1 like at the user (property language) level).
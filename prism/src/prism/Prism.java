@@ -31,6 +31,7 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 import dv.DoubleVector;
@@ -39,7 +40,9 @@ import explicit.CTMCModelChecker;
 import explicit.ConstructModel;
 import explicit.DTMC;
 import explicit.DTMCModelChecker;
+import explicit.BinaryModelFile;
 import explicit.ExplicitFiles2Model;
+import explicit.ModelExplicit;
 import explicit.FastAdaptiveUniformisation;
 import explicit.FastAdaptiveUniformisationModelChecker;
 import hybrid.PrismHybrid;
@@ -58,6 +61,7 @@ import parser.PrismParser;
 import parser.State;
 import parser.Values;
 import parser.ast.Expression;
+import parser.ast.ExpressionLabel;
 import parser.ast.ForLoop;
 import parser.ast.LabelList;
 import parser.ast.ModulesFile;
@@ -118,6 +122,9 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	public static final int BSOR = 9;
 	public static final int PSOR = 10;
 	public static final int BPSOR = 11;
+	public static final int OPTIMISTIC_VALITER = 12;
+	public static final int GMRES = 13;
+	public static final int BICGSTAB = 14;
 
 	// methods for solving MDPs
 	public static final int MDP_VALITER = 1;
@@ -125,6 +132,8 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	public static final int MDP_POLITER = 3;
 	public static final int MDP_MODPOLITER = 4;
 	public static final int MDP_LP = 5;
+	public static final int MDP_OPTIMISTIC_VALITER = 6;
+	public static final int MDP_PRIORITISED_VALITER = 7;
 
 	// methods for solving multi-objective queries on MDPs
 	public static final int MDP_MULTI_VALITER = 1;
@@ -246,7 +255,7 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	//------------------------------------------------------------------------------
 
 	private enum ModelSource {
-		PRISM_MODEL, MODEL_GENERATOR, EXPLICIT_FILES, BUILT_MODEL
+		PRISM_MODEL, MODEL_GENERATOR, EXPLICIT_FILES, BINARY_FILE, BUILT_MODEL
 	}
 
 	// Info about currently loaded model, if any
@@ -275,6 +284,9 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	private File explicitFilesStateRewardsFile = null;
 	private int explicitFilesNumStates = -1;
 
+	// Info for binary model file load
+	private BinaryModelFile binaryModelFile = null;
+
 	// Has the CUDD library been initialised yet?
 	private boolean cuddStarted = false;
 
@@ -1878,6 +1890,28 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 		return currentModulesFile;
 	}
 
+	/**
+	 * Load a binary model file (see {@link BinaryModelFile}) for subsequent model building.
+	 * Only the header of the file is read at this point.
+	 * A corresponding ModulesFile object, giving the model type, variables and labels, is created and returned.
+	 * @param file The binary model file
+	 */
+	public ModulesFile loadModelFromBinaryFile(File file) throws PrismException
+	{
+		currentModelSource = ModelSource.BINARY_FILE;
+		// Clear any existing built model(s)
+		clearBuiltModel();
+		// Read header and construct ModulesFile
+		binaryModelFile = new BinaryModelFile(file);
+		currentModulesFile = binaryModelFile.createModulesFile();
+		// Reset dependent info
+		currentModelType = currentModulesFile.getModelType();
+		currentModelInfo = currentModulesFile;
+		currentDefinedMFConstants = null;
+
+		return currentModulesFile;
+	}
+
 	/**
 	 * Get the type of the currently stored model.
 	 * @return
@@ -1964,6 +1998,9 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 	private void doBuildModel() throws PrismException
 	{
 		long l; // timer
+		// Model cache and key, if the built model should be cached
+		ModelCache modelCache = null;
+		String modelCacheKey = null;
 
 		// Clear any existing built model(s)
 		clearBuiltModel();
@@ -1993,7 +2030,27 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 					}
 					ConstructModel constructModel = new ConstructModel(this);
 					constructModel.setFixDeadlocks(getFixDeadlocks());
-					currentModelExpl = constructModel.constructModel(currentModelGenerator);
+					// Reuse a cached model, if available
+					// (the key covers all settings that affect the model built, see ConstructModel.getOptionsDescription();
+					// cached models are always loaded in sparse form, so the cache is only used when building sparse models)
+					String modelCacheDir = getSettings().getString(PrismSettings.PRISM_MODEL_CACHE_DIR);
+					if (!"".equals(modelCacheDir) && !digital && (currentModelType == ModelType.DTMC || currentModelType == ModelType.MDP) && constructModel.getBuildSparse()) {
+						modelCache = new ModelCache(this, new File(modelCacheDir), getSettings().getInteger(PrismSettings.PRISM_MODEL_CACHE_SIZE) * 1048576L);
+						modelCacheKey = ModelCache.getKey(currentModulesFile, currentDefinedMFConstants, constructModel.getOptionsDescription());
+						ModelExplicit cachedModel = modelCache.load(modelCacheKey);
+						if (cachedModel != null) {
+							mainLog.println("Loaded model from cache directory \"" + modelCacheDir + "\"");
+							cachedModel.setVarList(currentModelGenerator.createVarList());
+							cachedModel.setConstantValues(new Values(currentModelGenerator.getConstantValues()));
+							// Cached models are stored with double probabilities and int columns
+							constructModel.convertStorage(cachedModel);
+							currentModelExpl = cachedModel;
+							modelCache = null;
+						}
+					}
+					if (currentModelExpl == null) {
+						currentModelExpl = constructModel.constructModel(currentModelGenerator);
+					}
 					currentModel = null;
 				}
 				// if (...) ... currentModel = buildModelExplicit(currentModulesFile);
@@ -2021,6 +2078,16 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 					currentModelExpl = new ExplicitFiles2Model(this).build(explicitFilesStatesFile, explicitFilesTransFile, explicitFilesLabelsFile, currentModulesFile, explicitFilesNumStates);
 				}
 				break;
+			case BINARY_FILE:
+				if (!getExplicit()) {
+					throw new PrismNotSupportedException("Binary model files can only be imported with the explicit engine");
+				}
+				ModelExplicit binaryModel = binaryModelFile.buildModel();
+				// (any constants were already substituted when the file was written)
+				binaryModel.setVarList(currentModulesFile.createVarList());
+				binaryModel.setConstantValues(new Values());
+				currentModelExpl = binaryModel;
+				break;
 			default:
 				throw new PrismException("Don't know how to build model from source " + currentModelSource);
 			}
@@ -2085,6 +2152,12 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				mainLog.print(currentModelExpl.infoStringTable());
 			}
 
+			// Store newly built model in the cache, if required
+			if (modelCache != null) {
+				List<String> labelNames = currentModelInfo.getLabelNames();
+				modelCache.store(modelCacheKey, currentModelExpl, currentModelInfo.getVarNames(), labelNames, getLabelStatesExplicit(labelNames));
+			}
+
 			// Notify model listeners of build success
 			for (PrismModelListener listener : modelListeners) {
 				if (listener != null)
@@ -2839,6 +2912,41 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 			tmpLog.close();
 	}
 
+	/**
+	 * Export the currently loaded model (transitions, states and labels) to a binary model file
+	 * (see {@link BinaryModelFile}), which can be imported later with {@link #loadModelFromBinaryFile(File)}.
+	 * This is only supported by the explicit engine, for DTMCs and MDPs.
+	 * @param file File to export to
+	 */
+	public void exportToBinaryFile(File file) throws PrismException
+	{
+		if (!getExplicit())
+			throw new PrismNotSupportedException("Export to binary model file is only supported by the explicit engine");
+
+		// Build model, if necessary
+		buildModelIfRequired();
+
+		// Print message
+		mainLog.println("\nExporting model to binary file \"" + file + "\"...");
+
+		// Export
+		List<String> labelNames = currentModelInfo.getLabelNames();
+		BinaryModelFile.exportModel(currentModelExpl, currentModelInfo.getVarNames(), labelNames, getLabelStatesExplicit(labelNames), file);
+	}
+
+	/**
+	 * Compute the states of the currently loaded (explicit) model that satisfy each of the given labels.
+	 */
+	private List<BitSet> getLabelStatesExplicit(List<String> labelNames) throws PrismException
+	{
+		List<BitSet> labelStates = new ArrayList<BitSet>();
+		explicit.StateModelChecker mcExpl = createModelCheckerExplicit(null);
+		for (String labelName : labelNames) {
+			labelStates.add(mcExpl.checkExpression(currentModelExpl, new ExpressionLabel(labelName), null).getBitSet());
+		}
+		return labelStates;
+	}
+
 	/**
 	 * Perform model checking of a property on the currently loaded model and return result.
 	 * Here, the property is passed as a string and parsed first. Usually, you would use the other
@@ -2914,6 +3022,12 @@ public class Prism extends PrismComponent implements PrismSettingsListener
 				setEngine(Prism.EXPLICIT);
 			}
 		}
+		if (!currentModelType.nondeterministic() && getLinEqMethod() >= Prism.OPTIMISTIC_VALITER && !getExplicit()) {
+			mainLog.printWarning("Switching to explicit engine to allow use of chosen linear equation solution method.");
+			engineSwitch = true;
+			lastEngine = getEngine();
+			setEngine(Prism.EXPLICIT);
+		}
 		if (Expression.containsNonProbLTLFormula(prop.getExpression())) {
 			mainLog.printWarning("Switching to explicit engine to allow non-probabilistic LTL mocel checking.");
 			engineSwitch = true;
@@ -63,6 +63,7 @@ public class PrismCL implements PrismModelListener
 	private boolean importpepa = false;
 	private boolean importprismpp = false;
 	private boolean importtrans = false;
+	private boolean importbinary = false;
 	private boolean importstates = false;
 	private boolean importlabels = false;
 	private boolean importstaterewards = false;
@@ -74,6 +75,7 @@ public class PrismCL implements PrismModelListener
 	private boolean exporttransrewards = false;
 	private boolean exportstates = false;
 	private boolean exportlabels = false;
+	private boolean exportbinary = false;
 	private boolean exportspy = false;
 	private boolean exportdot = false;
 	private boolean exporttransdot = false;
@@ -131,6 +133,7 @@ public class PrismCL implements PrismModelListener
 	private String exportTransRewardsFilename = null;
 	private String exportStatesFilename = null;
 	private String exportLabelsFilename = null;
+	private String exportBinaryFilename = null;
 	private String exportSpyFilename = null;
 	private String exportDotFilename = null;
 	private String exportTransDotFilename = null;
@@ -580,6 +583,9 @@ public class PrismCL implements PrismModelListener
 				}
 				mainLog.println("...");
 				modulesFile = prism.loadModelFromExplicitFiles(sf, new File(modelFilename), lf, srf, typeOverride);
+			} else if (importbinary) {
+				mainLog.print("\nImporting binary model file \"" + modelFilename + "\"...\n");
+				modulesFile = prism.loadModelFromBinaryFile(new File(modelFilename));
 			} else {
 				mainLog.print("\nParsing model file \"" + modelFilename + "\"...\n");
 				modulesFile = prism.parseModelFile(new File(modelFilename), typeOverride);
@@ -622,7 +628,7 @@ public class PrismCL implements PrismModelListener
 
 		// Load model into PRISM (if not done already)
 		try {
-			if (!importtrans) {
+			if (!importtrans && !importbinary) {
 				prism.loadPRISMModel(modulesFile);
 			}
 		} catch (PrismException e) {
@@ -733,6 +739,17 @@ public class PrismCL implements PrismModelListener
 			}
 		}
 
+		// export model to binary file
+		if (exportbinary) {
+			try {
+				prism.exportToBinaryFile(new File(exportBinaryFilename));
+			}
+			// in case of error, report it and proceed
+			catch (PrismException e) {
+				error(e.getMessage());
+			}
+		}
+
 		// export to spy file
 		if (exportspy) {
 			try {
@@ -1235,6 +1252,10 @@ public class PrismCL implements PrismModelListener
 				else if (sw.equals("importtrans")) {
 					importtrans = true;
 				}
+				// import model from binary model file
+				else if (sw.equals("importbinary")) {
+					importbinary = true;
+				}
 				// import states for explicit model import
 				else if (sw.equals("importstates")) {
 					if (i < args.length - 1) {
@@ -1326,6 +1347,15 @@ public class PrismCL implements PrismModelListener
 						errorAndExit("No file/options specified for -" + sw + " switch");
 					}
 				}
+				// export model to binary model file
+				else if (sw.equals("exportbinary")) {
+					if (i < args.length - 1) {
+						exportbinary = true;
+						exportBinaryFilename = args[++i];
+					} else {
+						errorAndExit("No file specified for -" + sw + " switch");
+					}
+				}
 				// export transition matrix to file
 				else if (sw.equals("exporttrans")) {
 					if (i < args.length - 1) {
@@ -2317,6 +2347,7 @@ public class PrismCL implements PrismModelListener
 		mainLog.println("-importpepa .................... Model description is in PEPA, not the PRISM language");
 		mainLog.println("-importmodel <files> ........... Import the model directly from text file(s)");
 		mainLog.println("-importtrans <file> ............ Import the transition matrix directly from a text file");
+		mainLog.println("-importbinary .................. Model file is a binary model file (explicit engine only)");
 		mainLog.println("-importstates <file>............ Import the list of states directly from a text file");
 		mainLog.println("-importlabels <file>............ Import the list of labels directly from a text file");
 		mainLog.println("-importstaterewards <file>...... Import the state rewards directly from a text file");
@@ -2334,6 +2365,7 @@ public class PrismCL implements PrismModelListener
 		mainLog.println("-exportrewards <file1> <file2>.. Export state/transition rewards to files 1/2");
 		mainLog.println("-exportstates <file> ........... Export the list of reachable states to a file");
 		mainLog.println("-exportlabels <file> ........... Export the list of labels and satisfying states to a file");
+		mainLog.println("-exportbinary <file> ........... Export the built model to a binary model file (explicit engine only)");
 		mainLog.println("-exportmatlab .................. When exporting matrices/vectors/labels/etc., use Matlab format");
 		mainLog.println("-exportmrmc .................... When exporting matrices/vectors/labels, use MRMC format");
 		mainLog.println("-exportrows .................... When exporting matrices, put a whole row on one line");
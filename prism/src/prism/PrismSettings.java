@@ -84,7 +84,10 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_COMPACT						= "prism.compact";
 	public static final	String PRISM_LIN_EQ_METHOD					= "prism.linEqMethod";//"prism.iterativeMethod";
 	public static final	String PRISM_LIN_EQ_METHOD_PARAM			= "prism.linEqMethodParam";//"prism.overRelaxation";
+	public static final	String PRISM_KRYLOV_PRECONDITIONER			= "prism.krylovPreconditioner";
+	public static final	String PRISM_GMRES_RESTART					= "prism.gmresRestart";
 	public static final String PRISM_TOPOLOGICAL_VI					= "prism.topologicalVI";
+	public static final	String PRISM_TOPOLOGICAL_DIRECT_MAX			= "prism.topologicalDirectMax";
 	public static final	String PRISM_PMAX_QUOTIENT					= "prism.pmaxQuotient";
 	public static final	String PRISM_INTERVAL_ITER					= "prism.intervalIter";
 	public static final	String PRISM_INTERVAL_ITER_OPTIONS			= "prism.intervalIterOptions";
@@ -99,6 +102,17 @@ public class PrismSettings implements Observer
 	public static final	String PRISM_CUDD_EPSILON					= "prism.cuddEpsilon";
 	public static final	String PRISM_DD_EXTRA_STATE_VARS				= "prism.ddExtraStateVars";
 	public static final	String PRISM_DD_EXTRA_ACTION_VARS				= "prism.ddExtraActionVars";
+	public static final	String PRISM_EXPLICIT_NUM_THREADS			= "prism.explicitNumThreads";
+	public static final	String PRISM_EXPLICIT_PACK_STATES			= "prism.explicitPackStates";
+	public static final	String PRISM_EXPLICIT_STATE_STORAGE			= "prism.explicitStateStorage";
+	public static final	String PRISM_EXPLICIT_STATE_STORAGE_DIR		= "prism.explicitStateStorageDir";
+	public static final	String PRISM_EXPLICIT_PROB_STORAGE			= "prism.explicitProbStorage";
+	public static final	String PRISM_EXPLICIT_COMPRESS_COLUMNS		= "prism.explicitCompressColumns";
+	public static final	String PRISM_EXPLICIT_REORDER				= "prism.explicitReorder";
+	public static final	String PRISM_COMPILE_MODEL					= "prism.compileModel";
+	public static final	String PRISM_MODEL_CACHE_DIR				= "prism.modelCacheDir";
+	public static final	String PRISM_MODEL_CACHE_SIZE				= "prism.modelCacheSize";
+	public static final	String PRISM_PARALLEL_ITERATION				= "prism.parallelIteration";
 	public static final	String PRISM_NUM_SB_LEVELS					= "prism.numSBLevels";//"prism.hybridNumLevels";
 	public static final	String PRISM_SB_MAX_MEM						= "prism.SBMaxMem";//"prism.hybridMaxMemory";
 	public static final	String PRISM_NUM_SOR_LEVELS					= "prism.numSORLevels";//"prism.hybridSORLevels";
@@ -241,19 +255,25 @@ public class PrismSettings implements Observer
 			{ CHOICE_TYPE,		PRISM_TRANSIENT_METHOD,					"Transient probability computation method",	"3.3",		"Uniformisation",															"Uniformisation,Fast adaptive uniformisation",																
 																			"Which method to use for computing transient probabilities in CTMCs." },
 			// NUMERICAL SOLUTION OPTIONS:
-			{ CHOICE_TYPE,		PRISM_LIN_EQ_METHOD,					"Linear equations method",				"2.1",			"Jacobi",																	"Power,Jacobi,Gauss-Seidel,Backwards Gauss-Seidel,Pseudo-Gauss-Seidel,Backwards Pseudo-Gauss-Seidel,JOR,SOR,Backwards SOR,Pseudo-SOR,Backwards Pseudo-SOR",
+			{ CHOICE_TYPE,		PRISM_LIN_EQ_METHOD,					"Linear equations method",				"2.1",			"Jacobi",																	"Power,Jacobi,Gauss-Seidel,Backwards Gauss-Seidel,Pseudo-Gauss-Seidel,Backwards Pseudo-Gauss-Seidel,JOR,SOR,Backwards SOR,Pseudo-SOR,Backwards Pseudo-SOR,Optimistic value iteration,GMRES,BiCGSTAB",
 																			"Which iterative method to use when solving linear equation systems." },
 			{ DOUBLE_TYPE,		PRISM_LIN_EQ_METHOD_PARAM,				"Over-relaxation parameter",			"2.1",			new Double(0.9),															"",																							
 																			"Over-relaxation parameter for iterative numerical methods such as JOR/SOR." },
+			{ CHOICE_TYPE,		PRISM_KRYLOV_PRECONDITIONER,			"Krylov preconditioner",				"4.3.1",		"Jacobi",																	"None,Jacobi,ILU(0)",
+																			"Which preconditioner to use for Krylov-subspace linear equation solvers (GMRES, BiCGSTAB) in the explicit engine." },
+			{ INTEGER_TYPE,		PRISM_GMRES_RESTART,					"GMRES restart",						"4.3.1",		new Integer(30),															"1,",
+																			"Number of iterations after which GMRES is restarted (explicit engine)." },
 			{ BOOLEAN_TYPE,		PRISM_TOPOLOGICAL_VI,				"Use topological value iteration",				"4.3.1",		false,																		"",
 																			"Use topological value iteration in iterative numerical methods."},
+			{ INTEGER_TYPE,		PRISM_TOPOLOGICAL_DIRECT_MAX,		"Max SCC size for direct solution",				"4.3.1",		new Integer(0),																		"0,",
+																			"In topological value iteration for DTMCs (explicit engine), solve SCCs with at most this many states directly, using a sparse LU factorisation, rather than by iteration (0 means never)."},
 			{ BOOLEAN_TYPE,		PRISM_PMAX_QUOTIENT,				"For Pmax computations, compute in the MEC quotient",				"4.3.1",		false,																		"",
 																				"For Pmax computations, compute in the MEC quotient."},
 			{ BOOLEAN_TYPE,		PRISM_INTERVAL_ITER,				"Use interval iteration",				"4.3.1",		false,																		"",
 																				"Use interval iteration (from above and below) in iterative numerical methods."},
 			{ STRING_TYPE,		PRISM_INTERVAL_ITER_OPTIONS,				"Interval iteration options",				"4.3.1",		"",																		"",
 																	"Interval iteration options, a comma-separated list of the following:\n" + OptionsIntervalIteration.getOptionsDescription() },
-			{ CHOICE_TYPE,		PRISM_MDP_SOLN_METHOD,					"MDP solution method",				"4.0",			"Value iteration",																"Value iteration,Gauss-Seidel,Policy iteration,Modified policy iteration,Linear programming",
+			{ CHOICE_TYPE,		PRISM_MDP_SOLN_METHOD,					"MDP solution method",				"4.0",			"Value iteration",																"Value iteration,Gauss-Seidel,Policy iteration,Modified policy iteration,Linear programming,Optimistic value iteration,Prioritised value iteration",
 																			"Which method to use when solving Markov decision processes." },
 			{ CHOICE_TYPE,		PRISM_MDP_MULTI_SOLN_METHOD,			"MDP multi-objective solution method",				"4.0.3",			"Value iteration",											"Value iteration,Gauss-Seidel,Linear programming",
 																			"Which method to use when solving multi-objective queries on Markov decision processes." },
@@ -328,6 +348,29 @@ public class PrismSettings implements Observer
 																			"Number of extra DD state variables preallocated for use in model transformation." },
 			{ INTEGER_TYPE,		PRISM_DD_EXTRA_ACTION_VARS,				"Extra DD action var allocation",		"4.3.1",			new Integer(20),														"",
 																			"Number of extra DD action variables preallocated for use in model transformation." },
+			// EXPLICIT ENGINE OPTIONS:
+			{ INTEGER_TYPE,		PRISM_EXPLICIT_NUM_THREADS,				"Explicit engine threads",				"4.3.1",			new Integer(1),														"1,",
+																			"Number of worker threads used by the explicit engine, e.g. for state space exploration (1 means no parallelism)." },
+			{ BOOLEAN_TYPE,		PRISM_EXPLICIT_PACK_STATES,				"Pack explicit states",					"4.3.1",			new Boolean(false),														"",
+																			"Store states in bit-packed form during explicit model construction (and in the resulting list of states), if all variables are bounded. This saves memory, but states are decoded on each access." },
+			{ CHOICE_TYPE,		PRISM_EXPLICIT_STATE_STORAGE,			"Explicit state storage",				"4.3.1",			"Heap",																	"Heap,Off-heap,Memory-mapped",
+																			"Where to store states during explicit model construction: on the Java heap, in direct (off-heap) memory, or in memory-mapped temporary files. The latter two require all variables to be bounded. Direct memory is limited by the JVM (by default, to about the maximum heap size), so state spaces larger than the heap need memory-mapped files." },
+			{ STRING_TYPE,		PRISM_EXPLICIT_STATE_STORAGE_DIR,		"Explicit state storage directory",		"4.3.1",			"",																		"",
+																			"Directory for temporary files used by memory-mapped state storage (empty means the system's temporary directory)." },
+			{ CHOICE_TYPE,		PRISM_EXPLICIT_PROB_STORAGE,			"Explicit probability storage",			"4.3.1",			"Double",																"Double,Float,Dictionary",
+																			"How to store transition probabilities of sparse DTMCs/MDPs built by the explicit engine: as doubles, as floats (relative error up to 6e-8 per probability), or as indices into a dictionary of the distinct values (exact; uses doubles if there are more than 65536 distinct values)." },
+			{ BOOLEAN_TYPE,		PRISM_EXPLICIT_COMPRESS_COLUMNS,		"Compress explicit columns",			"4.3.1",			new Boolean(false),														"",
+																			"Store the column indices of sparse DTMCs/MDPs built by the explicit engine as 2-byte differences to the source state, where possible, to save memory." },
+			{ CHOICE_TYPE,		PRISM_EXPLICIT_REORDER,					"Explicit state reordering",			"4.3.1",			"None",																	"None,BFS,RCM,SCC",
+																			"Renumber the states of a DTMC/MDP before numerical solution (reachability probabilities/rewards) in the explicit engine, to improve memory locality: breadth-first (BFS), reverse Cuthill-McKee (RCM, small bandwidth) or by SCCs in topological order (SCC). Results are mapped back to the original states." },
+			{ BOOLEAN_TYPE,		PRISM_COMPILE_MODEL,					"Compile model",						"4.3.1",			new Boolean(false),														"",
+																			"Compile guards, probabilities/rates and updates of the model for faster state space exploration (explicit engine and simulator)." },
+			{ STRING_TYPE,		PRISM_MODEL_CACHE_DIR,					"Model cache directory",				"4.3.1",			"",																		"",
+																			"Directory in which models built by the explicit engine are cached, for reuse by later runs with the same model and constants (empty means no caching)." },
+			{ INTEGER_TYPE,		PRISM_MODEL_CACHE_SIZE,					"Model cache size (MB)",				"4.3.1",			new Integer(1024),														"0,",
+																			"Maximum total size of the model cache directory (MB); least recently used models are removed first." },
+			{ BOOLEAN_TYPE,		PRISM_PARALLEL_ITERATION,				"Parallel iteration",					"4.3.1",			new Boolean(true),														"",
+																			"Use the explicit engine worker threads to parallelise iterative numerical methods (e.g. Jacobi, power/value iteration) over large state sets." },
 
 
 			// ADVERSARIES/COUNTEREXAMPLES:
@@ -1034,6 +1077,46 @@ public class PrismSettings implements Observer
 		} else if (sw.equals("linprog") || sw.equals("lp")) {
 			set(PRISM_MDP_SOLN_METHOD, "Linear programming");
 			set(PRISM_MDP_MULTI_SOLN_METHOD, "Linear programming");
+		} else if (sw.equals("optimisticvaliter") || sw.equals("ovi")) {
+			set(PRISM_LIN_EQ_METHOD, "Optimistic value iteration");
+			set(PRISM_MDP_SOLN_METHOD, "Optimistic value iteration");
+		} else if (sw.equals("prioritisedvaliter") || sw.equals("pvi")) {
+			set(PRISM_MDP_SOLN_METHOD, "Prioritised value iteration");
+		} else if (sw.equals("gmres")) {
+			set(PRISM_LIN_EQ_METHOD, "GMRES");
+		} else if (sw.equals("bicgstab")) {
+			set(PRISM_LIN_EQ_METHOD, "BiCGSTAB");
+		}
+		// Krylov preconditioner
+		else if (sw.equals("krylovprecond")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("none"))
+					set(PRISM_KRYLOV_PRECONDITIONER, "None");
+				else if (s.equals("jacobi"))
+					set(PRISM_KRYLOV_PRECONDITIONER, "Jacobi");
+				else if (s.equals("ilu0") || s.equals("ilu"))
+					set(PRISM_KRYLOV_PRECONDITIONER, "ILU(0)");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: none, jacobi, ilu0)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		// GMRES restart
+		else if (sw.equals("gmresrestart")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 1)
+						throw new NumberFormatException("");
+					set(PRISM_GMRES_RESTART, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
 		}
 
 		// Interval iterations
@@ -1068,6 +1151,20 @@ public class PrismSettings implements Observer
 		else if (sw.equals("topological")) {
 			set(PRISM_TOPOLOGICAL_VI, true);
 		}
+		else if (sw.equals("topodirect")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(PRISM_TOPOLOGICAL_DIRECT_MAX, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
 
 		// Linear equation solver over-relaxation parameter
 		else if (sw.equals("omega")) {
@@ -1393,6 +1490,122 @@ public class PrismSettings implements Observer
 			}
 		}
 		
+		// EXPLICIT ENGINE OPTIONS:
+		
+		// Number of worker threads
+		else if (sw.equals("threads")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 1)
+						throw new NumberFormatException("");
+					set(PRISM_EXPLICIT_NUM_THREADS, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// Store states in packed form during explicit model construction
+		else if (sw.equals("packstates")) {
+			set(PRISM_EXPLICIT_PACK_STATES, true);
+		}
+		// Where to store states during explicit model construction
+		else if (sw.equals("statestorage")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("heap"))
+					set(PRISM_EXPLICIT_STATE_STORAGE, "Heap");
+				else if (s.equals("offheap"))
+					set(PRISM_EXPLICIT_STATE_STORAGE, "Off-heap");
+				else if (s.equals("mmap"))
+					set(PRISM_EXPLICIT_STATE_STORAGE, "Memory-mapped");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: heap, offheap, mmap)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("statestoragedir")) {
+			if (i < args.length - 1) {
+				set(PRISM_EXPLICIT_STATE_STORAGE_DIR, args[++i]);
+			} else {
+				throw new PrismException("No directory specified for -" + sw + " switch");
+			}
+		}
+		// How to store probabilities in sparse explicit models
+		else if (sw.equals("probstorage")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("double"))
+					set(PRISM_EXPLICIT_PROB_STORAGE, "Double");
+				else if (s.equals("float"))
+					set(PRISM_EXPLICIT_PROB_STORAGE, "Float");
+				else if (s.equals("dict"))
+					set(PRISM_EXPLICIT_PROB_STORAGE, "Dictionary");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: double, float, dict)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		// Compress columns in sparse explicit models
+		else if (sw.equals("compresscols")) {
+			set(PRISM_EXPLICIT_COMPRESS_COLUMNS, true);
+		}
+		// Reorder states before numerical solution
+		else if (sw.equals("reorder")) {
+			if (i < args.length - 1) {
+				s = args[++i];
+				if (s.equals("none"))
+					set(PRISM_EXPLICIT_REORDER, "None");
+				else if (s.equals("bfs"))
+					set(PRISM_EXPLICIT_REORDER, "BFS");
+				else if (s.equals("rcm"))
+					set(PRISM_EXPLICIT_REORDER, "RCM");
+				else if (s.equals("scc"))
+					set(PRISM_EXPLICIT_REORDER, "SCC");
+				else
+					throw new PrismException("Unrecognised option for -" + sw + " switch (options are: none, bfs, rcm, scc)");
+			} else {
+				throw new PrismException("No parameter specified for -" + sw + " switch");
+			}
+		}
+		// Compile model for exploration
+		else if (sw.equals("compilemodel")) {
+			set(PRISM_COMPILE_MODEL, true);
+		}
+		// Cache built models
+		else if (sw.equals("modelcache")) {
+			if (i < args.length - 1) {
+				set(PRISM_MODEL_CACHE_DIR, args[++i]);
+			} else {
+				throw new PrismException("No directory specified for -" + sw + " switch");
+			}
+		}
+		else if (sw.equals("modelcachesize")) {
+			if (i < args.length - 1) {
+				try {
+					j = Integer.parseInt(args[++i]);
+					if (j < 0)
+						throw new NumberFormatException("");
+					set(PRISM_MODEL_CACHE_SIZE, j);
+				} catch (NumberFormatException e) {
+					throw new PrismException("Invalid value for -" + sw + " switch");
+				}
+			} else {
+				throw new PrismException("No value specified for -" + sw + " switch");
+			}
+		}
+		// Parallel numerical iteration
+		else if (sw.equals("paralleliter")) {
+			set(PRISM_PARALLEL_ITERATION, true);
+		}
+		else if (sw.equals("noparalleliter")) {
+			set(PRISM_PARALLEL_ITERATION, false);
+		}
+		
 		// ADVERSARIES/COUNTEREXAMPLES:
 		
 		// Export adversary to file
@@ -1743,6 +1956,11 @@ public class PrismSettings implements Observer
 		mainLog.println("-bsor .......................... Use Backwards SOR for numerical computation");
 		mainLog.println("-psor .......................... Use Pseudo SOR for numerical computation");
 		mainLog.println("-bpsor ......................... Use Backwards Pseudo SOR for numerical computation");
+		mainLog.println("-optimisticvaliter (or -ovi) ... Use optimistic value iteration for numerical computation (explicit engine)");
+		mainLog.println("-gmres ......................... Use GMRES for numerical computation (explicit engine)");
+		mainLog.println("-bicgstab ...................... Use BiCGSTAB for numerical computation (explicit engine)");
+		mainLog.println("-krylovprecond <name> .......... Preconditioner for GMRES/BiCGSTAB (none, jacobi, ilu0) [default: jacobi]");
+		mainLog.println("-gmresrestart <n> .............. Number of iterations before GMRES restarts [default: 30]");
 		mainLog.println("-omega <x> ..................... Set over-relaxation parameter (for JOR/SOR/...) [default: 0.9]");
 		mainLog.println();
 		mainLog.println("SOLUTION METHODS (MDPS):");
@@ -1750,8 +1968,11 @@ public class PrismSettings implements Observer
 		mainLog.println("-gaussseidel (or -gs) .......... Use Gauss-Seidel value iteration for solving MDPs");
 		mainLog.println("-politer ....................... Use policy iteration for solving MDPs");
 		mainLog.println("-modpoliter .................... Use modified policy iteration for solving MDPs");
+		mainLog.println("-optimisticvaliter (or -ovi) ... Use optimistic value iteration for solving MDPs/MCs");
+		mainLog.println("-prioritisedvaliter (or -pvi) .. Use prioritised value iteration for solving MDPs (explicit engine)");
 		mainLog.println("-intervaliter (or -ii) ......... Use interval iteration to solve MDPs/MCs (see -help -ii)");
 		mainLog.println("-topological ................... Use topological value iteration");
+		mainLog.println("-topodirect <n> ................ In topological value iteration, solve DTMC SCCs of size <= n directly");
 		mainLog.println();
 		mainLog.println("SOLUTION METHOD SETTINGS");
 		mainLog.println("-relative (or -rel) ............ Use relative error for detecting convergence [default]");
@@ -1809,6 +2030,19 @@ public class PrismSettings implements Observer
 		mainLog.println("-ddextrastatevars <n> .......... Set the number of preallocated state vars [default: 20]");
 		mainLog.println("-ddextraactionvars <n> ......... Set the number of preallocated action vars [default: 20]");
 		mainLog.println();
+		mainLog.println("EXPLICIT ENGINE OPTIONS:");
+		mainLog.println("-threads <n> ................... Set number of worker threads for the explicit engine [default: 1]");
+		mainLog.println("-packstates .................... Store states in bit-packed form during construction (explicit engine)");
+		mainLog.println("-statestorage <x> .............. Where to store states during construction (heap, offheap, mmap) [default: heap]");
+		mainLog.println("-statestoragedir <dir> ......... Directory for memory-mapped state storage files [default: system temp dir]");
+		mainLog.println("-probstorage <x> ............... How to store probabilities in sparse models (double, float, dict) [default: double]");
+		mainLog.println("-compresscols .................. Store columns of sparse models as differences to the source state");
+		mainLog.println("-reorder <x> ................... Reorder states before numerical solution (none, bfs, rcm, scc) [default: none]");
+		mainLog.println("-compilemodel .................. Compile model guards/updates for faster exploration (explicit engine, simulator)");
+		mainLog.println("-modelcache <dir> .............. Cache built models in <dir> for reuse by later runs (explicit engine)");
+		mainLog.println("-modelcachesize <n> ............ Maximum size of the model cache in MB [default: 1024]");
+		mainLog.println("-noparalleliter ................ Do not use multiple threads for iterative numerical methods (explicit engine)");
+		mainLog.println();
 		mainLog.println("PARAMETRIC MODEL CHECKING OPTIONS:");
 		mainLog.println("-param <vals> .................. Do parametric model checking with parameters (and ranges) <vals>");
 		mainLog.println("-paramprecision <x> ............ Set max undecided region for parameter synthesis [default: 5/100]");
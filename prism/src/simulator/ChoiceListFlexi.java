@@ -43,11 +43,13 @@ public class ChoiceListFlexi implements Choice
 	protected int moduleOrActionIndex;
 
 	// List of multiple updates and associated probabilities/rates
-	// Size of list is stored implicitly in target.length
+	// Size of list is stored implicitly in updates.size()
 	// Probabilities/rates are already evaluated, target states are not
 	// but are just stored as lists of updates (for efficiency)
 	protected List<List<Update>> updates;
-	protected List<Double> probability;
+	protected double probability[];
+	// Update lists no longer in use (kept for reuse after clear())
+	private List<List<Update>> spareLists;
 
 	/**
 	 * Create empty choice.
@@ -55,7 +57,8 @@ public class ChoiceListFlexi implements Choice
 	public ChoiceListFlexi()
 	{
 		updates = new ArrayList<List<Update>>();
-		probability = new ArrayList<Double>();
+		probability = new double[4];
+		spareLists = new ArrayList<List<Update>>();
 	}
 
 	/**
@@ -64,19 +67,39 @@ public class ChoiceListFlexi implements Choice
 	 */
 	public ChoiceListFlexi(ChoiceListFlexi ch)
 	{
+		this();
+		copyFrom(ch);
+	}
+
+	/**
+	 * Make this choice a copy of another one (replacing any existing contents).
+	 * NB: Does a shallow, not deep, copy with respect to references to Update objects.
+	 */
+	public void copyFrom(ChoiceListFlexi ch)
+	{
+		clear();
 		moduleOrActionIndex = ch.moduleOrActionIndex;
-		updates = new ArrayList<List<Update>>(ch.updates.size());
-		for (List<Update> list : ch.updates) {
-			List<Update> listNew = new ArrayList<Update>(list.size()); 
-			updates.add(listNew);
-			for (Update up : list) {
-				listNew.add(up);
-			}
+		int n = ch.size();
+		for (int i = 0; i < n; i++) {
+			List<Update> listNew = newUpdateList();
+			listNew.addAll(ch.updates.get(i));
+			add(ch.probability[i], listNew);
 		}
-		probability = new ArrayList<Double>(ch.size());
-		for (double p : ch.probability) {
-			probability.add(p);
+	}
+
+	/**
+	 * Remove all transitions from this choice, so that it can be reused.
+	 * Storage is kept for reuse, so lists previously passed to {@link #add(double, List)}
+	 * should no longer be used.
+	 */
+	public void clear()
+	{
+		moduleOrActionIndex = 0;
+		for (List<Update> list : updates) {
+			list.clear();
+			spareLists.add(list);
 		}
+		updates.clear();
 	}
 
 	// Set methods
@@ -98,8 +121,24 @@ public class ChoiceListFlexi implements Choice
 	 */
 	public void add(double probability, List<Update> ups)
 	{
+		int n = size();
+		if (n == this.probability.length) {
+			this.probability = Arrays.copyOf(this.probability, 2 * n);
+		}
 		this.updates.add(ups);
-		this.probability.add(probability);
+		this.probability[n] = probability;
+	}
+
+	/**
+	 * Add a transition, comprising a single Update, to this choice.
+	 * @param probability Probability (or rate) of the transition
+	 * @param up Update object defining transition
+	 */
+	public void add(double probability, Update up)
+	{
+		List<Update> list = newUpdateList();
+		list.add(up);
+		add(probability, list);
 	}
 
 	@Override
@@ -108,7 +147,7 @@ public class ChoiceListFlexi implements Choice
 		int i, n;
 		n = size();
 		for (i = 0; i < n; i++) {
-			probability.set(i, probability.get(i) * d);
+			probability[i] *= d;
 		}
 	}
 
@@ -129,13 +168,9 @@ public class ChoiceListFlexi implements Choice
 			// Loop through each (jth) element of existing choice
 			for (j = 0; j < n2; j++) {
 				// Create new element (i,j) of product 
-				list = new ArrayList<Update>(updates.get(j).size() + ch.updates.get(i).size());
-				for (Update u : updates.get(j)) {
-					list.add(u);
-				}
-				for (Update u : ch.updates.get(i)) {
-					list.add(u);
-				}
+				list = newUpdateList();
+				list.addAll(updates.get(j));
+				list.addAll(ch.updates.get(i));
 				add(pi * getProbability(j), list);
 			}
 		}
@@ -145,7 +180,7 @@ public class ChoiceListFlexi implements Choice
 			for (Update u : ch.updates.get(0)) {
 				updates.get(j).add(u);
 			}
-			probability.set(j, pi * probability.get(j));
+			probability[j] = pi * probability[j];
 		}
 	}
 
@@ -172,7 +207,7 @@ public class ChoiceListFlexi implements Choice
 	@Override
 	public int size()
 	{
-		return probability.size();
+		return updates.size();
 	}
 
 	@Override
@@ -230,15 +265,16 @@ public class ChoiceListFlexi implements Choice
 	@Override
 	public double getProbability(int i)
 	{
-		return probability.get(i);
+		return probability[i];
 	}
 
 	@Override
 	public double getProbabilitySum()
 	{
 		double sum = 0.0;
-		for (double d : probability)
-			sum += d;
+		int n = size();
+		for (int i = 0; i < n; i++)
+			sum += probability[i];
 		return sum;
 	}
 
@@ -250,7 +286,7 @@ public class ChoiceListFlexi implements Choice
 		n = size();
 		d = 0.0;
 		for (i = 0; x >= d && i < n; i++) {
-			d += probability.get(i);
+			d += probability[i];
 		}
 		return i - 1;
 	}
@@ -289,4 +325,15 @@ public class ChoiceListFlexi implements Choice
 		}
 		return s;
 	}
+
+	// Private methods
+
+	/**
+	 * Get an empty list of updates, reusing one from previous (cleared) contents, if possible.
+	 */
+	private List<Update> newUpdateList()
+	{
+		int n = spareLists.size();
+		return n > 0 ? spareLists.remove(n - 1) : new ArrayList<Update>();
+	}
 }
@@ -0,0 +1,588 @@
+//==============================================================================
+//	
+//	Copyright (c) 2026-
+//	Authors:
+//	* PRISM developers
+//	
+//------------------------------------------------------------------------------
+//	
+//	This file is part of PRISM.
+//	
+//	PRISM is free software; you can redistribute it and/or modify
+//	it under the terms of the GNU General Public License as published by
+//	the Free Software Foundation; either version 2 of the License, or
+//	(at your option) any later version.
+//	
+//	PRISM is distributed in the hope that it will be useful,
+//	but WITHOUT ANY WARRANTY; without even the implied warranty of
+//	MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+//	GNU General Public License for more details.
+//	
+//	You should have received a copy of the GNU General Public License
+//	along with PRISM; if not, write to the Free Software Foundation,
+//	Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+//	
+//==============================================================================
+
+
+package simulator;
+
+import parser.State;
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionFunc;
+import parser.ast.ExpressionITE;
+import parser.ast.ExpressionLiteral;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ExpressionVar;
+import parser.type.Type;
+import parser.type.TypeBool;
+import parser.type.TypeDouble;
+import parser.type.TypeInt;
+import prism.PrismLangException;
+
+/**
+ * An expression that has been compiled for fast, repeated evaluation over State objects.
+ * <br><br>
+ * Compilation translates the (constant-free, type-checked) expression into a tree of specialised
+ * closures that work directly on primitive values and state variable indices, avoiding the
+ * boxing and dynamic dispatch of {@link Expression#evaluate(State)}.
+ * Sub-expressions that are not supported are evaluated by the usual interpreter,
+ * so the results (and errors) are the same as for the original expression.
+ */
+public abstract class CompiledExpression
+{
+	/** The original expression */
+	protected Expression expr;
+
+	protected CompiledExpression(Expression expr)
+	{
+		this.expr = expr;
+	}
+
+	/**
+	 * Get the original expression.
+	 */
+	public Expression getExpression()
+	{
+		return expr;
+	}
+
+	/**
+	 * Evaluate this expression in a state (see {@link Expression#evaluate(State)}).
+	 */
+	public abstract Object evaluate(State state) throws PrismLangException;
+
+	/**
+	 * Evaluate this expression as an integer in a state (see {@link Expression#evaluateInt(State)}).
+	 */
+	public abstract int evaluateInt(State state) throws PrismLangException;
+
+	/**
+	 * Evaluate this expression as a double in a state (see {@link Expression#evaluateDouble(State)}).
+	 */
+	public abstract double evaluateDouble(State state) throws PrismLangException;
+
+	/**
+	 * Evaluate this expression as a boolean in a state (see {@link Expression#evaluateBoolean(State)}).
+	 */
+	public abstract boolean evaluateBoolean(State state) throws PrismLangException;
+
+	/**
+	 * Compile an expression. Any constants should already have been replaced with their values
+	 * and the expression should have been type checked.
+	 */
+	public static CompiledExpression compile(Expression expr)
+	{
+		Type type = expr.getType();
+		if (type instanceof TypeInt) {
+			return new CompiledInt(expr, compileInt(expr));
+		} else if (type instanceof TypeDouble) {
+			return new CompiledDouble(expr, compileDouble(expr));
+		} else if (type instanceof TypeBool) {
+			return new CompiledBoolean(expr, compileBoolean(expr));
+		} else {
+			return new Interpreted(expr);
+		}
+	}
+
+	// Compilation to closures
+
+	/** Integer-valued closure */
+	private interface IntFn
+	{
+		int apply(State state) throws PrismLangException;
+	}
+
+	/** Double-valued closure */
+	private interface DoubleFn
+	{
+		double apply(State state) throws PrismLangException;
+	}
+
+	/** Boolean-valued closure */
+	private interface BoolFn
+	{
+		boolean apply(State state) throws PrismLangException;
+	}
+
+	/**
+	 * Compile an expression to be evaluated as an integer.
+	 */
+	private static IntFn compileInt(Expression e)
+	{
+		Type type = e.getType();
+		if (type instanceof TypeBool) {
+			BoolFn f = compileBoolean(e);
+			return s -> f.apply(s) ? 1 : 0;
+		}
+		if (!(type instanceof TypeInt)) {
+			return s -> e.evaluateInt(s);
+		}
+		if (e instanceof ExpressionLiteral) {
+			try {
+				int value = e.evaluateInt();
+				return s -> value;
+			} catch (PrismLangException ex) {
+				return s -> e.evaluateInt(s);
+			}
+		}
+		if (e instanceof ExpressionVar && ((ExpressionVar) e).getIndex() >= 0) {
+			int index = ((ExpressionVar) e).getIndex();
+			return s -> {
+				Object o = s.varValues[index];
+				if (o instanceof Integer) {
+					return ((Integer) o).intValue();
+				}
+				return e.evaluateInt(s);
+			};
+		}
+		if (e instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp u = (ExpressionUnaryOp) e;
+			switch (u.getOperator()) {
+			case ExpressionUnaryOp.MINUS:
+				IntFn f = compileInt(u.getOperand());
+				return s -> -f.apply(s);
+			case ExpressionUnaryOp.PARENTH:
+				return compileInt(u.getOperand());
+			}
+		}
+		if (e instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp b = (ExpressionBinaryOp) e;
+			if (b.getOperand1().getType() instanceof TypeInt && b.getOperand2().getType() instanceof TypeInt) {
+				IntFn f1 = compileInt(b.getOperand1());
+				IntFn f2 = compileInt(b.getOperand2());
+				switch (b.getOperator()) {
+				case ExpressionBinaryOp.PLUS:
+					return s -> f1.apply(s) + f2.apply(s);
+				case ExpressionBinaryOp.MINUS:
+					return s -> f1.apply(s) - f2.apply(s);
+				case ExpressionBinaryOp.TIMES:
+					return s -> f1.apply(s) * f2.apply(s);
+				}
+			}
+		}
+		if (e instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) e;
+			BoolFn f1 = compileBoolean(ite.getOperand1());
+			IntFn f2 = compileInt(ite.getOperand2());
+			IntFn f3 = compileInt(ite.getOperand3());
+			return s -> f1.apply(s) ? f2.apply(s) : f3.apply(s);
+		}
+		if (e instanceof ExpressionFunc) {
+			ExpressionFunc func = (ExpressionFunc) e;
+			switch (func.getNameCode()) {
+			case ExpressionFunc.MIN:
+			case ExpressionFunc.MAX:
+				boolean min = func.getNameCode() == ExpressionFunc.MIN;
+				IntFn fs[] = new IntFn[func.getNumOperands()];
+				for (int i = 0; i < fs.length; i++) {
+					fs[i] = compileInt(func.getOperand(i));
+				}
+				return s -> {
+					int res = fs[0].apply(s);
+					for (int i = 1; i < fs.length; i++) {
+						int j = fs[i].apply(s);
+						res = min ? (j < res ? j : res) : (j > res ? j : res);
+					}
+					return res;
+				};
+			case ExpressionFunc.FLOOR:
+			case ExpressionFunc.CEIL:
+				boolean floor = func.getNameCode() == ExpressionFunc.FLOOR;
+				DoubleFn f = compileDouble(func.getOperand(0));
+				return s -> {
+					try {
+						return floor ? ExpressionFunc.evaluateFloor(f.apply(s)) : ExpressionFunc.evaluateCeil(f.apply(s));
+					} catch (PrismLangException ex) {
+						ex.setASTElement(e);
+						throw ex;
+					}
+				};
+			}
+		}
+		// Otherwise, interpret
+		return s -> e.evaluateInt(s);
+	}
+
+	/**
+	 * Compile an expression to be evaluated as a double.
+	 */
+	private static DoubleFn compileDouble(Expression e)
+	{
+		Type type = e.getType();
+		if (type instanceof TypeInt) {
+			IntFn f = compileInt(e);
+			return s -> f.apply(s);
+		}
+		if (type instanceof TypeBool) {
+			BoolFn f = compileBoolean(e);
+			return s -> f.apply(s) ? 1.0 : 0.0;
+		}
+		if (!(type instanceof TypeDouble)) {
+			return s -> e.evaluateDouble(s);
+		}
+		if (e instanceof ExpressionLiteral) {
+			try {
+				double value = e.evaluateDouble();
+				return s -> value;
+			} catch (PrismLangException ex) {
+				return s -> e.evaluateDouble(s);
+			}
+		}
+		if (e instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp u = (ExpressionUnaryOp) e;
+			switch (u.getOperator()) {
+			case ExpressionUnaryOp.MINUS:
+				DoubleFn f = compileDouble(u.getOperand());
+				return s -> -f.apply(s);
+			case ExpressionUnaryOp.PARENTH:
+				return compileDouble(u.getOperand());
+			}
+		}
+		if (e instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp b = (ExpressionBinaryOp) e;
+			boolean bothInt = b.getOperand1().getType() instanceof TypeInt && b.getOperand2().getType() instanceof TypeInt;
+			DoubleFn f1 = compileDouble(b.getOperand1());
+			DoubleFn f2 = compileDouble(b.getOperand2());
+			switch (b.getOperator()) {
+			case ExpressionBinaryOp.PLUS:
+				if (!bothInt)
+					return s -> f1.apply(s) + f2.apply(s);
+				break;
+			case ExpressionBinaryOp.MINUS:
+				if (!bothInt)
+					return s -> f1.apply(s) - f2.apply(s);
+				break;
+			case ExpressionBinaryOp.TIMES:
+				if (!bothInt)
+					return s -> f1.apply(s) * f2.apply(s);
+				break;
+			case ExpressionBinaryOp.DIVIDE:
+				return s -> f1.apply(s) / f2.apply(s);
+			}
+		}
+		if (e instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) e;
+			BoolFn f1 = compileBoolean(ite.getOperand1());
+			DoubleFn f2 = compileDouble(ite.getOperand2());
+			DoubleFn f3 = compileDouble(ite.getOperand3());
+			return s -> f1.apply(s) ? f2.apply(s) : f3.apply(s);
+		}
+		if (e instanceof ExpressionFunc) {
+			ExpressionFunc func = (ExpressionFunc) e;
+			switch (func.getNameCode()) {
+			case ExpressionFunc.MIN:
+			case ExpressionFunc.MAX:
+				boolean min = func.getNameCode() == ExpressionFunc.MIN;
+				DoubleFn fs[] = new DoubleFn[func.getNumOperands()];
+				for (int i = 0; i < fs.length; i++) {
+					fs[i] = compileDouble(func.getOperand(i));
+				}
+				return s -> {
+					double res = fs[0].apply(s);
+					for (int i = 1; i < fs.length; i++) {
+						double d = fs[i].apply(s);
+						res = min ? (d < res ? d : res) : (d > res ? d : res);
+					}
+					return res;
+				};
+			}
+		}
+		// Otherwise, interpret
+		return s -> e.evaluateDouble(s);
+	}
+
+	/**
+	 * Compile an expression to be evaluated as a boolean.
+	 */
+	private static BoolFn compileBoolean(Expression e)
+	{
+		if (!(e.getType() instanceof TypeBool)) {
+			return s -> e.evaluateBoolean(s);
+		}
+		if (e instanceof ExpressionLiteral) {
+			try {
+				boolean value = e.evaluateBoolean();
+				return s -> value;
+			} catch (PrismLangException ex) {
+				return s -> e.evaluateBoolean(s);
+			}
+		}
+		if (e instanceof ExpressionVar && ((ExpressionVar) e).getIndex() >= 0) {
+			int index = ((ExpressionVar) e).getIndex();
+			return s -> {
+				Object o = s.varValues[index];
+				if (o instanceof Boolean) {
+					return ((Boolean) o).booleanValue();
+				}
+				return e.evaluateBoolean(s);
+			};
+		}
+		if (e instanceof ExpressionUnaryOp) {
+			ExpressionUnaryOp u = (ExpressionUnaryOp) e;
+			switch (u.getOperator()) {
+			case ExpressionUnaryOp.NOT:
+				BoolFn f = compileBoolean(u.getOperand());
+				return s -> !f.apply(s);
+			case ExpressionUnaryOp.PARENTH:
+				return compileBoolean(u.getOperand());
+			}
+		}
+		if (e instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp b = (ExpressionBinaryOp) e;
+			int op = b.getOperator();
+			switch (op) {
+			case ExpressionBinaryOp.IMPLIES:
+			case ExpressionBinaryOp.IFF:
+			case ExpressionBinaryOp.OR:
+			case ExpressionBinaryOp.AND:
+				BoolFn f1 = compileBoolean(b.getOperand1());
+				BoolFn f2 = compileBoolean(b.getOperand2());
+				switch (op) {
+				case ExpressionBinaryOp.IMPLIES:
+					return s -> !f1.apply(s) || f2.apply(s);
+				case ExpressionBinaryOp.IFF:
+					return s -> f1.apply(s) == f2.apply(s);
+				case ExpressionBinaryOp.OR:
+					return s -> f1.apply(s) || f2.apply(s);
+				default:
+					return s -> f1.apply(s) && f2.apply(s);
+				}
+			case ExpressionBinaryOp.EQ:
+			case ExpressionBinaryOp.NE:
+			case ExpressionBinaryOp.GT:
+			case ExpressionBinaryOp.GE:
+			case ExpressionBinaryOp.LT:
+			case ExpressionBinaryOp.LE:
+				if (b.getOperand1().getType() instanceof TypeInt && b.getOperand2().getType() instanceof TypeInt) {
+					return compileIntRelOp(op, compileInt(b.getOperand1()), compileInt(b.getOperand2()));
+				} else {
+					return compileDoubleRelOp(op, compileDouble(b.getOperand1()), compileDouble(b.getOperand2()));
+				}
+			}
+		}
+		if (e instanceof ExpressionITE) {
+			ExpressionITE ite = (ExpressionITE) e;
+			BoolFn f1 = compileBoolean(ite.getOperand1());
+			BoolFn f2 = compileBoolean(ite.getOperand2());
+			BoolFn f3 = compileBoolean(ite.getOperand3());
+			return s -> f1.apply(s) ? f2.apply(s) : f3.apply(s);
+		}
+		// Otherwise, interpret
+		return s -> e.evaluateBoolean(s);
+	}
+
+	/**
+	 * Compile a relational operator over integers.
+	 */
+	private static BoolFn compileIntRelOp(int op, IntFn f1, IntFn f2)
+	{
+		switch (op) {
+		case ExpressionBinaryOp.EQ:
+			return s -> f1.apply(s) == f2.apply(s);
+		case ExpressionBinaryOp.NE:
+			return s -> f1.apply(s) != f2.apply(s);
+		case ExpressionBinaryOp.GT:
+			return s -> f1.apply(s) > f2.apply(s);
+		case ExpressionBinaryOp.GE:
+			return s -> f1.apply(s) >= f2.apply(s);
+		case ExpressionBinaryOp.LT:
+			return s -> f1.apply(s) < f2.apply(s);
+		default:
+			return s -> f1.apply(s) <= f2.apply(s);
+		}
+	}
+
+	/**
+	 * Compile a relational operator over doubles.
+	 */
+	private static BoolFn compileDoubleRelOp(int op, DoubleFn f1, DoubleFn f2)
+	{
+		switch (op) {
+		case ExpressionBinaryOp.EQ:
+			return s -> f1.apply(s) == f2.apply(s);
+		case ExpressionBinaryOp.NE:
+			return s -> f1.apply(s) != f2.apply(s);
+		case ExpressionBinaryOp.GT:
+			return s -> f1.apply(s) > f2.apply(s);
+		case ExpressionBinaryOp.GE:
+			return s -> f1.apply(s) >= f2.apply(s);
+		case ExpressionBinaryOp.LT:
+			return s -> f1.apply(s) < f2.apply(s);
+		default:
+			return s -> f1.apply(s) <= f2.apply(s);
+		}
+	}
+
+	// Compiled expressions, by type
+
+	/**
+	 * Compiled integer-valued expression.
+	 */
+	private static class CompiledInt extends CompiledExpression
+	{
+		private IntFn f;
+
+		CompiledInt(Expression expr, IntFn f)
+		{
+			super(expr);
+			this.f = f;
+		}
+
+		@Override
+		public Object evaluate(State state) throws PrismLangException
+		{
+			return f.apply(state);
+		}
+
+		@Override
+		public int evaluateInt(State state) throws PrismLangException
+		{
+			return f.apply(state);
+		}
+
+		@Override
+		public double evaluateDouble(State state) throws PrismLangException
+		{
+			return f.apply(state);
+		}
+
+		@Override
+		public boolean evaluateBoolean(State state) throws PrismLangException
+		{
+			throw new PrismLangException("Cannot evaluate to a boolean", expr);
+		}
+	}
+
+	/**
+	 * Compiled double-valued expression.
+	 */
+	private static class CompiledDouble extends CompiledExpression
+	{
+		private DoubleFn f;
+
+		CompiledDouble(Expression expr, DoubleFn f)
+		{
+			super(expr);
+			this.f = f;
+		}
+
+		@Override
+		public Object evaluate(State state) throws PrismLangException
+		{
+			return f.apply(state);
+		}
+
+		@Override
+		public int evaluateInt(State state) throws PrismLangException
+		{
+			throw new PrismLangException("Cannot evaluate to an integer", expr);
+		}
+
+		@Override
+		public double evaluateDouble(State state) throws PrismLangException
+		{
+			return f.apply(state);
+		}
+
+		@Override
+		public boolean evaluateBoolean(State state) throws PrismLangException
+		{
+			throw new PrismLangException("Cannot evaluate to a boolean", expr);
+		}
+	}
+
+	/**
+	 * Compiled boolean-valued expression.
+	 */
+	private static class CompiledBoolean extends CompiledExpression
+	{
+		private BoolFn f;
+
+		CompiledBoolean(Expression expr, BoolFn f)
+		{
+			super(expr);
+			this.f = f;
+		}
+
+		@Override
+		public Object evaluate(State state) throws PrismLangException
+		{
+			return f.apply(state);
+		}
+
+		@Override
+		public int evaluateInt(State state) throws PrismLangException
+		{
+			return f.apply(state) ? 1 : 0;
+		}
+
+		@Override
+		public double evaluateDouble(State state) throws PrismLangException
+		{
+			return f.apply(state) ? 1.0 : 0.0;
+		}
+
+		@Override
+		public boolean evaluateBoolean(State state) throws PrismLangException
+		{
+			return f.apply(state);
+		}
+	}
+
+	/**
+	 * Expression of some other type, which is just interpreted.
+	 */
+	private static class Interpreted extends CompiledExpression
+	{
+		Interpreted(Expression expr)
+		{
+			super(expr);
+		}
+
+		@Override
+		public Object evaluate(State state) throws PrismLangException
+		{
+			return expr.evaluate(state);
+		}
+
+		@Override
+		public int evaluateInt(State state) throws PrismLangException
+		{
+			return expr.evaluateInt(state);
+		}
+
+		@Override
+		public double evaluateDouble(State state) throws PrismLangException
+		{
+			return expr.evaluateDouble(state);
+		}
+
+		@Override
+		public boolean evaluateBoolean(State state) throws PrismLangException
+		{
+			return expr.evaluateBoolean(state);
+		}
+	}
+}
@@ -83,6 +83,23 @@ public class ModulesFileModelGenerator implements ModelGenerator
 		}
 	}
 	
+	/**
+	 * Copy constructor, used by {@link #createCopy()}.
+	 * The (already initialised) modules file is deep-copied, so nothing is shared
+	 * with {@code other} that is modified during exploration.
+	 */
+	private ModulesFileModelGenerator(ModulesFileModelGenerator other) throws PrismException
+	{
+		parent = other.parent;
+		originalModulesFile = other.originalModulesFile;
+		modulesFile = other.modulesFile;
+		modelType = other.modelType;
+		mfConstants = other.mfConstants;
+		if (mfConstants != null) {
+			initialise();
+		}
+	}
+	
 	/**
 	 * (Re-)Initialise the class ready for model exploration
 	 * (can only be done once any constants needed have been provided)
@@ -246,6 +263,12 @@ public class ModulesFileModelGenerator implements ModelGenerator
 		return initStates;
 	}
 
+	@Override
+	public ModelGenerator createCopy() throws PrismException
+	{
+		return new ModulesFileModelGenerator(this);
+	}
+
 	@Override
 	public void exploreState(State exploreState) throws PrismException
 	{
@@ -333,6 +356,12 @@ public class ModulesFileModelGenerator implements ModelGenerator
 		return expr.evaluateBoolean(exploreState);
 	}
 	
+	@Override
+	public Expression getLabelExpression(int i) throws PrismException
+	{
+		return labelList.getLabel(i);
+	}
+	
 	@Override
 	public double getStateReward(int r, State state) throws PrismException
 	{
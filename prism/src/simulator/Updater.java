@@ -28,18 +28,27 @@ package simulator;
 
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 import parser.State;
 import parser.VarList;
 import parser.ast.Command;
+import parser.ast.Expression;
+import parser.ast.ExpressionBinaryOp;
+import parser.ast.ExpressionLiteral;
+import parser.ast.ExpressionUnaryOp;
+import parser.ast.ExpressionVar;
 import parser.ast.Module;
 import parser.ast.ModulesFile;
 import parser.ast.RewardStruct;
 import parser.ast.Update;
 import parser.ast.Updates;
+import parser.type.TypeBool;
+import parser.type.TypeInt;
 import prism.ModelType;
 import prism.PrismComponent;
 import prism.PrismException;
@@ -63,8 +72,25 @@ public class Updater extends PrismComponent
 	protected Vector<String> synchs;
 	protected int numSynchs;
 	protected int synchModuleCounts[];
+	// Synchronisation plan: element j lists (in order) the modules using the (j+1)th action 
+	protected int synchModulesLists[][];
 	// Model info/stats
 	protected int numRewardStructs;
+	// Compiled model info (null if the model is not compiled):
+	// Element i,j of compiledGuards/compiledUpdates is the guard/updates of command j of module i
+	protected CompiledExpression compiledGuards[][];
+	protected Updates compiledUpdates[][];
+	// Guard index (see buildGuardIndex): for each module, the variable used to index
+	// its commands (-1 if none) and the lowest value of that variable;
+	// element i,v of guardIndex lists the commands of module i that can be enabled
+	// when its index variable has value guardIndexLows[i]+v
+	protected int guardIndexVars[];
+	protected int guardIndexLows[];
+	protected int guardIndex[][][];
+	// Maximum range of a variable used for the guard index 
+	protected static final int MAX_GUARD_INDEX_RANGE = 1 << 16;
+	// Maximum total size (number of entries) of the guard index for a module 
+	protected static final int MAX_GUARD_INDEX_SIZE = 1 << 22;
 
 	// Temporary storage:
 
@@ -77,6 +103,13 @@ public class Updater extends PrismComponent
 	// Element j of enabledModules is a BitSet showing modules which enable action j
 	// (where j=0 denotes independent, otherwise 1-indexed action label)
 	protected BitSet enabledModules[];
+	// Pool of Choice objects, reused for each state (the first choicePoolUsed are in use)
+	protected List<ChoiceListFlexi> choicePool = new ArrayList<ChoiceListFlexi>();
+	protected int choicePoolUsed = 0;
+	// Choices for the current synchronous action (reused for each state)
+	protected List<ChoiceListFlexi> synchChoices = new ArrayList<ChoiceListFlexi>();
+	// Choice used for the second operand when building products (reused)
+	protected ChoiceListFlexi productChoice = new ChoiceListFlexi();
 
 	public Updater(ModulesFile modulesFile, VarList varList)
 	{
@@ -104,8 +137,9 @@ public class Updater extends PrismComponent
 		for (int i = 0; i < numModules; i++) {
 			synchsPerModule.add(new HashSet<String>(modulesFile.getModule(i).getAllSynchs()));
 		}
-		// Second, do the counting
+		// Second, do the counting (and store the modules for each action)
 		synchModuleCounts = new int[numSynchs];
+		synchModulesLists = new int[numSynchs][];
 		for (int j = 0; j < numSynchs; j++) {
 			synchModuleCounts[j] = 0;
 			String s = synchs.get(j);
@@ -113,6 +147,11 @@ public class Updater extends PrismComponent
 				if (synchsPerModule.get(i).contains(s))
 					synchModuleCounts[j]++;
 			}
+			synchModulesLists[j] = new int[synchModuleCounts[j]];
+			for (int i = 0, k = 0; i < numModules; i++) {
+				if (synchsPerModule.get(i).contains(s))
+					synchModulesLists[j][k++] = i;
+			}
 		}
 
 		// Build lists/bitsets for later use
@@ -128,6 +167,36 @@ public class Updater extends PrismComponent
 		for (int j = 0; j < numSynchs + 1; j++) {
 			enabledModules[j] = new BitSet(numModules);
 		}
+
+		// Index commands by their guards
+		buildGuardIndex();
+
+		// Compile the model, if required
+		if (parent.getSettings().getBoolean(PrismSettings.PRISM_COMPILE_MODEL)) {
+			compileModel();
+		}
+	}
+
+	/**
+	 * Compile the guards, probabilities/rates and updates of all commands in the model
+	 * (see {@link CompiledExpression}), to speed up the computation of transitions.
+	 * This assumes that all constants in the model have been replaced with their values.
+	 */
+	public void compileModel()
+	{
+		compiledGuards = new CompiledExpression[numModules][];
+		compiledUpdates = new Updates[numModules][];
+		for (int m = 0; m < numModules; m++) {
+			Module module = modulesFile.getModule(m);
+			int n = module.getNumCommands();
+			compiledGuards[m] = new CompiledExpression[n];
+			compiledUpdates[m] = new Updates[n];
+			for (int i = 0; i < n; i++) {
+				Command command = module.getCommand(i);
+				compiledGuards[m][i] = CompiledExpression.compile(command.getGuard());
+				compiledUpdates[m][i] = new CompiledUpdates(command.getUpdates());
+			}
+		}
 	}
 
 	/**
@@ -156,17 +225,17 @@ public class Updater extends PrismComponent
 		List<ChoiceListFlexi> chs;
 		int i, j, k, l, n, count;
 
-		// Clear lists/bitsets
+		// Clear lists/bitsets (just those filled for the previous state)
+		// and make all pooled choices available again
 		transitionList.clear();
-		for (i = 0; i < numModules; i++) {
-			for (j = 0; j < numSynchs + 1; j++) {
-				updateLists.get(i).get(j).clear();
+		for (i = enabledSynchs.nextSetBit(0); i >= 0; i = enabledSynchs.nextSetBit(i + 1)) {
+			for (j = enabledModules[i].nextSetBit(0); j >= 0; j = enabledModules[i].nextSetBit(j + 1)) {
+				updateLists.get(j).get(i).clear();
 			}
-		}
-		enabledSynchs.clear();
-		for (i = 0; i < numSynchs + 1; i++) {
 			enabledModules[i].clear();
 		}
+		enabledSynchs.clear();
+		choicePoolUsed = 0;
 
 		// Calculate the available updates for each module/action
 		// (update information in updateLists, enabledSynchs and enabledModules)
@@ -184,14 +253,23 @@ public class Updater extends PrismComponent
 			}
 		}
 		// Add synchronous transitions to list
-		chs = new ArrayList<ChoiceListFlexi>();
+		chs = synchChoices;
 		for (i = enabledSynchs.nextSetBit(1); i >= 0; i = enabledSynchs.nextSetBit(i + 1)) {
 			chs.clear();
-			// Check counts to see if this action is blocked by some module
-			if (enabledModules[i].cardinality() < synchModuleCounts[i - 1])
+			// Check (using the synchronisation plan) if this action is blocked by some module
+			int synchModules[] = synchModulesLists[i - 1];
+			boolean blocked = false;
+			for (int m : synchModules) {
+				if (!enabledModules[i].get(m)) {
+					blocked = true;
+					break;
+				}
+			}
+			if (blocked)
 				continue;
 			// If not, proceed...
-			for (j = enabledModules[i].nextSetBit(0); j >= 0; j = enabledModules[i].nextSetBit(j + 1)) {
+			for (int m = 0; m < synchModules.length; m++) {
+				j = synchModules[m];
 				count = updateLists.get(j).get(i).size();
 				// Case where there is only 1 Updates for this module
 				if (count == 1) {
@@ -225,8 +303,11 @@ public class Updater extends PrismComponent
 						// Duplicate (count-1 copies of) current Choice list
 						n = chs.size();
 						for (k = 0; k < count - 1; k++)
-							for (l = 0; l < n; l++)
-								chs.add(new ChoiceListFlexi(chs.get(l)));
+							for (l = 0; l < n; l++) {
+								ChoiceListFlexi ch = newChoice();
+								ch.copyFrom(chs.get(l));
+								chs.add(ch);
+							}
 						// Products with existing choices
 						for (k = 0; k < count; k++) {
 							Updates ups = updateLists.get(j).get(i).get(k);
@@ -321,21 +402,168 @@ public class Updater extends PrismComponent
 	{
 		Module module;
 		Command command;
-		int i, j, n;
+		int i, j, k, n;
+		boolean enabled;
 
 		module = modulesFile.getModule(m);
-		n = module.getNumCommands();
-		for (i = 0; i < n; i++) {
+		// Only consider commands that can possibly be enabled, if known
+		int candidates[] = getCandidateCommands(m, state);
+		n = candidates == null ? module.getNumCommands() : candidates.length;
+		for (k = 0; k < n; k++) {
+			i = candidates == null ? k : candidates[k];
 			command = module.getCommand(i);
-			if (command.getGuard().evaluateBoolean(state)) {
+			enabled = compiledGuards != null ? compiledGuards[m][i].evaluateBoolean(state) : command.getGuard().evaluateBoolean(state);
+			if (enabled) {
 				j = command.getSynchIndex();
-				updateLists.get(m).get(j).add(command.getUpdates());
+				updateLists.get(m).get(j).add(compiledUpdates != null ? compiledUpdates[m][i] : command.getUpdates());
 				enabledSynchs.set(j);
 				enabledModules[j].set(m);
 			}
 		}
 	}
 
+	/**
+	 * Get the indices (in ascending order) of the commands of the 'm'th module that can possibly
+	 * be enabled in state 'state', according to the guard index (see {@link #buildGuardIndex()}).
+	 * Returns null if all commands need to be checked.
+	 */
+	private int[] getCandidateCommands(int m, State state)
+	{
+		int v = guardIndexVars[m];
+		if (v == -1) {
+			return null;
+		}
+		Object o = state.varValues[v];
+		int val;
+		if (o instanceof Integer) {
+			val = ((Integer) o).intValue();
+		} else if (o instanceof Boolean) {
+			val = ((Boolean) o).booleanValue() ? 1 : 0;
+		} else {
+			return null;
+		}
+		val -= guardIndexLows[m];
+		int index[][] = guardIndex[m];
+		return (val >= 0 && val < index.length) ? index[val] : null;
+	}
+
+	/**
+	 * Build an index of the commands of each module, to avoid evaluating the guards
+	 * of commands that cannot be enabled in a state. For each module, we pick the variable
+	 * that appears in the most guards as a top-level conjunct of the form var=value
+	 * (or var/!var for booleans) and, for each possible value of that variable,
+	 * store the list of commands whose guards do not rule out that value.
+	 */
+	private void buildGuardIndex()
+	{
+		guardIndexVars = new int[numModules];
+		guardIndexLows = new int[numModules];
+		guardIndex = new int[numModules][][];
+		for (int m = 0; m < numModules; m++) {
+			guardIndexVars[m] = -1;
+			Module module = modulesFile.getModule(m);
+			int n = module.getNumCommands();
+			if (n < 2) {
+				continue;
+			}
+			// Find var=value conjuncts in each guard
+			List<Map<Integer, Integer>> conjuncts = new ArrayList<Map<Integer, Integer>>(n);
+			Map<Integer, Integer> counts = new HashMap<Integer, Integer>();
+			for (int i = 0; i < n; i++) {
+				Map<Integer, Integer> map = new HashMap<Integer, Integer>();
+				findEqualityConjuncts(module.getCommand(i).getGuard(), map);
+				conjuncts.add(map);
+				for (int v : map.keySet()) {
+					counts.merge(v, 1, Integer::sum);
+				}
+			}
+			// Pick the best variable (with a small enough range)
+			int best = -1, bestCount = 1;
+			for (Map.Entry<Integer, Integer> e : counts.entrySet()) {
+				int v = e.getKey();
+				long range = (long) varList.getHigh(v) - varList.getLow(v) + 1;
+				if (range > 0 && range <= MAX_GUARD_INDEX_RANGE && (e.getValue() > bestCount || (e.getValue() == bestCount && v < best))) {
+					best = v;
+					bestCount = e.getValue();
+				}
+			}
+			if (best == -1) {
+				continue;
+			}
+			// Build index (unless it would be too big)
+			int low = varList.getLow(best);
+			int range = varList.getHigh(best) - low + 1;
+			if ((long) range * (n - bestCount) + bestCount > MAX_GUARD_INDEX_SIZE) {
+				continue;
+			}
+			List<List<Integer>> lists = new ArrayList<List<Integer>>(range);
+			for (int val = 0; val < range; val++) {
+				lists.add(new ArrayList<Integer>());
+			}
+			for (int i = 0; i < n; i++) {
+				Integer val = conjuncts.get(i).get(best);
+				if (val == null) {
+					for (List<Integer> list : lists) {
+						list.add(i);
+					}
+				} else if (val - low >= 0 && val - low < range) {
+					lists.get(val - low).add(i);
+				}
+			}
+			guardIndexVars[m] = best;
+			guardIndexLows[m] = low;
+			guardIndex[m] = new int[range][];
+			for (int val = 0; val < range; val++) {
+				guardIndex[m][val] = lists.get(val).stream().mapToInt(Integer::intValue).toArray();
+			}
+		}
+	}
+
+	/**
+	 * Find the top-level conjuncts of a guard of the form var=value (or var/!var for booleans),
+	 * for integer/boolean variables, and store them in 'map' (variable index to value).
+	 * Only the first such conjunct is kept for each variable.
+	 */
+	private static void findEqualityConjuncts(Expression expr, Map<Integer, Integer> map)
+	{
+		while (expr instanceof ExpressionUnaryOp && ((ExpressionUnaryOp) expr).getOperator() == ExpressionUnaryOp.PARENTH) {
+			expr = ((ExpressionUnaryOp) expr).getOperand();
+		}
+		if (expr instanceof ExpressionBinaryOp) {
+			ExpressionBinaryOp b = (ExpressionBinaryOp) expr;
+			if (b.getOperator() == ExpressionBinaryOp.AND) {
+				findEqualityConjuncts(b.getOperand1(), map);
+				findEqualityConjuncts(b.getOperand2(), map);
+			} else if (b.getOperator() == ExpressionBinaryOp.EQ) {
+				Expression e1 = b.getOperand1(), e2 = b.getOperand2();
+				if (e2 instanceof ExpressionVar) {
+					e1 = b.getOperand2();
+					e2 = b.getOperand1();
+				}
+				if (e1 instanceof ExpressionVar && e1.getType() instanceof TypeInt && e2 instanceof ExpressionLiteral) {
+					int v = ((ExpressionVar) e1).getIndex();
+					Object val = ((ExpressionLiteral) e2).getValue();
+					if (v >= 0 && val instanceof Integer) {
+						map.putIfAbsent(v, (Integer) val);
+					}
+				}
+			}
+		} else if (expr instanceof ExpressionVar && expr.getType() instanceof TypeBool) {
+			int v = ((ExpressionVar) expr).getIndex();
+			if (v >= 0) {
+				map.putIfAbsent(v, 1);
+			}
+		} else if (expr instanceof ExpressionUnaryOp && ((ExpressionUnaryOp) expr).getOperator() == ExpressionUnaryOp.NOT) {
+			Expression op = ((ExpressionUnaryOp) expr).getOperand();
+			if (op instanceof ExpressionVar && op.getType() instanceof TypeBool) {
+				int v = ((ExpressionVar) op).getIndex();
+				if (v >= 0) {
+					map.putIfAbsent(v, 0);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Create a new Choice object (currently ChoiceListFlexi) based on an Updates object
 	 * and a (global) state. Check for negative probabilities/rates and, if appropriate,
@@ -346,13 +574,25 @@ public class Updater extends PrismComponent
 	 */
 	private ChoiceListFlexi processUpdatesAndCreateNewChoice(int moduleOrActionIndex, Updates ups, State state) throws PrismLangException
 	{
-		ChoiceListFlexi ch;
-		List<Update> list;
+		ChoiceListFlexi ch = newChoice();
+		processUpdates(moduleOrActionIndex, ups, state, ch);
+		return ch;
+	}
+
+	/**
+	 * Store in a (cleared) Choice object the transitions for an Updates object and a (global) state.
+	 * Check for negative probabilities/rates and, if appropriate, check probabilities sum to 1 too.
+	 * @param moduleOrActionIndex Module/action for the choice, encoded as an integer (see Choice)
+	 * @param ups The Updates object 
+	 * @param state Global state
+	 * @param ch The (empty) choice to store the transitions in 
+	 */
+	private void processUpdates(int moduleOrActionIndex, Updates ups, State state, ChoiceListFlexi ch) throws PrismLangException
+	{
 		int i, n;
 		double p, sum;
 
-		// Create choice and add all info
-		ch = new ChoiceListFlexi();
+		// Add all info to choice
 		ch.setModuleOrActionIndex(moduleOrActionIndex);
 		n = ups.getNumUpdates();
 		sum = 0;
@@ -371,9 +611,7 @@ public class Updater extends PrismComponent
 			if (p == 0)
 				continue;
 			sum += p;
-			list = new ArrayList<Update>();
-			list.add(ups.getUpdate(i));
-			ch.add(p, list);
+			ch.add(p, ups.getUpdate(i));
 		}
 		// For now, PRISM treats empty (all zero probs/rates) distributions as an error.
 		// Later, when errors in symbolic model construction are improved, this might be relaxed.
@@ -387,7 +625,6 @@ public class Updater extends PrismComponent
 		if (doProbChecks && ch.size() > 0 && modelType.choicesSumToOne() && Math.abs(sum - 1) > sumRoundOff) {
 			throw new PrismLangException("Probabilities sum to " + sum + " in state " + state.toString(modulesFile), ups);
 		}
-		return ch;
 	}
 
 	/**
@@ -401,8 +638,96 @@ public class Updater extends PrismComponent
 	private void processUpdatesAndAddToProduct(Updates ups, State state, ChoiceListFlexi ch) throws PrismLangException
 	{
 		// Create new choice (action index is 0 - not needed)
-		ChoiceListFlexi chNew = processUpdatesAndCreateNewChoice(0, ups, state);
+		productChoice.clear();
+		processUpdates(0, ups, state, productChoice);
 		// Build product with existing
-		ch.productWith(chNew);
+		ch.productWith(productChoice);
+	}
+
+	/**
+	 * Get an empty Choice object from the pool of choices (creating a new one if needed).
+	 * All pooled choices are reused in the next call to {@link #calculateTransitions(State, TransitionList)}.
+	 */
+	private ChoiceListFlexi newChoice()
+	{
+		ChoiceListFlexi ch;
+		if (choicePoolUsed < choicePool.size()) {
+			ch = choicePool.get(choicePoolUsed);
+			ch.clear();
+		} else {
+			ch = new ChoiceListFlexi();
+			choicePool.add(ch);
+		}
+		choicePoolUsed++;
+		return ch;
+	}
+
+	/**
+	 * Copy of an Updates object (for a particular command), with compiled probabilities/rates and updates.
+	 * The underlying expressions are shared with the original.
+	 */
+	private static class CompiledUpdates extends Updates
+	{
+		private CompiledExpression probs[];
+
+		public CompiledUpdates(Updates ups)
+		{
+			int n = ups.getNumUpdates();
+			probs = new CompiledExpression[n];
+			for (int i = 0; i < n; i++) {
+				Expression p = ups.getProbability(i);
+				probs[i] = p == null ? null : CompiledExpression.compile(p);
+				addUpdate(p, new CompiledUpdate(ups.getUpdate(i)));
+			}
+			setParent(ups.getParent());
+			setPosition(ups);
+		}
+
+		@Override
+		public double getProbabilityInState(int i, State state) throws PrismLangException
+		{
+			return (probs[i] == null) ? 1.0 : probs[i].evaluateDouble(state);
+		}
+	}
+
+	/**
+	 * Copy of an Update object, with compiled expressions for the assignments.
+	 * The underlying expressions are shared with the original.
+	 */
+	private static class CompiledUpdate extends Update
+	{
+		private int varIndices[];
+		private CompiledExpression exprs[];
+
+		public CompiledUpdate(Update up)
+		{
+			int n = up.getNumElements();
+			varIndices = new int[n];
+			exprs = new CompiledExpression[n];
+			for (int i = 0; i < n; i++) {
+				addElement(up.getVarIdent(i), up.getExpression(i));
+				setType(i, up.getType(i));
+				setVarIndex(i, up.getVarIndex(i));
+				varIndices[i] = up.getVarIndex(i);
+				exprs[i] = CompiledExpression.compile(up.getExpression(i));
+			}
+			setPosition(up);
+		}
+
+		@Override
+		public State update(State oldState) throws PrismLangException
+		{
+			State res = new State(oldState);
+			update(oldState, res);
+			return res;
+		}
+
+		@Override
+		public void update(State oldState, State newState) throws PrismLangException
+		{
+			for (int i = 0; i < exprs.length; i++) {
+				newState.setValue(varIndices[i], exprs[i].evaluate(oldState));
+			}
+		}
 	}
 }